@@ -12,14 +12,15 @@
  */
 package elide.driver.firestore;
 
+import com.google.api.core.ApiFuture;
 import com.google.api.core.ApiFutures;
 import com.google.api.gax.core.CredentialsProvider;
 import com.google.api.gax.rpc.TransportChannelProvider;
 import com.google.cloud.Timestamp;
 import com.google.cloud.firestore.*;
 import com.google.cloud.grpc.GrpcTransportOptions;
+import com.google.firestore.v1.Value;
 import com.google.common.base.Function;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import com.google.protobuf.FieldMask;
@@ -33,10 +34,9 @@ import elide.transport.GoogleService;
 import io.micronaut.context.annotation.Context;
 import io.micronaut.context.annotation.Factory;
 import io.micronaut.runtime.context.scope.Refreshable;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
-import tools.elide.core.Datamodel;
 import tools.elide.core.DatapointType;
-import tools.elide.core.FieldType;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -45,6 +45,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
@@ -79,6 +80,9 @@ public final class FirestoreDriver<Key extends Message, Model extends Message>
   /** Whether to run operations in a transactional by default. */
   private static final Boolean defaultTransactional = true;
 
+  /** Maximum number of writes Firestore accepts in a single batched commit. */
+  private static final int MAX_BATCH_WRITES = 500;
+
   /** Executor service to use for async calls. */
   private final ListeningScheduledExecutorService executorService;
 
@@ -88,7 +92,11 @@ public final class FirestoreDriver<Key extends Message, Model extends Message>
   /** Firestore client engine. */
   private final Firestore engine;
 
-  /** Deserializes Firestore {@link DocumentSnapshot} instances to {@link Message} instances. */
+  /**
+   * Deserializes Firestore {@link DocumentSnapshot} instances to {@link Message} instances. Document data is decoded via
+   * the {@link ObjectModelDeserializer}'s decode plan for the model type, which is compiled once and shared by every
+   * deserializer for that type, so that per-query deserializers carry no per-document schema lookups.
+   */
   final static class DocumentSnapshotDeserializer<M extends Message> implements ModelDeserializer<DocumentSnapshot, M> {
     /** Encapsulated object deserializer. */
     private final ObjectModelDeserializer<M> objectDeserializer;
@@ -240,40 +248,19 @@ public final class FirestoreDriver<Key extends Message, Model extends Message>
       logging.debug("Creating Firestore ref from key instance '" + keyInstance + "'.");
     enforceRole(keyInstance, DatapointType.OBJECT_KEY);
     var keyDescriptor = keyInstance.getDescriptorForType();
+    var schema = ModelSchema.forDescriptor(keyDescriptor);
 
-    // first: resolve the key's model path
-    String resolvedPath;
-    var explicitPath = modelAnnotation(keyDescriptor, Datamodel.db, false);
-
-    if (explicitPath.isPresent() && !explicitPath.get().getPath().isEmpty()) {
-      resolvedPath = explicitPath.get().getPath();
-      if (logging.isTraceEnabled())
-        logging.trace("Explicit path found for type '"
-            + keyDescriptor.getFullName() + "'. Using '" + resolvedPath + "'.");
-    } else {
-      // `PersonKey` -> `persons`
-      resolvedPath = keyInstance
-          .getDescriptorForType()
-          .getName()
-          .toLowerCase()
-          .replace("key", "")
-          + "s";
-
-      if (logging.isTraceEnabled())
-        logging.trace("No explicit path found for type '"
-            + keyDescriptor.getFullName() + "'. Resolved as '" + resolvedPath + "'.");
-    }
+    // first: resolve the key's model path (explicit, or computed from the type name, e.g. `PersonKey` -> `persons`)
+    String resolvedPath = schema.collectionPath();
+    if (logging.isTraceEnabled())
+      logging.trace("Resolved path for type '" + keyDescriptor.getFullName() + "' as '" + resolvedPath + "'.");
 
     // second: resolve the key's ID
     var resolvedId = id(keyInstance);
     Optional<String> targetId = resolvedId.map(Object::toString);
 
     // third: resolve the model's parent, if applicable
-    var parentField = annotatedField(
-        keyDescriptor,
-        Datamodel.field,
-        false,
-        Optional.of((field) -> field.getType() == FieldType.PARENT));
+    var parentField = schema.parentField();
 
     if (parentField.isPresent()) {
       var parentInstance = pluck(keyInstance, parentField.get());
@@ -445,6 +432,61 @@ public final class FirestoreDriver<Key extends Message, Model extends Message>
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull ReactiveFuture<List<Optional<Model>>> retrieveAll(@Nonnull Iterable<Key> keys,
+                                                                    @Nonnull FetchOptions opts) {
+    Objects.requireNonNull(keys, "Cannot fetch models with `null` for keys.");
+    Objects.requireNonNull(opts, "Cannot fetch models without `options`.");
+    List<DocumentReference> refList = new ArrayList<>();
+    keys.forEach((key) -> {
+      enforceRole(key, DatapointType.OBJECT_KEY);
+      if (id(key).isEmpty()) throw new IllegalArgumentException("Cannot fetch model with empty key.");
+      refList.add(ref(key));
+    });
+    if (refList.isEmpty()) return ReactiveFuture.done(Collections.emptyList());
+
+    ExecutorService exec = opts.executorService().orElseGet(this::executorService);
+    DocumentReference[] refs = refList.toArray(new DocumentReference[0]);
+    FieldMask mask = opts.fieldMask().orElse(null);
+    var that = this;
+
+    // snapshots are returned by Firestore in the same order as the provided references.
+    Function<List<DocumentSnapshot>, List<Optional<Model>>> inflate = (documentSnapshots) -> {
+      List<Optional<Model>> results = new ArrayList<>(refs.length);
+      for (int i = 0; i < refs.length; i++) {
+        DocumentSnapshot snapshot = documentSnapshots != null && i < documentSnapshots.size() ?
+            documentSnapshots.get(i) : null;
+        if (snapshot != null && snapshot.exists()) {
+          results.add(Optional.of(that.enforceMask(deserialize(snapshot), opts.fieldMask())));
+        } else {
+          results.add(Optional.empty());
+        }
+      }
+      return results;
+    };
+
+    if (opts.transactional().orElse(defaultTransactional)) {
+      return ReactiveFuture.wrap(Futures.transform(ReactiveFuture.wrap(engine.runAsyncTransaction((txn) ->
+          txn.getAll(refs, mask != null ? this.convertMask(mask) : null),
+          TransactionOptions.createReadOnlyOptionsBuilder()
+              .setExecutor(exec)
+              .setReadTime(opts.snapshot()
+                  .map((secs) -> com.google.protobuf.Timestamp.newBuilder()
+                    .setSeconds(secs))
+                  .orElse(null))
+              .build())), inflate, exec));
+
+    } else {
+      return ReactiveFuture.wrap(Futures.transform(ReactiveFuture.wrap(
+          engine.getAll(
+              refs,
+              mask != null ? this.convertMask(mask) : null
+          ),
+          exec), inflate, exec), exec);
+    }
+  }
+
   // -- API: Persist -- //
 
   /** {@inheritDoc} */
@@ -464,27 +506,7 @@ public final class FirestoreDriver<Key extends Message, Model extends Message>
       var that = this;
 
       return ReactiveFuture.wrap(engine.runTransaction(transaction -> {
-        serialized.persist(options.writePrefix().orElse(null), new WriteProxy<DocumentReference>() {
-          @Override
-          public @Nonnull DocumentReference ref(@Nonnull String path, @Nullable String prefix) {
-            return that.ref(path, prefix);
-          }
-
-          @Override
-          public void put(@Nonnull DocumentReference key, @Nonnull SerializedModel message) {
-            transaction.set(key, ImmutableMap.copyOf(message.getData()));
-          }
-
-          @Override
-          public void create(@Nonnull DocumentReference key, @Nonnull SerializedModel message) {
-            transaction.create(key, ImmutableMap.copyOf(message.getData()));
-          }
-
-          @Override
-          public void update(@Nonnull DocumentReference key, @Nonnull SerializedModel message) {
-            transaction.update(key, ImmutableMap.copyOf(message.getData()));
-          }
-        });
+        serialized.persist(options.writePrefix().orElse(null), that.writeProxy(() -> transaction));
         return model;
       }, TransactionOptions.createReadWriteOptionsBuilder()
           .setExecutor(exec)
@@ -496,6 +518,185 @@ public final class FirestoreDriver<Key extends Message, Model extends Message>
     }
   }
 
+  /**
+   * Build a {@link WriteProxy} which applies collapsed model writes to a Firestore {@link UpdateBuilder} (i.e. a
+   * {@link com.google.cloud.firestore.Transaction} or a {@link WriteBatch}), resolved from {@code target} at the time
+   * of each write. Serialized models are handed to Firestore as read-only views, rather than copies: Firestore encodes
+   * them as each write is staged.
+   *
+   * @param target Supplies the update builder which should receive each write.
+   * @return Write proxy bound to the provided target.
+   */
+  private @Nonnull WriteProxy<DocumentReference> writeProxy(@Nonnull Supplier<UpdateBuilder<?>> target) {
+    var that = this;
+    return new WriteProxy<>() {
+      @Override
+      public @Nonnull DocumentReference ref(@Nonnull String path, @Nullable String prefix) {
+        return that.ref(path, prefix);
+      }
+
+      @Override
+      public void put(@Nonnull DocumentReference key, @Nonnull SerializedModel message) {
+        target.get().set(key, Collections.unmodifiableMap(message));
+      }
+
+      @Override
+      public void create(@Nonnull DocumentReference key, @Nonnull SerializedModel message) {
+        target.get().create(key, Collections.unmodifiableMap(message));
+      }
+
+      @Override
+      public void update(@Nonnull DocumentReference key, @Nonnull SerializedModel message) {
+        target.get().update(key, Collections.unmodifiableMap(message));
+      }
+    };
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull ReactiveFuture<List<Model>> persistAll(@Nonnull Map<Key, Model> models,
+                                                         @Nonnull WriteOptions options) {
+    Objects.requireNonNull(models, "Cannot write `null` batch of models.");
+    Objects.requireNonNull(options, "Cannot write models without `options`.");
+    if (models.isEmpty()) return ReactiveFuture.done(Collections.emptyList());
+    ExecutorService exec = options.executorService().orElseGet(this::executorService);
+
+    // collapse each model into one or more writes, rolling over to a new batch whenever the current one is full. each
+    // collapsed write keeps its own disposition, so `create` and `update` preconditions apply per-document.
+    final List<WriteBatch> batches = new ArrayList<>();
+    final int[] batchSize = {MAX_BATCH_WRITES};
+    final WriteProxy<DocumentReference> proxy = writeProxy(() -> {
+      if (batchSize[0] >= MAX_BATCH_WRITES) {
+        batches.add(engine.batch());
+        batchSize[0] = 0;
+      }
+      batchSize[0]++;
+      return batches.get(batches.size() - 1);
+    });
+
+    final List<Model> written = new ArrayList<>(models.size());
+    try {
+      for (Map.Entry<Key, Model> entry : models.entrySet()) {
+        Objects.requireNonNull(entry.getKey(), "Cannot write model in batch with `null` key.");
+        enforceRole(entry.getKey(), DatapointType.OBJECT_KEY);
+        codec.serialize(entry.getValue()).persist(options.writePrefix().orElse(null), proxy);
+        written.add(entry.getValue());
+      }
+    } catch (IOException ioe) {
+      throw new IllegalStateException(ioe);
+    }
+
+    if (logging.isDebugEnabled())
+      logging.debug(String.format("Committing %s models to Firestore in %s batch(es).", written.size(), batches.size()));
+
+    List<ApiFuture<List<WriteResult>>> commits = new ArrayList<>(batches.size());
+    batches.forEach((batch) -> commits.add(batch.commit()));
+    return ReactiveFuture.wrap(Futures.transform(
+        ReactiveFuture.wrap(ApiFutures.allAsList(commits), exec),
+        (results) -> written,
+        exec), exec);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Patches are issued as a Firestore {@code update}, with an explicit field path for each path touched by
+   * {@code mask}. Nested paths are written as nested field paths, so sibling fields in the same map are preserved.
+   * Masked fields which serialize to nothing (i.e. default values) are deleted from the document. Only the model's own
+   * document is written: sub-collection records are left untouched.</p>
+   */
+  @Override
+  public @Nonnull ReactiveFuture<Model> patch(@Nonnull Key key,
+                                              @Nonnull Model model,
+                                              @Nonnull FieldMask mask,
+                                              @Nonnull WriteOptions options) {
+    Objects.requireNonNull(key, "Cannot patch model with `null` key.");
+    Objects.requireNonNull(model, "Cannot patch model which is, itself, `null`.");
+    Objects.requireNonNull(options, "Cannot patch model without `options`.");
+    enforceRole(key, DatapointType.OBJECT_KEY);
+    if (id(key).isEmpty()) throw new IllegalArgumentException("Cannot patch model with empty key.");
+    ExecutorService exec = options.executorService().orElseGet(this::executorService);
+    final Model keyed = spliceKey(model, Optional.of(key));
+
+    // collapse the model, keeping only the root document write, and select the masked fields from it
+    final DocumentReference[] target = {null};
+    final SerializedModel[] root = {null};
+    var that = this;
+    try {
+      codec.serialize(keyed).persist(options.writePrefix().orElse(null), new WriteProxy<DocumentReference>() {
+        @Override
+        public @Nonnull DocumentReference ref(@Nonnull String path, @Nullable String prefix) {
+          return that.ref(path, prefix);
+        }
+
+        @Override
+        public void put(@Nonnull DocumentReference key, @Nonnull SerializedModel message) {
+          capture(key, message);
+        }
+
+        @Override
+        public void create(@Nonnull DocumentReference key, @Nonnull SerializedModel message) {
+          capture(key, message);
+        }
+
+        @Override
+        public void update(@Nonnull DocumentReference key, @Nonnull SerializedModel message) {
+          capture(key, message);
+        }
+
+        private void capture(@Nonnull DocumentReference key, @Nonnull SerializedModel message) {
+          if (target[0] == null) {
+            target[0] = key;
+            root[0] = message;
+          }
+        }
+      });
+    } catch (IOException ioe) {
+      throw new IllegalStateException(ioe);
+    }
+
+    final SerializedModel data = Objects.requireNonNull(root[0], "Collapsed model should include its own document.");
+    Iterator<String> fields = patchedFields(model.getDescriptorForType(), mask).iterator();
+    String[] first = fields.next().split("\\.");
+    List<Object> moreFieldsAndValues = new ArrayList<>();
+    while (fields.hasNext()) {
+      String[] field = fields.next().split("\\.");
+      moreFieldsAndValues.add(FieldPath.of(field));
+      moreFieldsAndValues.add(valueAt(data, field));
+    }
+
+    if (logging.isDebugEnabled())
+      logging.debug(String.format("Patching %s field(s) of Firestore document '%s'.",
+        moreFieldsAndValues.size() / 2 + 1, target[0].getPath()));
+
+    return ReactiveFuture.wrap(engine.runTransaction(transaction -> {
+      transaction.update(
+        target[0],
+        FieldPath.of(first),
+        valueAt(data, first),
+        moreFieldsAndValues.toArray());
+      return keyed;
+    }, TransactionOptions.createReadWriteOptionsBuilder()
+        .setExecutor(exec)
+        .setNumberOfAttempts(options.retries().orElse(2))
+        .build()));
+  }
+
+  /**
+   * Resolve the value to write for a (possibly nested) field path in a patch, by walking the collapsed document's map
+   * values one segment at a time. Paths which resolve to nothing are deleted from the document.
+   *
+   * @param data Collapsed document data for the model being patched.
+   * @param path Segments of the field path to resolve.
+   * @return Value at the path, or a delete sentinel if there is none.
+   */
+  private static @Nonnull Object valueAt(@Nonnull SerializedModel data, @Nonnull String[] path) {
+    Value value = data.get(path[0]);
+    for (int i = 1; value != null && i < path.length; i++)
+      value = value.hasMapValue() ? value.getMapValue().getFieldsMap().get(path[i]) : null;
+    return value != null ? value : FieldValue.delete();
+  }
+
   // -- API: Delete -- //
 
   /** {@inheritDoc} */
@@ -578,14 +779,12 @@ public final class FirestoreDriver<Key extends Message, Model extends Message>
     // grab ID field path so we can select it
     var idFieldPath = idField.get().getPath();
     var baseQuery = query.select(idFieldPath);
+    if (opts.limit().isPresent()) {
+      baseQuery = baseQuery.limit(opts.limit().get());
+    }
 
     // check for a parent property, so that we make sure we return fully-formed keys.
-    var parentFieldGet = annotatedField(
-          targetDescriptor,
-          Datamodel.field,
-          false,
-          Optional.of((field) -> field.getType() == FieldType.PARENT)
-    );
+    var parentFieldGet = ModelSchema.forDescriptor(targetDescriptor).parentField();
     if (parentFieldGet.isPresent()) {
       baseQuery = baseQuery.select(parentFieldGet.get().getPath());
     }
@@ -622,27 +821,14 @@ public final class FirestoreDriver<Key extends Message, Model extends Message>
   public @Nonnull ReactiveFuture<Stream<Model>> queryAsync(@Nonnull Query query, @Nullable QueryOptions options) {
     Objects.requireNonNull(query, "Cannot execute `null` query.");
     var opts = options != null ? options : QueryOptions.DEFAULTS;
-    var mask = opts.fieldMask();
-    var maskMode = opts.fieldMaskMode();
     ExecutorService exec = opts.executorService().orElseGet(this::executorService);
     var baseOptions = TransactionOptions.createReadOnlyOptionsBuilder()
             .setExecutor(exec);
 
-    // build in support for object mask
-    var baseQuery = query;
-    if (mask.isPresent()) {
-      switch (maskMode) {
-        case PROJECTION:
-        case INCLUDE:
-          var paths = mask.get().getPathsList();
-          String[] pathsList = new String[paths.size()];
-          paths.toArray(pathsList);
-          baseQuery = baseQuery.select(pathsList);
-          break;
-        case EXCLUDE:
-          // in `EXCLUDE` mode, we enforce post-hoc.
-          break;
-      }
+    // build in support for object mask, and result limits
+    var baseQuery = applyMask(query, opts);
+    if (opts.limit().isPresent()) {
+      baseQuery = baseQuery.limit(opts.limit().get());
     }
 
     // apply read-time snapshot, if specified
@@ -670,6 +856,165 @@ public final class FirestoreDriver<Key extends Message, Model extends Message>
       }, exec), baseOptions.build()));
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Firestore cursors address the last document of the prior page. The page is resumed via {@code startAfter} that
+   * document, which is read in the same read-only transaction as the page itself, so that any ordering applied to the
+   * query is respected. If the document has since been deleted, the cursor can no longer be resumed.</p>
+   */
+  @Override
+  public @Nonnull ReactiveFuture<QueryPage<Model>> queryPage(@Nonnull Query query, @Nullable QueryOptions options) {
+    Objects.requireNonNull(query, "Cannot execute `null` query.");
+    var opts = options != null ? options : QueryOptions.DEFAULTS;
+    ExecutorService exec = opts.executorService().orElseGet(this::executorService);
+    var baseOptions = TransactionOptions.createReadOnlyOptionsBuilder()
+            .setExecutor(exec);
+
+    // apply read-time snapshot, if specified
+    if (opts.snapshot().isPresent()) {
+      var snap = opts.snapshot().get();
+      baseOptions.setReadTime(com.google.protobuf.Timestamp.newBuilder()
+              .setSeconds(snap)
+              .build());
+    }
+
+    // fetch one extra document, to find out whether another page follows this one.
+    final int pageSize = Math.max(1, opts.limit().map((limit) -> Math.min(limit, opts.queryPageSize()))
+      .orElse(opts.queryPageSize()));
+    final var masked = applyMask(query, opts);
+    final var cursor = opts.cursor().map(FirestoreDriver::decodeCursor);
+    return ReactiveFuture.wrap(engine.runAsyncTransaction(transaction -> {
+      ApiFuture<Query> anchored = resumeAfter(transaction, masked, cursor, exec);
+      return ApiFutures.transformAsync(anchored, (pageQuery) ->
+        ApiFutures.transform(transaction.get(pageQuery.limit(pageSize + 1)), (querySnapshot) -> {
+          var documents = querySnapshot.getDocuments();
+          var more = documents.size() > pageSize;
+          var pageDocuments = more ? documents.subList(0, pageSize) : documents;
+          List<Model> results = new ArrayList<>(pageDocuments.size());
+          pageDocuments.forEach((document) -> results.add(this.deserialize(document)));
+          return QueryPage.of(results, more ?
+            Optional.of(encodeCursor(pageDocuments.get(pageSize - 1))) : Optional.empty());
+        }, exec), exec);
+    }, baseOptions.build()), exec);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Firestore results are fetched one page at a time, with each page picking up after the last document of the page
+   * before it. Each page is read in its own read-only transaction, so a snapshot should be specified (via
+   * {@link QueryOptions#snapshot()}) if a consistent view across pages is needed. If a cursor is given, the first page
+   * picks up after the document it addresses, as with {@link #queryPage(Query, QueryOptions)}; if a limit is given, the
+   * final page is clamped, and the stream completes once the limit is reached.</p>
+   */
+  @Override
+  public @Nonnull Publisher<Model> queryStream(@Nonnull Query query, @Nullable QueryOptions options) {
+    Objects.requireNonNull(query, "Cannot execute `null` query.");
+    var opts = options != null ? options : QueryOptions.DEFAULTS;
+    ExecutorService exec = opts.executorService().orElseGet(this::executorService);
+    var baseOptions = TransactionOptions.createReadOnlyOptionsBuilder()
+            .setExecutor(exec);
+
+    // apply read-time snapshot, if specified
+    if (opts.snapshot().isPresent()) {
+      var snap = opts.snapshot().get();
+      baseOptions.setReadTime(com.google.protobuf.Timestamp.newBuilder()
+              .setSeconds(snap)
+              .build());
+    }
+
+    final var finalized = applyMask(query, opts);
+    final var cursor = opts.cursor().map(FirestoreDriver::decodeCursor);
+    final var transactionOptions = baseOptions.build();
+    return QueryPublisher.<DocumentSnapshot, Model>create((after, pageSize) ->
+      ReactiveFuture.wrap(engine.runAsyncTransaction(transaction -> {
+        ApiFuture<Query> anchored = after != null ?
+          ApiFutures.immediateFuture(finalized.startAfter(after)) :
+          resumeAfter(transaction, finalized, cursor, exec);
+        return ApiFutures.transformAsync(anchored, (pageQuery) ->
+          ApiFutures.transform(
+            transaction.get(pageQuery.limit(pageSize)),
+            (querySnapshot) -> new ArrayList<DocumentSnapshot>(querySnapshot.getDocuments()),
+            exec), exec);
+      }, transactionOptions), exec),
+      this::deserialize, opts.queryPageSize(), opts.limit().orElse(Integer.MAX_VALUE), exec);
+  }
+
+  /**
+   * Resume {@code query} after the document addressed by {@code cursor}, if any. The document is read within
+   * {@code transaction}, so that it is consistent with the page read after it.
+   *
+   * @param transaction Transaction in which to read the cursor document.
+   * @param query Query to resume.
+   * @param cursor Decoded cursor (see {@link #decodeCursor(String)}), or empty to start from the first result.
+   * @param exec Executor on which to apply the cursor.
+   * @return Future which resolves to the resumed query.
+   * @throws IllegalArgumentException Via the future, if the cursor document no longer exists.
+   */
+  private @Nonnull ApiFuture<Query> resumeAfter(@Nonnull com.google.cloud.firestore.Transaction transaction,
+                                                @Nonnull Query query,
+                                                @Nonnull Optional<String> cursor,
+                                                @Nonnull ExecutorService exec) {
+    if (cursor.isEmpty()) return ApiFutures.immediateFuture(query);
+    return ApiFutures.transform(
+      transaction.get(engine.document(cursor.get())),
+      (anchor) -> {
+        if (!anchor.exists())
+          throw new IllegalArgumentException("Query cursor refers to a document which no longer exists.");
+        return query.startAfter(anchor);
+      },
+      exec);
+  }
+
+  /**
+   * Encode an opaque query cursor, which resumes a paged query after {@code document}.
+   *
+   * @param document Last document of a page of query results.
+   * @return Opaque cursor addressing the document.
+   */
+  private static @Nonnull String encodeCursor(@Nonnull DocumentSnapshot document) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(
+      document.getReference().getPath().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decode an opaque query cursor, produced by {@link #encodeCursor(DocumentSnapshot)}, into a document path.
+   *
+   * @param cursor Opaque cursor to decode.
+   * @return Path of the document addressed by the cursor.
+   * @throws IllegalArgumentException If the cursor is malformed.
+   */
+  private static @Nonnull String decodeCursor(@Nonnull String cursor) {
+    return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Apply any field mask specified in {@code options} to {@code query}, as a projection. Masks in {@code EXCLUDE} mode
+   * cannot be expressed as a projection, and are enforced post-hoc instead.
+   *
+   * @param query Query to apply the field mask to.
+   * @param options Options specifying the field mask, if any.
+   * @return Query, with the field mask applied.
+   */
+  private static @Nonnull Query applyMask(@Nonnull Query query, @Nonnull QueryOptions options) {
+    var mask = options.fieldMask();
+    if (mask.isPresent()) {
+      switch (options.fieldMaskMode()) {
+        case PROJECTION:
+        case INCLUDE:
+          var paths = mask.get().getPathsList();
+          String[] pathsList = new String[paths.size()];
+          paths.toArray(pathsList);
+          return query.select(pathsList);
+        case EXCLUDE:
+          // in `EXCLUDE` mode, we enforce post-hoc.
+          break;
+      }
+    }
+    return query;
+  }
+
   /** {@inheritDoc} */
   @Override
   public @Nonnull Stream<Model> query(@Nonnull Query query, @Nullable QueryOptions options)
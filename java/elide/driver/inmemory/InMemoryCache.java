@@ -21,6 +21,9 @@ import elide.runtime.jvm.ReactiveFuture;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -45,6 +48,9 @@ public final class InMemoryCache<K extends Message, M extends Message> implement
         /** Internal backing cache storage. */
         private final @Nonnull Cache<String, Message> inMemoryCache;
 
+        /** Negative entries: records known to be absent, mapped to the deadline (in nanos) of each entry. */
+        private final @Nonnull Cache<String, Long> absentCache;
+
         /** Initialize in-memory caching from scratch. */
         private InMemoryCaching() {
             inMemoryCache = CacheBuilder.newBuilder()
@@ -54,6 +60,11 @@ public final class InMemoryCache<K extends Message, M extends Message> implement
                 .weakKeys()
                 .recordStats()
                 .build();
+            absentCache = CacheBuilder.newBuilder()
+                .concurrencyLevel(2)
+                .maximumSize(500)
+                .expireAfterWrite(1, TimeUnit.HOURS)
+                .build();
         }
 
         /**
@@ -65,6 +76,11 @@ public final class InMemoryCache<K extends Message, M extends Message> implement
         @Nonnull Cache<String, Message> acquire() {
             return inMemoryCache;
         }
+
+        /** @return In-memory static cache of negative entries. */
+        @Nonnull Cache<String, Long> absent() {
+            return absentCache;
+        }
     }
 
     /**
@@ -105,6 +121,56 @@ public final class InMemoryCache<K extends Message, M extends Message> implement
         }), executor);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull ReactiveFuture<List<Optional<M>>> fetchAll(@Nonnull Iterable<K> keys,
+                                                               @Nonnull FetchOptions options,
+                                                               @Nonnull ListeningScheduledExecutorService executor) {
+        final List<String> ids = new ArrayList<>();
+        keys.forEach((key) -> ids.add(
+                ModelMetadata.<String>id(key).orElseThrow(() -> new IllegalArgumentException("Cannot fetch empty key."))));
+
+        return ReactiveFuture.wrap(options.executorService().orElse(executor).submit(() -> {
+            Map<String, Message> cached = CACHE.acquire().getAllPresent(ids);
+            List<Optional<M>> results = new ArrayList<>(ids.size());
+
+            //noinspection unchecked
+            ids.forEach((id) -> results.add(Optional.ofNullable((M)cached.get(id))));
+            return results;
+        }), executor);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull ReactiveFuture<Boolean> checkAbsent(@Nonnull K key,
+                                                        @Nonnull ListeningScheduledExecutorService executor) {
+        final String id = (
+                ModelMetadata.<String>id(key).orElseThrow(() -> new IllegalArgumentException("Cannot check empty key.")));
+        Long deadline = CACHE.absent().getIfPresent(id);
+        return ReactiveFuture.done(deadline != null && System.nanoTime() - deadline < 0);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull ReactiveFuture markAbsent(@Nonnull K key,
+                                              long ttl,
+                                              @Nonnull TimeUnit unit,
+                                              @Nonnull ListeningScheduledExecutorService executor) {
+        final String id = (
+                ModelMetadata.<String>id(key).orElseThrow(() -> new IllegalArgumentException("Cannot mark empty key.")));
+        CACHE.absent().put(id, System.nanoTime() + unit.toNanos(ttl));
+        return ReactiveFuture.done(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull ReactiveFuture clearAbsent(@Nonnull K key, @Nonnull ListeningScheduledExecutorService executor) {
+        final String id = (
+                ModelMetadata.<String>id(key).orElseThrow(() -> new IllegalArgumentException("Cannot clear empty key.")));
+        CACHE.absent().invalidate(id);
+        return ReactiveFuture.done(key);
+    }
+
     /** {@inheritDoc} */
     @Override
     public @Nonnull ReactiveFuture evict(@Nonnull K key, @Nonnull ListeningScheduledExecutorService executor) {
@@ -120,6 +186,7 @@ public final class InMemoryCache<K extends Message, M extends Message> implement
         return ReactiveFuture.wrap(executor.submit(() -> {
             CACHE.acquire().invalidateAll();
             CACHE.acquire().cleanUp();
+            CACHE.absent().invalidateAll();
         }), executor);
     }
 }
@@ -14,6 +14,7 @@ package elide.driver.inmemory;
 
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.google.protobuf.FieldMask;
 import com.google.protobuf.Message;
 import elide.model.*;
 import elide.runtime.jvm.Logging;
@@ -24,6 +25,10 @@ import tools.elide.core.DatapointType;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentMap;
@@ -152,7 +157,7 @@ public final class InMemoryDriver<Key extends Message, Model extends Message> im
                     logging.info(format("Retrieved record at ID '%s' from in-memory storage.", id));
 
                 // we found encoded data at the provided key. inflate it with the codec.
-                return Optional.of(spliceKey(applyMask(deserialized, options), Optional.of(key)));
+                return Optional.of(applyMask(deserialized, key, options));
             } else {
                 if (logging.isWarnEnabled())
                     logging.warn(format("Model not found at ID '%s'.", id));
@@ -163,6 +168,42 @@ public final class InMemoryDriver<Key extends Message, Model extends Message> im
         }), options.executorService().orElse(this.executorService));
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull ReactiveFuture<List<Optional<Model>>> retrieveAll(final @Nonnull Iterable<Key> keys,
+                                                                      final @Nonnull FetchOptions options) {
+        Objects.requireNonNull(keys, "Cannot fetch models with `null` for keys.");
+        Objects.requireNonNull(options, "Cannot fetch models without `options`.");
+        final List<Key> targetKeys = new ArrayList<>();
+        final List<Object> targetIds = new ArrayList<>();
+        keys.forEach((key) -> {
+            enforceRole(key, DatapointType.OBJECT_KEY);
+            targetKeys.add(key);
+            targetIds.add(id(key).orElseThrow(() -> new IllegalArgumentException("Cannot fetch model with empty key.")));
+        });
+
+        if (logging.isDebugEnabled())
+            logging.debug(format("Retrieving batch of %s models from in-memory storage.", targetIds.size()));
+
+        return ReactiveFuture.wrap(this.executorService.submit(() -> {
+            final ConcurrentMap<Object, EncodedModel> storage = InMemoryStorage.acquire();
+            final List<Optional<Model>> results = new ArrayList<>(targetIds.size());
+            for (int i = 0; i < targetIds.size(); i++) {
+                EncodedModel data = storage.get(targetIds.get(i));
+                if (data != null) {
+                    // we found encoded data at the provided key. inflate it with the codec.
+                    var deserialized = this.codec.deserialize(data);
+                    results.add(Optional.of(applyMask(deserialized, targetKeys.get(i), options)));
+                } else {
+                    results.add(Optional.empty());
+                }
+            }
+            if (logging.isInfoEnabled())
+                logging.info(format("Retrieved batch of %s records from in-memory storage.", results.size()));
+            return results;
+        }), options.executorService().orElse(this.executorService));
+    }
+
     // -- API: Persist -- //
     /** {@inheritDoc} */
     @Override
@@ -230,6 +271,103 @@ public final class InMemoryDriver<Key extends Message, Model extends Message> im
         }), options.executorService().orElse(this.executorService));
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull ReactiveFuture<List<Model>> persistAll(final @Nonnull Map<Key, Model> models,
+                                                           final @Nonnull WriteOptions options) {
+        Objects.requireNonNull(models, "Cannot persist `null` batch of models.");
+        Objects.requireNonNull(options, "Cannot persist models without `options`.");
+        final List<Key> targetKeys = new ArrayList<>(models.size());
+        final List<Model> targetModels = new ArrayList<>(models.size());
+        models.forEach((key, model) -> {
+            Objects.requireNonNull(key, "Cannot persist model in batch with `null` key.");
+            Objects.requireNonNull(model, "Cannot persist `null` model.");
+            enforceRole(key, DatapointType.OBJECT_KEY);
+            targetKeys.add(key);
+            targetModels.add(model);
+        });
+
+        if (logging.isDebugEnabled())
+            logging.debug(format("Persisting batch of %s models using in-memory storage.", targetKeys.size()));
+
+        return ReactiveFuture.wrap(this.executorService.submit(() -> {
+            final ConcurrentMap<Object, EncodedModel> storage = InMemoryStorage.acquire();
+            final WriteOptions.WriteDisposition writeMode = options.writeMode()
+                    .orElse(WriteOptions.WriteDisposition.BLIND);
+
+            // serialize everything and enforce write mode for each record before writing anything
+            final Map<Object, EncodedModel> encoded = new LinkedHashMap<>(targetKeys.size());
+            for (int i = 0; i < targetKeys.size(); i++) {
+                //noinspection OptionalGetWithoutIsPresent
+                final Object targetId = id(targetKeys.get(i)).get();
+                boolean conflictFailure = false;
+                switch (writeMode) {
+                    case MUST_NOT_EXIST: conflictFailure = storage.containsKey(targetId); break;
+                    case MUST_EXIST: conflictFailure = !storage.containsKey(targetId); break;
+                    case BLIND: break;
+                }
+                if (conflictFailure) {
+                    logging.error(format("Encountered conflict failure: key collision at ID '%s'.", targetId));
+                    throw new ModelWriteConflict(targetId, targetModels.get(i), writeMode);
+                }
+                encoded.put(targetId, codec.serialize(targetModels.get(i)));
+            }
+
+            // if we make it this far, we're ready to write. put everything at once.
+            storage.putAll(encoded);
+
+            final List<Model> written = new ArrayList<>(targetKeys.size());
+            for (int i = 0; i < targetKeys.size(); i++) {
+                written.add(ModelMetadata.<Model, Key>spliceKey(targetModels.get(i), Optional.of(targetKeys.get(i))));
+            }
+            if (logging.isInfoEnabled())
+                logging.info(format("Wrote batch of %s records to in-memory storage.", written.size()));
+            return written;
+
+        }), options.executorService().orElse(this.executorService));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The patch is merged into the stored record, and swapped in only if the record has not changed in the meantime,
+     * retrying against the latest record otherwise.</p>
+     */
+    @Override
+    public @Nonnull ReactiveFuture<Model> patch(final @Nonnull Key key,
+                                                final @Nonnull Model model,
+                                                final @Nonnull FieldMask mask,
+                                                final @Nonnull WriteOptions options) {
+        Objects.requireNonNull(key, "Cannot patch model with `null` key.");
+        Objects.requireNonNull(model, "Cannot patch `null` model.");
+        Objects.requireNonNull(mask, "Cannot patch model without `mask`.");
+        enforceRole(key, DatapointType.OBJECT_KEY);
+        final @Nonnull Object targetId = id(key)
+                .orElseThrow(() -> new IllegalArgumentException("Cannot patch model with empty key."));
+
+        if (logging.isDebugEnabled())
+            logging.debug(format("Patching model at ID '%s' in in-memory storage.", targetId));
+
+        return ReactiveFuture.wrap(this.executorService.submit(() -> {
+            final ConcurrentMap<Object, EncodedModel> storage = InMemoryStorage.acquire();
+            while (true) {
+                EncodedModel current = storage.get(targetId);
+                if (current == null) {
+                    logging.error(format("Encountered conflict failure: no record to patch at ID '%s'.", targetId));
+                    throw new ModelWriteConflict(targetId, model, WriteOptions.WriteDisposition.MUST_EXIST);
+                }
+                Model merged = mergePatch(codec.deserialize(current), model, mask);
+                if (storage.replace(targetId, current, codec.serialize(merged))) {
+                    if (logging.isInfoEnabled())
+                        logging.info(format("Patched record in in-memory storage at ID '%s'.", targetId));
+                    return ModelMetadata.<Model, Key>spliceKey(merged, Optional.of(key));
+                }
+                if (logging.isTraceEnabled())
+                    logging.trace(format("Record at ID '%s' changed during patch. Retrying.", targetId));
+            }
+        }), options.executorService().orElse(this.executorService));
+    }
+
     // -- API: Delete -- //
     /** {@inheritDoc} */
     @Override
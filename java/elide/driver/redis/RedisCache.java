@@ -16,11 +16,17 @@ import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import com.google.protobuf.Message;
 import elide.model.*;
 import elide.runtime.jvm.ReactiveFuture;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.SetArgs;
 import io.lettuce.core.api.StatefulRedisConnection;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static elide.driver.redis.RedisInternals.*;
 import static elide.model.ModelMetadata.*;
@@ -80,10 +86,11 @@ public final class RedisCache<K extends Message, M extends Message> implements C
                                        @Nonnull ListeningScheduledExecutorService executor) {
         final Object id = (id(key)
             .orElseThrow(() -> new IllegalArgumentException("Cannot add to cache with empty key.")));
-        return ReactiveFuture.wrap(executor.submit(() -> redis.sync().set(
-            encodeCacheKey(id),
-            EncodedModel.from(model)
-        ), executor));
+        return ReactiveFuture.wrap(executor.submit(() -> {
+            EncodedModel encoded = EncodedModel.from(model);
+            PersistenceMetrics.recordSize(encoded.getType(), PersistenceMetrics.Operation.CACHE_PUT, encoded.size());
+            return redis.sync().set(encodeCacheKey(id), encoded);
+        }), executor);
     }
 
     /** {@inheritDoc} */
@@ -94,12 +101,69 @@ public final class RedisCache<K extends Message, M extends Message> implements C
         final Object id = (id(key).orElseThrow(() -> new IllegalArgumentException("Cannot fetch empty key.")));
         return ReactiveFuture.wrap(options.executorService().orElse(executor).submit(() -> {
             EncodedModel cached = redis.sync().get(encodeCacheKey(id));
-            return cached == null ? Optional.empty() : Optional.of(
-                cached.inflate(defaultInstance)
-            );
+            if (cached == null) return Optional.empty();
+            PersistenceMetrics.recordSize(cached.getType(), PersistenceMetrics.Operation.CACHE_FETCH, cached.size());
+            return Optional.of(cached.inflate(defaultInstance));
+        }), executor);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull ReactiveFuture<List<Optional<M>>> fetchAll(@Nonnull Iterable<K> keys,
+                                                               @Nonnull FetchOptions options,
+                                                               @Nonnull ListeningScheduledExecutorService executor) {
+        final List<String> cacheKeys = new ArrayList<>();
+        keys.forEach((key) -> cacheKeys.add(encodeCacheKey(
+            id(key).orElseThrow(() -> new IllegalArgumentException("Cannot fetch empty key.")))));
+        if (cacheKeys.isEmpty()) return ReactiveFuture.done(Collections.emptyList());
+
+        return ReactiveFuture.wrap(options.executorService().orElse(executor).submit(() -> {
+            List<Optional<M>> results = new ArrayList<>(cacheKeys.size());
+            for (KeyValue<String, EncodedModel> cached : redis.sync().mget(cacheKeys.toArray(new String[0]))) {
+                if (!cached.hasValue()) {
+                    results.add(Optional.empty());
+                    continue;
+                }
+                EncodedModel encoded = cached.getValue();
+                PersistenceMetrics.recordSize(
+                    encoded.getType(), PersistenceMetrics.Operation.CACHE_FETCH, encoded.size());
+                results.add(Optional.of(encoded.inflate(defaultInstance)));
+            }
+            return results;
         }), executor);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull ReactiveFuture<Boolean> checkAbsent(@Nonnull K key,
+                                                        @Nonnull ListeningScheduledExecutorService executor) {
+        final Object id = (id(key).orElseThrow(() -> new IllegalArgumentException("Cannot check empty key.")));
+        return ReactiveFuture.wrap(executor.submit(() ->
+            redis.sync().exists(encodeAbsentKey(id)) > 0
+        ), executor);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull ReactiveFuture markAbsent(@Nonnull K key,
+                                              long ttl,
+                                              @Nonnull TimeUnit unit,
+                                              @Nonnull ListeningScheduledExecutorService executor) {
+        final Object id = (id(key).orElseThrow(() -> new IllegalArgumentException("Cannot mark empty key.")));
+        return ReactiveFuture.wrap(executor.submit(() -> redis.sync().set(
+            encodeAbsentKey(id),
+            EncodedModel.from(key),
+            SetArgs.Builder.px(Math.max(1, unit.toMillis(ttl)))
+        )), executor);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull ReactiveFuture clearAbsent(@Nonnull K key, @Nonnull ListeningScheduledExecutorService executor) {
+        final Object id = (id(key).orElseThrow(() -> new IllegalArgumentException("Cannot clear empty key.")));
+        return ReactiveFuture.wrap(executor.submit(() -> redis.sync().del(encodeAbsentKey(id))), executor);
+    }
+
     /** {@inheritDoc} */
     @Override
     public @Nonnull ReactiveFuture evict(@Nonnull K key, @Nonnull ListeningScheduledExecutorService executor) {
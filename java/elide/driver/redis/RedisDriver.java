@@ -17,6 +17,8 @@ import com.google.protobuf.Message;
 import elide.model.*;
 import elide.runtime.jvm.Logging;
 import elide.runtime.jvm.ReactiveFuture;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
 import io.lettuce.core.SetArgs;
 import io.lettuce.core.api.StatefulRedisConnection;
 import org.slf4j.Logger;
@@ -24,6 +26,11 @@ import tools.elide.core.DatapointType;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -140,10 +147,7 @@ public final class RedisDriver<Key extends Message, Model extends Message> imple
                     logging.info(format("Retrieved record at ID '%s' from Redis", id));
 
                 // we found encoded data at the provided key. inflate it with the codec.
-                return Optional.of(spliceKey(
-                    applyMask(deserialized, options),
-                    Optional.of(key)
-                ));
+                return Optional.of(applyMask(deserialized, key, options));
             } else {
                 if (logging.isWarnEnabled())
                     logging.warn(format("Model not found at ID '%s'.", id));
@@ -154,6 +158,46 @@ public final class RedisDriver<Key extends Message, Model extends Message> imple
         }), options.executorService().orElse(this.executorService));
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull ReactiveFuture<List<Optional<Model>>> retrieveAll(final @Nonnull Iterable<Key> keys,
+                                                                      final @Nonnull FetchOptions options) {
+        Objects.requireNonNull(keys, "Cannot fetch models with `null` for keys.");
+        Objects.requireNonNull(options, "Cannot fetch models without `options`.");
+        final List<Key> targetKeys = new ArrayList<>();
+        final List<String> targets = new ArrayList<>();
+        keys.forEach((key) -> {
+            enforceRole(key, DatapointType.OBJECT_KEY);
+            targetKeys.add(key);
+            targets.add(encodeKeyHex(id(key)
+                .orElseThrow(() -> new IllegalArgumentException("Cannot fetch model with empty key."))));
+        });
+        if (targets.isEmpty())
+            return ReactiveFuture.done(Collections.emptyList());
+
+        if (logging.isDebugEnabled())
+            logging.debug(format("Retrieving batch of %s models from Redis via `MGET`", targets.size()));
+
+        return ReactiveFuture.wrap(this.executorService.submit(() -> {
+            // fetch all models from Redis in one round-trip. results are ordered to match the provided keys.
+            var data = redis.sync().mget(targets.toArray(new String[0]));
+            final List<Optional<Model>> results = new ArrayList<>(data.size());
+            for (int i = 0; i < data.size(); i++) {
+                KeyValue<String, EncodedModel> entry = data.get(i);
+                if (entry.hasValue()) {
+                    // we found encoded data at the provided key. inflate it with the codec.
+                    var deserialized = this.codec.deserialize(entry.getValue());
+                    results.add(Optional.of(applyMask(deserialized, targetKeys.get(i), options)));
+                } else {
+                    results.add(Optional.empty());
+                }
+            }
+            if (logging.isInfoEnabled())
+                logging.info(format("Retrieved batch of %s records from Redis", results.size()));
+            return results;
+        }), options.executorService().orElse(this.executorService));
+    }
+
     // -- API: Persist -- //
     /** {@inheritDoc} */
     @Override
@@ -237,6 +281,100 @@ public final class RedisDriver<Key extends Message, Model extends Message> imple
         }), options.executorService().orElse(this.executorService));
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public @Nonnull ReactiveFuture<List<Model>> persistAll(final @Nonnull Map<Key, Model> models,
+                                                           final @Nonnull WriteOptions options) {
+        Objects.requireNonNull(models, "Cannot persist `null` batch of models to Redis.");
+        Objects.requireNonNull(options, "Cannot persist models to Redis without `options`.");
+        final List<Key> targetKeys = new ArrayList<>(models.size());
+        final List<Model> targetModels = new ArrayList<>(models.size());
+        final List<String> targets = new ArrayList<>(models.size());
+        models.forEach((key, model) -> {
+            Objects.requireNonNull(key, "Cannot persist model to Redis in batch with `null` key.");
+            Objects.requireNonNull(model, "Cannot persist `null` model to Redis.");
+            enforceRole(key, DatapointType.OBJECT_KEY);
+            targetKeys.add(key);
+            targetModels.add(model);
+            targets.add(encodeKeyHex(id(key)
+                .orElseThrow(() -> new IllegalArgumentException("Cannot persist model with empty key."))));
+        });
+        if (targets.isEmpty())
+            return ReactiveFuture.done(Collections.emptyList());
+
+        if (logging.isDebugEnabled())
+            logging.debug(format("Persisting batch of %s models using Redis", targets.size()));
+
+        return ReactiveFuture.wrap(this.executorService.submit(() -> {
+            WriteOptions.WriteDisposition writeMode = options.writeMode()
+                .orElse(WriteOptions.WriteDisposition.BLIND);
+
+            // serialize all models before writing, preserving order
+            final Map<String, EncodedModel> serialized = new LinkedHashMap<>(targets.size());
+            for (int i = 0; i < targets.size(); i++) {
+                serialized.put(targets.get(i), codec.serialize(targetModels.get(i)));
+            }
+
+            if (logging.isTraceEnabled())
+                logging.trace(format(
+                    "Began async task to write batch of %s models to Redis. Write disposition: '%s'.",
+                    targets.size(),
+                    writeMode.name()));
+
+            // enforce write mode
+            switch (writeMode) {
+                case MUST_NOT_EXIST:
+                    // `MSETNX` is atomic: either every key is written, or (if any key exists) none of them are.
+                    if (!Boolean.TRUE.equals(redis.sync().msetnx(serialized))) {
+                        logging.error(format("Redis batch write failure: key collision among %s keys.", targets.size()));
+                        int collision = 0;
+                        for (int i = 0; i < targets.size(); i++) {
+                            if (redis.sync().exists(targets.get(i)) > 0) {
+                                collision = i;
+                                break;
+                            }
+                        }
+                        throw new ModelWriteConflict(
+                            id(targetKeys.get(collision)).orElse(null), targetModels.get(collision), writeMode);
+                    }
+                    break;
+
+                case MUST_EXIST:
+                    // there is no multi-key `SET XX`, so pipeline the writes, and then check each reply.
+                    final List<RedisFuture<String>> pending = new ArrayList<>(targets.size());
+                    for (Map.Entry<String, EncodedModel> entry : serialized.entrySet()) {
+                        pending.add(redis.async().set(entry.getKey(), entry.getValue(), SetArgs.Builder.xx()));
+                    }
+                    for (int i = 0; i < pending.size(); i++) {
+                        if (!checkSetResult(pending.get(i).get())) {
+                            Object targetId = id(targetKeys.get(i)).orElse(null);
+                            logging.error(format("Redis write failure: key collision or rejection at ID '%s'.", targetId));
+                            throw new ModelWriteConflict(targetId, targetModels.get(i), writeMode);
+                        }
+                    }
+                    break;
+
+                case BLIND:
+                    if (!checkSetResult(redis.sync().mset(serialized))) {
+                        logging.error(format("Redis batch write failure: `MSET` rejected %s keys.", targets.size()));
+                        throw new ModelWriteConflict(
+                            id(targetKeys.get(0)).orElse(null), targetModels.get(0), writeMode);
+                    }
+                    break;
+            }
+
+            final List<Model> written = new ArrayList<>(targets.size());
+            for (int i = 0; i < targets.size(); i++) {
+                written.add(ModelMetadata.<Model, Key>spliceKey(targetModels.get(i), Optional.of(targetKeys.get(i))));
+            }
+            if (logging.isInfoEnabled())
+                logging.info(format(
+                    "Wrote batch of %s records to Redis.",
+                    written.size()));
+            return written;
+        }), options.executorService().orElse(this.executorService));
+    }
+
     // -- API: Delete -- //
     /** {@inheritDoc} */
     @Override
@@ -1,24 +1,127 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
 package elide.driver.redis;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
 import elide.model.EncodedModel;
+import elide.model.EncodingMode;
 import io.lettuce.core.codec.RedisCodec;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static java.lang.String.format;
 
-/** Provides a Lettuce codec for translating in between [com.google.protobuf.Message] and [EncodedModel] instances. */
+
+/**
+ * Provides a Lettuce codec for translating in between [com.google.protobuf.Message] and [EncodedModel] instances.
+ *
+ * <p>Values are written in a compact, versioned binary frame, encoded directly into the buffer handed to Lettuce:</p>
+ * <pre>
+ *   magic (1 byte) | version (1 byte) | mode (1 byte) | type length (varint) | type (UTF-8) | length (varint) | data
+ * </pre>
+ *
+ * <p>Codecs built with a {@link RedisTypeDictionary} frame registered types by ID instead, which is flagged in the
+ * mode byte, and replaces the type length and name with the type ID (varint). Other codecs decode such frames via
+ * {@link RedisTypeDictionary#shared()}.</p>
+ *
+ * <p>Values written by earlier releases, via Java serialization, remain readable. Malformed values raise an error
+ * rather than reading as absent.</p>
+ */
 public final class RedisEncodedModelCodec implements RedisCodec<String, EncodedModel> {
     private static final Charset charset = StandardCharsets.UTF_8;
-    private static final RedisEncodedModelCodec singleton = new RedisEncodedModelCodec();
+    private static final RedisEncodedModelCodec singleton = new RedisEncodedModelCodec(null);
+
+    /** Leading byte of a framed value. */
+    static final byte frameMagic = (byte)0xE1;
+
+    /** Current frame layout version. */
+    static final byte frameVersion = 1;
+
+    /** Leading byte of a legacy value, written via Java serialization. */
+    private static final byte legacyMagic = (byte)(ObjectStreamConstants.STREAM_MAGIC >> 8);
+
+    /** Flag, within the mode byte, which marks a frame carrying a type ID rather than a type name. */
+    private static final byte typeIdFlag = 0x10;
+
+    /** Mask selecting the encoding mode tag from the mode byte. */
+    private static final byte modeMask = 0x0F;
+
+    /** Size of the fixed frame header: magic, version, and mode. */
+    private static final int headerSize = 3;
 
-    /** @return Singleton instance of the Redis object codec. */
+    /** Classes which may appear in legacy values. */
+    private static final ObjectInputFilter legacyFilter = ObjectInputFilter.Config.createFilter(
+        "elide.model.EncodedModel;elide.model.EncodingMode;java.lang.Enum;java.lang.String;[B;!*");
+
+    /** Encoded type names, by type name. */
+    private final Map<String, byte[]> typeNames = new ConcurrentHashMap<>();
+
+    /** Type IDs to frame with, if any. */
+    private final @Nullable RedisTypeDictionary dictionary;
+
+    private RedisEncodedModelCodec(@Nullable RedisTypeDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Acquire the codec which frames every type by name. It decodes frames carrying a type ID through the shared type
+     * dictionary, which must be loaded to do so.
+     *
+     * @return Singleton instance of the Redis object codec.
+     */
     public static RedisEncodedModelCodec acquire() {
         return singleton;
     }
 
+    /**
+     * Create a codec which frames types registered in {@code dictionary} by ID. The dictionary must belong to the Redis
+     * instance this codec is used with.
+     *
+     * @param dictionary Type dictionary for the target Redis instance.
+     * @return Redis object codec.
+     */
+    public static RedisEncodedModelCodec create(@Nonnull RedisTypeDictionary dictionary) {
+        return new RedisEncodedModelCodec(Objects.requireNonNull(dictionary, "Cannot create codec with `null` types."));
+    }
+
+    /** @return Frame tag for the provided encoding mode. */
+    private static byte modeTag(EncodingMode mode) {
+        switch (mode) {
+            case BINARY: return 0;
+            case JSON: return 1;
+            default: throw new IllegalArgumentException(format("Unsupported encoding mode: '%s'.", mode.name()));
+        }
+    }
+
+    /** @return Encoding mode for the provided frame tag. */
+    private static EncodingMode modeForTag(byte tag) {
+        switch (tag) {
+            case 0: return EncodingMode.BINARY;
+            case 1: return EncodingMode.JSON;
+            default: throw new IllegalArgumentException(format("Unrecognized encoding mode tag: %s.", tag));
+        }
+    }
+
     @Override
     public String decodeKey(ByteBuffer bytes) {
         return charset.decode(bytes).toString();
@@ -26,13 +129,52 @@ public final class RedisEncodedModelCodec implements RedisCodec<String, EncodedM
 
     @Override
     public EncodedModel decodeValue(ByteBuffer bytes) {
+        if (!bytes.hasRemaining())
+            throw new IllegalArgumentException("Cannot decode empty model value from Redis.");
+        byte lead = bytes.get(bytes.position());
+        if (lead == legacyMagic) return decodeLegacyValue(bytes);
+        if (lead != frameMagic)
+            throw new IllegalArgumentException(format("Unrecognized model value in Redis (leading byte %s).", lead));
+
         try {
-            byte[] array = new byte[bytes.remaining()];
-            bytes.get(array);
-            ObjectInputStream is = new ObjectInputStream(new ByteArrayInputStream(array));
+            CodedInputStream in = CodedInputStream.newInstance(bytes);
+            in.readRawByte();  // magic
+            byte version = in.readRawByte();
+            if (version != frameVersion)
+                throw new IllegalArgumentException(format("Unsupported model frame version: %s.", version));
+            byte modeByte = in.readRawByte();
+            EncodingMode mode = modeForTag((byte)(modeByte & modeMask));
+            String type = (modeByte & typeIdFlag) != 0 ? typeForId(in.readUInt32()) : in.readStringRequireUtf8();
+            ByteString data = in.readBytes();  // copies out of the transient Lettuce buffer
+            return EncodedModel.wrap(type, mode, data);
+        } catch (IOException err) {
+            throw new IllegalArgumentException("Malformed model frame in Redis value.", err);
+        }
+    }
+
+    /** @return Type name for the provided frame type ID. */
+    private String typeForId(int id) {
+        String type = (dictionary != null ? dictionary : RedisTypeDictionary.shared()).resolve(id);
+        if (type == null)
+            throw new IllegalArgumentException(format(
+                "Unknown type ID %s in Redis value. Is the type dictionary loaded?", id));
+        return type;
+    }
+
+    /**
+     * Decode a value written by an earlier release, via Java serialization.
+     *
+     * @param bytes Buffer holding the legacy value.
+     * @return Decoded model.
+     */
+    private static EncodedModel decodeLegacyValue(ByteBuffer bytes) {
+        byte[] array = new byte[bytes.remaining()];
+        bytes.get(array);
+        try (ObjectInputStream is = new EncodedModel.CompatibleInputStream(new ByteArrayInputStream(array))) {
+            is.setObjectInputFilter(legacyFilter);
             return (EncodedModel)is.readObject();
-        } catch (Exception err) {
-            return null;
+        } catch (IOException | ClassNotFoundException | ClassCastException err) {
+            throw new IllegalArgumentException("Malformed legacy model value in Redis.", err);
         }
     }
 
@@ -43,13 +185,30 @@ public final class RedisEncodedModelCodec implements RedisCodec<String, EncodedM
 
     @Override
     public ByteBuffer encodeValue(EncodedModel value) {
+        int typeId = dictionary != null ? dictionary.idFor(value.getType()) : 0;
+        byte[] type = typeId > 0 ? null : typeNames.computeIfAbsent(value.getType(), (name) -> name.getBytes(charset));
+        ByteString data = value.getRawBytes();
+        ByteBuffer frame = ByteBuffer.allocate(headerSize
+            + (type == null ?
+                CodedOutputStream.computeUInt32SizeNoTag(typeId) :
+                CodedOutputStream.computeUInt32SizeNoTag(type.length) + type.length)
+            + CodedOutputStream.computeBytesSizeNoTag(data));
+
+        byte modeByte = modeTag(value.getDataMode());
+        frame.put(frameMagic).put(frameVersion).put(type == null ? (byte)(modeByte | typeIdFlag) : modeByte);
         try {
-            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
-            ObjectOutputStream os = new ObjectOutputStream(bytes);
-            os.writeObject(value);
-            return ByteBuffer.wrap(bytes.toByteArray());
-        } catch (IOException e) {
-            return null;
+            CodedOutputStream out = CodedOutputStream.newInstance(frame);
+            if (type == null) {
+                out.writeUInt32NoTag(typeId);
+            } else {
+                out.writeUInt32NoTag(type.length);
+                out.writeRawBytes(type);
+            }
+            out.writeBytesNoTag(data);
+            out.flush();
+        } catch (IOException err) {
+            throw new IllegalStateException("Failed to encode model frame for Redis.", err);
         }
+        return frame.flip();
     }
 }
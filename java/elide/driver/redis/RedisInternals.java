@@ -112,4 +112,9 @@ final class RedisInternals {
     static String encodeCacheKey(Object id) {
         return Hex.bytesToHex(encodeKey((byte)'c', id));
     }
+
+    /** @return Final key string for negative cache entries (records known to be absent) in ephemeral contexts. */
+    static String encodeAbsentKey(Object id) {
+        return encodeCacheKey(id) + ":absent";
+    }
 }
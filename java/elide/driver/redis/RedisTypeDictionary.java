@@ -0,0 +1,206 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.driver.redis;
+
+import com.google.protobuf.Descriptors.Descriptor;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.sync.RedisCommands;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.IntFunction;
+
+import static java.lang.String.format;
+
+
+/**
+ * Dictionary of small, stable integer IDs for model types, which lets {@link RedisEncodedModelCodec} frames carry a
+ * type ID instead of the fully-qualified type name.
+ *
+ * <p>IDs are assigned by Redis itself, and persisted there alongside model data, so that every process sharing a Redis
+ * instance agrees on them. Each dictionary therefore belongs to exactly one Redis instance: {@link #load} it, and
+ * {@link #register} the model types in use, before connecting with a codec built via
+ * {@link RedisEncodedModelCodec#create(RedisTypeDictionary)}. Types which are not registered are framed by name. IDs
+ * registered later by other processes are resolved from Redis on first sight, through the connection the dictionary
+ * was loaded with.</p>
+ *
+ * <p>IDs are drawn from a counter which is never reset, so an ID is never reused for another type. The dictionary keys
+ * ({@code _elide_::types:v1:*}) must therefore never be evicted or flushed while values framed with their IDs remain:
+ * run Redis with {@code noeviction}, or a {@code volatile-*} policy (the keys carry no TTL), rather than an
+ * {@code allkeys-*} policy. Registration fails, rather than reusing IDs, if it finds the keys partially lost; after
+ * the keys are flushed entirely, processes holding a loaded dictionary must be restarted.</p>
+ */
+@ThreadSafe
+public final class RedisTypeDictionary {
+    /** Redis hash mapping type names to IDs. */
+    static final String namesKey = "_elide_::types:v1:names";
+
+    /** Redis hash mapping IDs to type names. */
+    static final String idsKey = "_elide_::types:v1:ids";
+
+    /** Redis counter holding the last ID assigned. Never reset, so that IDs are never reused. */
+    static final String sequenceKey = "_elide_::types:v1:seq";
+
+    /**
+     * Script which atomically resolves, or assigns, the ID for a type name. IDs start at 1. Fails if the dictionary
+     * keys were partially evicted or flushed, since assigning from what remains could reuse an ID.
+     */
+    private static final String assignScript = String.join("\n",
+        "local id = redis.call('HGET', KEYS[1], ARGV[1])",
+        "if id then return tonumber(id) end",
+        "local assigned = redis.call('HLEN', KEYS[2])",
+        "local last = tonumber(redis.call('GET', KEYS[3]) or '0')",
+        "if redis.call('HLEN', KEYS[1]) ~= assigned or last < assigned then",
+        "  return redis.error_reply('Elide type dictionary keys were partially lost; refusing to reuse type IDs.')",
+        "end",
+        "id = redis.call('INCR', KEYS[3])",
+        "redis.call('HSET', KEYS[1], ARGV[1], id)",
+        "redis.call('HSET', KEYS[2], id, ARGV[1])",
+        "return id");
+
+    /** Shared dictionary, consulted by codecs which frame every type by name. */
+    private static final RedisTypeDictionary shared = new RedisTypeDictionary();
+
+    /** Type IDs, by type name. */
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /** Type names, indexed by ID. Copied on write, so that lookups by ID need no locking or hashing. */
+    private volatile String[] names = new String[0];
+
+    /** Lookup for IDs missing from this dictionary, or {@code null} until it is loaded. */
+    private volatile @Nullable IntFunction<String> lookup = null;
+
+    private RedisTypeDictionary() { /* use `create` */ }
+
+    /** @return Empty type dictionary. */
+    public static @Nonnull RedisTypeDictionary create() {
+        return new RedisTypeDictionary();
+    }
+
+    /**
+     * Acquire the dictionary shared by codecs which frame every type by name (see
+     * {@link RedisEncodedModelCodec#acquire()}). Load it to let those codecs decode values which other processes
+     * framed by ID.
+     *
+     * @return Shared type dictionary.
+     */
+    public static @Nonnull RedisTypeDictionary shared() {
+        return shared;
+    }
+
+    /**
+     * Load every type ID assigned so far in the provided Redis instance.
+     *
+     * <p>The connection is retained, to resolve IDs assigned later by other processes. Those lookups happen while a
+     * codec decodes a value, on the I/O thread of the codec's connection, so {@code redis} should come from a separate
+     * client (with its own client resources) to the one the codec is used with.</p>
+     *
+     * @param redis Synchronous string commands for the Redis instance which owns this dictionary.
+     * @return This dictionary, for chaining.
+     * @throws IllegalStateException If Redis holds an assignment which conflicts with one already in this dictionary.
+     */
+    public @Nonnull RedisTypeDictionary load(@Nonnull RedisCommands<String, String> redis) {
+        for (Map.Entry<String, String> entry : redis.hgetall(idsKey).entrySet())
+            bind(entry.getValue(), Integer.parseInt(entry.getKey()));
+        attach((id) -> redis.hget(idsKey, String.valueOf(id)));
+        return this;
+    }
+
+    /**
+     * Set the lookup used to resolve IDs missing from this dictionary.
+     *
+     * @param lookup Function resolving a type name by ID, yielding {@code null} if the ID is unassigned.
+     */
+    void attach(@Nonnull IntFunction<String> lookup) {
+        this.lookup = Objects.requireNonNull(lookup, "Cannot attach `null` type lookup.");
+    }
+
+    /**
+     * Resolve the ID for the provided model type, assigning one in Redis if it has none yet.
+     *
+     * @param redis Synchronous string commands for the Redis instance which owns this dictionary.
+     * @param type Model type to register.
+     * @return ID for the model type.
+     * @throws IllegalStateException If the assignment conflicts with one already in this dictionary.
+     * @throws io.lettuce.core.RedisCommandExecutionException If the dictionary keys in Redis were partially lost.
+     */
+    public int register(@Nonnull RedisCommands<String, String> redis, @Nonnull Descriptor type) {
+        String name = type.getFullName();
+        Integer existing = ids.get(name);
+        if (existing != null) return existing;
+        String[] keys = { namesKey, idsKey, sequenceKey };
+        Long assigned = redis.eval(assignScript, ScriptOutputType.INTEGER, keys, name);
+        int id = Math.toIntExact(Objects.requireNonNull(assigned, "Redis returned no ID for type."));
+        bind(name, id);
+        if (lookup == null) attach((known) -> redis.hget(idsKey, String.valueOf(known)));
+        return id;
+    }
+
+    /**
+     * Bind a type name to an ID in this dictionary.
+     *
+     * @param name Fully-qualified type name.
+     * @param id ID assigned to the type.
+     * @throws IllegalStateException If either the name or the ID is already bound differently.
+     */
+    synchronized void bind(@Nonnull String name, int id) {
+        if (id < 1) throw new IllegalArgumentException(format("Invalid type ID %s for type '%s'.", id, name));
+        Integer bound = ids.get(name);
+        String current = nameFor(id);
+        if ((bound != null && bound != id) || (current != null && !current.equals(name)))
+            throw new IllegalStateException(format(
+                "Type ID %s for '%s' conflicts with existing assignment (%s -> '%s').", id, name, bound, current));
+        if (current == null) {
+            String[] grown = names.length > id ?
+                names.clone() :
+                Arrays.copyOf(names, Math.max(id + 1, names.length * 2));
+            grown[id] = name;
+            names = grown;
+        }
+        ids.put(name, id);
+    }
+
+    /** @return ID for the provided type name, or {@code 0} if it has none. */
+    int idFor(@Nonnull String name) {
+        Integer id = ids.get(name);
+        return id == null ? 0 : id;
+    }
+
+    /** @return Type name for the provided ID, or {@code null} if it is unknown. */
+    @Nullable String nameFor(int id) {
+        String[] current = names;
+        return id > 0 && id < current.length ? current[id] : null;
+    }
+
+    /**
+     * Resolve the type name for the provided ID, looking it up in Redis if it is missing from this dictionary.
+     *
+     * @param id Type ID to resolve.
+     * @return Type name for the ID, or {@code null} if it is unassigned, or this dictionary is not loaded.
+     * @throws IllegalStateException If the resolved assignment conflicts with one already in this dictionary.
+     */
+    @Nullable String resolve(int id) {
+        String name = nameFor(id);
+        IntFunction<String> source = lookup;
+        if (name != null || id < 1 || source == null) return name;
+        name = source.apply(id);
+        if (name != null) bind(name, id);
+        return name;
+    }
+}
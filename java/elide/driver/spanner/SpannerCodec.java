@@ -23,6 +23,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.IOException;
+import java.util.Set;
 
 
 /**
@@ -140,6 +141,24 @@ public final class SpannerCodec<Model extends Message> implements ModelCodec<Mod
         ).deflate(model);
     }
 
+    /**
+     * Specialized entrypoint for converting a field-level patch of a model instance into a {@link Mutation}, which
+     * writes only the row key and the columns for the named fields.
+     *
+     * @param initial Initial empty mutation to populate with the serialized patch.
+     * @param model Model carrying the patched values, and its key.
+     * @param fields Names of the top-level fields to write.
+     * @return Initialized and serialized mutation.
+     * @throws IOException If some serialization error occurs while processing the model.
+     */
+    public @Nonnull Mutation serializePatch(@Nonnull Mutation.WriteBuilder initial,
+                                            @Nonnull Model model,
+                                            @Nonnull Set<String> fields) throws IOException {
+        return ((SpannerMutationSerializer<Model>) this.serializer).initializeMutation(
+            initial
+        ).deflatePatch(model, fields);
+    }
+
     // -- Implementation: Codec API -- //
 
     /** @inheritDoc */
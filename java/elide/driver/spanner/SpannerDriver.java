@@ -76,6 +76,12 @@ public final class SpannerDriver<Key extends Message, Model extends Message>
     /** Private log pipe. */
     private static final Logger logging = Logging.logger(SpannerDriver.class);
 
+    /**
+     * Maximum number of cell mutations to send in a single batched commit. Spanner rejects commits which exceed its
+     * mutation limit, so batches are split conservatively under it.
+     */
+    private static final int MAX_COMMIT_MUTATIONS = 20_000;
+
     /** Executor service to use for async calls. */
     private final @Nonnull ListeningScheduledExecutorService executorService;
 
@@ -254,6 +260,53 @@ public final class SpannerDriver<Key extends Message, Model extends Message>
         return codec;
     }
 
+    /**
+     * Resolve a Spanner read context for the provided fetch options. Depending on the options, this may be a single-use
+     * context or a read-only transaction, either of which may be bound to a timestamp.
+     *
+     * @param spannerOpts Spanner-specific fetch options.
+     * @return Read context to use for the fetch operation.
+     */
+    private @Nonnull ReadContext resolveReadContext(@Nonnull SpannerFetchOptions spannerOpts) {
+        DatabaseId db = spannerOpts.databaseId().orElse(defaultDatabase);
+        var client = engine.getDatabaseClient(db);
+        boolean transactional = spannerOpts.transactional().isPresent() && spannerOpts.transactional().get();
+
+        if (spannerOpts.timestampBound().isPresent()) {
+            if (transactional) {
+                return client.readOnlyTransaction(spannerOpts.timestampBound().get());
+            } else {
+                return client.singleUse(spannerOpts.timestampBound().get());
+            }
+        } else {
+            if (transactional) {
+                return client.readOnlyTransaction();
+            } else {
+                return client.singleUse();
+            }
+        }
+    }
+
+    /**
+     * Calculate the fields we should read from Spanner. Because Spanner is a SQL-style DB with tables, we must enumerate
+     * each field we wish to load into the result set. This set of fields can either be specified via a field mask
+     * attached to the call options, or by generating a set of fields from the top-level model.
+     *
+     * @param spannerOpts Spanner-specific fetch options.
+     * @return List of column names to read.
+     */
+    private @Nonnull List<String> resolveReadFields(@Nonnull SpannerFetchOptions spannerOpts) {
+        if (spannerOpts.projection().isPresent()) {
+            return FieldMaskUtil.normalize(spannerOpts.projection().get())
+                    .getPathsList();
+        } else {
+            return calculateDefaultFields(
+                this.codec().instance().getDescriptorForType(),
+                driverSettings
+            );
+        }
+    }
+
     /** @inheritDoc */
     @Override
     public @Nonnull ReactiveFuture<Optional<Model>> retrieve(@Nonnull Key key,
@@ -278,39 +331,9 @@ public final class SpannerDriver<Key extends Message, Model extends Message>
             spannerOpts = SpannerFetchOptions.DEFAULTS;
         }
 
-        DatabaseId db = spannerOpts.databaseId().orElse(defaultDatabase);
-        var client = engine.getDatabaseClient(db);
-        boolean transactional = spannerOpts.transactional().isPresent() && spannerOpts.transactional().get();
-
         // with the DB client in hand, resolve the raw Spanner result
-        ReadContext context;
-        if (spannerOpts.timestampBound().isPresent()) {
-            if (transactional) {
-                context = client.readOnlyTransaction(spannerOpts.timestampBound().get());
-            } else {
-                context = client.singleUse(spannerOpts.timestampBound().get());
-            }
-        } else {
-            if (transactional) {
-                context = client.readOnlyTransaction();
-            } else {
-                context = client.singleUse();
-            }
-        }
-
-        // calculate the fields we should read from Spanner. because Spanner is a SQL-style DB with tables, we must
-        // enumerate each field we wish to load into the result set. this set of fields can either be specified via a
-        // field mask attached to the call options, or by generating a set of fields from the top-level model.
-        List<String> fieldsToRead;
-        if (spannerOpts.projection().isPresent()) {
-            fieldsToRead = FieldMaskUtil.normalize(spannerOpts.projection().get())
-                    .getPathsList();
-        } else {
-            fieldsToRead = calculateDefaultFields(
-                this.codec().instance().getDescriptorForType(),
-                driverSettings
-            );
-        }
+        ReadContext context = resolveReadContext(spannerOpts);
+        List<String> fieldsToRead = resolveReadFields(spannerOpts);
 
         var op = wrap(context.readRowAsync(
             table,
@@ -336,13 +359,98 @@ public final class SpannerDriver<Key extends Message, Model extends Message>
                         keyId,
                         deserialized));
 
-                return immediateFuture(Optional.of(
-                    spliceKey(applyMask(deserialized, options), Optional.of(key))
-                ));
+                return immediateFuture(Optional.of(applyMask(deserialized, key, options)));
             }
         }, exec));
     }
 
+    /** @inheritDoc */
+    @Override
+    public @Nonnull ReactiveFuture<List<Optional<Model>>> retrieveAll(@Nonnull Iterable<Key> keys,
+                                                                      @Nonnull FetchOptions options) {
+        // null check all inputs
+        Objects.requireNonNull(keys, "Cannot fetch models with `null` for keys.");
+        Objects.requireNonNull(options, "Cannot fetch models without `options`.");
+
+        // build a key set covering all requested records, and remember the order in which they were requested
+        List<Key> requested = new ArrayList<>();
+        KeySet.Builder keySet = KeySet.newBuilder();
+        keys.forEach((key) -> {
+            enforceRole(key, DatapointType.OBJECT_KEY);
+            var keyId = id(key).orElseThrow(() ->
+                new IllegalArgumentException("Cannot fetch model with empty key."));
+            keySet.addKey(com.google.cloud.spanner.Key.of(keyId));
+            requested.add(key);
+        });
+        if (requested.isEmpty())
+            return ReactiveFuture.done(Collections.emptyList());
+
+        // all keys address the same model type, and therefore the same table
+        var table = resolveTableName(requested.get(0));
+        ListeningScheduledExecutorService exec = options.executorService().orElseGet(this::executorService);
+        SpannerFetchOptions spannerOpts;
+
+        if (options.getClass().isAssignableFrom(SpannerFetchOptions.class)) {
+            spannerOpts = ((SpannerFetchOptions) options);
+        } else {
+            spannerOpts = SpannerFetchOptions.DEFAULTS;
+        }
+
+        ReadContext context = resolveReadContext(spannerOpts);
+
+        // rows are matched back to keys by the key column, so it is always read, even if a projection leaves it out.
+        var keyColumn = resolveKeyColumn(
+            idField(this.codec().instance().getDescriptorForType()).orElseThrow(), driverSettings);
+        List<String> fieldsToRead = resolveReadFields(spannerOpts);
+        if (!fieldsToRead.contains(keyColumn)) {
+            fieldsToRead = new ArrayList<>(fieldsToRead);
+            fieldsToRead.add(keyColumn);
+        }
+        final List<String> columns = fieldsToRead;
+
+        var op = exec.submit(() -> {
+            // Spanner returns rows in key order rather than request order, so index results by ID before aligning them.
+            Map<Object, Model> found = new HashMap<>(requested.size());
+            try (ResultSet resultSet = context.read(table, keySet.build(), columns)) {
+                while (resultSet.next()) {
+                    Struct row = resultSet.getCurrentRowAsStruct();
+                    Object rowId = row.getColumnType(keyColumn).getCode() == Type.Code.INT64 ?
+                        row.getLong(keyColumn) :
+                        row.getString(keyColumn);
+                    found.put(rowId, codec.deserialize(row));
+                }
+            }
+            if (logging.isDebugEnabled())
+                logging.debug(format(
+                    "Found %s of %s requested models in batch read from Spanner.", found.size(), requested.size()));
+
+            List<Optional<Model>> results = new ArrayList<>(requested.size());
+            for (Key key : requested) {
+                Model record = found.get(id(key).orElseThrow());
+                results.add(record == null ? Optional.empty() : Optional.of(applyMask(record, key, options)));
+            }
+            return results;
+        });
+        return wrap(withTimeout(op, 120, TimeUnit.SECONDS, exec), exec);
+    }
+
+    /**
+     * Create a Spanner mutation builder for the provided table, which enforces the provided write disposition.
+     *
+     * @param table Table which the mutation will write to.
+     * @param writeMode Write disposition to enforce.
+     * @return Mutation builder for the write.
+     */
+    private static @Nonnull Mutation.WriteBuilder newWriteBuilder(@Nonnull String table,
+                                                                  @Nonnull WriteOptions.WriteDisposition writeMode) {
+        switch (writeMode) {
+            case BLIND: return Mutation.newInsertOrUpdateBuilder(table);
+            case MUST_EXIST: return Mutation.newUpdateBuilder(table);
+            case MUST_NOT_EXIST: return Mutation.newInsertBuilder(table);
+            default: return Mutation.newReplaceBuilder(table);
+        }
+    }
+
     /** @inheritDoc */
     @Override
     public @Nonnull ReactiveFuture<Model> persist(@Nullable Key key,
@@ -397,13 +505,7 @@ public final class SpannerDriver<Key extends Message, Model extends Message>
             if (logging.isDebugEnabled())
                 logging.debug("Mode '{}' determined for Spanner write.", writeMode.name());
 
-            Mutation.WriteBuilder mutation;
-            switch (writeMode) {
-                case BLIND: mutation = Mutation.newInsertOrUpdateBuilder(table); break;
-                case MUST_EXIST: mutation = Mutation.newUpdateBuilder(table); break;
-                case MUST_NOT_EXIST: mutation = Mutation.newInsertBuilder(table); break;
-                default: mutation = Mutation.newReplaceBuilder(table); break;
-            }
+            Mutation.WriteBuilder mutation = newWriteBuilder(table, writeMode);
 
             if (codec instanceof SpannerCodec) {
                 if (logging.isTraceEnabled())
@@ -433,6 +535,153 @@ public final class SpannerDriver<Key extends Message, Model extends Message>
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Patches are issued as a Spanner update mutation, which writes only the row key and the columns backing each
+     * top-level field touched by {@code mask}. Masked fields which have no value are written as {@code NULL}. Nested
+     * paths are not supported, because each top-level field is written as a whole column.</p>
+     *
+     * @throws IllegalArgumentException If {@code mask} contains a nested field path.
+     */
+    @Override
+    public @Nonnull ReactiveFuture<Model> patch(@Nonnull Key key,
+                                                @Nonnull Model model,
+                                                @Nonnull FieldMask mask,
+                                                @Nonnull WriteOptions options) {
+        Objects.requireNonNull(key, "Cannot patch model with `null` for key.");
+        Objects.requireNonNull(model, "Cannot patch model which is, itself, `null`.");
+        Objects.requireNonNull(options, "Cannot patch model without `options`.");
+        enforceRole(key, DatapointType.OBJECT_KEY);
+        if (id(key).isEmpty())
+            throw new IllegalArgumentException("Cannot patch model with empty key.");
+        if (!(codec instanceof SpannerCodec))
+            throw new IllegalStateException("Cannot serialize Spanner model without `SpannerCodec`.");
+
+        ListeningScheduledExecutorService exec = options.executorService().orElseGet(this::executorService);
+        SpannerMutationOptions spannerOpts;
+        if (options.getClass().isAssignableFrom(SpannerMutationOptions.class)) {
+            spannerOpts = ((SpannerMutationOptions) options);
+        } else {
+            spannerOpts = SpannerMutationOptions.DEFAULTS;
+        }
+        var client = engine.getDatabaseClient(spannerOpts.databaseId().orElse(defaultDatabase));
+        boolean transactional = spannerOpts.transactional().isPresent() ?
+                spannerOpts.transactional().get() :
+                options.transactional().orElse(false);
+
+        try {
+            final Model keyed = spliceKey(model, Optional.of(key));
+            var fields = patchedFields(model.getDescriptorForType(), mask);
+            for (String field : fields) {
+                if (field.indexOf('.') != -1)
+                    throw new IllegalArgumentException(String.format(
+                            "Spanner patches apply to top-level columns; nested path '%s' is not supported.",
+                            field));
+            }
+            var serialized = ((SpannerCodec<Model>) codec).serializePatch(
+                    Mutation.newUpdateBuilder(resolveTableName(key)),
+                    keyed,
+                    fields);
+
+            if (logging.isDebugEnabled())
+                logging.debug("Patching {} field(s) of Spanner row via update mutation.", fields.size());
+
+            return wrap(exec.submit(() -> {
+                if (transactional && spannerOpts.transactionContext().isPresent()) {
+                    spannerOpts.transactionContext().get()
+                            .buffer(serialized);
+                } else {
+                    var write = client.writeAtLeastOnce(Collections.singleton(serialized));
+                    Objects.requireNonNull(write, "write result from Spanner should never be null");
+                }
+                return keyed;
+            }));
+
+        } catch (IOException ioe) {
+            throw new IllegalStateException(ioe);
+        }
+    }
+
+    /** @inheritDoc */
+    @Override
+    public @Nonnull ReactiveFuture<List<Model>> persistAll(@Nonnull Map<Key, Model> models,
+                                                           @Nonnull WriteOptions options) {
+        // enforce model constraints
+        Objects.requireNonNull(models, "Cannot write `null` batch of models.");
+        Objects.requireNonNull(options, "Cannot write models without `options`.");
+        if (models.isEmpty())
+            return ReactiveFuture.done(Collections.emptyList());
+        if (!(codec instanceof SpannerCodec))
+            throw new IllegalStateException("Cannot serialize Spanner model without `SpannerCodec`.");
+
+        // resolve executor and extended spanner mutation options
+        ListeningScheduledExecutorService exec = options.executorService().orElseGet(this::executorService);
+        SpannerMutationOptions spannerOpts;
+        if (options.getClass().isAssignableFrom(SpannerMutationOptions.class)) {
+            spannerOpts = ((SpannerMutationOptions) options);
+        } else {
+            spannerOpts = SpannerMutationOptions.DEFAULTS;
+        }
+
+        DatabaseId db = spannerOpts.databaseId().orElse(defaultDatabase);
+        var client = engine.getDatabaseClient(db);
+        boolean transactional = spannerOpts.transactional().isPresent() ?
+                spannerOpts.transactional().get() :
+                options.transactional().orElse(false);
+
+        var writeMode = spannerOpts.writeMode().isPresent() ?
+                spannerOpts.writeMode().get() :
+                options.writeMode().orElse(WriteOptions.WriteDisposition.BLIND);
+
+        // serialize every model into a mutation, splitting the set into chunks which fit under the commit limit.
+        List<List<Mutation>> chunks = new ArrayList<>();
+        List<Mutation> chunk = new ArrayList<>();
+        int chunkMutations = 0;
+        List<Model> written = new ArrayList<>(models.size());
+        try {
+            for (Map.Entry<Key, Model> entry : models.entrySet()) {
+                Key key = Objects.requireNonNull(entry.getKey(), "Cannot write model in batch with `null` key.");
+                enforceRole(key, DatapointType.OBJECT_KEY);
+                if (id(key).isEmpty())
+                    throw new IllegalArgumentException("Cannot write model in batch with empty key.");
+
+                final Model keyed = spliceKey(entry.getValue(), Optional.of(key));
+                var mutation = newWriteBuilder(resolveTableName(key), writeMode);
+                var serialized = ((SpannerCodec<Model>) codec).serialize(mutation, keyed);
+                int cells = Math.max(1, serialized.asMap().size());
+                if (!chunk.isEmpty() && chunkMutations + cells > MAX_COMMIT_MUTATIONS) {
+                    chunks.add(chunk);
+                    chunk = new ArrayList<>();
+                    chunkMutations = 0;
+                }
+                chunk.add(serialized);
+                chunkMutations += cells;
+                written.add(keyed);
+            }
+            chunks.add(chunk);
+        } catch (IOException ioe) {
+            throw new IllegalStateException(ioe);
+        }
+
+        if (logging.isDebugEnabled())
+            logging.debug("Writing {} models to Spanner in {} commit(s), with mode '{}'.",
+                    written.size(), chunks.size(), writeMode.name());
+
+        return wrap(exec.submit(() -> {
+            if (transactional && spannerOpts.transactionContext().isPresent()) {
+                var txn = spannerOpts.transactionContext().get();
+                chunks.forEach(txn::buffer);
+            } else {
+                for (List<Mutation> mutations : chunks) {
+                    var write = client.writeAtLeastOnce(mutations);
+                    Objects.requireNonNull(write, "write result from Spanner should never be null");
+                }
+            }
+            return written;
+        }));
+    }
+
     /** @inheritDoc */
     @Override
     public @Nonnull ReactiveFuture<Key> delete(@Nonnull Key key,
@@ -301,6 +301,42 @@ public final class SpannerMutationSerializer<Model extends Message> implements M
         }
     }
 
+    /**
+     * Bind a typed {@code NULL} value for a column of the provided type, which clears any value held in the column.
+     *
+     * @param valueBinder Value binder for the column.
+     * @param columnType Resolved type of the column.
+     * @throws IllegalStateException If the column type cannot hold values written by this serializer.
+     */
+    @SuppressWarnings("unchecked")
+    static void bindNullTyped(@Nonnull ValueBinder<?> valueBinder, @Nonnull Type columnType) {
+        if (columnType.getCode() == Type.Code.ARRAY) {
+            switch (columnType.getArrayElementType().getCode()) {
+                case BOOL: valueBinder.toBoolArray((Iterable<Boolean>)null); return;
+                case INT64: valueBinder.toInt64Array((Iterable<Long>)null); return;
+                case FLOAT64: valueBinder.toFloat64Array((Iterable<Double>)null); return;
+                case STRING: valueBinder.toStringArray(null); return;
+                case BYTES: valueBinder.toBytesArray(null); return;
+                case TIMESTAMP: valueBinder.toTimestampArray(null); return;
+                case DATE: valueBinder.toDateArray(null); return;
+                default: break;
+            }
+        } else {
+            switch (columnType.getCode()) {
+                case BOOL: valueBinder.to((Boolean)null); return;
+                case INT64: valueBinder.to((Long)null); return;
+                case FLOAT64: valueBinder.to((Double)null); return;
+                case STRING: valueBinder.to((String)null); return;
+                case BYTES: valueBinder.to((ByteArray)null); return;
+                case TIMESTAMP: valueBinder.to((Timestamp)null); return;
+                case DATE: valueBinder.to((Date)null); return;
+                case NUMERIC: valueBinder.to(Value.string(null)); return;
+                default: break;
+            }
+        }
+        throw new IllegalStateException(String.format("Cannot clear column of type '%s'.", columnType));
+    }
+
     /**
      * Collapse an individual {@link Message} field into the expected column slow against a given Spanner
      * {@link Mutation} record, which is in the process of being assembled.
@@ -323,9 +359,31 @@ public final class SpannerMutationSerializer<Model extends Message> implements M
                              @Nonnull SpannerDriverSettings settings,
                              @Nonnull FieldPointer fieldPointer,
                              @Nonnull Mutation.WriteBuilder target) {
+        this.collapseColumnField(instance, settings, fieldPointer, target, false);
+    }
+
+    /**
+     * Collapse an individual {@link Message} field into the expected column slot against a given Spanner
+     * {@link Mutation} record, optionally writing {@code NULL} for fields which have no value, rather than skipping
+     * them. Clearing is used by patch writes, where a field named by the patch must be cleared if it is empty.
+     *
+     * @see #collapseColumnField(Message, SpannerDriverSettings, FieldPointer, Mutation.WriteBuilder) For the variant
+     *      which skips empty fields.
+     * @param instance Model instance we should pluck the field value from.
+     * @param settings Active settings for the Spanner driver which should guide serialization.
+     * @param fieldPointer Resolved pointer to the model field we are collapsing into a column value.
+     * @param target Mutation target we should write the resulting value to, as applicable.
+     * @param clearEmpty Whether to write {@code NULL} for a field with no value.
+     */
+    void collapseColumnField(@Nonnull Model instance,
+                             @Nonnull SpannerDriverSettings settings,
+                             @Nonnull FieldPointer fieldPointer,
+                             @Nonnull Mutation.WriteBuilder target,
+                             boolean clearEmpty) {
         var field = fieldPointer.getField();
         var fieldValue = pluck(instance, fieldPointer.getName());
         var specialCaseBool = false;
+        var clear = false;
 
         if (!field.isRepeated() && !instance.hasField(field) || fieldValue.getValue().isEmpty() ||
             field.isRepeated() && instance.getRepeatedFieldCount(field) < 1) {
@@ -339,6 +397,9 @@ public final class SpannerMutationSerializer<Model extends Message> implements M
                         model.getFullName()
                     );
                 specialCaseBool = true;
+            } else if (clearEmpty && !matchFieldAnnotation(field, FieldType.KEY)) {
+                // field has no value, but the caller needs it cleared.
+                clear = true;
             } else {
                 // field has no value. skip, but log about it.
                 if (logging.isTraceEnabled())
@@ -383,7 +444,9 @@ public final class SpannerMutationSerializer<Model extends Message> implements M
 
         // then raw value...
         var valueBinder = target.set(columnName);
-        if (specialCaseBool) {
+        if (clear) {
+            bindNullTyped(valueBinder, columnType);
+        } else if (specialCaseBool) {
             bindValueTyped(
                 field,
                 valueBinder,
@@ -430,14 +493,42 @@ public final class SpannerMutationSerializer<Model extends Message> implements M
         Objects.requireNonNull(input, "cannot deflate `null` input for Spanner mutation");
         Objects.requireNonNull(writeBuilder, "cannot deflate model with no initialized write target.");
 
-        // stream all non-recursive model fields, filtering down only to fields which are eligible for storage in
-        // Spanner. for each field, invoke `collapseColumnField`, which mutates the held builder in-place.
-        forEachField(
-          model,
-          Optional.of(onlySpannerEligibleFields(driverSettings))
-        ).forEach((field) ->
-            this.collapseColumnField(input, driverSettings, field, writeBuilder)
-        );
+        // visit all non-recursive model fields, filtering down only to fields which are eligible for storage in
+        // Spanner. for each field, invoke `collapseColumnField`, which mutates the held builder in-place. the field
+        // list is compiled once per model and predicate, so this loop allocates nothing per field.
+        var fields = ModelSchema.forDescriptor(model).fields(onlySpannerEligibleFields(driverSettings), false);
+        for (int i = 0; i < fields.size(); i++) {
+            this.collapseColumnField(input, driverSettings, fields.get(i), writeBuilder);
+        }
+
+        final Mutation mutation = writeBuilder.build();
+        this.target = null;
+        return mutation;
+    }
+    /**
+     * Deflate a patch of the provided model into the initialized mutation target. Only the row key, and the columns for
+     * each top-level field named in {@code fields}, are written. Named fields which have no value are written as
+     * {@code NULL}, so that the patch clears them.
+     *
+     * @param input Model instance carrying the patched values. Must carry its key.
+     * @param fields Names of the top-level fields to write.
+     * @return Mutation, limited to the row key and patched columns.
+     * @throws ModelDeflateException If the model fails to export or serialize for any reason.
+     */
+    @Nonnull Mutation deflatePatch(@Nonnull Model input, @Nonnull Set<String> fields) throws ModelDeflateException {
+        var writeBuilder = this.target;
+        Objects.requireNonNull(input, "cannot deflate `null` input for Spanner mutation");
+        Objects.requireNonNull(writeBuilder, "cannot deflate model with no initialized write target.");
+
+        var eligible = ModelSchema.forDescriptor(model).fields(onlySpannerEligibleFields(driverSettings), false);
+        for (int i = 0; i < eligible.size(); i++) {
+            var fieldPointer = eligible.get(i);
+            if (matchFieldAnnotation(fieldPointer.getField(), FieldType.KEY)) {
+                this.collapseRowKey(fieldPointer, input, writeBuilder);
+            } else if (fields.contains(fieldPointer.getField().getName())) {
+                this.collapseColumnField(input, driverSettings, fieldPointer, writeBuilder, true);
+            }
+        }
 
         final Mutation mutation = writeBuilder.build();
         this.target = null;
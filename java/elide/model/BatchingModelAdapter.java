@@ -0,0 +1,345 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.protobuf.FieldMask;
+import com.google.protobuf.Message;
+import elide.runtime.jvm.Logging;
+import elide.runtime.jvm.ReactiveFuture;
+import org.slf4j.Logger;
+import tools.elide.core.DatapointType;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static elide.model.ModelMetadata.enforceRole;
+import static java.lang.String.format;
+
+
+/**
+ * Wraps a {@link ModelAdapter} to transparently batch individual record fetches. Calls to
+ * {@link #retrieve(Message, FetchOptions)} (and therefore {@link #fetchAsync(Message)} and friends) are collected for
+ * a short window, or until a size cap is reached, and then dispatched together as one call to
+ * {@link ModelAdapter#retrieveAll(Iterable, FetchOptions)} on the wrapped adapter. Each caller's future is resolved
+ * from its slot in the batch result.
+ *
+ * <p>Only fetches made with the same {@link FetchOptions} instance are batched together, so that every key in a batch
+ * is subject to identical options. Writes, patches and deletes are passed straight through to the wrapped adapter, so
+ * that they settle any write-behind the wrapped adapter holds for the record.</p>
+ *
+ * <p>Batching is opt-in: wrap an existing adapter via {@link #wrap(ModelAdapter)} or
+ * {@link #wrap(ModelAdapter, long, TimeUnit, int)}. Batch-size metrics are available through {@link #batchCount()},
+ * {@link #batchedKeyCount()} and {@link #largestBatchSize()}.</p>
+ *
+ * @param <Key> Key type, instances of which uniquely address instances of {@code Model}.
+ * @param <Model> Model type which this adapter is responsible for adapting.
+ */
+@ThreadSafe
+@SuppressWarnings("UnstableApiUsage")
+public final class BatchingModelAdapter<Key extends Message, Model extends Message>
+  implements ModelAdapter<Key, Model> {
+  /** Default window to wait for additional fetches before dispatching a batch. */
+  public static final long DEFAULT_WINDOW = 2;
+
+  /** Time units for {@link #DEFAULT_WINDOW}. */
+  public static final TimeUnit DEFAULT_WINDOW_UNIT = TimeUnit.MILLISECONDS;
+
+  /** Default maximum number of keys to dispatch in a single batch. */
+  public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+  /** Private log pipe. */
+  private static final Logger logging = Logging.logger(BatchingModelAdapter.class);
+
+  /** Wrapped adapter, which receives batched fetches. */
+  private final @Nonnull ModelAdapter<Key, Model> delegate;
+
+  /** Window to wait for additional fetches before dispatching a batch. */
+  private final long window;
+
+  /** Time units for {@link #window}. */
+  private final @Nonnull TimeUnit windowUnit;
+
+  /** Maximum number of keys to dispatch in a single batch. */
+  private final int maxBatchSize;
+
+  /** Lock which guards {@link #pending}. */
+  private final @Nonnull Object lock = new Object();
+
+  /** Batches which are currently collecting fetches, addressed by the options they were made with. */
+  @GuardedBy("lock")
+  private final @Nonnull Map<FetchOptions, PendingBatch> pending = new IdentityHashMap<>();
+
+  /** Count of batches dispatched so far. */
+  private final @Nonnull AtomicLong batches = new AtomicLong(0);
+
+  /** Count of keys dispatched so far, across all batches. */
+  private final @Nonnull AtomicLong batchedKeys = new AtomicLong(0);
+
+  /** Size of the largest batch dispatched so far. */
+  private final @Nonnull AtomicInteger largestBatch = new AtomicInteger(0);
+
+  /** Fetches collected for dispatch in a single batch. */
+  private final class PendingBatch {
+    /** Options shared by all fetches in this batch. */
+    private final @Nonnull FetchOptions options;
+
+    /** Keys to fetch, in the order they were requested. */
+    private final @Nonnull List<Key> keys = new ArrayList<>();
+
+    /** Futures to resolve, aligned with {@link #keys}. */
+    private final @Nonnull List<SettableFuture<Optional<Model>>> results = new ArrayList<>();
+
+    /** Scheduled window flush for this batch, if any. */
+    private @Nullable ScheduledFuture<?> timer;
+
+    private PendingBatch(@Nonnull FetchOptions options) {
+      this.options = options;
+    }
+  }
+
+  /**
+   * Private constructor. Acquire via {@link #wrap(ModelAdapter, long, TimeUnit, int)}.
+   *
+   * @param delegate Adapter to wrap.
+   * @param window Window to wait for additional fetches before dispatching a batch.
+   * @param windowUnit Time units for {@code window}.
+   * @param maxBatchSize Maximum number of keys to dispatch in a single batch.
+   */
+  private BatchingModelAdapter(@Nonnull ModelAdapter<Key, Model> delegate,
+                               long window,
+                               @Nonnull TimeUnit windowUnit,
+                               int maxBatchSize) {
+    this.delegate = delegate;
+    this.window = window;
+    this.windowUnit = windowUnit;
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * Wrap the provided adapter with automatic fetch batching, using the default window and batch size.
+   *
+   * @param adapter Adapter to wrap.
+   * @param <K> Key type for the adapter.
+   * @param <M> Model type for the adapter.
+   * @return Batching adapter which wraps {@code adapter}.
+   */
+  public static @Nonnull <K extends Message, M extends Message> BatchingModelAdapter<K, M> wrap(
+    @Nonnull ModelAdapter<K, M> adapter) {
+    return wrap(adapter, DEFAULT_WINDOW, DEFAULT_WINDOW_UNIT, DEFAULT_MAX_BATCH_SIZE);
+  }
+
+  /**
+   * Wrap the provided adapter with automatic fetch batching, using the provided window and batch size.
+   *
+   * @param adapter Adapter to wrap.
+   * @param window Window to wait for additional fetches before dispatching a batch.
+   * @param windowUnit Time units for {@code window}.
+   * @param maxBatchSize Maximum number of keys to dispatch in a single batch. Reaching this size dispatches the batch
+   *                     immediately, before its window closes.
+   * @param <K> Key type for the adapter.
+   * @param <M> Model type for the adapter.
+   * @return Batching adapter which wraps {@code adapter}.
+   * @throws IllegalArgumentException If the window is negative, or the batch size is less than 1.
+   */
+  public static @Nonnull <K extends Message, M extends Message> BatchingModelAdapter<K, M> wrap(
+    @Nonnull ModelAdapter<K, M> adapter,
+    long window,
+    @Nonnull TimeUnit windowUnit,
+    int maxBatchSize) {
+    Objects.requireNonNull(adapter, "Cannot wrap `null` adapter.");
+    Objects.requireNonNull(windowUnit, "Cannot batch with `null` window unit.");
+    if (window < 0) throw new IllegalArgumentException("Batch window cannot be negative.");
+    if (maxBatchSize < 1) throw new IllegalArgumentException("Batch size must be at least 1.");
+    return new BatchingModelAdapter<>(adapter, window, windowUnit, maxBatchSize);
+  }
+
+  // -- Metrics -- //
+  /** @return Count of batches dispatched by this adapter so far. */
+  public long batchCount() {
+    return batches.get();
+  }
+
+  /** @return Count of keys dispatched by this adapter so far, across all batches. */
+  public long batchedKeyCount() {
+    return batchedKeys.get();
+  }
+
+  /** @return Size of the largest batch dispatched by this adapter so far. */
+  public int largestBatchSize() {
+    return largestBatch.get();
+  }
+
+  // -- Interface: Drivers -- //
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull Optional<CacheDriver<Key, Model>> cache() {
+    return delegate.cache();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull PersistenceDriver<Key, Model> engine() {
+    return delegate.engine();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull ModelCodec codec() {
+    return delegate.codec();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull ListeningScheduledExecutorService executorService() {
+    return delegate.executorService();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull Key generateKey(@Nonnull Message instance) {
+    return delegate.generateKey(instance);
+  }
+
+  // -- Interface: Fetch -- //
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull ReactiveFuture<Optional<Model>> retrieve(@Nonnull Key key, @Nonnull FetchOptions options) {
+    Objects.requireNonNull(key, "Cannot fetch model with `null` for key.");
+    Objects.requireNonNull(options, "Cannot fetch model without `options`.");
+    enforceRole(key, DatapointType.OBJECT_KEY);
+    final ListeningScheduledExecutorService exec = options.executorService().orElseGet(this::executorService);
+    final SettableFuture<Optional<Model>> result = SettableFuture.create();
+
+    PendingBatch ready = null;
+    synchronized (lock) {
+      PendingBatch batch = pending.get(options);
+      if (batch == null) {
+        final PendingBatch opened = new PendingBatch(options);
+        pending.put(options, opened);
+        if (maxBatchSize > 1)
+          opened.timer = exec.schedule(() -> this.flush(opened), window, windowUnit);
+        batch = opened;
+      }
+      batch.keys.add(key);
+      batch.results.add(result);
+      if (batch.keys.size() >= maxBatchSize) {
+        pending.remove(options);
+        ready = batch;
+      }
+    }
+    if (ready != null) dispatch(ready);
+    return ReactiveFuture.wrap(result, exec);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull ReactiveFuture<List<Optional<Model>>> retrieveAll(@Nonnull Iterable<Key> keys,
+                                                                    @Nonnull FetchOptions options) {
+    return delegate.retrieveAll(keys, options);
+  }
+
+  /**
+   * Dispatch the provided batch when its window closes, unless it has already been dispatched because it filled up.
+   *
+   * @param batch Batch to flush.
+   */
+  private void flush(@Nonnull PendingBatch batch) {
+    synchronized (lock) {
+      if (pending.get(batch.options) != batch) return;
+      pending.remove(batch.options);
+    }
+    dispatch(batch);
+  }
+
+  /**
+   * Dispatch the provided batch to the wrapped adapter as one multi-key fetch, and resolve each caller's future from
+   * the result. The batch must already have been removed from {@link #pending}.
+   *
+   * @param batch Batch to dispatch.
+   */
+  private void dispatch(@Nonnull PendingBatch batch) {
+    if (batch.timer != null) batch.timer.cancel(false);
+    final int size = batch.keys.size();
+    batches.incrementAndGet();
+    batchedKeys.addAndGet(size);
+    largestBatch.accumulateAndGet(size, Math::max);
+    if (logging.isDebugEnabled())
+      logging.debug(format("Dispatching batch of %s fetches.", size));
+
+    final ListenableFuture<List<Optional<Model>>> op;
+    try {
+      op = delegate.retrieveAll(batch.keys, batch.options);
+    } catch (RuntimeException exc) {
+      batch.results.forEach((result) -> result.setException(exc));
+      return;
+    }
+
+    Futures.addCallback(op, new FutureCallback<>() {
+      @Override
+      public void onSuccess(@Nullable List<Optional<Model>> records) {
+        for (int i = 0; i < size; i++) {
+          batch.results.get(i).set(records != null && i < records.size() ? records.get(i) : Optional.empty());
+        }
+      }
+
+      @Override
+      public void onFailure(@Nonnull Throwable err) {
+        batch.results.forEach((result) -> result.setException(err));
+      }
+    }, MoreExecutors.directExecutor());
+  }
+
+  // -- Interface: Persist -- //
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull ReactiveFuture<Model> persist(@Nullable Key key,
+                                                @Nonnull Model model,
+                                                @Nonnull WriteOptions options) {
+    return delegate.persist(key, model, options);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull ReactiveFuture<List<Model>> persistAll(@Nonnull Map<Key, Model> models,
+                                                         @Nonnull WriteOptions options) {
+    return delegate.persistAll(models, options);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull ReactiveFuture<Model> patch(@Nonnull Key key,
+                                              @Nonnull Model model,
+                                              @Nonnull FieldMask mask,
+                                              @Nonnull WriteOptions options) {
+    return delegate.patch(key, model, mask, options);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public @Nonnull ReactiveFuture<Key> delete(@Nonnull Key key, @Nonnull DeleteOptions options) {
+    return delegate.delete(key, options);
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import com.google.protobuf.Message;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+/**
+ * Describes a {@link ModelSerializer} which produces byte-oriented output, and can therefore write a model's encoded
+ * bytes straight into a byte sink, without materializing an intermediate output object.
+ *
+ * @param <Model> Data model which a given serializer implementation is responsible for adapting.
+ * @param <Output> Output type which the serializer will provide when invoked with a matching model instance.
+ */
+public interface ByteModelSerializer<Model extends Message, Output> extends ModelSerializer<Model, Output> {
+  /**
+   * Serialize a model instance directly into {@code sink}, as raw bytes. The bytes written are identical to those held
+   * by the output of {@link #deflate(Message)}.
+   *
+   * @param input Input record object to serialize.
+   * @param sink Destination for the serialized bytes. It is not flushed or closed.
+   * @return Number of bytes written to {@code sink}.
+   * @throws ModelDeflateException If the model fails to export or serialize for any reason.
+   * @throws IOException If an IO error of some kind occurs.
+   */
+  int deflateTo(@Nonnull Model input, @Nonnull OutputStream sink) throws ModelDeflateException, IOException;
+}
@@ -20,6 +20,7 @@ import elide.runtime.jvm.ReactiveFuture;
 
 import javax.annotation.Nonnull;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -98,4 +99,78 @@ public interface CacheDriver<Key extends Message, Model extends Message> {
   @Nonnull ReactiveFuture<Optional<Model>> fetch(@Nonnull Key key,
                                                  @Nonnull FetchOptions options,
                                                  @Nonnull ListeningScheduledExecutorService executor);
+
+  /**
+   * Check whether the cache holds a <i>negative</i> entry for {@code key}, meaning the record was recently found not to
+   * exist in storage. Negative entries are written via
+   * {@link #markAbsent(Message, long, TimeUnit, ListeningScheduledExecutorService)}, and allow a {@link ModelAdapter}
+   * to answer repeated lookups for missing records without consulting storage.
+   *
+   * <p>The default implementation does not support negative caching, and always resolves to {@code false}.</p>
+   *
+   * @param key Key for the record which we should check for a negative entry.
+   * @param executor Executor to use for async tasks. Provided by the driver or adapter.
+   * @return Future value, which resolves to {@code true} if the record is known to be absent.
+   */
+  default @Nonnull ReactiveFuture<Boolean> checkAbsent(@Nonnull Key key,
+                                                       @Nonnull ListeningScheduledExecutorService executor) {
+    return ReactiveFuture.done(false);
+  }
+
+  /**
+   * Write a negative entry for {@code key} into the cache, which marks the record as absent from storage for the
+   * provided {@code ttl}. Negative entries are kept separately from cached models, and should expire on their own
+   * (typically much shorter) lifetime.
+   *
+   * <p>The default implementation does not support negative caching, and does nothing.</p>
+   *
+   * @param key Key for the record which was found to be absent.
+   * @param ttl Amount of time to keep the negative entry.
+   * @param unit Time unit for {@code ttl}.
+   * @param executor Executor to use for any async operations.
+   * @return Future, which simply completes when the write is done.
+   */
+  default @Nonnull ReactiveFuture markAbsent(@Nonnull Key key,
+                                             long ttl,
+                                             @Nonnull TimeUnit unit,
+                                             @Nonnull ListeningScheduledExecutorService executor) {
+    return ReactiveFuture.done(key);
+  }
+
+  /**
+   * Clear any negative entry for {@code key} from the cache, typically because the record has just been written. This
+   * operation is expected to succeed in all cases and perform its work in an idempotent manner.
+   *
+   * <p>The default implementation does not support negative caching, and does nothing.</p>
+   *
+   * @param key Key for the record whose negative entry should be cleared.
+   * @param executor Executor to use for any async operations.
+   * @return Future, which simply completes when the operation is done.
+   */
+  default @Nonnull ReactiveFuture clearAbsent(@Nonnull Key key, @Nonnull ListeningScheduledExecutorService executor) {
+    return ReactiveFuture.done(key);
+  }
+
+  /**
+   * Attempt to resolve a batch of known models, each addressed by one of the provided {@code keys}, from the cache
+   * powered/backed by this driver, according to {@code options} and making use of {@code executor}.
+   *
+   * <p>The resulting list is aligned by position with {@code keys}. Each slot holds either the cached model for the
+   * corresponding key, or {@link Optional#empty()} if the cache does not hold it, in which case the driver is consulted
+   * for that key alone. The default implementation fans out to
+   * {@link #fetch(Message, FetchOptions, ListeningScheduledExecutorService)}; caches which support multi-get should
+   * override it.</p>
+   *
+   * @param keys Keys for the records which we should look for in the cache.
+   * @param options Options to apply to the fetch routine taking place.
+   * @param executor Executor to use for async tasks. Provided by the driver or adapter.
+   * @return Future value, which resolves to a positional list of cache results, one for each provided key.
+   */
+  default @Nonnull ReactiveFuture<List<Optional<Model>>> fetchAll(@Nonnull Iterable<Key> keys,
+                                                                  @Nonnull FetchOptions options,
+                                                                  @Nonnull ListeningScheduledExecutorService executor) {
+    List<ListenableFuture<Optional<Model>>> fetches = new ArrayList<>();
+    keys.forEach((key) -> fetches.add(fetch(key, options, executor)));
+    return ReactiveFuture.wrap(Futures.allAsList(fetches), executor);
+  }
 }
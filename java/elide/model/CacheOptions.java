@@ -29,6 +29,18 @@ import java.util.concurrent.TimeUnit;
  *   <li>{@link #cacheDefaultTTL()}: Default amount of time to let things stick around in the cache.</li>
  *   <li>{@link #cacheDefaultTTLUnit()}: Time unit to correspond with {@code cacheDefaultTTL}.</li>
  *   <li>{@link #cacheEvictionMode()}: Eviction mode to operate in.
+ *   <li>{@link #cacheNegativeTTL()}: Amount of time to remember that a record does not exist. Negative caching is
+ *   disabled unless this is set. Writes through an adapter always clear any negative entry for the written record.</li>
+ *   <li>{@link #cacheNegativeTTLUnit()} ({@code SECONDS}): Time unit to correspond with {@code cacheNegativeTTL}.</li>
+ *   <li>{@link #coalesceMisses()} ({@code true}): Whether concurrent cache misses for the same record should share one
+ *   storage fetch and one cache fill.</li>
+ *   <li>{@link #cacheHedgeDelay()}: Amount of time to wait on the cache before also starting a storage read, and taking
+ *   whichever answers first. Hedging is disabled unless this (or {@link #cacheHedgePercentile()}) is set.</li>
+ *   <li>{@link #cacheHedgeDelayUnit()} ({@code MILLISECONDS}): Time unit to correspond with
+ *   {@code cacheHedgeDelay}.</li>
+ *   <li>{@link #cacheHedgePercentile()}: Percentile of recently observed cache latencies to use as the hedge delay, in
+ *   place of a fixed value. Latencies are observed separately for each adapter. Until enough latencies are observed,
+ *   {@code cacheHedgeDelay} is used, if set.</li>
  * </ul></p>
  */
 public interface CacheOptions extends OperationOptions {
@@ -90,4 +102,34 @@ public interface CacheOptions extends OperationOptions {
   default @Nonnull Optional<EvictionMode> cacheEvictionMode() {
     return Optional.of(EvictionMode.TTL);
   }
+
+  /** @return Amount of time to remember that a record does not exist. If left unspecified, misses are not cached. */
+  default @Nonnull Optional<Long> cacheNegativeTTL() {
+    return Optional.empty();
+  }
+
+  /** @return Unit to apply to the negative cache lifetime (TTL) value. */
+  default @Nonnull TimeUnit cacheNegativeTTLUnit() {
+    return TimeUnit.SECONDS;
+  }
+
+  /** @return Whether concurrent cache misses for the same record should be coalesced into one fetch. */
+  default @Nonnull Boolean coalesceMisses() {
+    return true;
+  }
+
+  /** @return Amount of time to wait on the cache before hedging to storage. If unspecified, reads are not hedged. */
+  default @Nonnull Optional<Long> cacheHedgeDelay() {
+    return Optional.empty();
+  }
+
+  /** @return Unit to apply to the cache hedge delay. */
+  default @Nonnull TimeUnit cacheHedgeDelayUnit() {
+    return TimeUnit.MILLISECONDS;
+  }
+
+  /** @return Percentile (between {@code 0} and {@code 1}) of observed cache latency to use as a learned hedge delay. */
+  default @Nonnull Optional<Double> cacheHedgePercentile() {
+    return Optional.empty();
+  }
 }
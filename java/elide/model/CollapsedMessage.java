@@ -165,6 +165,7 @@ public final class CollapsedMessage {
       return field != null ? Optional.of(field) : Optional.empty();
     }
 
+    /** @return Serialized object data for this write, which is handed to the write proxy as-is (without a copy). */
     public @Nonnull SerializedModel getData() {
       return data;
     }
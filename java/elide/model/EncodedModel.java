@@ -16,18 +16,24 @@ import com.google.protobuf.ByteString;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
+import com.google.protobuf.UnsafeByteOperations;
 import com.google.protobuf.util.JsonFormat;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Reader;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
 import java.util.Objects;
 
 
@@ -38,15 +44,27 @@ import java.util.Objects;
  * <p>Raw model data is encoded before being held by this record. In addition to holding the raw data, it also keeps
  * the fully-qualified path to the model that the data came from, and the serialization format the data lives in. After
  * being wrapped in this class, a batch of model data is additionally compliant with {@link Serializable}.</p>
+ *
+ * <p>Model data is held as an immutable {@link ByteString}, which is handed out and parsed from directly, without
+ * copying.</p>
  */
 @Immutable
 @ThreadSafe
 @SuppressWarnings({"unused", "WeakerAccess"})
 public final class EncodedModel implements Serializable, Cloneable {
-  private static final long serialVersionUID = 1L;
+  private static final long serialVersionUID = 2L;
+
+  /**
+   * Serial version written by earlier releases, which framed raw bytes with a single-byte length. Streams of this
+   * version may be read via {@link CompatibleInputStream}.
+   */
+  private static final long legacySerialVersionUID = 1L;
+
+  /** Largest JSON payload to decode into a single string when inflating, in bytes. Larger payloads are streamed. */
+  static final int maxBufferedJsonSize = 64 * 1024;
 
   /** Raw bytes of the enclosed model. */
-  private @Nonnull byte[] rawBytes;
+  private @Nonnull ByteString rawBytes;
 
   /** Type of model held by this entity. */
   private @Nonnull String type;
@@ -54,6 +72,9 @@ public final class EncodedModel implements Serializable, Cloneable {
   /** Operating mode for the underlying data. Always {@code BINARY} unless manually constructed. */
   private @Nonnull EncodingMode dataMode;
 
+  /** Cached hash code, or {@code 0} if not yet computed. */
+  private transient int hash;
+
   /**
    * Initialize a new encoded model directly from a {@link Message}.
    *
@@ -61,7 +82,7 @@ public final class EncodedModel implements Serializable, Cloneable {
    * @param mode Operating data mode (usually {@code BINARY}).
    * @param type Fully-qualified model type name.
    */
-  private EncodedModel(@Nonnull byte[] rawBytes, @Nonnull EncodingMode mode, @Nonnull String type) {
+  private EncodedModel(@Nonnull ByteString rawBytes, @Nonnull EncodingMode mode, @Nonnull String type) {
     this.type = type;
     this.dataMode = mode;
     this.rawBytes = rawBytes;
@@ -77,8 +98,8 @@ public final class EncodedModel implements Serializable, Cloneable {
   private void writeObject(@Nonnull ObjectOutputStream out) throws IOException {
     out.writeObject(type);
     out.writeObject(dataMode);
-    out.write(rawBytes.length);
-    out.write(rawBytes);
+    out.writeInt(rawBytes.size());
+    rawBytes.writeTo(out);
   }
 
   /**
@@ -95,12 +116,49 @@ public final class EncodedModel implements Serializable, Cloneable {
     this.dataMode = Objects.requireNonNull((EncodingMode)in.readObject(),
       "Cannot deserialize EncodedModel with empty data mode.");
 
-    // read length-prefixed raw bytes
-    int datasize = in.read();
+    // read length-prefixed raw bytes. legacy streams prefix them with a single-byte length instead.
+    int datasize;
+    if (in instanceof CompatibleInputStream && ((CompatibleInputStream)in).legacy) {
+      datasize = in.read();
+      if (datasize < 0) throw new EOFException("Unexpected end of legacy EncodedModel data.");
+    } else {
+      datasize = in.readInt();
+    }
     byte[] data = new byte[datasize];
-    int read = in.read(data);
-    assert datasize == read;
-    this.rawBytes = data;
+    in.readFully(data);
+    this.rawBytes = UnsafeByteOperations.unsafeWrap(data);
+  }
+
+  /**
+   * Object input stream which additionally reads encoded models written by earlier releases, which used a previous
+   * serial version and data layout. Use this stream only to read data which may pre-date the current layout.
+   */
+  public static final class CompatibleInputStream extends ObjectInputStream {
+    /** Whether the stream carries encoded models in the legacy layout. */
+    private boolean legacy = false;
+
+    /**
+     * Create a compatible object input stream which reads from {@code in}.
+     *
+     * @param in Input stream to read from.
+     * @throws IOException If the stream header cannot be read.
+     */
+    public CompatibleInputStream(@Nonnull InputStream in) throws IOException {
+      super(in);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+      ObjectStreamClass descriptor = super.readClassDescriptor();
+      if (EncodedModel.class.getName().equals(descriptor.getName()) &&
+          descriptor.getSerialVersionUID() == legacySerialVersionUID) {
+        // the legacy layout is read by `readObject`, so the current class descriptor may stand in for it.
+        legacy = true;
+        return ObjectStreamClass.lookup(EncodedModel.class);
+      }
+      return descriptor;
+    }
   }
 
   /**
@@ -131,7 +189,7 @@ public final class EncodedModel implements Serializable, Cloneable {
    */
   public static EncodedModel from(@Nonnull Message message, @Nullable Descriptors.Descriptor descriptor) {
     return new EncodedModel(
-      message.toByteArray(),
+      message.toByteString(),
       EncodingMode.BINARY,
       (descriptor != null ? descriptor : message.getDescriptorForType()).getFullName()
     );
@@ -144,6 +202,8 @@ public final class EncodedModel implements Serializable, Cloneable {
    * <p>All details must be provided manually to this method variant. It is incumbent on the developer that they line
    * up properly. For safer options, see the other factory methods on this class.</p>
    *
+   * <p>The provided array is wrapped, not copied, so it must not be modified after being handed to this method.</p>
+   *
    * @see #from(Message) To encode a model instance.
    * @see #from(Message, Descriptors.Descriptor) To encode a model instance with a descriptor already in-hand.
    * @param type Fully-qualified type name, for the encoded instance we are storing.
@@ -151,6 +211,18 @@ public final class EncodedModel implements Serializable, Cloneable {
    * @return Encoded model instance.
    */
   public static EncodedModel wrap(@Nonnull String type, @Nonnull EncodingMode mode, @Nonnull byte[] data) {
+    return new EncodedModel(UnsafeByteOperations.unsafeWrap(data), mode, type);
+  }
+
+  /**
+   * Wrap an immutable blob of opaque data, asserting that it is actually an encoded model record. This variant behaves
+   * identically to {@link #wrap(String, EncodingMode, byte[])}, but accepts a {@link ByteString} directly.
+   *
+   * @param type Fully-qualified type name, for the encoded instance we are storing.
+   * @param data Raw data for the encoded model to be wrapped.
+   * @return Encoded model instance.
+   */
+  public static EncodedModel wrap(@Nonnull String type, @Nonnull EncodingMode mode, @Nonnull ByteString data) {
     return new EncodedModel(data, mode, type);
   }
 
@@ -160,9 +232,8 @@ public final class EncodedModel implements Serializable, Cloneable {
   @Override
   @SuppressWarnings("MethodDoesntCallSuperMethod")
   protected EncodedModel clone() {
-    byte[] rawData = new byte[this.rawBytes.length];
-    System.arraycopy(this.rawBytes, 0, rawData, 0, this.rawBytes.length);
-    return new EncodedModel(rawData, this.dataMode, this.type);
+    // raw data is immutable, so it can be shared.
+    return new EncodedModel(this.rawBytes, this.dataMode, this.type);
   }
 
 
@@ -174,18 +245,22 @@ public final class EncodedModel implements Serializable, Cloneable {
     if (this == o) return true;
     if (o == null || getClass() != o.getClass()) return false;
     EncodedModel that = (EncodedModel) o;
-    return com.google.common.base.Objects.equal(type, that.type) &&
-      dataMode == that.dataMode &&
-      com.google.common.base.Objects.equal(
-        Arrays.hashCode(rawBytes),
-        Arrays.hashCode(that.rawBytes));
+    return dataMode == that.dataMode &&
+      rawBytes.size() == that.rawBytes.size() &&
+      hashCode() == that.hashCode() &&
+      type.equals(that.type) &&
+      rawBytes.equals(that.rawBytes);
   }
 
   /** {@inheritDoc} */
   @Override
   public int hashCode() {
-    return com.google.common.base.Objects
-      .hashCode(type, dataMode, Arrays.hashCode(rawBytes));
+    int h = hash;
+    if (h == 0) {
+      h = com.google.common.base.Objects.hashCode(type, dataMode, rawBytes);
+      hash = h;
+    }
+    return h;
   }
 
   /** {@inheritDoc} */
@@ -199,9 +274,19 @@ public final class EncodedModel implements Serializable, Cloneable {
 
   // -- Getters -- //
 
-  /** @return Raw bytes held by this encoded model. */
+  /** @return Raw bytes held by this encoded model. These are immutable, and are returned without copying. */
   public @Nonnull ByteString getRawBytes() {
-    return ByteString.copyFrom(this.rawBytes);
+    return this.rawBytes;
+  }
+
+  /** @return Read-only view of the raw bytes held by this encoded model, which does not copy them. */
+  public @Nonnull ByteBuffer asReadOnlyByteBuffer() {
+    return this.rawBytes.asReadOnlyByteBuffer();
+  }
+
+  /** @return Size of the raw model data held by this encoded model, in bytes. */
+  public int size() {
+    return this.rawBytes.size();
   }
 
   /** @return Fully-qualified path to the type of model backing this encoded instance. */
@@ -216,10 +301,34 @@ public final class EncodedModel implements Serializable, Cloneable {
 
   // -- Inflate -- //
 
+  /**
+   * Merge a UTF-8 JSON payload into the provided builder. Payloads up to {@link #maxBufferedJsonSize} are decoded to a
+   * string in one step, which is cheaper than a streaming reader (with its 8 KiB buffer and decoder) for typical
+   * records; larger payloads are streamed, to bound peak memory.
+   *
+   * @param parser JSON parser to merge with.
+   * @param payload Uncompressed JSON payload.
+   * @param builder Builder to merge the payload into.
+   * @throws IOException If the payload cannot be read or parsed.
+   */
+  static void mergeJson(@Nonnull JsonFormat.Parser parser,
+                        @Nonnull ByteString payload,
+                        @Nonnull Message.Builder builder) throws IOException {
+    if (payload.size() <= maxBufferedJsonSize) {
+      parser.merge(payload.toStringUtf8(), builder);
+    } else {
+      try (Reader reader = new InputStreamReader(payload.newInput(), StandardCharsets.UTF_8)) {
+        parser.merge(reader, builder);
+      }
+    }
+  }
+
   /**
    * Re-inflate the encoded model data held by this object, into an instance of {@code Model}, via the provided
    * {@code builder}.
    *
+   * <p>Payloads compressed via {@link PayloadCompression} without a dictionary are decompressed transparently.</p>
+   *
    * <p><b>Note:</b> before the model is returned from this method, it will be casted to match the generic type the user
    * is looking for. It is incumbent on the invoking developer to make sure the generic access that occurs won't produce
    * a {@link ClassCastException}. {@link #getType()} can be interrogated to resolve types before inflation.</p>
@@ -230,17 +339,29 @@ public final class EncodedModel implements Serializable, Cloneable {
    * @throws InvalidProtocolBufferException If the held data is incorrectly formatted.
    */
   public @Nonnull <Model extends Message> Model inflate(@Nonnull Message model) throws InvalidProtocolBufferException {
+    ByteString payload;
+    try {
+      payload = PayloadCompression.defaults().decompress(this.rawBytes);
+    } catch (InvalidProtocolBufferException err) {
+      throw err;
+    } catch (IOException err) {
+      throw new InvalidProtocolBufferException(err);
+    }
     if (dataMode == EncodingMode.JSON) {
       Message.Builder builder = model.newBuilderForType();
-      JsonFormat.parser().merge(
-        new String(this.rawBytes, StandardCharsets.UTF_8),
-        builder);
+      try {
+        mergeJson(JsonFormat.parser(), payload, builder);
+      } catch (InvalidProtocolBufferException err) {
+        throw err;
+      } catch (IOException err) {
+        throw new InvalidProtocolBufferException(err);
+      }
 
       //noinspection unchecked
       return (Model)builder.build();
     } else {
       //noinspection unchecked
-      return (Model)model.getParserForType().parseFrom(this.rawBytes);
+      return (Model)model.getParserForType().parseFrom(payload);
     }
   }
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+import static elide.model.PersistenceDriver.Internals.logging;
+
+
+/**
+ * Implements hedged reads between the cache and storage: if the cache has not answered within a configured (or
+ * learned) delay, a storage read is started in parallel, and whichever answers first wins.
+ *
+ * <p>Cache latencies are tracked separately for each {@link ModelAdapter} instance, so that adapters backed by
+ * different caches (or engines) each learn their own hedge delay, which may follow a percentile of recently observed
+ * latencies.</p>
+ */
+final class Hedge {
+  /** Number of recent cache latencies to retain for each adapter. */
+  private static final int WINDOW_SIZE = 128;
+
+  /** Minimum number of observed latencies before a learned hedge delay is used. */
+  private static final int MIN_SAMPLES = 16;
+
+  /** Hedge state, weakly keyed by the identity of the adapter which owns it. */
+  private static final Cache<Object, Hedge> hedges = CacheBuilder.newBuilder().weakKeys().build();
+
+  /** Recent cache latencies for the owning adapter. */
+  private final LatencyWindow latencies = new LatencyWindow();
+
+  private Hedge() { /* Disallow instantiation, except via `forAdapter`. */ }
+
+  /**
+   * Ring buffer of recently-observed cache latencies, in nanoseconds. A sorted copy of the window is maintained as
+   * samples arrive, so that percentiles may be read without sorting.
+   */
+  private static final class LatencyWindow {
+    private final long[] samples = new long[WINDOW_SIZE];
+    private final long[] sorted = new long[WINDOW_SIZE];
+    private int count = 0;
+    private int next = 0;
+
+    synchronized void record(long nanos) {
+      if (count == WINDOW_SIZE) {
+        // drop the sample being overwritten from the sorted window.
+        int evicted = Arrays.binarySearch(sorted, 0, count, samples[next]);
+        System.arraycopy(sorted, evicted + 1, sorted, evicted, count - evicted - 1);
+        count--;
+      }
+      samples[next] = nanos;
+      next = (next + 1) % WINDOW_SIZE;
+
+      int insert = Arrays.binarySearch(sorted, 0, count, nanos);
+      if (insert < 0) insert = -insert - 1;
+      System.arraycopy(sorted, insert, sorted, insert + 1, count - insert);
+      sorted[insert] = nanos;
+      count++;
+    }
+
+    synchronized @Nonnull Optional<Long> percentile(double percentile) {
+      if (count < MIN_SAMPLES) return Optional.empty();
+      int index = (int)Math.ceil(Math.min(Math.max(percentile, 0.0), 1.0) * count) - 1;
+      return Optional.of(sorted[Math.max(index, 0)]);
+    }
+  }
+
+  /**
+   * Resolve the hedge state for {@code adapter}, creating it if it does not yet exist. The state lives as long as the
+   * adapter does.
+   *
+   * @param adapter Adapter which owns the hedge state.
+   * @return Hedge state for the adapter.
+   */
+  static @Nonnull Hedge forAdapter(@Nonnull Object adapter) {
+    Objects.requireNonNull(adapter, "Cannot resolve hedge state for `null` adapter.");
+    var memo = hedges.asMap();
+    var existing = memo.get(adapter);
+    if (existing != null) return existing;
+    var created = new Hedge();
+    existing = memo.putIfAbsent(adapter, created);
+    return existing != null ? existing : created;
+  }
+
+  /**
+   * Resolve the hedge delay to apply to a read through the owning adapter, in nanoseconds. A learned delay is
+   * preferred, if enabled and enough latencies have been observed, falling back to the configured delay, if any.
+   * Delays are kept in nanoseconds throughout, since learned cache latencies are often well under a millisecond.
+   *
+   * @param options Options applied to the read.
+   * @return Hedge delay to apply, in nanoseconds, or {@link Optional#empty()} if the read should not be hedged.
+   */
+  @Nonnull Optional<Long> delay(@Nonnull CacheOptions options) {
+    if (options.cacheHedgePercentile().isPresent()) {
+      Optional<Long> learned = latencies.percentile(options.cacheHedgePercentile().get());
+      if (learned.isPresent()) {
+        return learned;
+      }
+    }
+    return options.cacheHedgeDelay().map((configured) -> options.cacheHedgeDelayUnit().toNanos(configured));
+  }
+
+  /**
+   * Record the latency of {@code cacheFuture}, once it succeeds, against the owning adapter.
+   *
+   * @param cacheFuture Future for the cache read.
+   * @param started Time the cache read started, per {@link System#nanoTime()}.
+   * @param <R> Result type of the cache read.
+   * @return The same {@code cacheFuture}, for chaining.
+   */
+  @Nonnull <R> ListenableFuture<R> observe(@Nonnull ListenableFuture<R> cacheFuture, long started) {
+    Futures.addCallback(cacheFuture, new FutureCallback<>() {
+      @Override
+      public void onSuccess(R result) {
+        latencies.record(System.nanoTime() - started);
+      }
+
+      @Override
+      public void onFailure(@Nonnull Throwable err) {
+        // failed or timed-out cache reads are not useful as latency samples.
+      }
+    }, MoreExecutors.directExecutor());
+    return cacheFuture;
+  }
+
+  /**
+   * Race {@code cacheFuture} against a storage read, which is started via {@code storage} if the cache has not
+   * answered within {@code delay}, or if the cache misses or fails. A cache hit wins outright; otherwise, the result
+   * of the storage read is used. Whichever side loses is cancelled.
+   *
+   * @param cacheFuture Future for the cache read.
+   * @param storage Operation which starts the storage read. Invoked at most once.
+   * @param delay Delay before starting the storage read, if the cache has not yet answered.
+   * @param unit Time unit to correspond with {@code delay}.
+   * @param exec Executor on which to schedule the hedge.
+   * @param <R> Record type being read.
+   * @return Future which resolves to the winning result.
+   */
+  static @Nonnull <R> ListenableFuture<Optional<R>> race(@Nonnull ListenableFuture<Optional<R>> cacheFuture,
+                                                        @Nonnull Supplier<ListenableFuture<Optional<R>>> storage,
+                                                        long delay,
+                                                        @Nonnull TimeUnit unit,
+                                                        @Nonnull ListeningScheduledExecutorService exec) {
+    final SettableFuture<Optional<R>> result = SettableFuture.create();
+    final SettableFuture<Optional<R>> storageRead = SettableFuture.create();
+    final AtomicBoolean storageStarted = new AtomicBoolean(false);
+    final Runnable startStorage = () -> {
+      if (storageStarted.compareAndSet(false, true)) {
+        try {
+          storageRead.setFuture(storage.get());
+        } catch (RuntimeException exc) {
+          storageRead.setException(exc);
+        }
+      }
+    };
+
+    // start storage once the hedge delay passes, if nothing has answered yet.
+    final ListenableFuture<?> timer = exec.schedule(() -> {
+      if (!result.isDone()) {
+        if (logging.isDebugEnabled())
+          logging.debug(format("Cache did not answer within %s %s. Hedging to storage.", delay, unit));
+        startStorage.run();
+      }
+    }, delay, unit);
+
+    // a cache hit wins. a cache miss or failure defers to storage, starting it if the hedge has not already.
+    cacheFuture.addListener(() -> {
+      try {
+        Optional<R> cached = Futures.getDone(cacheFuture);
+        if (cached != null && cached.isPresent()) {
+          result.set(cached);
+          return;
+        }
+      } catch (ExecutionException | CancellationException exc) {
+        if (logging.isDebugEnabled())
+          logging.debug(format("Cache read failed during hedged read: '%s'.", exc.getMessage()));
+      }
+      startStorage.run();
+      result.setFuture(storageRead);
+    }, MoreExecutors.directExecutor());
+
+    // a storage answer wins, unless it failed while the cache may still answer.
+    storageRead.addListener(() -> {
+      boolean succeeded;
+      try {
+        Futures.getDone(storageRead);
+        succeeded = true;
+      } catch (ExecutionException | CancellationException exc) {
+        succeeded = false;
+      }
+      if (succeeded || cacheFuture.isDone()) {
+        result.setFuture(storageRead);
+      }
+    }, MoreExecutors.directExecutor());
+
+    // once resolved, cancel whichever side lost.
+    result.addListener(() -> {
+      timer.cancel(false);
+      cacheFuture.cancel(false);
+      storageRead.cancel(false);
+    }, MoreExecutors.directExecutor());
+    return result;
+  }
+}
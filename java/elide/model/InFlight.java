@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.protobuf.Message;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+import static elide.model.ModelMetadata.id;
+
+
+/**
+ * Tracks storage fetches which are currently in-flight on behalf of cache misses, so that concurrent misses for the
+ * same record may share one fetch (and one cache fill), rather than each hitting storage independently.
+ *
+ * <p>Flights are tracked separately for each {@link ModelAdapter} instance, so adapters backed by different engines
+ * never share fetches. Within an adapter, fetch options are compared by identity, because driver-specific options
+ * (for instance, a Spanner database ID) may change the result of a fetch without being visible here.</p>
+ */
+final class InFlight {
+  /** Flight tables, weakly keyed by the identity of the adapter which owns them. */
+  private static final Cache<Object, InFlight> tables = CacheBuilder.newBuilder().weakKeys().build();
+
+  /** Pending fetches, addressed by flight. */
+  private final ConcurrentMap<Flight, ListenableFuture<?>> pending = new ConcurrentHashMap<>();
+
+  private InFlight() { /* Disallow instantiation, except via `forAdapter`. */ }
+
+  /** Address of a shared fetch: the record being fetched, and the options it is fetched with. */
+  private static final class Flight {
+    private final @Nonnull String address;
+    private final @Nonnull FetchOptions options;
+
+    private Flight(@Nonnull String address, @Nonnull FetchOptions options) {
+      this.address = address;
+      this.options = options;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) return true;
+      if (!(other instanceof Flight)) return false;
+      Flight flight = (Flight)other;
+      return address.equals(flight.address) && options == flight.options;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * address.hashCode() + System.identityHashCode(options);
+    }
+
+    @Override
+    public String toString() {
+      return address;
+    }
+  }
+
+  /**
+   * Resolve the flight table for {@code adapter}, creating it if it does not yet exist. The table lives as long as the
+   * adapter does.
+   *
+   * @param adapter Adapter which owns the flight table.
+   * @return Flight table for the adapter.
+   */
+  static @Nonnull InFlight forAdapter(@Nonnull Object adapter) {
+    Objects.requireNonNull(adapter, "Cannot resolve flight table for `null` adapter.");
+    var memo = tables.asMap();
+    var existing = memo.get(adapter);
+    if (existing != null) return existing;
+    var created = new InFlight();
+    existing = memo.putIfAbsent(adapter, created);
+    return existing != null ? existing : created;
+  }
+
+  /**
+   * Generate a flight address for a fetch of the record at {@code key}, for the model type of {@code instance}.
+   * Fetches share a flight only if they would produce identical results, so any field mask is considered as well.
+   *
+   * @param instance Default instance of the model type being fetched.
+   * @param key Key for the record being fetched.
+   * @param options Options applied to the fetch.
+   * @return Flight address for the fetch.
+   */
+  static @Nonnull String flightKey(@Nonnull Message instance, @Nonnull Message key, @Nonnull FetchOptions options) {
+    return format("%s/%s/%s/%s/%s",
+      instance.getDescriptorForType().getFullName(),
+      key.getDescriptorForType().getFullName(),
+      id(key).orElseThrow(() -> new IllegalArgumentException("Cannot fetch model with empty key.")),
+      options.fieldMaskMode().name(),
+      options.fieldMask().map((mask) -> String.join(",", mask.getPathsList())).orElse(""));
+  }
+
+  /**
+   * Join the in-flight fetch at {@code flightKey}, with {@code options}, if one exists, or otherwise start one via
+   * {@code operation}. The returned future does not propagate cancellation, so that one caller giving up does not fail
+   * the others.
+   *
+   * @param flightKey Flight address for the fetch (see {@link #flightKey(Message, Message, FetchOptions)}).
+   * @param options Options applied to the fetch.
+   * @param operation Operation which starts the fetch, if it is not already in-flight.
+   * @param <R> Result type of the fetch.
+   * @return Future which resolves to the result of the shared fetch.
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull <R> ListenableFuture<R> coalesce(@Nonnull String flightKey,
+                                            @Nonnull FetchOptions options,
+                                            @Nonnull Supplier<ListenableFuture<R>> operation) {
+    final Flight address = new Flight(flightKey, options);
+    final SettableFuture<R> flight = SettableFuture.create();
+    final ListenableFuture<?> existing = pending.putIfAbsent(address, flight);
+    if (existing != null) {
+      if (PersistenceDriver.Internals.logging.isTraceEnabled())
+        PersistenceDriver.Internals.logging.trace(format("Joining in-flight fetch for '%s'.", address));
+      return Futures.nonCancellationPropagating((ListenableFuture<R>) existing);
+    }
+
+    flight.addListener(() -> pending.remove(address, flight), MoreExecutors.directExecutor());
+    try {
+      flight.setFuture(operation.get());
+    } catch (RuntimeException exc) {
+      flight.setException(exc);
+    }
+    return Futures.nonCancellationPropagating(flight);
+  }
+}
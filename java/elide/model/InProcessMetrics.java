@@ -0,0 +1,240 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * In-process implementation of {@link PersistenceMetrics}, which aggregates timings and sizes into histograms, and
+ * events into counters, each addressed by model type and operation. Results may be read back at any time via
+ * {@link #timings(String, PersistenceMetrics.Operation)}, {@link #sizes(String, PersistenceMetrics.Operation)} and
+ * {@link #count(String, PersistenceMetrics.Counter)}.
+ *
+ * <p>Histograms use power-of-two buckets, so recording a value is a handful of uncontended atomic adds, and percentiles
+ * are accurate to within a factor of two. This is meant for sizing caches and spotting slow model types, rather than
+ * for precise latency accounting; for that, install a listener which forwards to a dedicated metrics library.</p>
+ */
+@ThreadSafe
+public final class InProcessMetrics implements PersistenceMetrics {
+  /** Operations, indexed by ordinal. */
+  private static final @Nonnull Operation[] OPERATIONS = Operation.values();
+
+  /** Counters, indexed by ordinal. */
+  private static final @Nonnull Counter[] COUNTERS = Counter.values();
+
+  /** Metrics for each model type. */
+  private final @Nonnull ConcurrentMap<String, ModelMetrics> models = new ConcurrentHashMap<>();
+
+  /**
+   * Metrics for a single model type, indexed by operation or counter ordinal, so that recording a value never builds a
+   * composite key. Histograms are created on first use, and counters up-front.
+   */
+  @ThreadSafe
+  private static final class ModelMetrics {
+    /** Timing histograms, indexed by operation. */
+    private final @Nonnull AtomicReferenceArray<Histogram> timings = new AtomicReferenceArray<>(OPERATIONS.length);
+
+    /** Size histograms, indexed by operation. */
+    private final @Nonnull AtomicReferenceArray<Histogram> sizes = new AtomicReferenceArray<>(OPERATIONS.length);
+
+    /** Event counters, indexed by counter. */
+    private final @Nonnull LongAdder[] counters = new LongAdder[COUNTERS.length];
+
+    private ModelMetrics() {
+      for (int i = 0; i < counters.length; i++) counters[i] = new LongAdder();
+    }
+
+    /** @return Histogram at {@code index} in {@code histograms}, created if it does not yet exist. */
+    private static @Nonnull Histogram histogram(@Nonnull AtomicReferenceArray<Histogram> histograms, int index) {
+      Histogram histogram = histograms.get(index);
+      if (histogram == null) {
+        histograms.compareAndSet(index, null, new Histogram());
+        histogram = histograms.get(index);
+      }
+      return histogram;
+    }
+  }
+
+  /** Histogram of non-negative values, bucketed by power of two. */
+  @ThreadSafe
+  public static final class Histogram {
+    /** Count of values in each bucket. Bucket {@code i} holds values from {@code 2^i} up to {@code 2^(i+1)}. */
+    private final @Nonnull LongAdder[] buckets = new LongAdder[Long.SIZE];
+
+    /** Count of all values recorded. */
+    private final @Nonnull LongAdder count = new LongAdder();
+
+    /** Sum of all values recorded. */
+    private final @Nonnull LongAdder sum = new LongAdder();
+
+    /** Largest value recorded. */
+    private final @Nonnull LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    private Histogram() {
+      for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+    }
+
+    /** @param value Value to record. Negative values are recorded as zero. */
+    void record(long value) {
+      long clamped = Math.max(value, 0);
+      buckets[clamped == 0 ? 0 : Long.SIZE - 1 - Long.numberOfLeadingZeros(clamped)].increment();
+      count.increment();
+      sum.add(clamped);
+      max.accumulate(clamped);
+    }
+
+    /** @return Count of values recorded. */
+    public long count() {
+      return count.sum();
+    }
+
+    /** @return Sum of values recorded. */
+    public long sum() {
+      return sum.sum();
+    }
+
+    /** @return Largest value recorded, or {@code 0} if none have been. */
+    public long max() {
+      return max.get();
+    }
+
+    /** @return Mean of values recorded, or {@code 0} if none have been. */
+    public double mean() {
+      long total = count();
+      return total == 0 ? 0 : (double) sum() / total;
+    }
+
+    /**
+     * Estimate the value at {@code percentile}, as the upper bound of the bucket in which it falls.
+     *
+     * @param percentile Percentile to estimate, between {@code 0} and {@code 1}.
+     * @return Estimated value at the percentile, or {@code 0} if no values have been recorded.
+     */
+    public long percentile(double percentile) {
+      long total = count();
+      if (total == 0) return 0;
+      long rank = (long) Math.ceil(Math.min(Math.max(percentile, 0.0), 1.0) * total);
+      long seen = 0;
+      for (int i = 0; i < buckets.length; i++) {
+        seen += buckets[i].sum();
+        if (seen >= rank) return Math.min(i >= Long.SIZE - 2 ? Long.MAX_VALUE : (1L << (i + 1)) - 1, max());
+      }
+      return max();
+    }
+  }
+
+  /** @return Metrics for {@code model}, created if they do not yet exist. */
+  private @Nonnull ModelMetrics metrics(@Nonnull String model) {
+    ModelMetrics metrics = models.get(model);
+    return metrics != null ? metrics : models.computeIfAbsent(model, (k) -> new ModelMetrics());
+  }
+
+  /** @return Histogram at {@code index} in {@code histograms}, or an empty histogram if none exists. */
+  private static @Nonnull Histogram histogramOrEmpty(@Nonnull AtomicReferenceArray<Histogram> histograms, int index) {
+    Histogram histogram = histograms.get(index);
+    return histogram != null ? histogram : new Histogram();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void timing(@Nonnull String model, @Nonnull Operation operation, long nanos) {
+    ModelMetrics.histogram(metrics(model).timings, operation.ordinal()).record(nanos);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void count(@Nonnull String model, @Nonnull Counter counter, long delta) {
+    metrics(model).counters[counter.ordinal()].add(delta);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void size(@Nonnull String model, @Nonnull Operation operation, long bytes) {
+    ModelMetrics.histogram(metrics(model).sizes, operation.ordinal()).record(bytes);
+  }
+
+  /**
+   * Retrieve the timing histogram, in nanoseconds, for {@code operation} on {@code model}.
+   *
+   * @param model Fully-qualified name of the model type.
+   * @param operation Operation to retrieve timings for.
+   * @return Timing histogram. Empty if nothing has been recorded.
+   */
+  public @Nonnull Histogram timings(@Nonnull String model, @Nonnull Operation operation) {
+    ModelMetrics metrics = models.get(model);
+    return metrics == null ? new Histogram() : histogramOrEmpty(metrics.timings, operation.ordinal());
+  }
+
+  /**
+   * Retrieve the payload size histogram, in bytes, for {@code operation} on {@code model}.
+   *
+   * @param model Fully-qualified name of the model type.
+   * @param operation Operation to retrieve payload sizes for.
+   * @return Size histogram. Empty if nothing has been recorded.
+   */
+  public @Nonnull Histogram sizes(@Nonnull String model, @Nonnull Operation operation) {
+    ModelMetrics metrics = models.get(model);
+    return metrics == null ? new Histogram() : histogramOrEmpty(metrics.sizes, operation.ordinal());
+  }
+
+  /**
+   * Retrieve the count of {@code counter} events on {@code model}.
+   *
+   * @param model Fully-qualified name of the model type.
+   * @param counter Event to retrieve the count for.
+   * @return Count of events recorded.
+   */
+  public long count(@Nonnull String model, @Nonnull Counter counter) {
+    ModelMetrics metrics = models.get(model);
+    return metrics == null ? 0 : metrics.counters[counter.ordinal()].sum();
+  }
+
+  /**
+   * Compute the cache hit ratio for {@code model}, as the share of cache lookups which were served from the cache.
+   *
+   * @param model Fully-qualified name of the model type.
+   * @return Hit ratio between {@code 0} and {@code 1}, or {@code 0} if no lookups have been recorded.
+   */
+  public double cacheHitRatio(@Nonnull String model) {
+    long hits = count(model, Counter.CACHE_HIT);
+    long total = hits + count(model, Counter.CACHE_MISS);
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  /** @return Read-only snapshot of all timing histograms recorded so far, addressed by {@code model#OPERATION}. */
+  public @Nonnull Map<String, Histogram> allTimings() {
+    Map<String, Histogram> all = new LinkedHashMap<>();
+    models.forEach((model, metrics) -> {
+      for (Operation operation : OPERATIONS) {
+        Histogram histogram = metrics.timings.get(operation.ordinal());
+        if (histogram != null) all.put(model + "#" + operation.name(), histogram);
+      }
+    });
+    return Collections.unmodifiableMap(all);
+  }
+
+  /** Discard all recorded metrics. */
+  public void reset() {
+    models.clear();
+  }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.FieldMask;
+import com.google.protobuf.Message;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * Field mask projection, compiled once for a given model type, {@link FieldMask}, and {@link FetchOptions.MaskMode},
+ * and then applied to model instances in a single builder pass.
+ *
+ * <p>Compilation resolves, for each field on the model, whether it is dropped, copied as-is, or recursed into, so that
+ * applying the projection does no path arithmetic or mask lookups. Mask semantics match those documented on
+ * {@link PersistenceDriver#applyFieldsRecursive}: mask paths address leaf fields, singular sub-messages are always
+ * kept (and projected recursively), {@code INCLUDE} keeps only marked leaves, {@code EXCLUDE} drops marked leaves, and
+ * {@code PROJECTION} keeps everything, leaving projection to the storage engine. Repeated and map fields are treated as
+ * leaves.</p>
+ *
+ * <p>Compiled projections are cached for a bounded set of recently-used masks.</p>
+ */
+@Immutable
+@ThreadSafe
+public final class MaskProjection {
+  /** Maximum number of compiled root projections to retain. */
+  private static final long MAX_CACHED_PROJECTIONS = 1024;
+
+  /** Compiled root projections, by model type, mask, and mode. */
+  private static final Cache<Spec, MaskProjection> PROJECTIONS = CacheBuilder.newBuilder()
+    .maximumSize(MAX_CACHED_PROJECTIONS)
+    .build();
+
+  /** Treatment for a single field. */
+  private enum Action {
+    /** Omit the field. */
+    DROP,
+
+    /** Copy the field value as-is. */
+    KEEP,
+
+    /** Project the sub-message recursively. */
+    RECURSE
+  }
+
+  /** Cache key for a compiled root projection. */
+  @Immutable
+  private static final class Spec {
+    private final @Nonnull Descriptor descriptor;
+    private final @Nonnull FieldMask mask;
+    private final @Nonnull FetchOptions.MaskMode mode;
+
+    private Spec(@Nonnull Descriptor descriptor, @Nonnull FieldMask mask, @Nonnull FetchOptions.MaskMode mode) {
+      this.descriptor = descriptor;
+      this.mask = mask;
+      this.mode = mode;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Spec that = (Spec) o;
+      return descriptor == that.descriptor && mode == that.mode && mask.equals(that.mask);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+      return Objects.hash(descriptor.getFullName(), mask, mode);
+    }
+  }
+
+  /** Model type this projection applies to. */
+  private final @Nonnull Descriptor descriptor;
+
+  /** Fields on the model type, by index. */
+  private final @Nonnull FieldDescriptor[] fields;
+
+  /** Treatment for each field, by index. */
+  private final @Nonnull Action[] actions;
+
+  /** Dotted path to each field, by index, from the root of the projection. */
+  private final @Nonnull String[] paths;
+
+  /** Projections for recursed sub-messages, compiled on first use. */
+  private final @Nonnull AtomicReferenceArray<MaskProjection> children;
+
+  /** Marked leaf paths, from the mask. */
+  private final @Nonnull Set<String> marked;
+
+  /** Every proper prefix of a marked path, which identifies sub-messages with marked fields beneath them. */
+  private final @Nonnull Set<String> branches;
+
+  /** Mode in which the mask applies. */
+  private final @Nonnull FetchOptions.MaskMode mode;
+
+  /** Whether this projection keeps every field as-is. */
+  private final boolean identity;
+
+  private MaskProjection(@Nonnull Descriptor descriptor,
+                         @Nonnull String prefix,
+                         @Nonnull Set<String> marked,
+                         @Nonnull Set<String> branches,
+                         @Nonnull FetchOptions.MaskMode mode) {
+    this.descriptor = descriptor;
+    this.marked = marked;
+    this.branches = branches;
+    this.mode = mode;
+
+    var fieldList = descriptor.getFields();
+    this.fields = fieldList.toArray(new FieldDescriptor[0]);
+    this.actions = new Action[fields.length];
+    this.paths = new String[fields.length];
+    this.children = new AtomicReferenceArray<>(fields.length);
+
+    final Action unmarked = mode == FetchOptions.MaskMode.INCLUDE ? Action.DROP : Action.KEEP;
+    final Action onMarked = mode == FetchOptions.MaskMode.EXCLUDE ? Action.DROP : Action.KEEP;
+    boolean identity = true;
+    for (int i = 0; i < fields.length; i++) {
+      var field = fields[i];
+      var path = prefix.isEmpty() ? field.getName() : prefix + "." + field.getName();
+      paths[i] = path;
+      if (field.getJavaType() == FieldDescriptor.JavaType.MESSAGE && !field.isRepeated()) {
+        // sub-messages are always kept. they are copied as-is if nothing beneath them could be dropped.
+        boolean drops = unmarked == Action.DROP || (onMarked == Action.DROP && branches.contains(path));
+        actions[i] = drops ? Action.RECURSE : Action.KEEP;
+      } else {
+        actions[i] = marked.contains(path) ? onMarked : unmarked;
+      }
+      identity = identity && actions[i] == Action.KEEP;
+    }
+    this.identity = identity;
+  }
+
+  /**
+   * Resolve the compiled projection for the provided model type, mask, and mode, compiling it if needed.
+   *
+   * @param descriptor Model type the projection applies to.
+   * @param mask Field mask to apply.
+   * @param mode Mode in which to apply the mask.
+   * @return Compiled projection.
+   */
+  public static @Nonnull MaskProjection forMask(@Nonnull Descriptor descriptor,
+                                                @Nonnull FieldMask mask,
+                                                @Nonnull FetchOptions.MaskMode mode) {
+    Objects.requireNonNull(descriptor, "Cannot project `null` model type.");
+    Objects.requireNonNull(mask, "Cannot project with `null` field mask.");
+    Objects.requireNonNull(mode, "Cannot provide `null` for field mask mode.");
+    var spec = new Spec(descriptor, mask, mode);
+    var existing = PROJECTIONS.getIfPresent(spec);
+    if (existing != null) return existing;
+
+    var marked = Set.copyOf(mask.getPathsList());
+    var branches = new HashSet<String>();
+    for (String path : marked) {
+      for (int dot = path.indexOf('.'); dot > 0; dot = path.indexOf('.', dot + 1))
+        branches.add(path.substring(0, dot));
+    }
+    var compiled = new MaskProjection(descriptor, "", marked, Set.copyOf(branches), mode);
+    PROJECTIONS.put(spec, compiled);
+    return compiled;
+  }
+
+  /** @return Projection for the sub-message at field index {@code i}, compiling it on first use. */
+  private @Nonnull MaskProjection child(int i) {
+    var existing = children.get(i);
+    if (existing != null) return existing;
+    var compiled = new MaskProjection(fields[i].getMessageType(), paths[i], marked, branches, mode);
+    return children.compareAndSet(i, null, compiled) ? compiled : children.get(i);
+  }
+
+  /** @return Whether applying this projection leaves every field as-is. */
+  public boolean isIdentity() {
+    return identity;
+  }
+
+  /**
+   * Apply this projection to {@code source}.
+   *
+   * @param source Model instance to project.
+   * @return Projected model instance, which is {@code source} itself if the projection keeps every field.
+   */
+  public @Nonnull Message apply(@Nonnull Message source) {
+    return apply(source, null, null);
+  }
+
+  /**
+   * Apply this projection to {@code source}, setting {@code value} at the top-level field {@code override} (regardless
+   * of the mask) in the same builder pass. This is used to splice a model's key in while masking it.
+   *
+   * @param source Model instance to project.
+   * @param override Top-level field to set unconditionally, or {@code null}.
+   * @param value Value to set at {@code override}, or {@code null}.
+   * @return Projected model instance.
+   */
+  public @Nonnull Message apply(@Nonnull Message source,
+                                @Nullable FieldDescriptor override,
+                                @Nullable Object value) {
+    if (source.getDescriptorForType() != descriptor)
+      throw new IllegalArgumentException(String.format(
+        "Cannot apply projection for type '%s' to model of type '%s'.",
+        descriptor.getFullName(),
+        source.getDescriptorForType().getFullName()));
+    if (identity) {
+      if (override == null) return source;
+      return source.toBuilder().setField(override, Objects.requireNonNull(value)).build();
+    }
+
+    var builder = source.newBuilderForType();
+    for (int i = 0; i < fields.length; i++) {
+      var field = fields[i];
+      if (field == override) {
+        builder.setField(field, Objects.requireNonNull(value));
+        continue;
+      }
+      var action = actions[i];
+      if (action == Action.DROP) continue;
+      if (field.isRepeated()) {
+        if (source.getRepeatedFieldCount(field) > 0)
+          builder.setField(field, source.getField(field));
+      } else if (source.hasField(field)) {
+        builder.setField(field, action == Action.RECURSE ?
+          child(i).apply((Message)source.getField(field)) :
+          source.getField(field));
+      }
+    }
+    return builder.build();
+  }
+}
@@ -17,17 +17,25 @@ import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.protobuf.FieldMask;
 import com.google.protobuf.Message;
 import elide.runtime.jvm.ReactiveFuture;
 import tools.elide.core.DatapointType;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static java.lang.String.format;
 import static elide.model.ModelMetadata.*;
+import static elide.model.PersistenceMetrics.Operation;
 
 
 /**
@@ -94,6 +102,8 @@ public interface ModelAdapter<Key extends Message, Model extends Message>
     if (Internals.logging.isTraceEnabled())
       Internals.logging.trace(format("Retrieving record '%s' from storage (executor: '%s')...", id(key), exec));
 
+    final PersistenceMetrics metrics = PersistenceMetrics.active();
+    final String modelType = codec().instance().getDescriptorForType().getFullName();
     final Optional<CacheDriver<Key, Model>> cache = this.cache();
     if (options.enableCache() && cache.isPresent()) {
       if (Internals.logging.isDebugEnabled())
@@ -101,8 +111,12 @@ public interface ModelAdapter<Key extends Message, Model extends Message>
           format("Caching enabled with object of type '%s'.", cache.get().getClass().getSimpleName()));
 
       // cache result future
-      final ReactiveFuture<Optional<Model>> cacheFetchFuture = Objects.requireNonNull(
-        cache.get().fetch(key, options, exec), "Cache cannot return `null` for `retrieve`.");
+      final long cacheStarted = System.nanoTime();
+      final ReactiveFuture<Optional<Model>> cacheFetchFuture = metrics.time(
+        modelType,
+        Operation.CACHE_FETCH,
+        cacheStarted,
+        Objects.requireNonNull(cache.get().fetch(key, options, exec), "Cache cannot return `null` for `retrieve`."));
 
       // wrap in a future, with a non-propagating cancelling timeout, which handles any nulls from the cache.
       final ListenableFuture<Optional<Model>> cacheFuture = (Futures.nonCancellationPropagating(
@@ -116,8 +130,10 @@ public interface ModelAdapter<Key extends Message, Model extends Message>
                   cacheResult == null ? "null" : cacheResult.isPresent()));
             }
             if (cacheResult != null && cacheResult.isPresent()) {
+              if (metrics.enabled()) metrics.count(modelType, PersistenceMetrics.Counter.CACHE_HIT, 1);
               return cacheResult;
             }
+            if (metrics.enabled()) metrics.count(modelType, PersistenceMetrics.Counter.CACHE_MISS, 1);
             return Optional.empty();  // not found
           }
         }, exec)));
@@ -129,9 +145,81 @@ public interface ModelAdapter<Key extends Message, Model extends Message>
         options.cacheTimeoutUnit(),
         exec);
 
-      // finally, respond to a cache miss by deferring to the driver directly. this must be separate from `cacheFuture`
-      // to allow separate cancellation of the cache future and the future which backstops it.
-      return ReactiveFuture.wrap(Futures.transformAsync(limitedCacheFuture, new AsyncFunction<>() {
+      // respond to a cache miss by deferring to the driver directly. this must be separate from `cacheFuture` to allow
+      // separate cancellation of the cache future and the future which backstops it. the fill resolves only once the
+      // cache holds the result (or remembers its absence), so that a write or delete which follows this read cannot be
+      // overtaken by the fill. cache failures are logged, and never fail the read.
+      final Supplier<ListenableFuture<Optional<Model>>> fill = () -> {
+        var record = metrics.time(modelType, Operation.FETCH, System.nanoTime(), engine().retrieve(key, options));
+        return Futures.transformAsync(record, (fetchResult) -> {
+          if (Internals.logging.isDebugEnabled()) {
+            Internals.logging.debug("Response was NOT cached. Storing in cache...");
+          }
+
+          final List<ListenableFuture<?>> stored = new ArrayList<>(1);
+          Internals.swallowExceptions(() -> {
+            if (fetchResult.isPresent()) {
+              stored.add(metrics.time(modelType, Operation.CACHE_PUT, System.nanoTime(), cache.get().put(
+                key,
+                fetchResult.get(),
+                options.executorService().orElseGet(ModelAdapter.this::executorService))));
+            } else if (options.cacheNegativeTTL().isPresent()) {
+              // remember that this record does not exist, so repeated lookups can skip storage for a while.
+              stored.add(cache.get().markAbsent(
+                key,
+                options.cacheNegativeTTL().get(),
+                options.cacheNegativeTTLUnit(),
+                options.executorService().orElseGet(ModelAdapter.this::executorService)));
+            }
+          });
+          return Futures.whenAllComplete(stored).call(() -> fetchResult, exec);
+        }, exec);
+      };
+
+      // concurrent misses for the same record share one storage fetch and one cache fill. reads pinned to a snapshot or
+      // a transaction are never shared.
+      final Supplier<ListenableFuture<Optional<Model>>> fetch = () -> {
+        if (options.coalesceMisses() && options.snapshot().isEmpty() && !options.transactional().orElse(false)) {
+          return InFlight.forAdapter(this).coalesce(
+            InFlight.flightKey(codec().instance(), key, options), options, fill);
+        }
+        return fill.get();
+      };
+
+      // with negative caching enabled, check for a negative entry before deferring to storage. failures or timeouts
+      // while checking are treated as "not known absent".
+      final Supplier<ListenableFuture<Optional<Model>>> miss = options.cacheNegativeTTL().isEmpty() ? fetch : () -> {
+        final ListenableFuture<Boolean> absent = Futures.catching(Futures.withTimeout(
+          Futures.nonCancellationPropagating(cache.get().checkAbsent(key, exec)),
+          options.cacheTimeout().orElse(PersistenceDriver.DEFAULT_CACHE_TIMEOUT),
+          options.cacheTimeoutUnit(),
+          exec), Exception.class, (err) -> false, exec);
+
+        return Futures.transformAsync(absent, (knownAbsent) -> {
+          if (knownAbsent != null && knownAbsent) {
+            if (Internals.logging.isDebugEnabled())
+              Internals.logging.debug("Record is known to be absent, via negative cache entry.");
+            return Futures.immediateFuture(Optional.empty());
+          }
+          return fetch.get();
+        }, exec);
+      };
+
+      // if hedging is enabled, and the cache is slow to answer, race it against storage rather than waiting it out.
+      final Hedge hedge = Hedge.forAdapter(this);
+      final ListenableFuture<Optional<Model>> observedCacheFuture = options.cacheHedgePercentile().isPresent() ?
+        hedge.observe(limitedCacheFuture, cacheStarted) : limitedCacheFuture;
+      final Optional<Long> hedgeDelay = hedge.delay(options);
+      if (hedgeDelay.isPresent()) {
+        final ListenableFuture<Optional<Model>> hedged = Hedge.race(
+          observedCacheFuture, miss, hedgeDelay.get(), TimeUnit.NANOSECONDS, exec);
+
+        // the race can only cancel its (non-propagating) view of the cache read; cancel the read itself, if it lost.
+        hedged.addListener(() -> cacheFetchFuture.cancel(false), MoreExecutors.directExecutor());
+        return ReactiveFuture.wrap(hedged, exec);
+      }
+
+      return ReactiveFuture.wrap(Futures.transformAsync(observedCacheFuture, new AsyncFunction<>() {
         @Override
         public @Nonnull ListenableFuture<Optional<Model>> apply(@Nullable Optional<Model> cacheResult) {
           if (Internals.logging.isTraceEnabled()) {
@@ -143,31 +231,87 @@ public interface ModelAdapter<Key extends Message, Model extends Message>
 
           if (cacheResult != null && cacheResult.isPresent()) {
             return Futures.immediateFuture(cacheResult);
-          } else {
-            var record = engine().retrieve(key, options);
-            record.addListener(() -> {
-              if (Internals.logging.isDebugEnabled()) {
-                Internals.logging.debug("Response was NOT cached. Storing in cache...");
-              }
-
-              Internals.swallowExceptions(() -> {
-                Optional<Model> fetchResult = record.get();
-                fetchResult.ifPresent(model -> cache.get().put(
-                    key,
-                    model,
-                    options.executorService().orElseGet(ModelAdapter.this::executorService)));
-              });
-            }, options.executorService().orElseGet(ModelAdapter.this::executorService));
-            return record;
           }
+          return miss.get();
         }
       }, exec), exec);
     } else {
       if (Internals.logging.isDebugEnabled()) {
         Internals.logging.debug("Caching is disabled. Deferring to driver.");
       }
-      return engine().retrieve(key, options);
+      return metrics.time(modelType, Operation.FETCH, System.nanoTime(), engine().retrieve(key, options));
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  default @Nonnull ReactiveFuture<List<Optional<Model>>> retrieveAll(@Nonnull Iterable<Key> keys,
+                                                                     @Nonnull FetchOptions options) {
+    final List<Key> targetKeys = new ArrayList<>();
+    keys.forEach((key) -> {
+      enforceRole(key, DatapointType.OBJECT_KEY);
+      targetKeys.add(key);
+    });
+    final ListeningScheduledExecutorService exec = options.executorService().orElseGet(this::executorService);
+    if (Internals.logging.isTraceEnabled())
+      Internals.logging.trace(format("Retrieving batch of %s records from storage (executor: '%s')...",
+        targetKeys.size(), exec));
+
+    final Optional<CacheDriver<Key, Model>> cache = this.cache();
+    if (targetKeys.isEmpty() || !options.enableCache() || cache.isEmpty()) {
+      if (Internals.logging.isDebugEnabled()) {
+        Internals.logging.debug("Caching is disabled. Deferring batch to driver.");
+      }
+      return engine().retrieveAll(targetKeys, options);
     }
+
+    // resolve whatever we can from the cache first, in one batch, with the configured (or default) cache timeout.
+    final ListenableFuture<List<Optional<Model>>> limitedCacheFuture = Futures.withTimeout(
+      Futures.nonCancellationPropagating(Objects.requireNonNull(
+        cache.get().fetchAll(targetKeys, options, exec), "Cache cannot return `null` for `retrieveAll`.")),
+      options.cacheTimeout().orElse(PersistenceDriver.DEFAULT_CACHE_TIMEOUT),
+      options.cacheTimeoutUnit(),
+      exec);
+
+    // then, defer any cache misses to the driver in a single batch, and stitch the results back together in order.
+    return ReactiveFuture.wrap(Futures.transformAsync(limitedCacheFuture, new AsyncFunction<>() {
+      @Override
+      public @Nonnull ListenableFuture<List<Optional<Model>>> apply(@Nullable List<Optional<Model>> cacheResults) {
+        final List<Optional<Model>> merged = new ArrayList<>(targetKeys.size());
+        final List<Integer> missIndexes = new ArrayList<>();
+        final List<Key> missKeys = new ArrayList<>();
+        for (int i = 0; i < targetKeys.size(); i++) {
+          Optional<Model> cached = cacheResults != null && i < cacheResults.size() ? cacheResults.get(i) : null;
+          if (cached != null && cached.isPresent()) {
+            merged.add(cached);
+          } else {
+            merged.add(Optional.empty());
+            missIndexes.add(i);
+            missKeys.add(targetKeys.get(i));
+          }
+        }
+        if (Internals.logging.isDebugEnabled())
+          Internals.logging.debug(format("Batch cache lookup found %s of %s records.",
+            targetKeys.size() - missKeys.size(), targetKeys.size()));
+        if (missKeys.isEmpty()) {
+          return Futures.immediateFuture(merged);
+        }
+
+        return Futures.transform(engine().retrieveAll(missKeys, options), new Function<>() {
+          @Override
+          public @Nonnull List<Optional<Model>> apply(@Nullable List<Optional<Model>> fetched) {
+            Objects.requireNonNull(fetched, "Driver cannot return `null` for `retrieveAll`.");
+            for (int i = 0; i < missIndexes.size(); i++) {
+              Optional<Model> record = fetched.get(i);
+              merged.set(missIndexes.get(i), record);
+              final Key missKey = missKeys.get(i);
+              record.ifPresent((model) -> Internals.swallowExceptions(() -> cache.get().put(missKey, model, exec)));
+            }
+            return merged;
+          }
+        }, exec);
+      }
+    }, exec), exec);
   }
 
   // -- Interface: Persist -- //
@@ -176,22 +320,183 @@ public interface ModelAdapter<Key extends Message, Model extends Message>
   default @Nonnull ReactiveFuture<Model> persist(@Nullable Key key,
                                                  @Nonnull Model model,
                                                  @Nonnull WriteOptions options) {
-    return engine().persist(key, model, options);
+    final PersistenceMetrics metrics = PersistenceMetrics.active();
+    final String modelType = model.getDescriptorForType().getFullName();
+    Optional<CacheDriver<Key, Model>> cacheDriver = this.cache();
+    if (cacheDriver.isEmpty()) {
+      return metrics.time(modelType, Operation.PERSIST, System.nanoTime(), engine().persist(key, model, options));
+    }
+    CacheDriver<Key, Model> cache = cacheDriver.get();
+    ListeningScheduledExecutorService exec = options.executorService().orElseGet(this::executorService);
+    WriteOptions.CacheWritePolicy policy = options.cacheWritePolicy().orElse(null);
+
+    if (policy == WriteOptions.CacheWritePolicy.WRITE_BEHIND) {
+      // resolve the key up-front, so the cached record and the eventual storage write agree on it.
+      Optional<Key> existingKey = key != null ? Optional.of(key) : ModelMetadata.key(model);
+      Key writtenKey = existingKey.orElseGet(() -> generateKey(model));
+      Model record = existingKey.isPresent() ? model : ModelMetadata.spliceKey(model, Optional.of(writtenKey));
+
+      // acknowledge once the cache holds the record (and no longer reports it absent), then flush it to storage later.
+      ListenableFuture<?> cleared = cache.clearAbsent(writtenKey, exec);
+      ListenableFuture<?> cached = Futures.transformAsync(
+        cleared, (done) -> cache.put(writtenKey, record, exec), exec);
+      return ReactiveFuture.wrap(Futures.transform(cached, (done) -> {
+        WriteBehind.<Key, Model>forAdapter(this).enqueue(engine(), cache, writtenKey, record, options, exec);
+        return record;
+      }, exec), exec);
+    }
+
+    // a write-behind still pending for this record is superseded by this write, and must not land after it.
+    final Optional<Key> targetKey = key != null ? Optional.of(key) : ModelMetadata.key(model);
+    final ListenableFuture<?> superseded = targetKey.isPresent() ?
+      WriteBehind.cancel(this, targetKey.get()) : Futures.immediateFuture(null);
+    final Supplier<ReactiveFuture<Model>> write = () -> metrics.time(
+      modelType, Operation.PERSIST, System.nanoTime(), engine().persist(key, model, options));
+    ListenableFuture<Model> op = superseded.isDone() ?
+      write.get() : Futures.transformAsync(superseded, (settled) -> write.get(), exec);
+
+    // a record which has just been written is no longer absent: clear any negative cache entry before resolving, and
+    // apply the cache write policy, if any.
+    return ReactiveFuture.wrap(Futures.transformAsync(op, (written) -> {
+      //noinspection unchecked
+      Key writtenKey = key != null ? key : (Key)ModelMetadata.key(Objects.requireNonNull(written)).orElse(null);
+      if (writtenKey == null) {
+        return Futures.immediateFuture(written);
+      }
+      return Futures.whenAllComplete(cacheWritten(cache, writtenKey, written, policy, exec))
+        .call(() -> written, exec);
+    }, exec), exec);
   }
 
-  /** {@inheritDoc} */
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Each record in the batch gets the same cache treatment as a single {@link #persist(Message, Message,
+   * WriteOptions)}: any write-behind still pending for it is cancelled before the batch is written, its negative cache
+   * entry is cleared, and the cache write policy applies to it. Under {@code WRITE_BEHIND}, each record is cached and
+   * deferred individually.</p>
+   */
+  @Override
+  default @Nonnull ReactiveFuture<List<Model>> persistAll(@Nonnull Map<Key, Model> models,
+                                                          @Nonnull WriteOptions options) {
+    Objects.requireNonNull(models, "Cannot persist `null` batch of models.");
+    Optional<CacheDriver<Key, Model>> cacheDriver = this.cache();
+    if (cacheDriver.isEmpty()) {
+      return engine().persistAll(models, options);
+    }
+    CacheDriver<Key, Model> cache = cacheDriver.get();
+    ListeningScheduledExecutorService exec = options.executorService().orElseGet(this::executorService);
+    WriteOptions.CacheWritePolicy policy = options.cacheWritePolicy().orElse(null);
+
+    if (policy == WriteOptions.CacheWritePolicy.WRITE_BEHIND) {
+      List<ListenableFuture<Model>> operations = new ArrayList<>(models.size());
+      models.forEach((key, model) -> operations.add(persist(
+        Objects.requireNonNull(key, "Cannot persist model in batch with `null` key."), model, options)));
+      return ReactiveFuture.wrap(Futures.allAsList(operations), exec);
+    }
+
+    // write-behinds still pending for records in the batch are superseded by it, and must not land after it.
+    final List<Key> keys = new ArrayList<>(models.size());
+    final List<ListenableFuture<?>> superseded = new ArrayList<>(models.size());
+    boolean settled = true;
+    for (Key key : models.keySet()) {
+      keys.add(Objects.requireNonNull(key, "Cannot persist model in batch with `null` key."));
+      ListenableFuture<?> cancelled = WriteBehind.cancel(this, key);
+      settled = settled && cancelled.isDone();
+      superseded.add(cancelled);
+    }
+    final Supplier<ListenableFuture<List<Model>>> write = () -> engine().persistAll(models, options);
+    ListenableFuture<List<Model>> op = settled ?
+      write.get() : Futures.transformAsync(Futures.whenAllComplete(superseded).call(() -> keys, exec),
+        (done) -> write.get(), exec);
+
+    return ReactiveFuture.wrap(Futures.transformAsync(op, (written) -> {
+      Objects.requireNonNull(written, "Driver cannot return `null` for `persistAll`.");
+      List<ListenableFuture<?>> effects = new ArrayList<>(written.size() * 2);
+      for (int i = 0; i < written.size(); i++) {
+        effects.addAll(cacheWritten(cache, keys.get(i), written.get(i), policy, exec));
+      }
+      return Futures.whenAllComplete(effects).call(() -> written, exec);
+    }, exec), exec);
+  }
+
+  /**
+   * Apply the cache side-effects of a storage write which has completed: the written record is no longer absent, so
+   * any negative cache entry for it is cleared, and the cache write policy (if any) is applied.
+   *
+   * @param cache Cache attached to this adapter.
+   * @param key Key for the written record.
+   * @param written Record as written to storage.
+   * @param policy Cache write policy for the write, or {@code null} to leave cached copies alone.
+   * @param exec Executor to use for cache operations.
+   * @return Futures for each cache operation which was started.
+   */
+  private @Nonnull List<ListenableFuture<?>> cacheWritten(@Nonnull CacheDriver<Key, Model> cache,
+                                                          @Nonnull Key key,
+                                                          @Nonnull Model written,
+                                                          @Nullable WriteOptions.CacheWritePolicy policy,
+                                                          @Nonnull ListeningScheduledExecutorService exec) {
+    List<ListenableFuture<?>> effects = new ArrayList<>(2);
+    effects.add(cache.clearAbsent(key, exec));
+    if (policy == WriteOptions.CacheWritePolicy.WRITE_THROUGH) {
+      effects.add(cache.put(key, written, exec));
+    } else if (policy == WriteOptions.CacheWritePolicy.INVALIDATE) {
+      effects.add(cache.evict(key, exec));
+    }
+    return effects;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Patches are applied by the underlying engine. Any write-behind still pending for the record is drained first,
+   * so that the patch applies on top of it. Because a patch may not resolve to the full stored record, any cached copy
+   * of the record is evicted once the patch completes, rather than replaced.</p>
+   */
+  @Override
+  default @Nonnull ReactiveFuture<Model> patch(@Nonnull Key key,
+                                               @Nonnull Model model,
+                                               @Nonnull FieldMask mask,
+                                               @Nonnull WriteOptions options) {
+    final PersistenceMetrics metrics = PersistenceMetrics.active();
+    final String modelType = model.getDescriptorForType().getFullName();
+    final ListeningScheduledExecutorService exec = options.executorService().orElseGet(this::executorService);
+    final ListenableFuture<?> drained = WriteBehind.drain(this, key);
+    final Supplier<ReactiveFuture<Model>> apply = () -> metrics.time(
+      modelType, Operation.PERSIST, System.nanoTime(), engine().patch(key, model, mask, options));
+    ReactiveFuture<Model> op = drained.isDone() ?
+      apply.get() : ReactiveFuture.wrap(Futures.transformAsync(drained, (settled) -> apply.get(), exec), exec);
+    Optional<CacheDriver<Key, Model>> cacheDriver = this.cache();
+    if (cacheDriver.isEmpty()) {
+      return op;
+    }
+    return ReactiveFuture.wrap(Futures.transformAsync(op, (patched) ->
+      Futures.whenAllComplete(cacheDriver.get().evict(key, exec)).call(() -> patched, exec), exec), exec);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Any write-behind still pending for the record is cancelled before the record is deleted, so that it cannot
+   * re-create the record afterwards.</p>
+   */
   @Override
   default @Nonnull ReactiveFuture<Key> delete(@Nonnull Key key,
                                               @Nonnull DeleteOptions options) {
-    ReactiveFuture<Key> op = engine().delete(key, options);
+    final PersistenceMetrics metrics = PersistenceMetrics.active();
+    final String modelType = codec().instance().getDescriptorForType().getFullName();
+    final ListeningScheduledExecutorService exec = options.executorService().orElseGet(this::executorService);
+    final ListenableFuture<?> cancelled = WriteBehind.cancel(this, key);
+    final Supplier<ReactiveFuture<Key>> delete = () -> metrics.time(
+      modelType, Operation.DELETE, System.nanoTime(), engine().delete(key, options));
+    ReactiveFuture<Key> op = cancelled.isDone() ?
+      delete.get() : ReactiveFuture.wrap(Futures.transformAsync(cancelled, (settled) -> delete.get(), exec), exec);
     if (options.enableCache()) {
       // if caching is enabled and a cache driver is present, make sure to evict any cached record behind this key.
       Optional<CacheDriver<Key, Model>> cacheDriver = this.cache();
       if (cacheDriver.isPresent()) {
-        ListeningScheduledExecutorService exec = options.executorService().orElseGet(this::executorService);
-        ReactiveFuture<Key> storageDelete = engine().delete(key, options);
         ReactiveFuture<Key> cacheEvict = cacheDriver.get().evict(key, exec);
-        return ReactiveFuture.wrap(Futures.whenAllComplete(storageDelete, cacheEvict).call(() -> key, exec));
+        return ReactiveFuture.wrap(Futures.whenAllComplete(op, cacheEvict).call(() -> key, exec));
       }
     }
     return op;
@@ -67,8 +67,9 @@ public interface ModelCodec<Model extends Message, WriteIntermediate, ReadInterm
   /**
    * Sugar shortcut to serialize a model through the current codec's installed {@link ModelSerializer}.
    *
-   * <p>This method just proxies to that object (which can be acquired via {@link #serializer()}). If any error occurs
-   * while serializing, {@link ModelDeflateException} is thrown.</p>
+   * <p>This method just proxies to that object (which can be acquired via {@link #serializer()}), timing the call if
+   * {@link PersistenceMetrics} are enabled. If any error occurs while serializing, {@link ModelDeflateException} is
+   * thrown.</p>
    *
    * @param instance Input model to serialize.
    * @return Serialized output data or object.
@@ -76,14 +77,25 @@ public interface ModelCodec<Model extends Message, WriteIntermediate, ReadInterm
    * @throws IOException If some IO error occurs.
    */
   default @Nonnull WriteIntermediate serialize(Model instance) throws ModelDeflateException, IOException {
-    return serializer().deflate(instance);
+    PersistenceMetrics metrics = PersistenceMetrics.active();
+    if (!metrics.enabled()) return serializer().deflate(instance);
+    long started = System.nanoTime();
+    try {
+      return serializer().deflate(instance);
+    } finally {
+      metrics.timing(
+        instance().getDescriptorForType().getFullName(),
+        PersistenceMetrics.Operation.SERIALIZE,
+        System.nanoTime() - started);
+    }
   }
 
   /**
    * Sugar shortcut to de-serialize a model through the current codec's installed {@link ModelDeserializer}.
    *
-   * <p>This method just proxies to that object (which can be acquired via {@link #deserializer()}). If any error occurs
-   * while de-serializing, {@link ModelInflateException} is thrown.</p>
+   * <p>This method just proxies to that object (which can be acquired via {@link #deserializer()}), timing the call if
+   * {@link PersistenceMetrics} are enabled. If any error occurs while de-serializing, {@link ModelInflateException} is
+   * thrown.</p>
    *
    * @param input Input data to de-serialize into a model instance.
    * @return Model instance, deserialized from the input data.
@@ -91,6 +103,16 @@ public interface ModelCodec<Model extends Message, WriteIntermediate, ReadInterm
    * @throws IOException If some IO error occurs.
    */
   default @Nonnull Model deserialize(ReadIntermediate input) throws ModelInflateException, IOException {
-    return deserializer().inflate(input);
+    PersistenceMetrics metrics = PersistenceMetrics.active();
+    if (!metrics.enabled()) return deserializer().inflate(input);
+    long started = System.nanoTime();
+    try {
+      return deserializer().inflate(input);
+    } finally {
+      metrics.timing(
+        instance().getDescriptorForType().getFullName(),
+        PersistenceMetrics.Operation.DESERIALIZE,
+        System.nanoTime() - started);
+    }
   }
 }
@@ -14,8 +14,12 @@ package elide.model;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.CharMatcher;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.google.protobuf.ByteString;
 import com.google.protobuf.DescriptorProtos.FieldOptions;
 import com.google.protobuf.DescriptorProtos.MessageOptions;
 import com.google.protobuf.Descriptors.Descriptor;
@@ -30,15 +34,24 @@ import tools.elide.core.DatapointType;
 import tools.elide.core.FieldType;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 /**
@@ -55,6 +68,9 @@ import java.util.stream.Stream;
 @ThreadSafe
 @SuppressWarnings({"WeakerAccess", "unused", "OptionalUsedAsFieldOrParameterType"})
 public final class ModelMetadata {
+  /** Field predicate which matches every field, used as the cache key for unfiltered field lists. */
+  private static final Predicate<FieldPointer> ALL_FIELDS = (field) -> true;
+
   private ModelMetadata() { /* Disallow construction. */ }
 
   /** Utility class that points to a specific field, in a specific context. */
@@ -265,6 +281,688 @@ public final class ModelMetadata {
     }
   }
 
+  /**
+   * Compiled metadata for a single model type, resolved once from its {@link Descriptor} and cached for the life of the
+   * process. Resolving metadata from a descriptor involves walking its fields and reading extension options, which is
+   * too expensive to repeat on every operation, so each of the static lookups on {@link ModelMetadata} which can be
+   * answered from a schema consult it instead.
+   *
+   * <p>A schema is compiled without enforcing any role: it simply records what the descriptor declares. Role checks
+   * remain the responsibility of the methods on {@link ModelMetadata}, which run them against the cached role.</p>
+   */
+  @Immutable
+  @ThreadSafe
+  public final static class ModelSchema {
+    /** Compiled schemas, by descriptor. */
+    private static final ConcurrentMap<Descriptor, ModelSchema> SCHEMAS = new ConcurrentHashMap<>();
+
+    /** Descriptor this schema was compiled from. */
+    private final @Nonnull Descriptor descriptor;
+
+    /** Role declared on the model, or the default role, {@code OBJECT}. */
+    private final @Nonnull DatapointType role;
+
+    /** First top-level field carrying each {@code field} annotation type. */
+    private final @Nonnull Map<FieldType, FieldPointer> annotatedFields;
+
+    /** ID field for the model: either top-level, or on the model's key (for {@code OBJECT} types). */
+    private final @Nonnull Optional<FieldPointer> idField;
+
+    /** Collection path for the model, either explicitly declared, or computed from the type name. */
+    private final @Nonnull String collectionPath;
+
+    /** Memoized model annotation lookups, by extension, which search only the top-level. */
+    private final @Nonnull ConcurrentMap<GeneratedExtension<MessageOptions, ?>, Optional<?>> modelAnnotations =
+      new ConcurrentHashMap<>();
+
+    /** Memoized model annotation lookups, by extension, which search recursively. */
+    private final @Nonnull ConcurrentMap<GeneratedExtension<MessageOptions, ?>, Optional<?>> modelAnnotationsDeep =
+      new ConcurrentHashMap<>();
+
+    /** Memoized unfiltered annotated field lookups, by extension, which search only the top-level. */
+    private final @Nonnull ConcurrentMap<GeneratedExtension<FieldOptions, ?>, Optional<FieldPointer>> fields =
+      new ConcurrentHashMap<>();
+
+    /** Memoized unfiltered annotated field lookups, by extension, which search recursively. */
+    private final @Nonnull ConcurrentMap<GeneratedExtension<FieldOptions, ?>, Optional<FieldPointer>> fieldsDeep =
+      new ConcurrentHashMap<>();
+
+    /** Memoized top-level field lists, weakly keyed by filter predicate identity. */
+    private final @Nonnull Cache<Predicate<FieldPointer>, List<FieldPointer>> filteredFields =
+      CacheBuilder.newBuilder().weakKeys().build();
+
+    /** Memoized recursive field lists, weakly keyed by filter predicate identity. */
+    private final @Nonnull Cache<Predicate<FieldPointer>, List<FieldPointer>> filteredFieldsDeep =
+      CacheBuilder.newBuilder().weakKeys().build();
+
+    /** Flattened field tree, compiled on first traversal. */
+    private volatile @Nullable FieldTree tree = null;
+
+    private ModelSchema(@Nonnull Descriptor descriptor) {
+      this.descriptor = descriptor;
+      this.role = resolveModelAnnotation(descriptor, Datamodel.role, false).orElse(DatapointType.OBJECT);
+
+      var table = new EnumMap<FieldType, FieldPointer>(FieldType.class);
+      for (FieldDescriptor field : descriptor.getFields()) {
+        if (field.getOptions().hasExtension(Datamodel.field)) {
+          table.putIfAbsent(
+            field.getOptions().getExtension(Datamodel.field).getType(),
+            new FieldPointer(descriptor, field.getName(), field));
+        }
+      }
+      this.annotatedFields = Collections.unmodifiableMap(table);
+
+      var topLevelId = Optional.ofNullable(table.get(FieldType.ID));
+      var key = table.get(FieldType.KEY);
+      if (topLevelId.isEmpty() && key != null && role == DatapointType.OBJECT) {
+        // no top-level ID, so scan the key for one, which is required on keys.
+        this.idField = resolveAnnotatedField(
+          key.getField().getMessageType(),
+          Datamodel.field,
+          false,
+          Optional.of((field) -> field.getType() == FieldType.ID),
+          key.getField().getName());
+      } else {
+        this.idField = topLevelId;
+      }
+
+      var explicitPath = resolveModelAnnotation(descriptor, Datamodel.db, false);
+      if (explicitPath.isPresent() && !explicitPath.get().getPath().isEmpty()) {
+        this.collectionPath = explicitPath.get().getPath();
+      } else {
+        // `PersonKey` -> `persons`
+        this.collectionPath = descriptor.getName().toLowerCase().replace("key", "") + "s";
+      }
+    }
+
+    /**
+     * Resolve the compiled schema for the provided model type {@code descriptor}, compiling it on first use.
+     *
+     * @param descriptor Model type descriptor to resolve a schema for.
+     * @return Compiled schema for the model type.
+     */
+    public static @Nonnull ModelSchema forDescriptor(@Nonnull Descriptor descriptor) {
+      Objects.requireNonNull(descriptor, "Cannot compile schema for `null` descriptor.");
+      var existing = SCHEMAS.get(descriptor);
+      if (existing != null) return existing;
+      var compiled = new ModelSchema(descriptor);
+      var raced = SCHEMAS.putIfAbsent(descriptor, compiled);
+      return raced != null ? raced : compiled;
+    }
+
+    /** @return Descriptor this schema was compiled from. */
+    public @Nonnull Descriptor getDescriptor() {
+      return descriptor;
+    }
+
+    /** @return Role declared on the model, or {@code OBJECT} if none is declared. */
+    public @Nonnull DatapointType role() {
+      return role;
+    }
+
+    /** @return First top-level field annotated as {@code KEY}, if any. */
+    public @Nonnull Optional<FieldPointer> keyField() {
+      return annotatedField(FieldType.KEY);
+    }
+
+    /** @return Top-level ID field, or, for {@code OBJECT} types with no top-level ID, the ID field on the key. */
+    public @Nonnull Optional<FieldPointer> idField() {
+      return idField;
+    }
+
+    /** @return First top-level field annotated as {@code PARENT}, if any. */
+    public @Nonnull Optional<FieldPointer> parentField() {
+      return annotatedField(FieldType.PARENT);
+    }
+
+    /**
+     * Resolve the first top-level field annotated with the provided field {@code type}.
+     *
+     * @param type Field annotation type to resolve.
+     * @return Pointer to the first field carrying that annotation type, if any.
+     */
+    public @Nonnull Optional<FieldPointer> annotatedField(@Nonnull FieldType type) {
+      return Optional.ofNullable(annotatedFields.get(type));
+    }
+
+    /** @return Collection path for this model, as declared via {@code db.path}, or computed from the type name. */
+    public @Nonnull String collectionPath() {
+      return collectionPath;
+    }
+
+    /**
+     * Resolve the fields on this model which match {@code predicate}, in traversal order, as an immutable list. The
+     * list is computed once per predicate instance and then re-used, so callers on hot paths should hold on to the
+     * predicate they pass here. Iterating the returned list by index allocates nothing.
+     *
+     * @param predicate Filter predicate, which should be a pure function of the field pointer.
+     * @param recursive Whether to descend to sub-models recursively.
+     * @return Immutable list of matching field pointers.
+     */
+    public @Nonnull List<FieldPointer> fields(@Nonnull Predicate<FieldPointer> predicate, boolean recursive) {
+      Objects.requireNonNull(predicate, "Cannot filter fields with `null` predicate.");
+      var memo = (recursive ? filteredFieldsDeep : filteredFields).asMap();
+      var existing = memo.get(predicate);
+      if (existing != null) return existing;
+      List<FieldPointer> resolved = streamFieldsRecursive(
+        descriptor,
+        Optional.of(predicate),
+        (field) -> recursive,
+        false
+      ).collect(ImmutableList.toImmutableList());
+      memo.putIfAbsent(predicate, resolved);
+      return resolved;
+    }
+
+    /** @return Flattened field tree for this model, compiling it on first use. */
+    @Nonnull FieldTree tree() {
+      var compiled = tree;
+      if (compiled == null) {
+        compiled = FieldTree.compile(descriptor);
+        tree = compiled;
+      }
+      return compiled;
+    }
+
+    /**
+     * Resolve a model-level annotation on this type, memoizing the result.
+     *
+     * @param ext Extension to fetch from the model, or any sub-model (if {@code recursive} is {@code true}).
+     * @param recursive Whether to search recursively for the desired extension.
+     * @param <E> Generic type of extension we are looking for.
+     * @return Optional, either {@link Optional#empty()}, or wrapping the found extension data instance.
+     */
+    @SuppressWarnings("unchecked")
+    <E> Optional<E> modelAnnotation(@Nonnull GeneratedExtension<MessageOptions, E> ext, boolean recursive) {
+      var memo = recursive ? modelAnnotationsDeep : modelAnnotations;
+      var existing = memo.get(ext);
+      if (existing != null) return (Optional<E>)existing;
+      var resolved = resolveModelAnnotation(descriptor, ext, recursive);
+      memo.putIfAbsent(ext, resolved);
+      return resolved;
+    }
+
+    /**
+     * Resolve the first field annotated with {@code ext} on this type, with no filter, memoizing the result.
+     *
+     * @param ext Extension (annotation) which should be affixed to the field we are searching for.
+     * @param recursive Whether to conduct this search recursively, or just at the top-level.
+     * @return Optional-wrapped field pointer, or {@link Optional#empty()}.
+     */
+    Optional<FieldPointer> annotatedField(@Nonnull GeneratedExtension<FieldOptions, ?> ext, boolean recursive) {
+      var memo = recursive ? fieldsDeep : fields;
+      var existing = memo.get(ext);
+      if (existing != null) return existing;
+      var resolved = resolveAnnotatedField(descriptor, ext, recursive, Optional.empty(), "");
+      memo.putIfAbsent(ext, resolved);
+      return resolved;
+    }
+  }
+
+  /**
+   * Pre-order, flattened tree of every field reachable from a model type, with a {@link FieldPointer} (and an interned
+   * path) built once for each. Traversals walk the arrays by index, so that consulting the predicate and decider is the
+   * only per-field work, and no per-field objects are allocated.
+   *
+   * <p>Sub-messages of the same type as their containing message are not expanded, matching the crawl behavior
+   * documented on {@link #streamFields(Descriptor, Optional, Predicate)}. Models which reach themselves indirectly
+   * cannot be flattened; for those, {@link #CYCLIC} is returned, and traversal falls back to crawling descriptors.</p>
+   */
+  @Immutable
+  @ThreadSafe
+  static final class FieldTree {
+    /** Marker tree for models which reach themselves indirectly, and so cannot be flattened. */
+    static final FieldTree CYCLIC = new FieldTree(new FieldPointer[0], new int[0], new boolean[0]);
+
+    /** Field pointers, in pre-order. */
+    private final @Nonnull FieldPointer[] fields;
+
+    /** Index just past the subtree of each field. */
+    private final @Nonnull int[] end;
+
+    /** Whether each field is a sub-message which may be recursed into, subject to the decider. */
+    private final @Nonnull boolean[] branch;
+
+    private FieldTree(@Nonnull FieldPointer[] fields, @Nonnull int[] end, @Nonnull boolean[] branch) {
+      this.fields = fields;
+      this.end = end;
+      this.branch = branch;
+    }
+
+    /**
+     * Flatten the field tree reachable from {@code base}.
+     *
+     * @param base Model type to flatten.
+     * @return Flattened tree, or {@link #CYCLIC} if the model reaches itself indirectly.
+     */
+    static @Nonnull FieldTree compile(@Nonnull Descriptor base) {
+      var pointers = new ArrayList<FieldPointer>();
+      var ends = new ArrayList<Integer>();
+      var branches = new ArrayList<Boolean>();
+      var ancestors = new HashSet<String>();
+      ancestors.add(base.getFullName());
+      if (!flatten(base, base, "", ancestors, pointers, ends, branches))
+        return CYCLIC;
+
+      int count = pointers.size();
+      var end = new int[count];
+      var branch = new boolean[count];
+      for (int i = 0; i < count; i++) {
+        end[i] = ends.get(i);
+        branch[i] = branches.get(i);
+      }
+      return new FieldTree(pointers.toArray(new FieldPointer[0]), end, branch);
+    }
+
+    /** Append the fields of {@code descriptor} in pre-order, returning {@code false} on an indirect cycle. */
+    private static boolean flatten(@Nonnull Descriptor base,
+                                   @Nonnull Descriptor descriptor,
+                                   @Nonnull String parent,
+                                   @Nonnull Set<String> ancestors,
+                                   @Nonnull List<FieldPointer> pointers,
+                                   @Nonnull List<Integer> ends,
+                                   @Nonnull List<Boolean> branches) {
+      for (FieldDescriptor field : descriptor.getFields()) {
+        var path = (parent + "." + field.getName()).intern();
+        int index = pointers.size();
+        pointers.add(new FieldPointer(base, parent, path, field));
+        ends.add(index + 1);
+
+        boolean isBranch = field.getType() == FieldDescriptor.Type.MESSAGE
+          && !field.getMessageType().getFullName().equals(field.getContainingType().getFullName());
+        branches.add(isBranch);
+        if (isBranch) {
+          var subType = field.getMessageType();
+          if (!ancestors.add(subType.getFullName()))
+            return false;
+          if (!flatten(base, subType, path, ancestors, pointers, ends, branches))
+            return false;
+          ancestors.remove(subType.getFullName());
+          ends.set(index, pointers.size());
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Traverse this tree in pre-order, recursing into sub-messages only where {@code decider} agrees, and emitting only
+     * fields which match {@code predicate}, if provided.
+     *
+     * @param predicate Filter predicate function, if applicable.
+     * @param decider Function that decides whether to recurse.
+     * @return Spliterator over matching fields.
+     */
+    @Nonnull Spliterator<FieldPointer> spliterator(@Nonnull Optional<Predicate<FieldPointer>> predicate,
+                                                   @Nonnull Predicate<FieldPointer> decider) {
+      final Predicate<FieldPointer> filter = predicate.orElse(null);
+      return new Spliterators.AbstractSpliterator<>(
+          fields.length, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE) {
+        private int index = 0;
+
+        @Override
+        public boolean tryAdvance(Consumer<? super FieldPointer> action) {
+          while (index < fields.length) {
+            var pointer = fields[index];
+            index = branch[index] && !decider.test(pointer) ? end[index] : index + 1;
+            if (filter == null || filter.test(pointer)) {
+              action.accept(pointer);
+              return true;
+            }
+          }
+          return false;
+        }
+      };
+    }
+  }
+
+  /**
+   * Direct accessors for the key and ID fields of a generated model class, bound once to the generated getters and
+   * setters via {@link MethodHandle}s. Key and ID handling runs several times per operation in every driver, and going
+   * through {@link Message#getField(FieldDescriptor)} and {@link Message.Builder#setField(FieldDescriptor, Object)}
+   * reflects on each call; these accessors call the generated methods instead.
+   *
+   * <p>Accessors are resolved per Java class, so that generated messages and {@code DynamicMessage} instances of the
+   * same type are told apart. Where a generated method cannot be found with the expected signature (for instance, for
+   * dynamic messages, enum or repeated fields, or renamed accessors), the corresponding accessor is absent, and callers
+   * fall back to descriptor-based access.</p>
+   */
+  @Immutable
+  @ThreadSafe
+  static final class ModelAccessors {
+    /** Compiled accessors, by generated model class. */
+    private static final ClassValue<ModelAccessors> ACCESSORS = new ClassValue<>() {
+      @Override
+      protected ModelAccessors computeValue(Class<?> type) {
+        return compile(type);
+      }
+    };
+
+    /** Accessors for types with no usable generated methods. */
+    private static final ModelAccessors NONE = new ModelAccessors(
+      null, null, null, null, null, null, null, null, null, null);
+
+    /** Generated builder type these accessors splice into. */
+    private final @Nullable Class<?> builderType;
+
+    /** Reads the key message: {@code (Message) -> Message}. */
+    private final @Nullable MethodHandle getKey;
+
+    /** Checks for a key message: {@code (Message) -> boolean}. */
+    private final @Nullable MethodHandle hasKey;
+
+    /** Sets the key message: {@code (Message.Builder, Message) -> void}. */
+    private final @Nullable MethodHandle setKey;
+
+    /** Clears the key message: {@code (Message.Builder) -> void}. */
+    private final @Nullable MethodHandle clearKey;
+
+    /** Reads the ID, from the model or its key: {@code (Message) -> Object}. */
+    private final @Nullable MethodHandle getId;
+
+    /** Checks for the key holding the ID, if the ID is not top-level: {@code (Message) -> boolean}. */
+    private final @Nullable MethodHandle hasIdParent;
+
+    /** Resolves the key builder holding the ID, if the ID is not top-level: {@code (Message.Builder) -> Object}. */
+    private final @Nullable MethodHandle idBuilder;
+
+    /** Sets the ID on the builder which holds it: {@code (Object, Object) -> void}. */
+    private final @Nullable MethodHandle setId;
+
+    /** Clears the ID on the builder which holds it: {@code (Object) -> void}. */
+    private final @Nullable MethodHandle clearId;
+
+    private ModelAccessors(@Nullable Class<?> builderType,
+                           @Nullable MethodHandle getKey,
+                           @Nullable MethodHandle hasKey,
+                           @Nullable MethodHandle setKey,
+                           @Nullable MethodHandle clearKey,
+                           @Nullable MethodHandle getId,
+                           @Nullable MethodHandle hasIdParent,
+                           @Nullable MethodHandle idBuilder,
+                           @Nullable MethodHandle setId,
+                           @Nullable MethodHandle clearId) {
+      this.builderType = builderType;
+      this.getKey = getKey;
+      this.hasKey = hasKey;
+      this.setKey = setKey;
+      this.clearKey = clearKey;
+      this.getId = getId;
+      this.hasIdParent = hasIdParent;
+      this.idBuilder = idBuilder;
+      this.setId = setId;
+      this.clearId = clearId;
+    }
+
+    /**
+     * Resolve accessors for the provided generated model class, binding them on first use.
+     *
+     * @param type Java class of a model instance.
+     * @return Accessors for the model class, any of which may be unavailable.
+     */
+    static @Nonnull ModelAccessors forType(@Nonnull Class<?> type) {
+      return ACCESSORS.get(type);
+    }
+
+    /**
+     * Resolve accessors for the model type produced by the provided {@code builder}.
+     *
+     * @param builder Builder for a model instance.
+     * @return Accessors for the model class, or {@link #NONE} if the builder is not the generated builder for it.
+     */
+    static @Nonnull ModelAccessors forBuilder(@Nonnull Message.Builder builder) {
+      var accessors = forType(builder.getDefaultInstanceForType().getClass());
+      return accessors.builderType == builder.getClass() ? accessors : NONE;
+    }
+
+    /**
+     * Compute the generated Java accessor name for a field, matching {@code protoc}: underscores are dropped, and the
+     * first letter, along with any letter which follows an underscore or a digit, is capitalized.
+     *
+     * @param field Field to compute an accessor name for.
+     * @return Capitalized camel-case name, as used in {@code getX}, {@code setX}, and so on.
+     */
+    @VisibleForTesting
+    static @Nonnull String javaName(@Nonnull FieldDescriptor field) {
+      var name = field.getName();
+      var out = new StringBuilder(name.length());
+      boolean capitalize = true;
+      for (int i = 0; i < name.length(); i++) {
+        char c = name.charAt(i);
+        if (c == '_') {
+          capitalize = true;
+        } else if (Character.isDigit(c)) {
+          out.append(c);
+          capitalize = true;
+        } else {
+          out.append(capitalize ? Character.toUpperCase(c) : c);
+          capitalize = false;
+        }
+      }
+      return out.toString();
+    }
+
+    /**
+     * Resolve the Java type the generated accessors use for a singular, non-enum scalar field.
+     *
+     * @param field Field to resolve a Java type for.
+     * @return Java type for the field, or {@code null} if generated accessors are not supported for it.
+     */
+    private static @Nullable Class<?> scalarType(@Nonnull FieldDescriptor field) {
+      if (field.isRepeated()) return null;
+      switch (field.getJavaType()) {
+        case INT: return int.class;
+        case LONG: return long.class;
+        case FLOAT: return float.class;
+        case DOUBLE: return double.class;
+        case BOOLEAN: return boolean.class;
+        case STRING: return String.class;
+        case BYTE_STRING: return ByteString.class;
+        default: return null;
+      }
+    }
+
+    /**
+     * Find a public method by name and parameter types, returning {@code null} if it is not present, or does not return
+     * {@code returns}.
+     */
+    private static @Nullable Method method(@Nonnull Class<?> type,
+                                           @Nonnull String name,
+                                           @Nonnull Class<?> returns,
+                                           @Nonnull Class<?>... params) {
+      try {
+        var method = type.getMethod(name, params);
+        return returns.isAssignableFrom(method.getReturnType()) ? method : null;
+      } catch (NoSuchMethodException nsme) {
+        return null;
+      }
+    }
+
+    /**
+     * Bind accessors for a generated model class. Each accessor is bound only if every method it needs is found with
+     * the expected signature.
+     *
+     * @param type Java class of a model instance.
+     * @return Bound accessors, or {@link #NONE} if the class is not a generated model.
+     */
+    private static @Nonnull ModelAccessors compile(@Nonnull Class<?> type) {
+      if (!Message.class.isAssignableFrom(type)) return NONE;
+      try {
+        var factory = method(type, "getDefaultInstance", type);
+        if (factory == null) return NONE;
+        var instance = (Message)factory.invoke(null);
+        var builderType = instance.newBuilderForType().getClass();
+        var schema = ModelSchema.forDescriptor(instance.getDescriptorForType());
+        var lookup = MethodHandles.publicLookup();
+
+        MethodHandle getKey = null, hasKey = null, setKey = null, clearKey = null;
+        Method keyGetter = null, keyBuilderGetter = null;
+        var keyField = schema.keyField();
+        if (keyField.isPresent() && !keyField.get().getField().isRepeated()
+            && keyField.get().getField().getJavaType() == FieldDescriptor.JavaType.MESSAGE) {
+          var name = javaName(keyField.get().getField());
+          keyGetter = method(type, "get" + name, Message.class);
+          var keyHas = method(type, "has" + name, boolean.class);
+          keyBuilderGetter = method(builderType, "get" + name + "Builder", Message.Builder.class);
+          var keySetter = keyGetter == null ? null :
+            method(builderType, "set" + name, Message.Builder.class, keyGetter.getReturnType());
+          var keyClear = method(builderType, "clear" + name, Message.Builder.class);
+          if (keyGetter != null && keyHas != null && keySetter != null && keyClear != null) {
+            getKey = lookup.unreflect(keyGetter)
+              .asType(MethodType.methodType(Message.class, Message.class));
+            hasKey = lookup.unreflect(keyHas)
+              .asType(MethodType.methodType(boolean.class, Message.class));
+            setKey = lookup.unreflect(keySetter)
+              .asType(MethodType.methodType(void.class, Message.Builder.class, Message.class));
+            clearKey = lookup.unreflect(keyClear)
+              .asType(MethodType.methodType(void.class, Message.Builder.class));
+          }
+        }
+
+        MethodHandle getId = null, hasIdParent = null, idBuilder = null, setId = null, clearId = null;
+        var idField = schema.idField();
+        var idType = idField.map((pointer) -> scalarType(pointer.getField())).orElse(null);
+        if (idField.isPresent() && idType != null) {
+          var name = javaName(idField.get().getField());
+          var path = idField.get().getPath();
+          if (path.indexOf('.') < 0) {
+            // top-level ID, read and written directly on the model
+            var idGetter = method(type, "get" + name, idType);
+            var idSetter = method(builderType, "set" + name, Message.Builder.class, idType);
+            var idClear = method(builderType, "clear" + name, Message.Builder.class);
+            if (idGetter != null && idSetter != null && idClear != null) {
+              getId = lookup.unreflect(idGetter).asType(MethodType.methodType(Object.class, Message.class));
+              setId = lookup.unreflect(idSetter).asType(MethodType.methodType(void.class, Object.class, Object.class));
+              clearId = lookup.unreflect(idClear).asType(MethodType.methodType(void.class, Object.class));
+            }
+          } else if (getKey != null && keyBuilderGetter != null
+                     && path.equals(keyField.get().getPath() + "." + idField.get().getName())) {
+            // ID on the key, read through the key, and written through the key's builder
+            var keyType = keyGetter.getReturnType();
+            var keyBuilderType = keyBuilderGetter.getReturnType();
+            var idGetter = method(keyType, "get" + name, idType);
+            var idSetter = method(keyBuilderType, "set" + name, Message.Builder.class, idType);
+            var idClear = method(keyBuilderType, "clear" + name, Message.Builder.class);
+            if (idGetter != null && idSetter != null && idClear != null) {
+              getId = MethodHandles.filterReturnValue(lookup.unreflect(keyGetter), lookup.unreflect(idGetter))
+                .asType(MethodType.methodType(Object.class, Message.class));
+              hasIdParent = hasKey;
+              idBuilder = lookup.unreflect(keyBuilderGetter)
+                .asType(MethodType.methodType(Object.class, Message.Builder.class));
+              setId = lookup.unreflect(idSetter).asType(MethodType.methodType(void.class, Object.class, Object.class));
+              clearId = lookup.unreflect(idClear).asType(MethodType.methodType(void.class, Object.class));
+            }
+          }
+        }
+        return new ModelAccessors(
+          builderType, getKey, hasKey, setKey, clearKey, getId, hasIdParent, idBuilder, setId, clearId);
+      } catch (ReflectiveOperationException | RuntimeException err) {
+        // not a generated model we can bind to: callers fall back to descriptor-based access.
+        return NONE;
+      }
+    }
+
+    /** Rethrow a failure from a bound accessor, wrapping checked exceptions (which generated methods never throw). */
+    private static @Nonnull RuntimeException rethrow(@Nonnull Throwable err) {
+      if (err instanceof RuntimeException) return (RuntimeException)err;
+      if (err instanceof Error) throw (Error)err;
+      return new IllegalStateException("Generated model accessor failed.", err);
+    }
+
+    /** @return Whether the key can be read via generated methods. */
+    boolean readsKey() {
+      return getKey != null;
+    }
+
+    /** @return Whether the key can be spliced via generated methods. */
+    boolean writesKey() {
+      return setKey != null;
+    }
+
+    /** @return Whether the ID can be read via generated methods. */
+    boolean readsId() {
+      return getId != null;
+    }
+
+    /** @return Whether the ID can be spliced via generated methods. */
+    boolean writesId() {
+      return setId != null;
+    }
+
+    /**
+     * Read the key from {@code instance}, which is considered present only if it is set to a non-default value.
+     *
+     * @param instance Model instance to read the key from.
+     * @param <Key> Key message type.
+     * @return Key value, or {@link Optional#empty()}.
+     */
+    @SuppressWarnings("unchecked")
+    <Key> Optional<Key> key(@Nonnull Message instance) {
+      try {
+        if (!(boolean)Objects.requireNonNull(hasKey).invokeExact(instance)) return Optional.empty();
+        var key = (Message)Objects.requireNonNull(getKey).invokeExact(instance);
+        return key.equals(key.getDefaultInstanceForType()) ? Optional.empty() : Optional.of((Key)key);
+      } catch (Throwable err) {
+        throw rethrow(err);
+      }
+    }
+
+    /**
+     * Read the ID from {@code instance}. A top-level ID is always present; an ID on the key is present if the key is.
+     *
+     * @param instance Model instance to read the ID from.
+     * @param <ID> ID value type.
+     * @return ID value, or {@link Optional#empty()}.
+     */
+    @SuppressWarnings("unchecked")
+    <ID> Optional<ID> id(@Nonnull Message instance) {
+      try {
+        if (hasIdParent != null && !(boolean)hasIdParent.invokeExact(instance)) return Optional.empty();
+        return Optional.of((ID)(Object)Objects.requireNonNull(getId).invokeExact(instance));
+      } catch (Throwable err) {
+        throw rethrow(err);
+      }
+    }
+
+    /**
+     * Splice a key value into {@code builder}, or clear it.
+     *
+     * @param builder Generated builder to mutate.
+     * @param val Key to set, or {@link Optional#empty()} to clear the key.
+     * @throws ClassCastException If the key is not of the expected type.
+     */
+    void spliceKey(@Nonnull Message.Builder builder, @Nonnull Optional<? extends Message> val) {
+      try {
+        if (val.isPresent()) {
+          Objects.requireNonNull(setKey).invokeExact(builder, (Message)val.get());
+        } else {
+          Objects.requireNonNull(clearKey).invokeExact(builder);
+        }
+      } catch (Throwable err) {
+        throw rethrow(err);
+      }
+    }
+
+    /**
+     * Splice an ID value into {@code builder} (or into its key builder), or clear it.
+     *
+     * @param builder Generated builder to mutate.
+     * @param val ID to set, or {@link Optional#empty()} to clear the ID.
+     * @throws ClassCastException If the ID is not of the expected type.
+     */
+    void spliceId(@Nonnull Message.Builder builder, @Nonnull Optional<?> val) {
+      try {
+        Object target = idBuilder != null ? (Object)idBuilder.invokeExact(builder) : builder;
+        if (val.isPresent()) {
+          Objects.requireNonNull(setId).invokeExact(target, (Object)val.get());
+        } else {
+          Objects.requireNonNull(clearId).invokeExact(target);
+        }
+      } catch (Throwable err) {
+        throw rethrow(err);
+      }
+    }
+  }
+
   // -- Internals -- //
 
   /**
@@ -588,7 +1286,7 @@ public final class ModelMetadata {
    * @return Type of the provided datamodel.
    */
   public static @Nonnull DatapointType role(@Nonnull Descriptor descriptor) {
-    return modelAnnotation(descriptor, Datamodel.role, false).orElse(DatapointType.OBJECT);
+    return ModelSchema.forDescriptor(descriptor).role();
   }
 
   /**
@@ -651,8 +1349,8 @@ public final class ModelMetadata {
    * @return Whether the provided model is a <i>member-of</i> (annotated-by) any of the provided {@code types}.
    */
   public static boolean matchAnyRole(@Nonnull Message model, @Nonnull DatapointType ...types) {
-    Objects.requireNonNull(types, "Cannot match `null` model types.");
-    return EnumSet.copyOf(Arrays.asList(types)).contains(role(model));
+    Objects.requireNonNull(model, "Cannot resolve type for `null` model.");
+    return matchAnyRole(model.getDescriptorForType(), types);
   }
 
   /**
@@ -669,7 +1367,11 @@ public final class ModelMetadata {
    */
   public static boolean matchAnyRole(@Nonnull Descriptor descriptor, @Nonnull DatapointType ...types) {
     Objects.requireNonNull(types, "Cannot match `null` model types.");
-    return EnumSet.copyOf(Arrays.asList(types)).contains(role(descriptor));
+    var role = role(descriptor);
+    for (DatapointType type : types) {
+      if (type == role) return true;
+    }
+    return false;
   }
 
   /**
@@ -802,6 +1504,22 @@ public final class ModelMetadata {
                                                          @Nonnull GeneratedExtension<MessageOptions, E> ext,
                                                          @Nonnull Boolean recursive) {
     Objects.requireNonNull(descriptor, "Cannot resolve type for `null` descriptor.");
+    return ModelSchema.forDescriptor(descriptor).modelAnnotation(ext, recursive);
+  }
+
+  /**
+   * Resolve a model-level annotation from {@code descriptor} by scanning its options (and, if {@code recursive}, those
+   * of its sub-messages), without consulting the compiled {@link ModelSchema}.
+   *
+   * @param descriptor Schema descriptor for a model type.
+   * @param ext Extension to fetch from the subject model, or any sub-model (if {@code recursive} is {@code true}).
+   * @param recursive Whether to search recursively for the desired extension.
+   * @param <E> Generic type of extension we are looking for.
+   * @return Optional, either {@link Optional#empty()}, or wrapping the found extension data instance.
+   */
+  static @Nonnull <E> Optional<E> resolveModelAnnotation(@Nonnull Descriptor descriptor,
+                                                         @Nonnull GeneratedExtension<MessageOptions, E> ext,
+                                                         boolean recursive) {
     if (descriptor.getOptions().hasExtension(ext))
       return Optional.of(descriptor.getOptions().getExtension(ext));
     if (recursive) {
@@ -810,7 +1528,7 @@ public final class ModelMetadata {
       for (FieldDescriptor field : descriptor.getFields()) {
         if (field.getType() == FieldDescriptor.Type.MESSAGE) {
           //noinspection ConstantConditions
-          var subresult = modelAnnotation(field.getMessageType(), ext, recursive);
+          var subresult = resolveModelAnnotation(field.getMessageType(), ext, true);
           if (subresult.isPresent())
             return subresult;
         }
@@ -933,6 +1651,8 @@ public final class ModelMetadata {
                                                                    @Nonnull GeneratedExtension<FieldOptions, E> ext,
                                                                    @Nonnull Boolean recursive,
                                                                    @Nonnull Optional<Function<E, Boolean>> filter) {
+    if (filter.isEmpty())
+      return ModelSchema.forDescriptor(descriptor).annotatedField(ext, recursive);
     return resolveAnnotatedField(descriptor, ext, recursive, filter, "");
   }
 
@@ -981,29 +1701,12 @@ public final class ModelMetadata {
    */
   public static @Nonnull Optional<FieldPointer> idField(@Nonnull Descriptor descriptor) throws InvalidModelType {
     enforceAnyRole(Objects.requireNonNull(descriptor), DatapointType.OBJECT, DatapointType.OBJECT_KEY);
-    var topLevelId = Objects.requireNonNull(annotatedField(
-      descriptor,
-      Datamodel.field,
-      false,
-      Optional.of((field) -> field.getType() == FieldType.ID)));
-
-    if (topLevelId.isPresent()) {
-      return topLevelId;
-    } else {
-      // okay. no top level ID. what about keys, which must be top-level?
-      var keyBase = keyField(descriptor);
-      if (keyBase.isPresent()) {
-        // we found a key, so scan the key for an ID, which is required on keys.
-        return Objects.requireNonNull(resolveAnnotatedField(
-          keyBase.get().field.getMessageType(),
-          Datamodel.field,
-          false,
-          Optional.of((field) -> field.getType() == FieldType.ID),
-          keyBase.get().getField().getName()));
-      }
+    var idField = ModelSchema.forDescriptor(descriptor).idField();
+    if (idField.isEmpty()) {
+      // no top-level ID. only objects may carry one on their key instead, so enforce that before giving up.
+      enforceRole(descriptor, DatapointType.OBJECT);
     }
-    // there's no top-level ID, and no top-level key, or the key had no ID. we're done here.
-    return Optional.empty();
+    return idField;
   }
 
   // -- Metadata: Key Fields -- //
@@ -1034,11 +1737,7 @@ public final class ModelMetadata {
    */
   public static @Nonnull Optional<FieldPointer> keyField(@Nonnull Descriptor descriptor) throws InvalidModelType {
     enforceAnyRole(Objects.requireNonNull(descriptor), DatapointType.OBJECT);
-    return Objects.requireNonNull(annotatedField(
-      Objects.requireNonNull(descriptor),
-      Datamodel.field,
-      false,
-      Optional.of((field) -> field.getType() == FieldType.KEY)));
+    return ModelSchema.forDescriptor(descriptor).keyField();
   }
 
   // -- Metadata: Value Pluck -- //
@@ -1188,6 +1887,9 @@ public final class ModelMetadata {
     Optional<FieldPointer> idField = idField(descriptor);
     if (idField.isEmpty())
       throw new MissingAnnotatedField(descriptor, FieldType.ID);
+    var accessors = ModelAccessors.forType(instance.getClass());
+    if (accessors.readsId())
+      return accessors.id(instance);
     return ModelMetadata.<ID>pluck(instance, idField.get()).getValue();
   }
 
@@ -1206,14 +1908,13 @@ public final class ModelMetadata {
   public static @Nonnull <Key> Optional<Key> key(@Nonnull Message instance) {
     Descriptor descriptor = instance.getDescriptorForType();
     enforceRole(descriptor, DatapointType.OBJECT);
-    Optional<FieldPointer> keyField = annotatedField(
-      descriptor,
-      Datamodel.field,
-      false,
-      Optional.of((field) -> field.getType() == FieldType.KEY));
+    Optional<FieldPointer> keyField = ModelSchema.forDescriptor(descriptor).keyField();
 
     if (keyField.isEmpty())
       throw new MissingAnnotatedField(descriptor, FieldType.KEY);
+    var accessors = ModelAccessors.forType(instance.getClass());
+    if (accessors.readsKey())
+      return accessors.key(instance);
     //noinspection unchecked
     return (Optional<Key>)pluck(instance, keyField.get()).getValue();
   }
@@ -1360,6 +2061,13 @@ public final class ModelMetadata {
       .orElseThrow(() -> new MissingAnnotatedField(descriptor, FieldType.ID))
       .getPath();
 
+    var accessors = ModelAccessors.forBuilder(builder);
+    if (accessors.writesId()) {
+      accessors.spliceId(builder, val);
+      //noinspection unchecked
+      return (Builder)builder;
+    }
+
     return spliceArbitraryField(
       builder,
       builder,
@@ -1427,6 +2135,13 @@ public final class ModelMetadata {
       .orElseThrow(() -> new MissingAnnotatedField(descriptor, FieldType.KEY))
       .getPath();
 
+    var accessors = ModelAccessors.forBuilder(builder);
+    if (accessors.writesKey()) {
+      accessors.spliceKey(builder, val);
+      //noinspection unchecked
+      return (Builder)builder;
+    }
+
     return spliceArbitraryField(
       builder,
       builder,
@@ -1435,6 +2150,79 @@ public final class ModelMetadata {
       fieldPath);
   }
 
+  // -- Metadata: Field Patches -- //
+
+  /**
+   * Compute a {@link FieldMask} covering each top-level field of {@code model} which differs from {@code base}. Fields
+   * annotated as {@code KEY} or {@code ID} are never included, because they address the record rather than carry its
+   * data. The resulting mask is suitable for use with a field-level patch write.
+   *
+   * @param base Base instance of the model, as last read from storage.
+   * @param model Modified instance of the model.
+   * @return Field mask listing the top-level fields which changed, in schema order.
+   * @throws IllegalArgumentException If the two instances are not of the same type.
+   */
+  public static @Nonnull FieldMask diffMask(@Nonnull Message base, @Nonnull Message model) {
+    var descriptor = model.getDescriptorForType();
+    if (!descriptor.equals(base.getDescriptorForType()))
+      throw new IllegalArgumentException(String.format(
+        "Cannot diff model of type '%s' against base of type '%s'.",
+        descriptor.getFullName(),
+        base.getDescriptorForType().getFullName()));
+
+    var mask = FieldMask.newBuilder();
+    for (FieldDescriptor field : descriptor.getFields()) {
+      if (matchFieldAnnotation(field, FieldType.KEY) || matchFieldAnnotation(field, FieldType.ID)) continue;
+      boolean changed = field.hasPresence() ?
+        base.hasField(field) != model.hasField(field) || !base.getField(field).equals(model.getField(field)) :
+        !base.getField(field).equals(model.getField(field));
+      if (changed) mask.addPaths(field.getName());
+    }
+    return mask.build();
+  }
+
+  /**
+   * Resolve the set of field paths touched by the provided patch {@code mask}. Nested paths are kept as-is, so that a
+   * patch to {@code contact_info.email_address} leaves sibling fields like {@code contact_info.phone_e164} alone; paths
+   * already covered by a parent path in the mask are dropped.
+   *
+   * @param descriptor Schema descriptor for the model being patched.
+   * @param mask Field mask describing the patch.
+   * @return Sorted set of field paths touched by the mask.
+   * @throws IllegalArgumentException If the mask references a path which does not exist on the model.
+   */
+  public static @Nonnull SortedSet<String> patchedFields(@Nonnull Descriptor descriptor, @Nonnull FieldMask mask) {
+    if (!FieldMaskUtil.isValid(descriptor, mask))
+      throw new IllegalArgumentException(String.format(
+        "Field mask '%s' is not valid for model of type '%s'.",
+        FieldMaskUtil.toString(mask),
+        descriptor.getFullName()));
+    return Collections.unmodifiableSortedSet(new TreeSet<>(FieldMaskUtil.normalize(mask).getPathsList()));
+  }
+
+  /**
+   * Apply a field-level patch to {@code target}, copying each field covered by {@code mask} from {@code patch}. Fields
+   * covered by the mask are replaced outright (including repeated and message fields), and are cleared if they are
+   * unset on {@code patch}. Fields outside the mask keep their value from {@code target}.
+   *
+   * @param target Current instance of the model, which receives the patch.
+   * @param patch Instance of the model carrying the patched values.
+   * @param mask Field mask describing which fields to copy.
+   * @param <Model> Model type which we are patching.
+   * @return Re-built model, after applying the patch.
+   */
+  public static @Nonnull <Model extends Message> Model mergePatch(@Nonnull Model target,
+                                                                  @Nonnull Message patch,
+                                                                  @Nonnull FieldMask mask) {
+    var builder = target.toBuilder();
+    FieldMaskUtil.merge(mask, patch, builder, new FieldMaskUtil.MergeOptions()
+      .setReplaceMessageFields(true)
+      .setReplaceRepeatedFields(true)
+      .setReplacePrimitiveFields(true));
+    //noinspection unchecked
+    return (Model)builder.build();
+  }
+
   /**
    * Crawl all fields, recursively, on the descriptor provided. This data may also be accessed via a Java stream via the
    * method variants listed below. Variants of this method also allow predicate-based filtering or control of recursion.
@@ -1479,11 +2267,8 @@ public final class ModelMetadata {
   public static @Nonnull Iterable<FieldPointer> allFields(@Nonnull Descriptor descriptor,
                                                           @Nonnull Optional<Predicate<FieldPointer>> predicate,
                                                           @Nonnull Boolean recursive) {
-    return streamFields(
-      descriptor,
-      predicate,
-      recursive
-    ).collect(Collectors.toUnmodifiableList());
+    Objects.requireNonNull(recursive, "cannot pass `null` for recursive switch");
+    return ModelSchema.forDescriptor(descriptor).fields(predicate.orElse(ALL_FIELDS), recursive);
   }
 
   /**
@@ -1530,11 +2315,9 @@ public final class ModelMetadata {
     Objects.requireNonNull(predicate);
 
     return streamFieldsRecursive(
-            descriptor,
             descriptor,
             predicate,
             (field) -> false,
-            "",
             false
     );
   }
@@ -1562,11 +2345,9 @@ public final class ModelMetadata {
     Objects.requireNonNull(predicate);
 
     return streamFieldsRecursive(
-            descriptor,
             descriptor,
             predicate,
             (field) -> recursive,
-            "",
             false
     );
   }
@@ -1597,11 +2378,9 @@ public final class ModelMetadata {
     Objects.requireNonNull(predicate);
 
     return streamFieldsRecursive(
-            descriptor,
             descriptor,
             predicate,
             decider,
-            "",
             false
     );
   }
@@ -1715,16 +2494,35 @@ public final class ModelMetadata {
     Objects.requireNonNull(predicate);
 
     return streamFieldsRecursive(
-      descriptor,
       descriptor,
       predicate,
       decider,
-      "",
       true
     );
   }
 
+  /**
+   * Stream fields from the flattened {@link FieldTree} for {@code base}, falling back to a descriptor crawl for models
+   * which cannot be flattened.
+   *
+   * @param base Model type to crawl.
+   * @param predicate Filter predicate function, if applicable.
+   * @param decider Function that decides whether to recurse.
+   * @param parallel Whether the returned stream should be parallel.
+   * @return Stream of matching field pointers, in pre-order.
+   */
   private static @Nonnull Stream<FieldPointer> streamFieldsRecursive(
+    @Nonnull Descriptor base,
+    @Nonnull Optional<Predicate<FieldPointer>> predicate,
+    @Nonnull Predicate<FieldPointer> decider,
+    boolean parallel) {
+    var tree = ModelSchema.forDescriptor(base).tree();
+    if (tree == FieldTree.CYCLIC)
+      return crawlFieldsRecursive(base, base, predicate, decider, "", parallel);
+    return StreamSupport.stream(tree.spliterator(predicate, decider), parallel);
+  }
+
+  private static @Nonnull Stream<FieldPointer> crawlFieldsRecursive(
     @Nonnull Descriptor base,
     @Nonnull Descriptor descriptor,
     @Nonnull Optional<Predicate<FieldPointer>> predicate,
@@ -1744,7 +2542,7 @@ public final class ModelMetadata {
       if (field.getType() == FieldDescriptor.Type.MESSAGE
           && !field.getMessageType().getFullName().equals(field.getContainingType().getFullName())
           && decider.test(pointer)) {
-        return Stream.concat(branch, streamFieldsRecursive(
+        return Stream.concat(branch, crawlFieldsRecursive(
           base,
           descriptor.findFieldByNumber(field.getNumber()).getMessageType(),
           predicate,
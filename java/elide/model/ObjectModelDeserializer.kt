@@ -21,10 +21,10 @@ import com.google.protobuf.Timestamp
 import elide.model.ModelDeserializer.DeserializationError
 import elide.runtime.jvm.Logging
 import tools.elide.core.Datamodel
-import tools.elide.core.FieldPersistenceOptions
 import java.nio.charset.StandardCharsets
 import java.util.*
-import java.util.function.Function
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
 import javax.annotation.Nonnull
 import tools.elide.core.FieldType as CoreFieldType
 
@@ -45,6 +45,22 @@ open class ObjectModelDeserializer<Model: Message> protected constructor(
     /** Private logging pipe. */
     private val logging = Logging.logger(ObjectModelDeserializer::class.java)
 
+    /** Compiled decode plans, by descriptor. */
+    private val plans: ConcurrentMap<Descriptors.Descriptor, DecodePlan> = ConcurrentHashMap()
+
+    /**
+     * Resolve the decode plan for the provided model type, compiling it on first use.
+     *
+     * @param descriptor Descriptor for the model type.
+     * @return Compiled decode plan.
+     */
+    private fun planFor(descriptor: Descriptors.Descriptor): DecodePlan {
+      val existing = plans[descriptor]
+      if (existing != null) return existing
+      val compiled = DecodePlan(descriptor)
+      return plans.putIfAbsent(descriptor, compiled) ?: compiled
+    }
+
     /**
      * Return an object model deserializer tailored to the parameterized model specified with `M`, with the specified
      * deserialization settings.
@@ -95,23 +111,22 @@ open class ObjectModelDeserializer<Model: Message> protected constructor(
    * descriptors). "Simple" values are defined as items that are un-repeated and composed solely of native scalar types
    * defined in the Protobuf `proto3` spec.
    *
-   * @param type
-   * @param field
+   * @param plan
    * @param builder
    * @param dataValue
    * @throws DeserializationError
    */
   @Throws(DeserializationError::class)
-  private fun <B: Message.Builder> setSimpleField(type: Type,
-                                                  field: Descriptors.FieldDescriptor,
+  private fun <B: Message.Builder> setSimpleField(plan: FieldPlan,
                                                   builder: B,
                                                   dataValue: Any) {
     // this is only for un-repeated simple values
-    if (field.isRepeated)
+    val field = plan.field
+    if (plan.repeated)
       throw DeserializationError("Cannot set repeated fields as simple values.")
 
     // only operate on fields with a value
-    when (type) {
+    when (plan.type) {
       // for many types, we can just splice directly
       Type.BOOL,
       Type.INT32, Type.INT64,
@@ -159,7 +174,7 @@ open class ObjectModelDeserializer<Model: Message> protected constructor(
       }
 
       Type.ENUM -> {
-        val enumType = field.enumType ?:
+        val enumType = plan.enumType ?:
         throw DeserializationError("Unable to resolve enum without attached type, for field '${field.name}' " +
           "on entity '${builder.descriptorForType.name}'.")
 
@@ -193,16 +208,17 @@ open class ObjectModelDeserializer<Model: Message> protected constructor(
    * or a map of strings to boolean or integer values.
    *
    * @param descriptor
-   * @param field
+   * @param plan
    * @param builder
    * @param dataList
    * @throws DeserializationError
    */
-  private fun <B: Message.Builder> setRepeatedEnum(descriptor: Descriptors.Descriptor,
-                                                   field: Descriptors.FieldDescriptor,
+  private fun <B: Message.Builder> setRepeatedEnum(descriptor: DecodePlan,
+                                                   plan: FieldPlan,
                                                    builder: B,
                                                    dataList: Any) {
-    val enumType = field.enumType ?: throw DeserializationError("Unable to deserialize repeated enum with missing " +
+    val field = plan.field
+    val enumType = plan.enumType ?: throw DeserializationError("Unable to deserialize repeated enum with missing " +
       "enum type, at field '${field.name}' on entity '${descriptor.name}'.")
     val enumValues: ArrayList<Descriptors.EnumValueDescriptor>
 
@@ -360,12 +376,7 @@ open class ObjectModelDeserializer<Model: Message> protected constructor(
       val pair = segmentPairs[segmentCount - (1 + stackI)]
 
       // look for a parent field on the base.
-      val parentField = ModelMetadata.annotatedField(
-          baseDescriptor,
-          Datamodel.field,
-          false,
-          Optional.of(Function { field: FieldPersistenceOptions -> field.type == tools.elide.core.FieldType.PARENT })
-      )
+      val parentField = ModelMetadata.ModelSchema.forDescriptor(baseDescriptor).annotatedField(CoreFieldType.PARENT)
 
       // if we don't find a parent, it's an error
       if (!parentField.isPresent) throw DeserializationError(
@@ -391,12 +402,7 @@ open class ObjectModelDeserializer<Model: Message> protected constructor(
       val (collection, documentId) = segmentPairs[pairI]
 
       // resolve the ID field on the base, splice it in
-      val idField = ModelMetadata.annotatedField(
-            baseDescriptor,
-            Datamodel.field,
-            false,
-            Optional.of(Function { field: FieldPersistenceOptions -> field.type == tools.elide.core.FieldType.ID })
-      )
+      val idField = ModelMetadata.ModelSchema.forDescriptor(baseDescriptor).annotatedField(CoreFieldType.ID)
       if (idField.isEmpty) throw DeserializationError(
         "Failed to locate expected ID field for key segment '$collection/$documentId' for key path '$path'"
       )
@@ -419,12 +425,7 @@ open class ObjectModelDeserializer<Model: Message> protected constructor(
         val nextDescriptor = nextBuilder.descriptorForType
 
         // resolve the parent field on the next base, splice it in
-        val nextParent = ModelMetadata.annotatedField(
-            nextDescriptor,
-            Datamodel.field,
-            false,
-            Optional.of(Function { field: FieldPersistenceOptions -> field.type == tools.elide.core.FieldType.PARENT })
-        )
+        val nextParent = ModelMetadata.ModelSchema.forDescriptor(nextDescriptor).annotatedField(CoreFieldType.PARENT)
         if (nextParent.isEmpty) throw DeserializationError(
           "Failed to locate expected parent field for key segment '$collection/$documentId' for key path '$path'"
         )
@@ -453,12 +454,7 @@ open class ObjectModelDeserializer<Model: Message> protected constructor(
 
     // locate the leaf parent field
     if (baseParent != null) {
-      val leafParent = ModelMetadata.annotatedField(
-          leafDescriptor,
-          Datamodel.field,
-          false,
-          Optional.of(Function { field: FieldPersistenceOptions -> field.type == tools.elide.core.FieldType.PARENT })
-      )
+      val leafParent = ModelMetadata.ModelSchema.forDescriptor(leafDescriptor).annotatedField(CoreFieldType.PARENT)
       if (leafParent.isEmpty) throw DeserializationError(
           "Failed to locate expected leaf parent field for path '$path'"
       )
@@ -473,9 +469,77 @@ open class ObjectModelDeserializer<Model: Message> protected constructor(
     return leafBuilder.build() as K
   }
 
+  /**
+   * Set a singular sub-message field on a given builder. Maps are decoded recursively; otherwise, the value must be a
+   * temporal instant (for `Timestamp` fields), or a database reference (for `REFERENCE` or `PARENT` fields).
+   *
+   * @param plan
+   * @param builder
+   * @param dataValue
+   * @throws DeserializationError
+   */
+  @Throws(DeserializationError::class)
+  @Suppress("UNCHECKED_CAST")
+  private fun <B: Message.Builder> setMessageField(plan: FieldPlan, builder: B, dataValue: Any) {
+    val field = plan.field
+    when {
+      dataValue is Map<*, *> -> {
+        // it's a singular sub-message field. recurse, then attach to the top-level field.
+        val subBuilder = builder.newBuilderForField(field)
+          ?: throw DeserializationError("Unable to resolve message type for property '${field.name}' " +
+            "on entity '${builder.descriptorForType.name}'")
+        this.build(subBuilder, dataValue as Map<String, Any>)
+        builder.setField(field, subBuilder.build())
+      }
+
+      // special case: consider timestamps
+      plan.timestamp -> builder.setField(field, when (dataValue) {
+        // it's a Google Cloud well-known-value (`Timestamp`), for which we have a converter
+        is com.google.cloud.Timestamp -> instantFromCloudTimestamp(dataValue)
+
+        // it's a Protobuf well-known-value (`Timestamp`), for which we need no conversion
+        is Timestamp -> dataValue
+
+        // if it's numeric, it should be a millisecond-resolution Unix epoch timestamp
+        is Int, is Double, is Long -> Timestamp.newBuilder()
+          .setSeconds(dataValue as Long)
+          .build()
+
+        // all other types should fail
+        else ->
+          throw DeserializationError("Failed to decode timestamp/instant type. Could not determine " +
+            "native type at field '${field.name}' on entity '${builder.descriptorForType.name}'.")
+      })
+
+      // see if it is annotated as a parent, or a reference, which would explain this state
+      plan.referenced -> {
+        // it should be a reference type
+        val ref = dataValue as? DocumentReference ?:
+          throw DeserializationError("Found non-reference value for reference property.")
+        if (ref.parent.parent == null) {
+          // has no parent, so it's easy. set up a new instance of the key, and fill the ID with the trimmed value.
+          val keyInstance = builder.newBuilderForField(field) ?:
+            throw DeserializationError("Unable to resolve builder for key reference instance.")
+          val idField = plan.referenceIdField ?:
+            throw DeserializationError("Could not resolve key structure ID field for reference inflate.")
+          keyInstance.setField(idField, ref.id)
+          builder.setField(field, keyInstance.build())
+        } else {
+          val key = refToKey(ref, builder.newBuilderForField(field).defaultInstanceForType)
+          builder.setField(field, key)
+        }
+      }
+
+      // dunno why it's not an object
+      else -> throw DeserializationError("Found non-map value where sub-message value was expected, " +
+        "in field '${field.name}' on entity '${builder.descriptorForType.name}'.")
+    }
+  }
+
   /**
    * Load a raw set of mapped data, from underlying storage, into a message builder so that it may be constructed into
-   * a concrete Protobuf representation.
+   * a concrete Protobuf representation. Data is decoded through a [DecodePlan] compiled once per type, so that field
+   * annotations and conversions are resolved ahead of time, rather than per field, per document.
    *
    * @param builder
    * @param data
@@ -489,171 +553,77 @@ open class ObjectModelDeserializer<Model: Message> protected constructor(
     if (data.isEmpty()) return builder  // it's empty, return a default proto
 
     // otherwise parse the fields
-    val descriptor = builder.descriptorForType
-    fields@for (field in descriptor.fields) {
-      // every field must have a type
-      val type = field.type ?: throw DeserializationError("Cannot inflate a field without a type.")
-      val fieldProto = field.toProto()
-      val fieldOptions = if (fieldProto.hasOptions() && fieldProto.options.hasExtension(Datamodel.opts)) {
-        fieldProto.options.getExtension(Datamodel.opts)
-      } else {
-        null
-      }
-      val persistenceOptions = if (fieldProto.hasOptions() && fieldProto.options.hasExtension(Datamodel.field)) {
-        fieldProto.options.getExtension(Datamodel.field)
-      } else {
-        null
-      }
-
+    val plan = planFor(builder.descriptorForType)
+    fields@for (fieldPlan in plan.fields) {
       // skip ephemeral fields
-      if (fieldOptions?.ephemeral == true) continue@fields
-
-      if (!field.isRepeated) {
-        if (data.containsKey(field.name)) {
-          // extract value, make sure it's not null
-          val dataValue = data[field.name] ?: continue@fields
-          when (type) {
-            Type.GROUP, Type.MESSAGE -> {
-              // it's a singular sub-message field. recurse.
-              val subBuilder = builder.newBuilderForField(field)
-                ?: throw DeserializationError("Unable to resolve message type for property '${field.name}' " +
-                  "on entity '${descriptor.name}'")
-              if (dataValue is Map<*, *>) {
-                // prepare the sub-builder, then attach to the top-level field
-                this.build(subBuilder, dataValue as Map<String, Any>)
-                builder.setField(field, subBuilder.build())
-              } else {
-                // special case: consider timestamps
-                if (field.messageType.fullName == "google.protobuf.Timestamp") {
-                  when (dataValue.javaClass.name) {
-                    // it's a Google Cloud well-known-value (`Timestamp`), for which we have a converter
-                    "com.google.cloud.Timestamp" ->
-                      builder.setField(field, instantFromCloudTimestamp(
-                        dataValue as com.google.cloud.Timestamp))
-
-
-                    // it's a Protobuf well-known-value (`Timestamp`), for which we need no conversion
-                    "google.protobuf.Timestamp" ->
-                      builder.setField(field, dataValue as Timestamp)
-
-
-                    // if it's numeric, it should be a millisecond-resolution Unix epoch timestamp
-                    else -> builder.setField(field, when (dataValue) {
-                      is Int, is Double, is Long -> Timestamp.newBuilder()
-                        .setSeconds(dataValue as Long)
-
-                      // all other types should fail
-                      else ->
-                        throw DeserializationError("Failed to decode timestamp/instant type. Could not determine " +
-                          "native type at field '${field.name}' on entity '${descriptor.name}'.")
-                    }.build())
-                  }
-                } else {
-                  // see if it is annotated as a parent, or a reference, which would explain this state
-                  if (persistenceOptions != null && (
-                      persistenceOptions.type == CoreFieldType.REFERENCE ||
-                        persistenceOptions.type == CoreFieldType.PARENT)) {
-                    // it should be a reference type
-                    if (dataValue.javaClass.name != DocumentReference::class.java.name)
-                      throw DeserializationError("Found non-reference value for reference property.")
-                    val ref = dataValue as DocumentReference
-                    if (ref.parent.parent == null) {
-                      // has no parent, so it's easy. set up a new instance of the key.
-                      val keyInstance = builder.newBuilderForField(field) ?:
-                        throw DeserializationError("Unable to resolve builder for key reference instance.")
-
-                      // find the field to inflate the ID into
-                      var idField: Descriptors.FieldDescriptor? = null
-                      keyFields@for (keyField in keyInstance.descriptorForType.fields) {
-                        if (keyField.options.hasExtension(Datamodel.field)) {
-                          val persistenceOptsForSubfield = keyField.options.getExtension(Datamodel.field)
-                          if (persistenceOptsForSubfield.type == CoreFieldType.ID) {
-                            // found it
-                            idField = keyField
-                            break@keyFields
-                          }
-                        }
-                      }
-                      if (idField == null)
-                        throw DeserializationError("Could not resolve key structure ID field for reference inflate.")
-
-                      // fill the builder at that field with the trimmed value
-                      keyInstance.setField(idField, ref.id)
-                      builder.setField(field, keyInstance.build())
-
-                    } else {
-                      val key = refToKey(ref, builder.newBuilderForField(field).defaultInstanceForType)
-                      builder.setField(field, key)
-                    }
-                  } else {
-                    // dunno why it's not an object
-                    throw DeserializationError("Found non-map value where sub-message value was expected, " +
-                      "in field '${field.name}' on entity '${descriptor.name}'.")
-                  }
-                }
-              }
-            }
-
-            else -> setSimpleField(type, field, builder, dataValue)
+      if (fieldPlan.ephemeral) continue@fields
+      val field = fieldPlan.field
+      val dataValue = data[fieldPlan.name]
+
+      if (!fieldPlan.repeated) {
+        if (dataValue != null) {
+          if (fieldPlan.message) {
+            setMessageField(fieldPlan, builder, dataValue)
+          } else {
+            setSimpleField(fieldPlan, builder, dataValue)
           }
-        } else if (fieldOptions?.concrete == true && (type == Type.MESSAGE || type == Type.GROUP)) {
+        } else if (data.containsKey(fieldPlan.name)) {
+          // the value is present, but null
+          continue@fields
+        } else if (fieldPlan.concrete) {
           // if it's a concrete record, examine the field name, against the containing one-of name. if the containing
           // one-of name (concrete synthesized name) and the property name match here, it's supposed to be a concrete
           // type, flattened into the map we're currently de-serializing.
           val concreteType = data[ObjectModelSerializer.concreteTypeProperty] as? String
-          if (concreteType != null && concreteType.lowercase().trim() == field.jsonName.lowercase().trim()) {
+          if (concreteType != null && concreteType.lowercase().trim() == fieldPlan.concreteName) {
             // we found the concrete type expressed by this generic entity. now we need to decode it as if it's the
             // underlying concrete type specified.
             val subBuilder = builder.newBuilderForField(field)
             subBuilder ?: throw DeserializationError("Unable to resolve message type for concrete property " +
-              "'${field.name}' on entity '${descriptor.name}'")
+              "'${field.name}' on entity '${plan.name}'")
             this.build(subBuilder, data)
             builder.setField(field, subBuilder.build())
           }
-        } else if (fieldOptions?.required == true) {
+        } else if (fieldPlan.required) {
           throw DeserializationError("Unable to resolve required field '${field.name}' on message " +
             "'${field.containingType.fullName}'.")
         }
       } else {
         // field is repeated: try to grab a list of values, decode for each one
-        val dataList = data[field.name] ?: continue@fields
-        if (type == Type.ENUM) {
+        val dataList = dataValue ?: continue@fields
+        if (fieldPlan.type == Type.ENUM) {
           // handle special case: repeated enums
-          setRepeatedEnum(descriptor, field, builder, dataList)
-        } else {
+          setRepeatedEnum(plan, fieldPlan, builder, dataList)
+        } else if (dataList is List<*> && dataList.isNotEmpty()) {
           // only operate on lists with values
-          if (dataList is List<*> && dataList.isNotEmpty()) {
-            when (type) {
-              Type.GROUP, Type.MESSAGE -> {
-                val submessageList: ArrayList<Message> = ArrayList(dataList.size)
-
-                // make a new list of decoded messages
-                var pos = 0
-                for (subObj in dataList) {
-                  pos += 1
-
-                  if (subObj is Map<*, *>) {
-                    // reset field for next round
-                    val subBuilder = builder.newBuilderForField(field) ?:
-                    throw DeserializationError("Unable to resolve builder for field '${field.name}' on " +
-                      "entity '${descriptor.name}'.")
-                    this.build(subBuilder, subObj as Map<String, Any>)
-                    submessageList.add(subBuilder.build())
-
-                  } else {
-                    throw DeserializationError("Cannot identify type for message in repeated field " +
-                      "'${field.name}' at position '$pos' on entity " +
-                      "'${descriptor.name}'.")
-                  }
-                }
-
-                if (submessageList.isNotEmpty())
-                  builder.setField(field, submessageList)
+          if (fieldPlan.message) {
+            val submessageList: ArrayList<Message> = ArrayList(dataList.size)
+
+            // make a new list of decoded messages
+            var pos = 0
+            for (subObj in dataList) {
+              pos += 1
+
+              if (subObj is Map<*, *>) {
+                // reset field for next round
+                val subBuilder = builder.newBuilderForField(field) ?:
+                throw DeserializationError("Unable to resolve builder for field '${field.name}' on " +
+                  "entity '${plan.name}'.")
+                this.build(subBuilder, subObj as Map<String, Any>)
+                submessageList.add(subBuilder.build())
+
+              } else {
+                throw DeserializationError("Cannot identify type for message in repeated field " +
+                  "'${field.name}' at position '$pos' on entity " +
+                  "'${plan.name}'.")
               }
-              else ->
-                // set as regular repeated field
-                setRepeatedField(type, field, builder, dataList)
             }
+
+            if (submessageList.isNotEmpty())
+              builder.setField(field, submessageList)
+          } else {
+            // set as regular repeated field
+            setRepeatedField(fieldPlan.type, field, builder, dataList)
           }
         }
       }
@@ -670,4 +640,80 @@ open class ObjectModelDeserializer<Model: Message> protected constructor(
     build(builder, input)
     return builder.build() as Model
   }
+
+  /**
+   * Decode plan for a single field, compiled once from its descriptor and schema annotations, so that nothing about the
+   * field needs to be re-derived per document.
+   *
+   * @param field Descriptor for the field.
+   */
+  private class FieldPlan(val field: Descriptors.FieldDescriptor) {
+    /** Name of the field, as stored. */
+    val name: String = field.name
+
+    /** Declared type of the field. */
+    val type: Type = field.type ?: throw DeserializationError("Cannot inflate a field without a type.")
+
+    /** Whether the field is repeated. */
+    val repeated: Boolean = field.isRepeated
+
+    /** Whether the field holds a sub-message (or group). */
+    val message: Boolean = type == Type.MESSAGE || type == Type.GROUP
+
+    /** Enum type for the field, if it holds enums. */
+    val enumType: Descriptors.EnumDescriptor? = if (type == Type.ENUM) field.enumType else null
+
+    /** Whether the field is ephemeral, and so never decoded. */
+    val ephemeral: Boolean
+
+    /** Whether the field must be present. */
+    val required: Boolean
+
+    /** Whether the field is a singular, concrete sub-message for an outer generic. */
+    val concrete: Boolean
+
+    /** Normalized name matched against the synthesized concrete type property, for concrete fields. */
+    val concreteName: String = field.jsonName.lowercase().trim()
+
+    /** Whether the field is a singular timestamp. */
+    val timestamp: Boolean = message && !repeated && field.messageType.fullName == "google.protobuf.Timestamp"
+
+    /** Whether the field is a singular sub-message stored as a reference, i.e. a `REFERENCE` or `PARENT`. */
+    val referenced: Boolean
+
+    /** ID field on the referenced key type, for reference fields, if one is declared. */
+    val referenceIdField: Descriptors.FieldDescriptor?
+
+    init {
+      val options = field.options
+      val datapoint = if (options.hasExtension(Datamodel.opts)) options.getExtension(Datamodel.opts) else null
+      val persistence = if (options.hasExtension(Datamodel.field)) options.getExtension(Datamodel.field) else null
+
+      ephemeral = datapoint?.ephemeral == true
+      required = datapoint?.required == true
+      concrete = datapoint?.concrete == true && message
+      referenced = message && !repeated && persistence != null && (
+        persistence.type == CoreFieldType.REFERENCE || persistence.type == CoreFieldType.PARENT)
+      referenceIdField = if (referenced) {
+        field.messageType.fields.firstOrNull {
+          it.options.hasExtension(Datamodel.field) && it.options.getExtension(Datamodel.field).type == CoreFieldType.ID
+        }
+      } else {
+        null
+      }
+    }
+  }
+
+  /**
+   * Decode plan for a model type, compiled once from its descriptor, which holds a plan for each of its fields.
+   *
+   * @param descriptor Descriptor for the model type.
+   */
+  private class DecodePlan(descriptor: Descriptors.Descriptor) {
+    /** Name of the model type. */
+    val name: String = descriptor.name
+
+    /** Plans for each field, in declaration order. */
+    val fields: List<FieldPlan> = descriptor.fields.map(::FieldPlan)
+  }
 }
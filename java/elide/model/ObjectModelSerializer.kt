@@ -25,15 +25,17 @@ import elide.runtime.jvm.Logging
 import elide.util.InstantFactory
 import tools.elide.core.*
 import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
 import javax.annotation.Nonnull
 import javax.annotation.concurrent.Immutable
 import javax.annotation.concurrent.ThreadSafe
 
 
 /**
- * Specifies a serializer which is capable of converting [Message] instances into generic Java [SortedMap] objects with
- * regular [String] keys. If there are nested records on the model instance, they will be serialized into recursive
- * [SortedMap] instances.
+ * Specifies a serializer which is capable of converting [Message] instances into generic Java [Map] objects with
+ * regular [String] keys (specifically, [SerializedModel] instances, whose properties follow the model's declaration
+ * order). If there are nested records on the model instance, they will be serialized into recursive map values.
  *
  * @param <Model> Model record type which this serializer is responsible for converting.
  */
@@ -64,8 +66,14 @@ class ObjectModelSerializer<Model : Message>
     /** Prefix to use for reference values.  */
     @field:Nonnull @param:Nonnull private val referencePrefix: String
   ): ModelSerializer<Model, Map<String, *>> {
-  /** @return Empty serialized object. */
-  private fun serializedObject(): SerializedModel = SerializedModel.factory()
+  /** @return Empty serialized object, with slots laid out for the planned type. */
+  private fun serializedObject(plan: SerializationPlan): SerializedModel = SerializedModel.factory(plan.layout)
+
+  /** Writes enum values according to the configured [enumMode], resolved once for this serializer. */
+  private val enumWriter: (Value.Builder, EnumValueDescriptor) -> Value.Builder = when (enumMode) {
+    EnumSerializeMode.NAME -> { builder, value -> builder.setStringValue(value.name) }
+    EnumSerializeMode.NUMERIC -> { builder, value -> builder.setIntegerValue(value.number.toLong()) }
+  }
 
   /**
    * Generate a full referential database path, given the concrete type and document ID to reference. This variant
@@ -78,389 +86,215 @@ class ObjectModelSerializer<Model : Message>
   fun referenceValue(type: String, id: String): String = "$referencePrefix$type/$id"
 
   /**
-   * Extract, as a [List], items from a repeated field value.
+   * Determine whether a singular field's value is a default value. Values which are explicitly set are never defaults;
+   * otherwise, the value is a default if there is no base record, or the base record holds the same value.
    *
-   * @param proto Message to extract from.
-   * @param base Optional message to compare with.
-   * @param field Descriptor for the field.
-   * @return Pair: Whether a value was found, and the value (or default).
+   * @param proto Proto message the value was extracted from.
+   * @param base Base message to compare.
+   * @param field Proto field the value was extracted from.
+   * @param value Value extracted from the field.
+   * @return Whether the value is a default.
    */
-  private fun extractRepeatedValue(proto: Message, base: Message?, field: FieldDescriptor): Pair<Boolean, List<Any>> {
-    val valueCount = proto.getRepeatedFieldCount(field)
-    val previousValueCount = base?.getRepeatedFieldCount(field) ?: 0
+  private fun isDefaultValue(proto: Message, base: Message?, field: FieldDescriptor, value: Any?): Boolean {
+    val baseValue = base?.getField(field)
+    return when {
+      // if it's null, it's null
+      value == null -> baseValue == null
 
-    return if (valueCount < 1 && previousValueCount == valueCount) {
-      // nothing to set: it's an empty repeated field
-      true to emptyList()
-    } else {
-      val targetList = ArrayList<Any>(valueCount)
-      for (valueIndex in 0 until valueCount) {
-        // extract the items, build, and return
-        val repeatedValue: Any = proto.getRepeatedField(field, valueIndex)
-        targetList.add(repeatedValue)
-      }
-      false to targetList
+      // if it has the field value, it's not a default
+      proto.hasField(field) -> false
+
+      // otherwise, any returned value is a default
+      else -> baseValue == null || baseValue == value
     }
   }
 
   /**
-   * Extract a field's set value from a given Proto record, making sure to indicate via the return value whether that
-   * value was/is a default value or not.
+   * Determine whether a repeated field holds a default value, which is the case when it is empty, and the base record
+   * (if any) is also empty.
    *
-   * @param proto Proto message to extract from.
+   * @param proto Proto message holding the field.
    * @param base Base message to compare.
-   * @param field Proto field to extract.
-   * @return Pair: Whether it was found, and the resulting value (or default).
+   * @param field Repeated proto field.
+   * @param count Count of values held by the field on [proto].
+   * @return Whether the field holds a default value.
    */
-  @Suppress("UNCHECKED_CAST")
-  private fun <T> extractValue(proto: Message, base: Message?, field: FieldDescriptor): Pair<Boolean, T?> {
-    return when {
-      // is it a repeated field?
-      field.isRepeated -> return extractRepeatedValue(proto, base, field) as Pair<Boolean, T?>
-
-      // it's a simple field
-      else -> {
-        try {
-          val value: T? = proto.getField(field) as T
-          val baseValue: T? = base?.getField(field) as? T
+  private fun isDefaultList(proto: Message, base: Message?, field: FieldDescriptor, count: Int): Boolean =
+    count < 1 && (base?.getRepeatedFieldCount(field) ?: 0) == count
 
-          when {
-            // if it's null, it's null
-            value == null -> (baseValue == null) to null
-
-            // if it has the field value, it's not a default
-            proto.hasField(field) -> false to value
+  /**
+   * Write a null value to the provided value builder.
+   *
+   * @param value Value builder to write to.
+   * @return Null field result.
+   */
+  private fun writeNull(value: Value.Builder): FieldResult {
+    value.setNullValue(NullValue.NULL_VALUE)
+    return FieldResult.NULL
+  }
 
-            // otherwise, any returned value is a default
-            else -> (baseValue == null || baseValue == value) to value
-          }
-        } catch (exc: ClassCastException) {
-          // cast error
-          logging.error("Experienced casting error in ModelSerializer: '${exc.message}'. Skipping field.")
-          true to null
-        }
-      }
-    }
+  /**
+   * Write an empty list to the provided value builder, or a null value if empty lists are serialized as nulls.
+   *
+   * @param value Value builder to write to.
+   * @return Field result for the empty list.
+   */
+  private fun writeEmptyList(value: Value.Builder): FieldResult {
+    if (emptyListsAsNulls) return writeNull(value)
+    value.setArrayValue(ArrayValue.getDefaultInstance())
+    return FieldResult.VALUE
   }
 
   /**
-   * Wrap an arbitrary Kotlin value in a Firestore proto `Value` for serialization. Although this adapter is not
-   * inherently coupled to Firestore, at least functionally, these containers are used because they are type-safe and
-   * present a full superset versus the standard Protocol Buffer value set.
+   * Wrap a single scalar value in a Firestore proto `Value` for serialization. Although this adapter is not inherently
+   * coupled to Firestore, at least functionally, these containers are used because they are type-safe and present a
+   * full superset versus the standard Protocol Buffer value set.
    *
+   * @param plan Compiled plan for the field which holds the value.
    * @param value Builder for the value wrap.
-   * @param type Type of value we are wrapping.
    * @param data Data value to wrap.
    * @return Value builder, pre-filled with the data.
    */
-  private fun <T> wrapValue(pointer: FieldDescriptor, value: Value.Builder, type: FieldType, data: T): Value.Builder {
-    return when (type) {
-      FieldType.INT32, FieldType.UINT32, FieldType.SINT32, FieldType.INT64,
-      FieldType.UINT64, FieldType.SINT64, FieldType.FIXED32, FieldType.FIXED64,
-      FieldType.SFIXED32, FieldType.SFIXED64 -> {
-        val decoded = data as? Long
-        if (decoded == null) {
-          null
-        } else {
-          value.setIntegerValue(decoded)
-        }
-      }
-      FieldType.FLOAT, FieldType.DOUBLE -> {
-        val decoded = data as? Double
-        if (decoded == null) {
-          null
-        } else {
-          value.setDoubleValue(decoded)
-        }
-      }
-      FieldType.ENUM -> {
-        when (enumMode) {
-          EnumSerializeMode.NAME -> {
-            val decoded = (data as? EnumValueDescriptor)?.name
-            if (decoded == null) {
-              null
-            } else {
-              value.setStringValue(decoded)
-            }
-          }
-          EnumSerializeMode.NUMERIC -> {
-            val decoded = (data as? EnumValueDescriptor)?.number?.toLong()
-            if (decoded == null) {
-              null
-            } else {
-              value.setIntegerValue(decoded)
-            }
-          }
-        }
-      }
-      FieldType.BOOL -> {
-        val decoded = data as? Boolean
-        if (decoded == null) {
-          null
-        } else {
-          value.setBooleanValue(decoded)
-        }
-      }
-      FieldType.STRING -> {
-        val fproto = pointer.toProto()
-        val opts = if (fproto.hasOptions() && fproto.options.hasExtension(Datamodel.field)) {
-          fproto.options.getExtension(Datamodel.field)
-        } else {
-          null
-        }
-        val collection = if (fproto.hasOptions() && fproto.options.hasExtension(Datamodel.collection)) {
-          fproto.options.getExtension(Datamodel.collection)
-        } else {
-          null
-        }
+  private fun writeElement(plan: FieldPlan, value: Value.Builder, data: Any?): Value.Builder {
+    return when (plan.kind) {
+      FieldKind.INTEGER -> (data as? Long)?.let(value::setIntegerValue)
+      FieldKind.FLOATING -> (data as? Double)?.let(value::setDoubleValue)
+      FieldKind.BOOL -> (data as? Boolean)?.let(value::setBooleanValue)
+      FieldKind.STRING -> (data as? String)?.let { decoded ->
+        when {
+          // if the reference declares an explicit collection path, use it.
+          plan.referencePath != null -> value.setReferenceValue("$referencePrefix${plan.referencePath}$decoded")
 
-        // based on the opt-in type, do translation to/from a special Firestore value, or fallback.
-        val decoded = data as? String
-        if (decoded == null) {
-          null
-        } else when (opts?.type) {
           // if this is explicitly a reference field, set it that way.
-          tools.elide.core.FieldType.REFERENCE -> if (collection?.path?.isNotBlank() == true) {
-            // if the reference declares an explicit collection path, use it.
-            value.setReferenceValue(referenceValue(collection.path, decoded))
-          } else {
-            value.setReferenceValue(decoded)
-          }
+          plan.reference -> value.setReferenceValue(decoded)
 
           // otherwise, just treat it as a normal string.
           else -> value.setStringValue(decoded)
         }
       }
-      FieldType.BYTES -> {
-        // encode as Base64
-        val decoded = data as? ByteArray
-        if (decoded == null) {
-          null
-        } else {
-          val encoder = bytesEncoder(value::setStringValue)
-          encoder(decoded)
-        }
-      }
+      FieldKind.BYTES -> (data as? ByteArray)?.let { value.setStringValue(Base64.getEncoder().encodeToString(it)) }
       else -> {
         // log a warning
-        logging.warn("Unresolvable or null type for proto field: '$type'. Skipping.")
+        logging.warn("Unresolvable or null type for proto field: '${plan.field.type}'. Skipping.")
         value
       }
-    } ?: throw ModelSerializer.SerializationError("Failed to serialize integer value as long (for type: '$type').")
-  }
-
-  /**
-   * Serialize a list of values into an [ArrayValue] container.
-   *
-   * @param field Field we are serializing values for.
-   * @param targetList List we are pulling values from.
-   */
-  private fun serializeList(field: FieldDescriptor, targetList: List<*>): ArrayValue? {
-    return if (targetList.isEmpty()) {
-      if (emptyListsAsNulls)
-        null
-      else
-        ArrayValue.getDefaultInstance()
-    } else {
-      val value = ArrayValue.newBuilder()
-      for (innerValue in targetList) {
-        // encode a value raw
-        val innerWrapped = Value.newBuilder()
-        val wrapped = this.wrapValue(field, innerWrapped, field.type, innerValue)
-        value.addValues(wrapped)
-      }
-      value.build()
-    }
+    } ?: throw ModelSerializer.SerializationError(
+      "Failed to serialize integer value as long (for type: '${plan.field.type}').")
   }
 
   /**
-   * Extract a value from the given concrete message object, at the specified field. If there is a value, and it is
-   * eligible to be included (i.e. default values are being included, and it is a default value, or it is not a default
-   * value), then set it using the builder method also given.
+   * Write a scalar field (numeric, boolean, string, or bytes) from the given message, if it is eligible to be included
+   * (i.e. default values are being included, and it is a default value, or it is not a default value).
    *
    * @param proto Message record to extract from.
    * @param base Base record to compare to (optional).
-   * @param field Field descriptor we are pulling a value for.
-   * @param builder Field value builder.
-   * @param setter Function that sets on the builder.
-   * @return Pair: Whether the field was found, and the resulting value builder.
+   * @param plan Compiled plan for the field.
+   * @param value Value builder to write to.
+   * @return Result of writing the field.
    */
-  private fun <T> extractAndSetValue(proto: Message,
-                                     base: Message?,
-                                     field: FieldDescriptor,
-                                     builder: Value.Builder,
-                                     setter: (T) -> Value.Builder): Pair<Boolean, Value.Builder> {
-    val (isDefault, value) = extractValue<T>(proto, base, field)
-    return if (isDefault && includeDefaults || !isDefault) {
-      // it's eligible, we can continue
-      if (value == null) {
-        true to builder.setNullValue(NullValue.NULL_VALUE)
-      } else {
-        if (field.isRepeated) {
-          val listVal = value as? List<*>
-          if (listVal != null) {
-            // we have some kind of list value
-            val serializedList = serializeList(field, listVal)
-            if (serializedList == null) {
-              // underlying list serializer is indicating it's withheld list value
-              true to builder.setNullValue(NullValue.NULL_VALUE)
-            } else {
-              false to builder.setArrayValue(serializedList)
-            }
-          } else {
-            // unidentified value
-            logging.error("Found supposedly repeated field '${field.name}' with no list value.")
-            true to builder.setNullValue(NullValue.NULL_VALUE)
-          }
-        } else {
-          // we have a value of some sort, of type `T`
-          if (field.type == FieldType.BYTES) {
-            val valueAsBytestring = value as? ByteString
-            if (valueAsBytestring != null) {
-              val rawBytes = value.toByteArray()
-
-              try {
-                @Suppress("UNCHECKED_CAST")
-                val casted = rawBytes as? T
-                if (casted != null) {
-                  false to setter(casted)
-                } else {
-                  logging.warn("Failed to encode raw bytestring in Firestore. Failing.")
-
-                  // skip it by setting a null value
-                  true to builder.setNullValue(NullValue.NULL_VALUE)
-                }
-              } catch (cce: ClassCastException) {
-                logging.warn("Failed to cast raw bytestring in Firestore. Failing.")
-
-                // skip it by setting a null value
-                true to builder.setNullValue(NullValue.NULL_VALUE)
-              }
-            } else {
-              false to setter(value)
-            }
-          } else {
-            false to setter(value)
-          }
-        }
-      }
-    } else {
-      // skip it by setting a null value
-      true to builder.setNullValue(NullValue.NULL_VALUE)
+  private fun writeScalar(proto: Message, base: Message?, plan: FieldPlan, value: Value.Builder): FieldResult {
+    val field = plan.field
+    if (plan.repeated) {
+      val count = proto.getRepeatedFieldCount(field)
+      if (!includeDefaults && isDefaultList(proto, base, field, count)) return writeNull(value)
+      if (count < 1) return writeEmptyList(value)
+
+      val list = ArrayValue.newBuilder()
+      for (index in 0 until count)
+        list.addValues(writeElement(plan, Value.newBuilder(), proto.getRepeatedField(field, index)))
+      value.setArrayValue(list)
+      return FieldResult.VALUE
     }
+
+    val data: Any? = proto.getField(field)
+    if (data == null || (!includeDefaults && isDefaultValue(proto, base, field, data))) return writeNull(value)
+    when (plan.kind) {
+      FieldKind.INTEGER, FieldKind.FLOATING -> value.setDoubleValue((data as Number).toDouble())
+      FieldKind.BOOL -> value.setBooleanValue(data as Boolean)
+      FieldKind.BYTES -> value.setStringValue(Base64.getEncoder().encodeToString((data as ByteString).toByteArray()))
+      else -> writeElement(plan, value, data)
+    }
+    return FieldResult.VALUE
   }
 
   /**
-   * Extract an enum field value, encoding it as directed by enum encoding settings listed above. Enums are either
+   * Write an enum field value, encoding it as directed by enum encoding settings listed above. Enums are either
    * serialized as their numeric ID, or their string name.
    *
    * @param proto Protocol message to extract from.
    * @param base Optional protocol message to compare to.
-   * @param field Field we are extracting an enum for.
-   * @param builder Value wrapper builder.
-   * @param persistenceOpts Field persistence options, extracted as annotations from the field in question.
-   * @return Pair: Whether a value was found, and a value-builder for the value, or the default, as applicable.
+   * @param plan Compiled plan for the field.
+   * @param value Value builder to write to.
+   * @return Result of writing the field.
    */
-  private fun extractEnum(proto: Message,
-                          base: Message?,
-                          field: FieldDescriptor,
-                          builder: Value.Builder,
-                          persistenceOpts: FieldPersistenceOptions?): Pair<Boolean, Value.Builder> {
-    return if (field.isRepeated) {
-      // extract list of enums
-      val (isDefault, extractedValue) = extractValue<List<EnumValueDescriptor>>(
-        proto, base, field)
-
-      if (extractedValue == null || (isDefault && !includeDefaults)) {
-        true to builder.setNullValue(NullValue.NULL_VALUE)
-      } else if (isDefault || extractedValue.isEmpty()) {
-        false to builder.setArrayValue(ArrayValue.getDefaultInstance())
-      } else {
-        // extract enums, they are eligible to be included by definition at this point
-        val enumsList = ArrayValue.newBuilder()
-
-        for (enumValue in extractedValue) {
-          val valueWrap = Value.newBuilder()
-          when (enumMode) {
-            EnumSerializeMode.NAME -> valueWrap.stringValue = enumValue.name
-            EnumSerializeMode.NUMERIC -> valueWrap.integerValue = enumValue.number.toLong()
-          }
-          enumsList.addValues(valueWrap)
-        }
-        false to builder.setArrayValue(enumsList)
-      }
-    } else {
-      // extract the enum value
-      val (isDefault, extractedValue) = extractValue<EnumValueDescriptor>(
-        proto, base, field)
-
-      if (extractedValue == null || (isDefault && !includeDefaults && persistenceOpts?.explicit != true)) {
-        true to builder.setNullValue(NullValue.NULL_VALUE)
-      } else if (isDefault && includeDefaults || !isDefault || persistenceOpts?.explicit == true) {
-        // depending on enum serialization mode, serialize
-        false to when (enumMode) {
-          EnumSerializeMode.NAME -> builder.setStringValue(extractedValue.name)
-          EnumSerializeMode.NUMERIC -> builder.setIntegerValue(extractedValue.number.toLong())
-        }
-      } else {
-        // skip it by setting a null value
-        true to builder.setNullValue(NullValue.NULL_VALUE)
+  private fun writeEnum(proto: Message, base: Message?, plan: FieldPlan, value: Value.Builder): FieldResult {
+    val field = plan.field
+    if (plan.repeated) {
+      val count = proto.getRepeatedFieldCount(field)
+      if (!includeDefaults && isDefaultList(proto, base, field, count)) return writeNull(value)
+      if (count < 1) {
+        value.setArrayValue(ArrayValue.getDefaultInstance())
+        return FieldResult.VALUE
       }
+
+      // extract enums, they are eligible to be included by definition at this point
+      val enumsList = ArrayValue.newBuilder()
+      for (index in 0 until count)
+        enumsList.addValues(enumWriter(Value.newBuilder(), proto.getRepeatedField(field, index) as EnumValueDescriptor))
+      value.setArrayValue(enumsList)
+      return FieldResult.VALUE
     }
+
+    val data = proto.getField(field) as EnumValueDescriptor?
+    if (data == null || (!plan.explicit && !includeDefaults && isDefaultValue(proto, base, field, data)))
+      return writeNull(value)
+    enumWriter(value, data)
+    return FieldResult.VALUE
   }
 
   /**
-   * Serialize a temporal instant (i.e. a timestamp). This handles a special case where a timestamp record is being
+   * Write a temporal instant (i.e. a timestamp). This handles a special case where a timestamp record is being
    * expressed, and we need to consider timestamp serialization settings before proceeding.
    *
    * @param proto Message to extract the timestamp from.
    * @param base Optional message for a comparison base.
-   * @param field Field we are extracting the instant from.
-   * @param builder Value builder we should wrap the instant in.
-   * @return Pair: Whether the instant value was found, and a value builder which wraps it (or a default value).
+   * @param plan Compiled plan for the field.
+   * @param value Value builder we should wrap the instant in.
+   * @return Result of writing the field.
    */
-  private fun serializeInstant(proto: Message,
-                               base: Message?,
-                               field: FieldDescriptor,
-                               builder: Value.Builder): Pair<Boolean, Value.Builder> {
+  private fun writeInstant(proto: Message, base: Message?, plan: FieldPlan, value: Value.Builder): FieldResult {
     // extract the temporal instant record
-    val (isDefault, extractedValue) = extractValue<Timestamp>(proto, base, field)
-
-    return if (extractedValue == null || (isDefault && !includeDefaults)) {
+    val field = plan.field
+    val data = proto.getField(field) as Timestamp?
+    if (data == null || (!includeDefaults && isDefaultValue(proto, base, field, data)))
       // if it's not there, or it's a default instance and we shouldn't include those, just return as null
-      true to builder.setNullValue(NullValue.NULL_VALUE)
-    } else {
-      // it's eligible to be included. serialize based on instant serialization settings.
-      when (instantMode) {
-        InstantSerializeMode.TIMESTAMP -> {
-          if (extractedValue.seconds > 0) {
-            // we got lucky: no need to convert
-            false to builder.setTimestampValue(extractedValue)
-
-          } else {
-            val jti: java.time.Instant? = InstantFactory.instant(extractedValue)
-            if (jti == null) {
-              // unable to handle it
-              logging.warn("Unable to convert protobuf Timestamp to Java structure for serialization.")
-              true to builder.setNullValue(NullValue.NULL_VALUE)
-            } else {
-              val millis = jti.toEpochMilli()
-              false to builder.setTimestampValue(Timestamp.newBuilder()
-                .setSeconds(millis / 1000)
-                .setNanos(((millis % 1000) * 1000000).toInt()))
-            }
-          }
-        }
-        InstantSerializeMode.ISO8601 -> {
-          val jti: java.time.Instant? = InstantFactory.instant(extractedValue)
+      return writeNull(value)
+
+    // it's eligible to be included. serialize based on instant serialization settings.
+    when (instantMode) {
+      InstantSerializeMode.TIMESTAMP -> {
+        if (data.seconds > 0) {
+          // we got lucky: no need to convert
+          value.setTimestampValue(data)
+        } else {
+          val jti: java.time.Instant? = InstantFactory.instant(data)
           if (jti == null) {
-            true to builder.setNullValue(NullValue.NULL_VALUE)
-          } else {
-            false to builder.setStringValue(jti.toString())
+            // unable to handle it
+            logging.warn("Unable to convert protobuf Timestamp to Java structure for serialization.")
+            return writeNull(value)
           }
+          val millis = jti.toEpochMilli()
+          value.setTimestampValue(Timestamp.newBuilder()
+            .setSeconds(millis / 1000)
+            .setNanos(((millis % 1000) * 1000000).toInt()))
         }
       }
+      InstantSerializeMode.ISO8601 -> {
+        val jti: java.time.Instant = InstantFactory.instant(data) ?: return writeNull(value)
+        value.setStringValue(jti.toString())
+      }
     }
+    return FieldResult.VALUE
   }
 
   /**
@@ -471,13 +305,8 @@ class ObjectModelSerializer<Model : Message>
    */
   @Suppress("MemberVisibilityCanBePrivate")
   fun collectionPath(descriptor: Descriptor): String {
-    val protoObj = descriptor.toProto()
-    if (protoObj.hasOptions() && protoObj.options.hasExtension(Datamodel.db)) {
-      // process settings
-      val dbSettings = protoObj.options.getExtension(Datamodel.db)
-      return dbSettings.path
-    }
-    throw IllegalStateException("Failed to calculate collection path for type: '${descriptor.name}'.")
+    return planFor(descriptor).collectionPath
+      ?: throw IllegalStateException("Failed to calculate collection path for type: '${descriptor.name}'.")
   }
 
   /**
@@ -487,48 +316,26 @@ class ObjectModelSerializer<Model : Message>
    * the field that contained the ID.
    *
    * @param proto Proto message to scan on.
-   * @param fields List of fields to scan through.
+   * @param plan Compiled plan for the message's type, which locates the parent and its ID property.
    * @return Pair of the collection path segment name for the parent, and the ID value, or `null` for both if a parent
    *         could not be resolved.
    */
   private fun scanForParent(proto: Message,
-                            fields: List<FieldDescriptor>):
+                            plan: SerializationPlan):
     Pair<Pair<String?, String?>, Pair<Message?, FieldDescriptor?>> {
-    parentScan@ for (field in fields) {
-      if (field.type == FieldType.MESSAGE) {
-        val fieldProto = field.toProto()
-        if (fieldProto.options.hasExtension(Datamodel.field)) {
-          // potentially annotated with `PARENT`
-          val fieldInfo = fieldProto.options.getExtension(Datamodel.field)
-          if (fieldInfo != null && fieldInfo.type == CoreFieldType.PARENT) {
-            // we found the parent
-            parentIdScan@ for (subfield in field.messageType.fields) {
-              if (subfield.type == FieldType.STRING) {
-                // potentially a parent ID
-                val subfieldProto = subfield.toProto()
-                if (subfieldProto.options.hasExtension(Datamodel.field)) {
-                  val subfieldInfo = subfieldProto.options.getExtension(
-                    Datamodel.field)
-                  if (subfieldInfo != null && subfieldInfo.type == CoreFieldType.ID) {
-                    // found it
-                    val idContainer = (proto.getField(field) as? Message)
-                    val idValue = idContainer?.getField(subfield) as? String ?:
-                      throw ModelSerializer.SerializationError("Cannot serialize sub-write with missing parent ID.")
-                    val collectionPath = this.collectionPath(field.messageType)
-                    if (collectionPath.isBlank() || collectionPath.isEmpty() ||
-                      idValue.isBlank() || idValue.isEmpty())
-                        throw ModelSerializer.SerializationError("Cannot serialize sub-write with empty parent ID.")
-                    return (collectionPath to idValue) to (idContainer to subfield)
-                  }
-                }
-              }
-            }
-            break@parentScan
-          }
-        }
-      }
-    }
-    return null to null to (null to null)
+    val field = plan.parentField
+    val subfield = plan.parentIdField
+    if (field == null || subfield == null)
+      return null to null to (null to null)
+
+    val idContainer = (proto.getField(field) as? Message)
+    val idValue = idContainer?.getField(subfield) as? String ?:
+      throw ModelSerializer.SerializationError("Cannot serialize sub-write with missing parent ID.")
+    val collectionPath = this.collectionPath(field.messageType)
+    if (collectionPath.isBlank() || collectionPath.isEmpty() ||
+      idValue.isBlank() || idValue.isEmpty())
+        throw ModelSerializer.SerializationError("Cannot serialize sub-write with empty parent ID.")
+    return (collectionPath to idValue) to (idContainer to subfield)
   }
 
   /**
@@ -537,75 +344,18 @@ class ObjectModelSerializer<Model : Message>
    * otherwise null in each case or where things could not be found.
    *
    * @param proto Proto message to scan on.
-   * @param fields Fields to look in for the annotation.
+   * @param plan Compiled plan for the message's type, which locates its ID property.
    * @return Pair of the value in the field, to a pair of the matching message and descriptor, as applicable.
    */
   private fun scanForIdProperty(proto: Message,
-                                fields: List<FieldDescriptor>):
+                                plan: SerializationPlan):
     Pair<String?, Pair<Message?, FieldDescriptor?>> {
-    var idField: FieldDescriptor? = null
-    var idValue: String? = null
-    var idEntity: Message? = proto
-
-    idScan@ for (field in fields) {
-      when (field.type) {
-        FieldType.STRING -> {
-          val fieldProto = field.toProto()
-          if (fieldProto.options.hasExtension(Datamodel.field)) {
-            // potentially an ID field
-            val fieldInfo = fieldProto.options.getExtension(Datamodel.field)
-            if (fieldInfo != null && fieldInfo.type == CoreFieldType.ID) {
-              idField = field
-              idEntity = proto
-
-              val (_, extractedIdValue) = extractValue<String>(idEntity, null, idField)
-              idValue = extractedIdValue
-              break@idScan
-            }
-          }
-        }
-        FieldType.GROUP, FieldType.MESSAGE -> {
-          val fieldProto = field.toProto()
-
-          // special case: is this a key or ID field?
-          if (fieldProto.options.hasExtension(Datamodel.field)) {
-            val fieldInfo = fieldProto.options.getExtension(Datamodel.field)
-            when (fieldInfo.type) {
-              CoreFieldType.KEY -> {
-                // a sub-property on this message type is this item's ID field
-                val keyType = field.messageType
-
-                for (subfield in keyType.fields) {
-                  val subfieldProto = subfield.toProto()
-                  if (subfieldProto != null
-                    && subfieldProto.hasOptions()
-                    && subfieldProto.options.hasExtension(Datamodel.field)) {
-                    // it has some kind of field annotation
-                    val subfieldInfo = subfieldProto.options.getExtension(
-                      Datamodel.field)
-                    if (subfieldInfo != null && subfieldInfo.type == CoreFieldType.ID) {
-                      // we have an ID property
-                      idField = subfield
-                      val (_, extractedIdEntity) = extractValue<Message>(proto, null, field)
-                      if (extractedIdEntity != null) {
-                        idEntity = extractedIdEntity
-
-                        val (_, extractedIdValue) = extractValue<String>(idEntity, null, idField)
-                        idValue = extractedIdValue
-                      }
-                      break@idScan
-                    }
-                  }
-                }
-              }
-              else -> continue@idScan  // other fields are not interesting in this case
-            }
-          }
-        }
-        else -> continue@idScan  // other fields are not interesting in this case
-      }
-    }
-    return idValue to (idEntity to idField)
+    val idField = plan.idField ?: return null to (proto to null)
+    val keyField = plan.idKeyField ?: return (proto.getField(idField) as? String) to (proto to idField)
+
+    // a sub-property on the key message is this item's ID field
+    val idEntity = proto.getField(keyField) as? Message ?: return null to (proto to idField)
+    return (idEntity.getField(idField) as? String) to (idEntity to idField)
   }
 
   /**
@@ -622,7 +372,7 @@ class ObjectModelSerializer<Model : Message>
                                         immediateParentPath: String): String {
     // scan for parent property
     val (values, coordinates) = this.scanForParent(
-      parent, parentDescriptor.fields)
+      parent, planFor(parentDescriptor))
     val (prefix, idValue) = values
     val (container, idField) = coordinates
 
@@ -651,7 +401,7 @@ class ObjectModelSerializer<Model : Message>
                                      effectiveId: String? = null): Pair<String, String> {
     val path = this.collectionPath(descriptor)
     val (values, coordinates) = this.scanForParent(
-      container, descriptor.fields)
+      container, planFor(descriptor))
     val (parentPrefix, parentId) = values
     val (subContainer, subField) = coordinates
 
@@ -745,7 +495,7 @@ class ObjectModelSerializer<Model : Message>
    * Given an entity, and either a nested or root context, resolve a write operation to persist it.
    *
    * @param descriptor Descriptor for the model we are resolving a write for.
-   * @param descriptorProto Pre-fetched proto version of the descriptor.
+   * @param plan Compiled plan for the descriptor.
    * @param data Serialized data object which we are building.
    * @param field Descriptor for the field we are resolving a write for, as applicable.
    * @param id Resolved ID value for the record being written.
@@ -755,7 +505,7 @@ class ObjectModelSerializer<Model : Message>
    * @return Write operation characterized by the provided data.
    */
   private fun resolveWrite(descriptor: Descriptor,
-                           descriptorProto: DescriptorProtos.DescriptorProto,
+                           plan: SerializationPlan,
                            data: SerializedModel,
                            field: FieldDescriptor?,
                            id: String,
@@ -767,12 +517,11 @@ class ObjectModelSerializer<Model : Message>
     } else {
       CollectionMode.GROUP
     }
-    val fieldProto = field?.toProto()
+    val fieldCollection = if (field != null) planFor(field.containingType).fields[field.index].collection else null
     val keyPresent = ModelMetadata.keyField(descriptor).isPresent
 
     // resolve storage mode for this object, and storage path (pluralized + lower-cased message name)
-    val (storageMode: CollectionMode, storagePath: String?) = if (
-      descriptorProto.hasOptions() && descriptorProto.options.hasExtension(Datamodel.db)) {
+    val (storageMode: CollectionMode, storagePath: String?) = if (plan.collectionPath != null) {
       val extType = ModelMetadata.modelAnnotation(descriptor, Datamodel.db, false)
 
       if (extType.isPresent) {
@@ -793,14 +542,13 @@ class ObjectModelSerializer<Model : Message>
     } else if (keyPresent) {
       resolvePersistenceFromKeyOrModel(descriptor, null, field, nested, defaultMode)
 
-    } else if (fieldProto != null && fieldProto.options.hasExtension(Datamodel.collection)) {
+    } else if (fieldCollection != null) {
       // the field has an extension on it
-      val extCollection = fieldProto.options.getExtension(Datamodel.collection)
-      extCollection.mode to if (extCollection.path.isEmpty()) {
+      fieldCollection.mode to if (fieldCollection.path.isEmpty()) {
         // generate a default path
-        generateDefaultWritePath(descriptor, nested, field, extCollection.mode)
+        generateDefaultWritePath(descriptor, nested, field, fieldCollection.mode)
       } else {
-        extCollection.path
+        fieldCollection.path
       }
     } else {
       defaultMode to generateDefaultWritePath(descriptor, nested, field, defaultMode)
@@ -828,169 +576,126 @@ class ObjectModelSerializer<Model : Message>
   }
 
   /**
-   * Extract a sub-message field, where a potential value means we may need to recurse and decode it, too. In cases
+   * Write a sub-message field, where a potential value means we may need to recurse and encode it, too. In cases
    * where the sub-message is a default value, only recurse if we are directed by configuration to include default
    * values while serializing.
    *
-   * @param proto
-   * @param base
-   * @param field
-   * @param fieldProto
-   * @param fieldOptions
-   * @param builder
-   * @param dataMap
-   * @param skipCollections
-   * @return
+   * @param proto Message record to extract from.
+   * @param base Base record to compare to (optional).
+   * @param plan Compiled plan for the field.
+   * @param value Value builder to write to.
+   * @param dataMap Serialized data for the record holding the field, which receives `concrete` values.
+   * @param skipCollections Whether to skip sub-messages which are stored as collections, rather than nested.
+   * @return Result of writing the field.
    */
-  private fun extractSubmessage(proto: Message,
-                                base: Message?,
-                                field: FieldDescriptor,
-                                fieldProto: DescriptorProtos.FieldDescriptorProto,
-                                fieldOptions: DatapointOptions?,
-                                builder: Value.Builder,
-                                dataMap: SerializedModel,
-                                skipCollections: Boolean): Pair<Boolean, Value.Builder?> {
+  private fun writeSubmessage(proto: Message,
+                              base: Message?,
+                              plan: FieldPlan,
+                              value: Value.Builder,
+                              dataMap: SerializedModel,
+                              skipCollections: Boolean): FieldResult {
     // if the sub-message is a temporal instance, and not repeated, it's a special case. set it directly.
-    if (!field.isRepeated && field.messageType.fullName == "google.protobuf.Timestamp")
-      return serializeInstant(proto, base, field, builder)
+    if (plan.timestamp)
+      return writeInstant(proto, base, plan, value)
 
-    // check for other options that might affect serialization
-    val fieldPersistenceOpts: FieldPersistenceOptions? = if (
-      !field.isRepeated && fieldProto.options.hasExtension(Datamodel.field)) {
-      fieldProto.options.getExtension(Datamodel.field)
-    } else {
-      null
-    }
-
-    if ((fieldPersistenceOpts?.type == CoreFieldType.REFERENCE ||
-         fieldPersistenceOpts?.type == CoreFieldType.PARENT) &&
-      proto.hasField(field)) {
+    val field = plan.field
+    if (plan.referenced && proto.hasField(field)) {
       // parent and reference types should both be references, not sub-objects
       val subProto = proto.getField(field) as? Message ?:
         throw ModelSerializer.SerializationError("Unable to extract reference sub-message.")
       val (idValue, coordinates) = this.scanForIdProperty(
-        subProto, field.messageType.fields)
+        subProto, planFor(field.messageType))
       val (idContainer, idField) = coordinates
 
-      return if (idValue == null || idContainer == null || idField == null) {
+      if (idValue == null || idContainer == null || idField == null)
         // skip this, it has no value.
-        true to builder.setNullValue(NullValue.NULL_VALUE)
-      } else {
-        // calculate the path for this ID field, and make it into a reference.
-        val (prefix, id) = referenceForSubmessage(
-          idContainer, idContainer.descriptorForType, idValue)
-        false to builder.setReferenceValue(referenceValue(prefix, id))
-      }
-    }
+        return writeNull(value)
 
-    // if we're told to skip collections, scan for non-NESTED annotations first
-    if (skipCollections) {
-      // first things first: scan both the proto and the field for collection settings. if any collection setting other
-      // than `NESTED` is found, skip this field, because we've been told to do that.
-      val fieldTypeProto = field.messageType.toProto()
-      val mode: CollectionMode = if (
-        fieldProto.hasOptions() && fieldProto.options.hasExtension(Datamodel.collection)) {
-        // field annotation overrides, because it has stronger context
-        fieldProto.options.getExtension(Datamodel.collection).mode
-      } else if (fieldTypeProto.hasOptions() && fieldTypeProto.options.hasExtension(Datamodel.db)) {
-        // if there's no field annotation, check the model
-        fieldTypeProto.options.getExtension(Datamodel.db).mode
-      } else {
-        CollectionMode.NESTED  // default mode
-      }
-      if (mode != CollectionMode.NESTED)
-        // skip this object, it's not a nested write. we do that by adding a null placeholder.
-        return true to builder.setNullValue(NullValue.NULL_VALUE)
+      // calculate the path for this ID field, and make it into a reference.
+      val (prefix, id) = referenceForSubmessage(
+        idContainer, idContainer.descriptorForType, idValue)
+      value.setReferenceValue(referenceValue(prefix, id))
+      return FieldResult.VALUE
     }
 
+    // if we're told to skip collections, and this is not a `NESTED` sub-message, skip it by adding a null placeholder.
+    if (skipCollections && !plan.nested)
+      return writeNull(value)
+
     // handle as a regular sub-message... which may be repeated
-    if (field.isRepeated) {
-      if (fieldOptions?.concrete == true)
+    if (plan.repeated) {
+      if (plan.concrete)
         throw ModelSerializer.SerializationError("Cannot annotate repeated nested field with `concrete`.")
 
-      // extract repeated messages
-      val (isDefault, extractedValue) = extractValue<List<Message>>(proto, base, field)
-
-      return when {
-        // either no list at all, or an empty one, or some default value?
-        extractedValue == null -> true to builder.setNullValue(NullValue.NULL_VALUE)
-        isDefault || extractedValue.isEmpty() -> {
-          if (emptyListsAsNulls) {
-            true to builder.setNullValue(NullValue.NULL_VALUE)
-          } else {
-            true to builder.setArrayValue(ArrayValue.getDefaultInstance())
-          }
-        }
-
-        // otherwise, we have a list with values.
-        else -> {
-          val objectList = ArrayValue.newBuilder()
-
-          // we have a list with values
-          for (message in extractedValue) {
-            // it's eligible to be included
-            val subStruct = MapValue.newBuilder()
-            val subMap: SerializedModel = this.serialize(message, base = base)
-            subStruct.putAllFields(subMap)
-
-            // add it to the outer list value
-            objectList.addValues(Value.newBuilder().setMapValue(subStruct))
-          }
+      val count = proto.getRepeatedFieldCount(field)
+      if (count < 1) {
+        // either no list at all, or an empty one: either way, it is withheld unless nulls are included.
+        if (!emptyListsAsNulls)
+          value.setArrayValue(ArrayValue.getDefaultInstance())
+        else
+          value.setNullValue(NullValue.NULL_VALUE)
+        return FieldResult.NULL
+      }
 
-          false to builder.setArrayValue(objectList)
-        }
+      // otherwise, we have a list with values.
+      val objectList = ArrayValue.newBuilder()
+      for (index in 0 until count) {
+        val subMap: SerializedModel = this.serialize(proto.getRepeatedField(field, index) as Message, base = base)
+        objectList.addValues(Value.newBuilder().setMapValue(MapValue.newBuilder().putAllFields(subMap)))
       }
-    } else {
-      // just one, extract the sub-message
-      val (isDefault, extractedValue) = extractValue<Message>(proto, base, field)
-      return if (extractedValue == null || (isDefault && !includeDefaults)) {
-        // if it's not there, or it's a default instance and we shouldn't include those, just return as null
-        true to builder.setNullValue(NullValue.NULL_VALUE)
-      } else {
-        val subMap: SerializedModel = this.serialize(extractedValue)
-        if (fieldOptions?.concrete == true) {
-          // the field is "concrete," for an outer generic. this means we are tasked with applying each serialized field
-          // value to the upper data map, for our parent object, rather than building a struct, which is nested under a
-          // regular property (like a JSON object).
-          val errorKeys = TreeSet<String>()
-          subMap.entries.forEach { entry ->
-            if (dataMap.containsKey(entry.key)) {
-              if (entry.key == "key" && entry.value == dataMap[entry.key]) {
-                // they are keys and they are identical, so it's fine.
-                return@forEach
-              } else {
-                // we don't allow concrete models to trample properties on the base objects they inject values into. so,
-                // file away this key, and prep to error hard.
-                errorKeys.add(entry.key)
-              }
-            } else {
-              // there is no collision, so, file the key away.
-              dataMap[entry.key] = entry.value
-            }
-          }
-          if (errorKeys.isNotEmpty()) {
-            val formattedKeys = errorKeys.joinToString(", ") { "`$it`" }
-            throw ModelSerializer.SerializationError(
-              "Cannot handle property collisions for concrete model: $formattedKeys on "
-                + "`${proto.descriptorForType.name}`, at field `${field.name}` on `${field.containingType.name}`.")
-          }
+      value.setArrayValue(objectList)
+      return FieldResult.VALUE
+    }
 
-          // add synthesized type property, then we're good
-          dataMap[concreteTypeProperty] = Value.newBuilder().setStringValue(field.jsonName).build()
-          false to null
+    // just one, extract the sub-message
+    val data = proto.getField(field) as Message?
+    if (data == null || (!includeDefaults && isDefaultValue(proto, base, field, data)))
+      // if it's not there, or it's a default instance and we shouldn't include those, just return as null
+      return writeNull(value)
+
+    val subMap: SerializedModel = this.serialize(data)
+    if (!plan.concrete) {
+      // it's a normal struct that is eligible to be included in the parent's payload. generate it, and return it, so
+      // the parent can choose whether to include it.
+      value.setMapValue(MapValue.newBuilder().putAllFields(subMap))
+      return FieldResult.VALUE
+    }
 
+    // the field is "concrete," for an outer generic. this means we are tasked with applying each serialized field value
+    // to the upper data map, for our parent object, rather than building a struct, which is nested under a regular
+    // property (like a JSON object).
+    val errorKeys = TreeSet<String>()
+    subMap.entries.forEach { entry ->
+      if (dataMap.containsKey(entry.key)) {
+        if (entry.key == "key" && entry.value == dataMap[entry.key]) {
+          // they are keys and they are identical, so it's fine.
+          return@forEach
         } else {
-          // it's a normal struct that is eligible to be included in the parent's payload. generate it, and return it,
-          // so  the parent can choose whether to include it.
-          false to builder.setMapValue(MapValue.newBuilder().putAllFields(subMap))
+          // we don't allow concrete models to trample properties on the base objects they inject values into. so, file
+          // away this key, and prep to error hard.
+          errorKeys.add(entry.key)
         }
+      } else {
+        // there is no collision, so, file the key away.
+        dataMap[entry.key] = entry.value
       }
     }
+    if (errorKeys.isNotEmpty()) {
+      val formattedKeys = errorKeys.joinToString(", ") { "`$it`" }
+      throw ModelSerializer.SerializationError(
+        "Cannot handle property collisions for concrete model: $formattedKeys on "
+          + "`${proto.descriptorForType.name}`, at field `${field.name}` on `${field.containingType.name}`.")
+    }
+
+    // add synthesized type property, then we're good
+    dataMap[concreteTypeProperty] = Value.newBuilder().setStringValue(field.jsonName).build()
+    return FieldResult.HANDLED
   }
 
   /**
    * Build a map where each value is a protocol buffer `Value`, and there is an entry for each enabled field in the
-   * given code-generated message object.
+   * given code-generated message object. Records are run through a [SerializationPlan] compiled once per type, so that
+   * field annotations and type dispatch are resolved ahead of time, rather than per field, per record.
    *
    * @param proto
    * @param base
@@ -1007,70 +712,38 @@ class ObjectModelSerializer<Model : Message>
                 collection: Boolean = false,
                 concrete: String? = null,
                 id: Pair<String, Pair<Message?, FieldDescriptor?>>? = null): SerializedModel {
-    val descriptor = proto.descriptorForType
-    val fields = descriptor.fields
-    val dataMap = serializedObject()
+    val plan = planFor(proto.descriptorForType)
+    val dataMap = serializedObject(plan)
 
     // for each field, serialize raw and put it into the map
-    fields@ for (field in fields) {
-      val value = Value.newBuilder()
-
-      // resolve field options, if any
-      val fieldProto = field.toProto()
-      val fieldOptions = if (fieldProto.hasOptions() && fieldProto.options.hasExtension(
-          Datamodel.opts)) {
-        fieldProto.options.getExtension(Datamodel.opts)
-      } else {
-        null
-      }
+    fields@ for (field in plan.fields) {
+      if (field.ephemeral)
+        continue@fields
 
-      // persistence options for the field
-      val persistenceOptions = if (
-        fieldProto.hasOptions() && fieldProto.options.hasExtension(Datamodel.field)) {
-        fieldProto.options.getExtension(Datamodel.field)
-      } else {
-        null
+      val value = Value.newBuilder()
+      val result = when (field.kind) {
+        FieldKind.ENUM -> writeEnum(proto, base, field, value)
+        FieldKind.MESSAGE -> writeSubmessage(proto, base, field, value, dataMap, skipCollections)
+        else -> writeScalar(proto, base, field, value)
       }
 
-      if (fieldOptions?.ephemeral == true)
-        continue@fields
+      when (result) {
+        // if field value is not null, it is always included.
+        FieldResult.VALUE -> dataMap[field.name] = value.build()
 
-      val (wasNull, sentinel) = when (field.type) {
-        FieldType.INT32, FieldType.UINT32, FieldType.SINT32,
-        FieldType.INT64, FieldType.UINT64, FieldType.SINT64,
-        FieldType.FIXED32, FieldType.FIXED64, FieldType.SFIXED32, FieldType.SFIXED64, FieldType.FLOAT,
-        FieldType.DOUBLE -> extractAndSetValue(proto, base, field, value, value::setDoubleValue)
-        FieldType.BOOL -> extractAndSetValue(proto, base, field, value, value::setBooleanValue)
-        FieldType.STRING -> {
-          extractAndSetValue<String>(proto, base, field, value) {
-            this.wrapValue(field, value, field.type, it)
-          }
-        }
-        FieldType.BYTES -> extractAndSetValue(proto, base, field, value, bytesEncoder(value::setStringValue))
-        FieldType.ENUM -> extractEnum(proto, base, field, value, persistenceOptions)
-        FieldType.GROUP, FieldType.MESSAGE -> extractSubmessage(
-          proto, base, field, fieldProto, fieldOptions, value, dataMap, skipCollections)
-        else -> {
-          // log a warning
-          logging.warn("Unresolvable or null type for proto field: '${field.type}'. Skipping.")
-          continue@fields
+        // if it is null, it is only included if `includeNulls` is set to `true`, or the field is `explicit`. otherwise,
+        // enforce required-ness of fields: the value was indeed null (a decision that is delegated to the type-specific
+        // writer, considering that proto will substitute empty models where sub-message nesting is accessed).
+        FieldResult.NULL -> if (includeNulls || field.explicit) {
+          dataMap[field.name] = value.build()
+        } else if (!collection && field.required) {
+          throw ModelSerializer.SerializationError(
+            "Required field was missing a value: `${field.name}` on record `${plan.name}`.")
         }
-      }
 
-      // if field value is not null, it is always included. if it is null, it is only included if `includeNulls` is set
-      // to `true`. in either case, if `sentinel` is null, some sub-routine handled it for us (likely via the `concrete`
-      // annotation on a nested non-repeated sub-message), so we can safely skip it ourselves.
-      if (sentinel != null && (!wasNull || (wasNull && (includeNulls || persistenceOptions?.explicit == true))))
-      // if we get here, we were able to extract a value and set it on the value builder
-        dataMap[field.name] = value.build()
-
-      // enforce required-ness of fields. if we reach this line, there was no value or the value was skipped, so we make
-      // sure the value was indeed null (a decision that is delegated to the type-specific sub-routine, considering that
-      // proto will substitute empty models where sub-message nesting is accessed).
-      else if (sentinel != null && wasNull && !collection && fieldOptions?.required == true
-        && (field.type != FieldType.ENUM))
-        throw ModelSerializer.SerializationError(
-          "Required field was missing a value: `${field.name}` on record `${descriptor.name}`.")
+        // some writer handled it for us (likely via the `concrete` annotation on a nested non-repeated sub-message).
+        FieldResult.HANDLED -> {}
+      }
     }
     return dataMap
   }
@@ -1105,10 +778,9 @@ class ObjectModelSerializer<Model : Message>
                               concrete: String? = null) {
     // prepare to collapse
     val descriptor = proto.descriptorForType
-    val descriptorProto = descriptor.toProto()
-    val fields = descriptor.fields
+    val plan = planFor(descriptor)
     val subwrites = ArrayList<CollapsedMessage.Operation>()
-    val (idValue, idProperty) = this.scanForIdProperty(proto, fields)
+    val (idValue, idProperty) = this.scanForIdProperty(proto, plan)
 
     if (base != null && base.descriptorForType.name != descriptor.name)
       throw ModelSerializer.SerializationError("Unable to serialize with merged object of foreign kind.")
@@ -1126,105 +798,54 @@ class ObjectModelSerializer<Model : Message>
       id = idValue to idProperty)
 
     val writeOp = resolveWrite(
-      descriptor, descriptorProto, dataMap, parentField, idValue, nested, parent, disposition)
+      descriptor, plan, dataMap, parentField, idValue, nested, parent, disposition)
 
     // if this passes, all fields are simple
-    if (dataMap.size != descriptor.fields.size) {
+    if (dataMap.size != plan.fields.size) {
       // for each field, serialize raw and put it into the map
-      fields@ for (field in fields) {
-        if (dataMap.containsKey(field.name))
-        // we already have this field: probably because it's nested
+      fields@ for (fieldPlan in plan.fields) {
+        // skip it if we already have it (probably because it's nested), if it's marked as concrete, or if it is a
+        // simple type
+        if (fieldPlan.concrete || fieldPlan.kind != FieldKind.MESSAGE || dataMap.containsKey(fieldPlan.name))
           continue@fields
 
-        // skip it if it's marked as concrete, or ephemeral
-        val fieldProto = field.toProto()
-        val fieldOptions = if (
-          fieldProto.hasOptions() && fieldProto.options.hasExtension(Datamodel.opts)) {
-          fieldProto.options.getExtension(Datamodel.opts)
-        } else {
-          null
-        }
-        if (fieldOptions?.concrete == true)
-        // concrete fields can be skipped
+        val field = fieldPlan.field
+        if (fieldPlan.repeated) {
+          // for each included model, recurse to perform the same collapse routine. empty lists are never written.
+          val count = proto.getRepeatedFieldCount(field)
+          for (index in 0 until count) {
+            this.collapseMessage(
+              proto.getRepeatedField(field, index) as Message, null, subwrites, true, writeOp, field, disposition,
+              collection = true,
+              concrete = fieldPlan.collection?.concrete)
+          }
           continue@fields
-
-        val groupOptions = if (
-          fieldProto.hasOptions() && fieldProto.options.hasExtension(Datamodel.collection)) {
-          fieldProto.options.getExtension(Datamodel.collection)
-        } else {
-          null
         }
 
-        val value = Value.newBuilder()
-        val (wasNull, _) = when (field.type) {
-          FieldType.GROUP, FieldType.MESSAGE -> {
-            if (field.isRepeated) {
-              // firstly, extract the list of messages...
-              val (isDefault, extractedValue) = extractValue<List<Message>>(proto, base, field)
-              if (extractedValue == null) {
-                // specify as null
-                true to value.setNullValue(NullValue.NULL_VALUE)
-              } else if (extractedValue.isEmpty()) {
-                // consider treating empty lists as nulls
-                if (emptyListsAsNulls) {
-                  true to value.setNullValue(NullValue.NULL_VALUE)
-                } else {
-                  // if empty lists should not be null, they end up as empty lists...
-                  false to value.setArrayValue(ArrayValue.getDefaultInstance())
-                }
-              } else if (!isDefault || includeDefaults) {
-                // it's either not a default, or it's a default and should be included. for each included model,
-                // recurse to perform the same collapse routine.
-                for (subMessage in extractedValue) {
-                  this.collapseMessage(
-                    subMessage, null, subwrites, true, writeOp, field, disposition,
-                    collection = true,
-                    concrete = groupOptions?.concrete)
-                }
-              }
-              continue@fields
-            } else {
-              // resolve a write for the message type
-              val (isDefault, extractedValue) = extractValue<Message>(proto, base, field)
-
-              if (extractedValue == null) {
-                // specify as null
-                true to value.setNullValue(NullValue.NULL_VALUE)
-              } else if (!isDefault || includeDefaults) {
-                if (ModelMetadata.matchCollectionAnnotation(
-                    field,
-                    CollectionMode.COLLECTION)) {
-                  // it's eligible to be included
-                  this.collapseMessage(
-                    extractedValue, base, subwrites, true, writeOp, field, disposition)
-                  continue@fields
-                } else {
-                  val serialized = this.serialize(
-                    extractedValue, null, false, collection, concrete, null)
-                  val mapBuilder = MapValue.newBuilder()
-
-                  serialized.entries.forEach { entry ->
-                    mapBuilder.putFields(entry.key, entry.value)
-                  }
-
-                  false to value.setMapValue(mapBuilder)
-                }
-              } else {
-                // sub-message is ineligible, because it is a default or null, and defaults or nulls are not eligible
-                continue@fields
-              }
-            }
-          }
-          else ->
-            // all other fields are simple types
-            continue@fields
+        // resolve a write for the message type
+        val extractedValue = proto.getField(field) as Message?
+        if (extractedValue == null) {
+          // specify as null
+          if (includeNulls)
+            dataMap[fieldPlan.name] = Value.newBuilder().setNullValue(NullValue.NULL_VALUE).build()
+          continue@fields
         }
 
-        // if field value is not null, it is always included. if it is null, it is only included if `includeNulls`
-        // is set to `true`.
-        if (!wasNull || includeNulls)
-        // if we get here, we were able to extract a value and set it on the value builder
-          dataMap[field.name] = value.build()
+        if (!includeDefaults && isDefaultValue(proto, base, field, extractedValue))
+          // sub-message is ineligible, because it is a default, and defaults are not eligible
+          continue@fields
+
+        if (ModelMetadata.matchCollectionAnnotation(field, CollectionMode.COLLECTION)) {
+          // it's eligible to be included
+          this.collapseMessage(
+            extractedValue, base, subwrites, true, writeOp, field, disposition)
+        } else {
+          val serialized = this.serialize(
+            extractedValue, null, false, collection, concrete, null)
+          dataMap[fieldPlan.name] = Value.newBuilder()
+            .setMapValue(MapValue.newBuilder().putAllFields(serialized))
+            .build()
+        }
       }
     }
 
@@ -1253,7 +874,7 @@ class ObjectModelSerializer<Model : Message>
     val parentWrite = if (parent != null) {
       val parentDescriptor = parent.descriptorForType
       val (immediateParentId, _) = this.scanForIdProperty(
-        parent, parentDescriptor.fields)
+        parent, planFor(parentDescriptor))
       if (immediateParentId == null)
         throw ModelSerializer.SerializationError("Cannot serialize with parent entity with undefined ID.")
 
@@ -1277,14 +898,205 @@ class ObjectModelSerializer<Model : Message>
   /** @inheritDoc */
   @Nonnull
   @Throws(ModelDeflateException::class)
-  override fun deflate(@Nonnull input: Model): SortedMap<String, *> {
-    return serialize(input).data
+  override fun deflate(@Nonnull input: Model): Map<String, *> {
+    return serialize(input)
+  }
+
+  /** Kind of value held by a field, which selects the writer used to serialize it. */
+  private enum class FieldKind { INTEGER, FLOATING, BOOL, STRING, BYTES, ENUM, MESSAGE }
+
+  /** Outcome of writing a single field. */
+  private enum class FieldResult {
+    /** A value was written, and should be included. */
+    VALUE,
+
+    /** A null value (or an empty placeholder) was written, and should only be included if nulls are. */
+    NULL,
+
+    /** The field was handled in place (i.e. merged into its parent), and should not be included. */
+    HANDLED
+  }
+
+  /**
+   * Serialization plan for a single field, compiled once from its descriptor and schema annotations, so that nothing
+   * about the field needs to be re-derived per record.
+   *
+   * @param field Descriptor for the field.
+   */
+  private class FieldPlan(val field: FieldDescriptor) {
+    /** Name of the field, as serialized. */
+    val name: String = field.name
+
+    /** Whether the field is repeated. */
+    val repeated: Boolean = field.isRepeated
+
+    /** Kind of value held by the field. */
+    val kind: FieldKind = when (field.type) {
+      FieldType.INT32, FieldType.UINT32, FieldType.SINT32, FieldType.INT64,
+      FieldType.UINT64, FieldType.SINT64, FieldType.FIXED32, FieldType.FIXED64,
+      FieldType.SFIXED32, FieldType.SFIXED64 -> FieldKind.INTEGER
+      FieldType.FLOAT, FieldType.DOUBLE -> FieldKind.FLOATING
+      FieldType.BOOL -> FieldKind.BOOL
+      FieldType.STRING -> FieldKind.STRING
+      FieldType.BYTES -> FieldKind.BYTES
+      FieldType.ENUM -> FieldKind.ENUM
+      else -> FieldKind.MESSAGE  // groups and messages
+    }
+
+    /** Collection settings declared on the field, if any. */
+    val collection: SubmessageOptions?
+
+    /** Whether the field is ephemeral, and so never serialized. */
+    val ephemeral: Boolean
+
+    /** Whether the field must carry a value. Enums are exempt, because they always carry one. */
+    val required: Boolean
+
+    /** Whether the field is concrete, for an outer generic. */
+    val concrete: Boolean
+
+    /** Whether the field is serialized even when it is a default, or null. */
+    val explicit: Boolean
+
+    /** Whether the field is a string reference. */
+    val reference: Boolean
+
+    /** Collection path, with a trailing slash, to prefix string references with, if one is declared. */
+    val referencePath: String?
+
+    /** Whether the field is a singular timestamp. */
+    val timestamp: Boolean
+
+    /** Whether the field is a singular sub-message, which is serialized as a reference to it. */
+    val referenced: Boolean
+
+    /** Whether the field is a sub-message which is nested, rather than stored as a collection. */
+    val nested: Boolean
+
+    init {
+      val options = field.options
+      val datapoint = if (options.hasExtension(Datamodel.opts)) options.getExtension(Datamodel.opts) else null
+      val persistence = if (options.hasExtension(Datamodel.field)) options.getExtension(Datamodel.field) else null
+      collection = if (options.hasExtension(Datamodel.collection)) options.getExtension(Datamodel.collection) else null
+
+      ephemeral = datapoint?.ephemeral == true
+      required = datapoint?.required == true && kind != FieldKind.ENUM
+      concrete = datapoint?.concrete == true
+      explicit = persistence?.explicit == true
+      reference = kind == FieldKind.STRING && persistence?.type == CoreFieldType.REFERENCE
+      referencePath = if (reference && collection?.path?.isNotBlank() == true) "${collection.path}/" else null
+      timestamp = kind == FieldKind.MESSAGE && !repeated && field.messageType.fullName == "google.protobuf.Timestamp"
+      referenced = kind == FieldKind.MESSAGE && !repeated && (
+        persistence?.type == CoreFieldType.REFERENCE || persistence?.type == CoreFieldType.PARENT)
+
+      nested = if (kind != FieldKind.MESSAGE) {
+        true
+      } else {
+        // field annotation overrides, because it has stronger context. if there's no field annotation, check the model.
+        val typeOptions = field.messageType.options
+        when {
+          collection != null -> collection.mode
+          typeOptions.hasExtension(Datamodel.db) -> typeOptions.getExtension(Datamodel.db).mode
+          else -> CollectionMode.NESTED  // default mode
+        } == CollectionMode.NESTED
+      }
+    }
+  }
+
+  /**
+   * Serialization plan for a model type, compiled once from its descriptor and schema annotations. Records are run
+   * through the plan's pre-resolved field plans, and ID, parent and collection lookups are answered from the plan.
+   *
+   * @param descriptor Descriptor for the model type.
+   */
+  private class SerializationPlan(descriptor: Descriptor) {
+    /** Name of the model type. */
+    val name: String = descriptor.name
+
+    /** Plans for each field, in declaration order. */
+    val fields: List<FieldPlan> = descriptor.fields.map(::FieldPlan)
+
+    /** Property slots for serialized instances of the model. */
+    val layout: SerializedModel.Layout = SerializedModel.Layout.forDescriptor(descriptor)
+
+    /** Collection path declared on the model, if the model declares persistence settings. */
+    val collectionPath: String? = if (descriptor.options.hasExtension(Datamodel.db)) {
+      descriptor.options.getExtension(Datamodel.db).path
+    } else {
+      null
+    }
+
+    /** Key field which holds the ID field, if the ID is nested inside a key. */
+    val idKeyField: FieldDescriptor?
+
+    /** ID field, either top-level, or nested inside [idKeyField]. */
+    val idField: FieldDescriptor?
+
+    /** `PARENT`-annotated field, if it holds an ID field. */
+    val parentField: FieldDescriptor?
+
+    /** ID field on the [parentField] type. */
+    val parentIdField: FieldDescriptor?
+
+    init {
+      var idKey: FieldDescriptor? = null
+      var id: FieldDescriptor? = null
+      idScan@ for (field in descriptor.fields) {
+        val info = annotation(field) ?: continue@idScan
+        if (field.type == FieldType.STRING && info.type == CoreFieldType.ID) {
+          id = field
+          break@idScan
+        } else if (info.type == CoreFieldType.KEY &&
+          (field.type == FieldType.GROUP || field.type == FieldType.MESSAGE)) {
+          // a sub-property on this message type is this item's ID field
+          val subfield = field.messageType.fields.firstOrNull { annotation(it)?.type == CoreFieldType.ID }
+          if (subfield != null) {
+            idKey = field
+            id = subfield
+            break@idScan
+          }
+        }
+      }
+      idKeyField = idKey
+      idField = id
+
+      val parent = descriptor.fields.firstOrNull {
+        it.type == FieldType.MESSAGE && annotation(it)?.type == CoreFieldType.PARENT
+      }
+      val parentId = parent?.messageType?.fields?.firstOrNull {
+        it.type == FieldType.STRING && annotation(it)?.type == CoreFieldType.ID
+      }
+      parentField = if (parentId != null) parent else null
+      parentIdField = parentId
+    }
+
+    private companion object {
+      /** @return Persistence annotation on the provided field, if any. */
+      fun annotation(field: FieldDescriptor): FieldPersistenceOptions? =
+        if (field.options.hasExtension(Datamodel.field)) field.options.getExtension(Datamodel.field) else null
+    }
   }
 
   companion object {
     /** Private logging pipe. */
     private val logging = Logging.logger(ObjectModelSerializer::class.java)
 
+    /** Compiled serialization plans, by descriptor. */
+    private val plans: ConcurrentMap<Descriptor, SerializationPlan> = ConcurrentHashMap()
+
+    /**
+     * Resolve the serialization plan for the provided model type, compiling it on first use.
+     *
+     * @param descriptor Descriptor for the model type.
+     * @return Compiled serialization plan.
+     */
+    private fun planFor(descriptor: Descriptor): SerializationPlan {
+      val existing = plans[descriptor]
+      if (existing != null) return existing
+      val compiled = SerializationPlan(descriptor)
+      return plans.putIfAbsent(descriptor, compiled) ?: compiled
+    }
+
     /** Default write disposition setting. */
     private val defaultDisposition = ModelSerializer.WriteDisposition.BLIND
 
@@ -1343,15 +1155,5 @@ class ObjectModelSerializer<Model : Message>
         referencePrefix = prefix ?: ""
       )
     }
-
-    /**
-     * Special case: return a function that can Base64-encode raw bytes. Raw bytes fields are assumed to contain binary
-     * data that is not safe to encode blindly with UTF-8.
-     *
-     * @param setter Value builder callback to dispatch once bytes are ready.
-     */
-    private fun bytesEncoder(setter: (String) -> Value.Builder): (ByteArray) -> Value.Builder = { bytes ->
-      setter(Base64.getEncoder().encodeToString(bytes))
-    }
   }
 }
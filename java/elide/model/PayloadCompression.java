@@ -0,0 +1,282 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Message;
+import com.google.protobuf.UnsafeByteOperations;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static java.lang.String.format;
+
+
+/**
+ * Optional compression for encoded model payloads, applied by {@link ProtoModelCodec} to payloads at or above a size
+ * threshold, using the JDK's DEFLATE implementation, optionally primed with a preset dictionary trained per model type.
+ *
+ * <p>Compressed payloads are marked in-band: they begin with a {@code 0x00} byte, which can never begin a non-empty
+ * Protobuf binary payload (field number zero is invalid) or a ProtoJSON payload. The marker is followed by a method
+ * byte, the uncompressed size (varint), and the zlib stream itself. Uncompressed payloads are stored as-is, so reads
+ * remain transparent and existing data stays readable.</p>
+ *
+ * <p>zlib streams record a checksum of the dictionary they were compressed with. Payloads compressed with a dictionary
+ * can only be read by an instance configured with that same dictionary.</p>
+ */
+@Immutable
+@ThreadSafe
+public final class PayloadCompression {
+  /** Leading byte which marks a compressed payload. */
+  private static final byte MARKER = 0x00;
+
+  /** Method byte for DEFLATE (zlib) compression. */
+  private static final byte METHOD_DEFLATE = 0x01;
+
+  /** Default size, in bytes, at or above which payloads are compressed. */
+  public static final int DEFAULT_THRESHOLD = 512;
+
+  /** Largest useful preset dictionary, which is bounded by the DEFLATE window. */
+  public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+  /** Default instance, which compresses above the default threshold, without a dictionary. */
+  private static final PayloadCompression DEFAULTS = new PayloadCompression(
+    DEFAULT_THRESHOLD, Deflater.DEFAULT_COMPRESSION, null);
+
+  /** Re-usable inflater for the current thread. */
+  private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+  /** Size, in bytes, at or above which payloads are compressed. */
+  private final int threshold;
+
+  /** DEFLATE compression level. */
+  private final int level;
+
+  /** Preset dictionary, if any. */
+  private final @Nullable byte[] dictionary;
+
+  /** Checksum of the preset dictionary, as recorded in zlib streams, or {@code 0} if there is none. */
+  private final int dictionaryId;
+
+  /** Re-usable deflater for the current thread, configured for this instance. */
+  private final ThreadLocal<Deflater> deflater;
+
+  private PayloadCompression(int threshold, int level, @Nullable byte[] dictionary) {
+    if (threshold < 1) throw new IllegalArgumentException("Compression threshold must be at least 1 byte.");
+    if (dictionary != null && (dictionary.length == 0 || dictionary.length > MAX_DICTIONARY_SIZE))
+      throw new IllegalArgumentException(format(
+        "Compression dictionary must be between 1 and %s bytes.", MAX_DICTIONARY_SIZE));
+    this.threshold = threshold;
+    this.level = level;
+    this.dictionary = dictionary;
+    if (dictionary != null) {
+      Adler32 checksum = new Adler32();
+      checksum.update(dictionary);
+      this.dictionaryId = (int)checksum.getValue();
+    } else {
+      this.dictionaryId = 0;
+    }
+    this.deflater = ThreadLocal.withInitial(() -> new Deflater(level));
+  }
+
+  // -- Factories -- //
+
+  /** @return Default compression settings, which compress payloads of {@link #DEFAULT_THRESHOLD} bytes or more. */
+  public static @Nonnull PayloadCompression defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * Compress payloads at or above the provided size, without a dictionary.
+   *
+   * @param threshold Size, in bytes, at or above which payloads are compressed.
+   * @return Compression settings.
+   */
+  public static @Nonnull PayloadCompression deflate(int threshold) {
+    return new PayloadCompression(threshold, Deflater.DEFAULT_COMPRESSION, null);
+  }
+
+  /**
+   * Derive settings from these ones, but with the provided DEFLATE compression level.
+   *
+   * @param level Compression level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}.
+   * @return Compression settings.
+   */
+  public @Nonnull PayloadCompression withLevel(int level) {
+    if ((level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) && level != Deflater.DEFAULT_COMPRESSION)
+      throw new IllegalArgumentException(format("Invalid compression level: %s.", level));
+    return new PayloadCompression(threshold, level, dictionary);
+  }
+
+  /**
+   * Derive settings from these ones, but priming compression with the provided preset dictionary.
+   *
+   * @see #trainDictionary(Iterable, int) To build a dictionary from sample models.
+   * @param dictionary Preset dictionary, of at most {@link #MAX_DICTIONARY_SIZE} bytes.
+   * @return Compression settings.
+   */
+  public @Nonnull PayloadCompression withDictionary(@Nonnull byte[] dictionary) {
+    return new PayloadCompression(threshold, level, Objects.requireNonNull(dictionary).clone());
+  }
+
+  /**
+   * Train a preset dictionary from sample instances of a model type. DEFLATE finds matches most cheaply near the end
+   * of the dictionary, so samples are concatenated in order, and the tail is kept if they exceed {@code maxSize}.
+   * Samples should be representative of stored data, and listed in increasing order of importance.
+   *
+   * @param samples Sample model instances, all of the same type.
+   * @param maxSize Maximum size of the dictionary, up to {@link #MAX_DICTIONARY_SIZE} bytes.
+   * @return Trained dictionary.
+   */
+  public static @Nonnull byte[] trainDictionary(@Nonnull Iterable<? extends Message> samples, int maxSize) {
+    if (maxSize < 1 || maxSize > MAX_DICTIONARY_SIZE)
+      throw new IllegalArgumentException(format("Dictionary size must be between 1 and %s.", MAX_DICTIONARY_SIZE));
+    ByteString.Output out = ByteString.newOutput();
+    try {
+      for (Message sample : samples) sample.writeTo(out);
+    } catch (IOException err) {
+      throw new IllegalStateException("Failed to serialize dictionary sample.", err);
+    }
+    ByteString all = out.toByteString();
+    if (all.isEmpty()) throw new IllegalArgumentException("Cannot train compression dictionary without samples.");
+    return all.substring(Math.max(0, all.size() - maxSize)).toByteArray();
+  }
+
+  // -- API -- //
+
+  /** @return Size, in bytes, at or above which payloads are compressed. */
+  public int threshold() {
+    return threshold;
+  }
+
+  /**
+   * Check whether the provided payload is compressed.
+   *
+   * @param payload Encoded model payload.
+   * @return Whether the payload carries the compression marker.
+   */
+  public static boolean isCompressed(@Nonnull ByteString payload) {
+    return payload.size() > 2 && payload.byteAt(0) == MARKER && payload.byteAt(1) == METHOD_DEFLATE;
+  }
+
+  /**
+   * Compress the provided payload, if it meets the size threshold, and compression actually makes it smaller.
+   *
+   * @param payload Encoded model payload.
+   * @return Marked, compressed payload, or {@code payload} itself.
+   */
+  public @Nonnull ByteString compress(@Nonnull ByteString payload) {
+    int size = payload.size();
+    if (size < threshold || isCompressed(payload)) return payload;
+    int header = 2 + CodedOutputStream.computeUInt32SizeNoTag(size);
+    if (size <= header) return payload;  // no room for even an empty deflate stream after the header
+
+    Deflater zlib = deflater.get();
+    zlib.reset();
+    if (dictionary != null) zlib.setDictionary(dictionary);
+    zlib.setInput(payload.asReadOnlyByteBuffer());
+    zlib.finish();
+
+    byte[] out = new byte[size];  // if the result does not fit, compression is not worthwhile
+    out[0] = MARKER;
+    out[1] = METHOD_DEFLATE;
+    try {
+      CodedOutputStream.newInstance(out, 2, header - 2).writeUInt32NoTag(size);
+    } catch (IOException err) {
+      throw new IllegalStateException(err);
+    }
+    int written = header;
+    while (!zlib.finished() && written < out.length)
+      written += zlib.deflate(out, written, out.length - written);
+    if (!zlib.finished()) return payload;
+    return UnsafeByteOperations.unsafeWrap(out, 0, written);
+  }
+
+  /**
+   * Decompress the provided payload, if it is marked as compressed.
+   *
+   * @param payload Encoded model payload.
+   * @return Decompressed payload, or {@code payload} itself if it is not compressed.
+   * @throws IOException If the payload is malformed, or needs a dictionary other than the configured one.
+   */
+  public @Nonnull ByteString decompress(@Nonnull ByteString payload) throws IOException {
+    if (!isCompressed(payload)) return payload;
+    CodedInputStream in = payload.substring(2).newCodedInput();
+    int size = in.readUInt32();
+    int offset = 2 + in.getTotalBytesRead();
+
+    Inflater zlib = INFLATER.get();
+    zlib.reset();
+    zlib.setInput(payload.substring(offset).asReadOnlyByteBuffer());
+    byte[] out = new byte[size];
+    int read = 0;
+    try {
+      while (read < size) {
+        int n = zlib.inflate(out, read, size - read);
+        if (n == 0) {
+          if (zlib.needsDictionary()) {
+            if (dictionary == null || zlib.getAdler() != dictionaryId)
+              throw new IOException(format(
+                "Compressed payload needs dictionary %s, which is not configured.",
+                Integer.toHexString(zlib.getAdler())));
+            zlib.setDictionary(dictionary);
+          } else {
+            break;  // finished, or out of input
+          }
+        }
+        read += n;
+      }
+    } catch (DataFormatException err) {
+      throw new IOException("Malformed compressed payload.", err);
+    }
+    if (read != size || !zlib.finished())
+      throw new IOException(format("Compressed payload inflated to %s bytes, but expected %s.", read, size));
+    return UnsafeByteOperations.unsafeWrap(out);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return "PayloadCompression{" +
+      "threshold=" + threshold +
+      ", level=" + level +
+      ", dictionary=" + (dictionary != null ? Integer.toHexString(dictionaryId) : "none") +
+      '}';
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    PayloadCompression that = (PayloadCompression) o;
+    return threshold == that.threshold && level == that.level && Arrays.equals(dictionary, that.dictionary);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int hashCode() {
+    return Objects.hash(threshold, level, dictionaryId);
+  }
+}
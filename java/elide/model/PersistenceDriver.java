@@ -13,13 +13,14 @@
 package elide.model;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.google.protobuf.Descriptors.FieldDescriptor;
 import com.google.protobuf.FieldMask;
 import com.google.protobuf.Message;
+import com.google.protobuf.util.FieldMaskUtil;
 import elide.runtime.jvm.Logging;
 import elide.runtime.jvm.ReactiveFuture;
 import org.reactivestreams.Publisher;
@@ -316,12 +317,53 @@ public interface PersistenceDriver<Key extends Message, Model extends Message> {
    * Apply mask-related options to the provided instance. This may include re-building <i>without</i> certain fields, so
    * the instance returned may be different.
    *
+   * <p>Masks are compiled once per model type, mask, and mode, via {@link MaskProjection}, and then applied in a single
+   * builder pass.</p>
+   *
    * @param instance Instance to filter based on any provided field mask.k
    * @param options Options to apply to the provided instance.
    * @return Model, post-filtering.
    */
   @VisibleForTesting
   default Model applyMask(@Nonnull Model instance, @Nonnull FetchOptions options) {
+    var projection = resolveProjection(instance, options);
+    if (projection.isEmpty()) return instance;
+
+    //noinspection unchecked
+    return (Model)projection.get().apply(instance);
+  }
+
+  /**
+   * Apply mask-related options to the provided instance, and splice {@code key} into it, in a single builder pass. The
+   * key is always set, regardless of the field mask. This is equivalent to (but cheaper than) applying the mask, and
+   * then calling {@link ModelMetadata#spliceKey(Message, Optional)}.
+   *
+   * @param instance Instance to filter based on any provided field mask.
+   * @param key Key to splice into the resulting model.
+   * @param options Options to apply to the provided instance.
+   * @return Model, post-filtering, with the provided key affixed.
+   * @throws MissingAnnotatedField If the model has no key field.
+   */
+  default Model applyMask(@Nonnull Model instance, @Nonnull Key key, @Nonnull FetchOptions options) {
+    var projection = resolveProjection(instance, options);
+    var descriptor = instance.getDescriptorForType();
+    var keyField = keyField(descriptor)
+      .orElseThrow(() -> new MissingAnnotatedField(descriptor, FieldType.KEY));
+    if (projection.isEmpty() || !keyField.getParent().isEmpty())
+      return spliceKey(projection.isPresent() ? projection.get().apply(instance) : instance, Optional.of(key));
+
+    //noinspection unchecked
+    return (Model)projection.get().apply(instance, keyField.getField(), key);
+  }
+
+  /**
+   * Resolve the compiled mask projection to apply to {@code instance}, if {@code options} specify a non-empty mask.
+   *
+   * @param instance Instance the mask would apply to.
+   * @param options Options which may specify a field mask.
+   * @return Compiled projection, or {@link Optional#empty()} if there is no mask to apply.
+   */
+  private Optional<MaskProjection> resolveProjection(@Nonnull Model instance, @Nonnull FetchOptions options) {
     // do we have a mask to apply? does it have fields?
     if (instance.isInitialized()
         && options.fieldMask().isPresent()
@@ -333,18 +375,11 @@ public interface PersistenceDriver<Key extends Message, Model extends Message> {
       FieldMask mask = options.fieldMask().get();
       FetchOptions.MaskMode maskMode = Objects.requireNonNull(options.fieldMaskMode(),
         "Cannot provide `null` for field mask mode.");
-
-      //noinspection unchecked
-      return (Model)applyFieldsRecursive(
-        instance.newBuilderForType(),
-        instance,
-        ImmutableSet.copyOf(Objects.requireNonNull(mask.getPathsList())),
-        maskMode,
-        "" /* root path */).build();
+      return Optional.of(MaskProjection.forMask(instance.getDescriptorForType(), mask, maskMode));
     }
     if (Internals.logging.isTraceEnabled())
       Internals.logging.trace("No field mask found. Skipping mask application.");
-    return instance;
+    return Optional.empty();
   }
 
   // -- API: Fetch -- //
@@ -582,6 +617,82 @@ public interface PersistenceDriver<Key extends Message, Model extends Message> {
    */
   @Nonnull ReactiveFuture<Optional<Model>> retrieve(@Nonnull Key key, @Nonnull FetchOptions options);
 
+  /**
+   * Asynchronously retrieve a batch of data model instances from storage, each addressed by one of the provided
+   * {@code keys}, using default {@link FetchOptions}.
+   *
+   * <p>The resulting future resolves to a list of results aligned by position with {@code keys}: each slot holds either
+   * the record found at the corresponding key, or {@link Optional#empty()} if no such record could be located. See
+   * {@link #retrieveAll(Iterable, FetchOptions)} for details about how batches are dispatched.</p>
+   *
+   * @see #fetchAll(Iterable, FetchOptions) For a variant of this method which supports {@link FetchOptions}.
+   * @see #fetchAsync(Message) For the single-key version of this method.
+   * @param keys Keys at which we should look for the requested entities.
+   * @return Future value, which resolves to a positional list of results, one for each provided key.
+   * @throws InvalidModelType If any specified key type is not compatible with model-layer operations.
+   * @throws PersistenceException If an unexpected failure occurs, of any kind, while fetching the requested resources.
+   * @throws MissingAnnotatedField If any specified key record has no resolvable ID field.
+   */
+  default @Nonnull ReactiveFuture<List<Optional<Model>>> fetchAll(@Nonnull Iterable<Key> keys) {
+    return fetchAll(keys, FetchOptions.DEFAULTS);
+  }
+
+  /**
+   * Asynchronously retrieve a batch of data model instances from storage, each addressed by one of the provided
+   * {@code keys}, according to the provided {@link FetchOptions}.
+   *
+   * <p>The resulting future resolves to a list of results aligned by position with {@code keys}: each slot holds either
+   * the record found at the corresponding key, or {@link Optional#empty()} if no such record could be located. See
+   * {@link #retrieveAll(Iterable, FetchOptions)} for details about how batches are dispatched.</p>
+   *
+   * @see #fetchAsync(Message, FetchOptions) For the single-key version of this method.
+   * @param keys Keys at which we should look for the requested entities.
+   * @param options Options to apply to this batch retrieval operation.
+   * @return Future value, which resolves to a positional list of results, one for each provided key.
+   * @throws InvalidModelType If any specified key type is not compatible with model-layer operations.
+   * @throws PersistenceException If an unexpected failure occurs, of any kind, while fetching the requested resources.
+   * @throws MissingAnnotatedField If any specified key record has no resolvable ID field.
+   */
+  default @Nonnull ReactiveFuture<List<Optional<Model>>> fetchAll(@Nonnull Iterable<Key> keys,
+                                                                  @Nullable FetchOptions options) {
+    if (Internals.logging.isTraceEnabled())
+      Internals.logging.trace(format("Fetching batch of models asynchronously. Options follow.\n%s", options));
+    return this.retrieveAll(keys, options != null ? options : FetchOptions.DEFAULTS);
+  }
+
+  /**
+   * Low-level batch retrieval method. Effectively called by all other multi-key fetch variants. Asynchronously retrieve
+   * a set of data model instances from storage, each addressed by one of the provided {@code keys}.
+   *
+   * <p>The resulting future resolves to a list of results aligned by position with {@code keys}: each slot holds either
+   * the record found at the corresponding key, or {@link Optional#empty()} if no such record could be located.</p>
+   *
+   * <p>The default implementation simply fans out to {@link #retrieve(Message, FetchOptions)} once per key. Drivers
+   * which are able to resolve many keys in a single round-trip to the backing storage engine (for instance, via a
+   * multi-get) are strongly encouraged to override this method.</p>
+   *
+   * <p><b>Exceptions:</b> Instead of throwing a {@link PersistenceException} as other methods do, this operation will
+   * <i>emit</i> the exception over the {@link Future} channel instead, or raise the exception in the event
+   * {@link Future#get()} is called to surface it in the invoking (or dependent) code.</p>
+   *
+   * @see #retrieve(Message, FetchOptions) For the single-key version of this method.
+   * @param keys Keys at which we should look for the requested entities.
+   * @param options Options to apply to this batch retrieval operation.
+   * @return Future value, which resolves to a positional list of results, one for each provided key.
+   * @throws InvalidModelType If any specified key type is not compatible with model-layer operations.
+   * @throws PersistenceException If an unexpected failure occurs, of any kind, while fetching the requested resources.
+   * @throws MissingAnnotatedField If any specified key record has no resolvable ID field.
+   */
+  default @Nonnull ReactiveFuture<List<Optional<Model>>> retrieveAll(@Nonnull Iterable<Key> keys,
+                                                                     @Nonnull FetchOptions options) {
+    Objects.requireNonNull(keys, "Cannot fetch models with `null` for keys.");
+    List<ListenableFuture<Optional<Model>>> operations = new ArrayList<>();
+    keys.forEach((key) -> operations.add(retrieve(key, options)));
+    return ReactiveFuture.wrap(
+      Futures.allAsList(operations),
+      options.executorService().orElseGet(this::executorService));
+  }
+
   // -- API: Persist -- //
   /**
    * Create the record specified by {@code model} in underlying storage, provisioning a key or ID for the record if
@@ -796,6 +907,104 @@ public interface PersistenceDriver<Key extends Message, Model extends Message> {
     return persist(key, model, options);
   }
 
+  /**
+   * Patch the record addressed by {@code key} in underlying storage, writing only the fields of {@code model} which
+   * are covered by {@code mask}. Fields outside the mask are left untouched in storage. The entity is returned in its
+   * patched form, or an error occurs.
+   *
+   * <p>Like other update variants, this operation enforces {@code MUST_EXIST}: patching a record which does not exist
+   * fails with {@link ModelWriteConflict}. An empty mask writes nothing, and resolves to {@code model}.</p>
+   *
+   * @see #patch(Message, Message, FieldMask, WriteOptions) For the low-level implementation of this method.
+   * @param key Key addressing the record to patch.
+   * @param model Model carrying the values to write, for each field covered by {@code mask}.
+   * @param mask Field mask describing the fields to write.
+   * @return Future value, which resolves to the stored model entity, after it has been patched.
+   * @throws InvalidModelType If the specified model record is not usable with storage.
+   * @throws PersistenceException If an unexpected failure occurs, of any kind, while patching the record.
+   * @throws IllegalArgumentException If {@code mask} references a field which does not exist on the model.
+   */
+  default @Nonnull ReactiveFuture<Model> update(@Nonnull Key key, @Nonnull Model model, @Nonnull FieldMask mask) {
+    return update(key, model, mask, UpdateOptions.DEFAULTS);
+  }
+
+  /**
+   * Patch the record addressed by {@code key} in underlying storage, writing only the fields of {@code model} which
+   * are covered by {@code mask}. Fields outside the mask are left untouched in storage. The entity is returned in its
+   * patched form, or an error occurs. This method variant additionally allows specification of custom {@code options}
+   * for this individual operation.
+   *
+   * <p>Like other update variants, this operation enforces {@code MUST_EXIST}: patching a record which does not exist
+   * fails with {@link ModelWriteConflict}. An empty mask writes nothing, and resolves to {@code model}.</p>
+   *
+   * @see #patch(Message, Message, FieldMask, WriteOptions) For the low-level implementation of this method.
+   * @param key Key addressing the record to patch.
+   * @param model Model carrying the values to write, for each field covered by {@code mask}.
+   * @param mask Field mask describing the fields to write.
+   * @param options Options to apply to this patch operation.
+   * @return Future value, which resolves to the stored model entity, after it has been patched.
+   * @throws InvalidModelType If the specified model record is not usable with storage.
+   * @throws PersistenceException If an unexpected failure occurs, of any kind, while patching the record.
+   * @throws IllegalArgumentException If {@code mask} references a field which does not exist on the model, or if an
+   *         incompatible {@link WriteOptions.WriteDisposition} value is specified.
+   */
+  default @Nonnull ReactiveFuture<Model> update(@Nonnull Key key,
+                                                @Nonnull Model model,
+                                                @Nonnull FieldMask mask,
+                                                @Nonnull UpdateOptions options) {
+    Internals.enforceOption(
+      options.writeMode().orElse(WriteOptions.WriteDisposition.MUST_EXIST),
+      WriteOptions.WriteDisposition.MUST_EXIST,
+      "Write options for `update` must specify `MUST_EXIST` write disposition.");
+    Objects.requireNonNull(mask, "Cannot patch model with `null` field mask.");
+    if (!FieldMaskUtil.isValid(model.getDescriptorForType(), mask))
+      throw new IllegalArgumentException(format(
+        "Field mask '%s' is not valid for model of type '%s'.",
+        FieldMaskUtil.toString(mask),
+        model.getDescriptorForType().getFullName()));
+    if (mask.getPathsCount() == 0) return ReactiveFuture.done(model);
+    return patch(key, model, FieldMaskUtil.normalize(mask), options);
+  }
+
+  /**
+   * Patch the record addressed by {@code key} in underlying storage, writing only the fields of {@code model} which
+   * differ from {@code base} (see {@link ModelMetadata#diffMask(Message, Message)}). Typically, {@code base} is the
+   * record as it was last read, and {@code model} is a modified copy of it.
+   *
+   * @param key Key addressing the record to patch.
+   * @param model Modified instance of the model, carrying the values to write.
+   * @param base Base instance of the model, which changes are computed against.
+   * @return Future value, which resolves to the stored model entity, after it has been patched.
+   * @throws InvalidModelType If the specified model record is not usable with storage.
+   * @throws PersistenceException If an unexpected failure occurs, of any kind, while patching the record.
+   * @throws IllegalArgumentException If {@code model} and {@code base} are not of the same type.
+   */
+  default @Nonnull ReactiveFuture<Model> update(@Nonnull Key key, @Nonnull Model model, @Nonnull Model base) {
+    return update(key, model, base, UpdateOptions.DEFAULTS);
+  }
+
+  /**
+   * Patch the record addressed by {@code key} in underlying storage, writing only the fields of {@code model} which
+   * differ from {@code base} (see {@link ModelMetadata#diffMask(Message, Message)}). This method variant additionally
+   * allows specification of custom {@code options} for this individual operation.
+   *
+   * @param key Key addressing the record to patch.
+   * @param model Modified instance of the model, carrying the values to write.
+   * @param base Base instance of the model, which changes are computed against.
+   * @param options Options to apply to this patch operation.
+   * @return Future value, which resolves to the stored model entity, after it has been patched.
+   * @throws InvalidModelType If the specified model record is not usable with storage.
+   * @throws PersistenceException If an unexpected failure occurs, of any kind, while patching the record.
+   * @throws IllegalArgumentException If {@code model} and {@code base} are not of the same type, or if an incompatible
+   *         {@link WriteOptions.WriteDisposition} value is specified.
+   */
+  default @Nonnull ReactiveFuture<Model> update(@Nonnull Key key,
+                                                @Nonnull Model model,
+                                                @Nonnull Model base,
+                                                @Nonnull UpdateOptions options) {
+    return update(key, model, diffMask(base, model), options);
+  }
+
   /**
    * Low-level record persistence method. Effectively called by all other create/put variants. Asynchronously write a
    * data model instance to storage, which will populate the provided {@link ReactiveFuture} value.
@@ -830,6 +1039,79 @@ public interface PersistenceDriver<Key extends Message, Model extends Message> {
    */
   @Nonnull ReactiveFuture<Model> persist(@Nullable Key key, @Nonnull Model model, @Nonnull WriteOptions options);
 
+  /**
+   * Low-level batch persistence method. Asynchronously write a set of data model instances to storage, each at the key
+   * it is mapped to in {@code models}. The write disposition specified by {@code options} (if any) is enforced for each
+   * individual record, just as it would be by {@link #persist(Message, Message, WriteOptions)}.
+   *
+   * <p>The resulting future resolves to a list of written models, aligned by position with the iteration order of
+   * {@code models}. Each key must be non-{@code null}, because batch writes have no single result through which an
+   * engine-allocated key could be returned.</p>
+   *
+   * <p>The default implementation simply fans out to {@link #persist(Message, Message, WriteOptions)} once per record.
+   * Drivers which are able to batch or pipeline writes to the backing storage engine are strongly encouraged to
+   * override this method. Batched implementations are not required to apply the batch atomically: if any record fails
+   * its write disposition, the operation fails, but other records in the batch may already have been written.</p>
+   *
+   * <p><b>Exceptions:</b> Instead of throwing a {@link PersistenceException} as other methods do, this operation will
+   * <i>emit</i> the exception over the {@link Future} channel instead, or raise the exception in the event
+   * {@link Future#get()} is called to surface it in the invoking (or dependent) code.</p>
+   *
+   * @see #persist(Message, Message, WriteOptions) For the single-record version of this method.
+   * @param models Models to store, each mapped to the key where it should be stored.
+   * @param options Options to apply to this batch persist operation.
+   * @return Reactive future, which resolves to the written models, in the iteration order of {@code models}.
+   * @throws InvalidModelType If any specified key type is not compatible with model-layer operations.
+   * @throws PersistenceException If an unexpected failure occurs, of any kind, while writing the provided resources.
+   * @throws MissingAnnotatedField If any specified key record has no resolvable ID field.
+   */
+  default @Nonnull ReactiveFuture<List<Model>> persistAll(@Nonnull Map<Key, Model> models,
+                                                          @Nonnull WriteOptions options) {
+    Objects.requireNonNull(models, "Cannot persist `null` batch of models.");
+    List<ListenableFuture<Model>> operations = new ArrayList<>(models.size());
+    models.forEach((key, model) -> operations.add(persist(
+      Objects.requireNonNull(key, "Cannot persist model in batch with `null` key."), model, options)));
+    return ReactiveFuture.wrap(
+      Futures.allAsList(operations),
+      options.executorService().orElseGet(this::executorService));
+  }
+
+  /**
+   * Low-level record patch method. Called by the field-mask and base-model variants of {@code update}. Asynchronously
+   * write the fields of {@code model} covered by {@code mask} to the existing record addressed by {@code key}, leaving
+   * all other fields untouched.
+   *
+   * <p>The default implementation reads the current record, merges the masked fields into it, and writes the merged
+   * record back via {@link #persist(Message, Message, WriteOptions)}. This is not atomic with respect to concurrent
+   * writers, so drivers which are able to write individual fields or columns are strongly encouraged to override this
+   * method. Overriding implementations may resolve to {@code model} itself, with the key spliced in, rather than the
+   * full stored record.</p>
+   *
+   * <p><b>Exceptions:</b> Instead of throwing a {@link PersistenceException} as other methods do, this operation will
+   * <i>emit</i> the exception over the {@link Future} channel instead, or raise the exception in the event
+   * {@link Future#get()} is called to surface it in the invoking (or dependent) code.</p>
+   *
+   * @param key Key addressing the record to patch.
+   * @param model Model carrying the values to write, for each field covered by {@code mask}.
+   * @param mask Normalized, non-empty field mask describing the fields to write.
+   * @param options Options to apply to this patch operation.
+   * @return Reactive future, which resolves to the patched model.
+   * @throws InvalidModelType If the specified key type is not compatible with model-layer operations.
+   * @throws PersistenceException If an unexpected failure occurs, of any kind, while patching the record.
+   * @throws MissingAnnotatedField If the specified key record has no resolvable ID field.
+   */
+  default @Nonnull ReactiveFuture<Model> patch(@Nonnull Key key,
+                                               @Nonnull Model model,
+                                               @Nonnull FieldMask mask,
+                                               @Nonnull WriteOptions options) {
+    ListeningScheduledExecutorService exec = options.executorService().orElseGet(this::executorService);
+    return ReactiveFuture.wrap(Futures.transformAsync(retrieve(key, FetchOptions.DEFAULTS), (existing) -> {
+      if (existing == null || existing.isEmpty())
+        throw new ModelWriteConflict(id(key).orElse(null), model, WriteOptions.WriteDisposition.MUST_EXIST);
+      return persist(key, mergePatch(existing.get(), model, mask), options);
+    }, exec), exec);
+  }
+
   // -- API: Delete -- //
   /**
    * Delete and fully erase the record referenced by {@code key} from underlying storage, permanently. The resulting
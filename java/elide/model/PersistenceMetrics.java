@@ -0,0 +1,184 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+
+/**
+ * Specifies a pluggable listener for metrics emitted by the persistence stack. {@link ModelAdapter} reports operation
+ * latencies and cache hits and misses, {@link ModelCodec} implementations report serialization time and payload sizes,
+ * and {@link CacheDriver} implementations report cache payload sizes. All metrics are tagged with the fully-qualified
+ * name of the model type involved, and the operation they describe.
+ *
+ * <p>Exactly one listener is active at a time, installed via {@link #install(PersistenceMetrics)}. By default,
+ * {@link #NOOP} is active, which reports itself as disabled so that callers may skip measurement entirely. An
+ * in-process, histogram-based implementation is available via {@link InProcessMetrics}.</p>
+ *
+ * <p>Listeners are invoked inline, on whatever thread completes the operation in question, so implementations must be
+ * thread-safe and should return quickly.</p>
+ */
+public interface PersistenceMetrics {
+  /** Enumerates operations which may be timed or sized. */
+  enum Operation {
+    /** Fetch of a single record from storage (on a cache miss, if a cache is installed). */
+    FETCH,
+
+    /** Write of a record to storage. */
+    PERSIST,
+
+    /** Delete of a record from storage. */
+    DELETE,
+
+    /** Fetch of a single record from the cache. */
+    CACHE_FETCH,
+
+    /** Write of a record to the cache. */
+    CACHE_PUT,
+
+    /** Serialization of a record through a {@link ModelCodec}. */
+    SERIALIZE,
+
+    /** De-serialization of a record through a {@link ModelCodec}. */
+    DESERIALIZE
+  }
+
+  /** Enumerates events which may be counted. */
+  enum Counter {
+    /** A record was served from the cache. */
+    CACHE_HIT,
+
+    /** A record was not found in the cache, and was fetched from storage instead. */
+    CACHE_MISS
+  }
+
+  /** Listener which discards all metrics, and reports itself as disabled. */
+  PersistenceMetrics NOOP = new PersistenceMetrics() {
+    @Override
+    public boolean enabled() {
+      return false;
+    }
+
+    @Override
+    public void timing(@Nonnull String model, @Nonnull Operation operation, long nanos) {
+      // no-op
+    }
+
+    @Override
+    public void count(@Nonnull String model, @Nonnull Counter counter, long delta) {
+      // no-op
+    }
+
+    @Override
+    public void size(@Nonnull String model, @Nonnull Operation operation, long bytes) {
+      // no-op
+    }
+  };
+
+  /** Holds the active metrics listener. */
+  final class Registry {
+    /** Currently-active metrics listener. */
+    private static volatile @Nonnull PersistenceMetrics active = NOOP;
+
+    private Registry() { /* Disallow instantiation. */ }
+  }
+
+  /**
+   * Install {@code listener} as the active metrics listener, replacing any listener installed before it.
+   *
+   * @param listener Listener to install. Pass {@link #NOOP} to disable metrics.
+   */
+  static void install(@Nonnull PersistenceMetrics listener) {
+    Registry.active = Objects.requireNonNull(listener, "Cannot install `null` metrics listener.");
+  }
+
+  /** @return Currently-active metrics listener. Never {@code null}. */
+  static @Nonnull PersistenceMetrics active() {
+    return Registry.active;
+  }
+
+  /**
+   * Report a payload size to the active metrics listener, if it is enabled.
+   *
+   * @param model Fully-qualified name of the model type involved.
+   * @param operation Operation which produced or consumed the payload.
+   * @param bytes Size of the payload, in bytes.
+   */
+  static void recordSize(@Nonnull String model, @Nonnull Operation operation, long bytes) {
+    PersistenceMetrics metrics = Registry.active;
+    if (metrics.enabled()) metrics.size(model, operation, bytes);
+  }
+
+  /**
+   * Indicate whether this listener is enabled. Callers may skip taking measurements entirely when this returns
+   * {@code false}, so that disabled metrics cost nothing beyond this check.
+   *
+   * @return Whether metrics should be reported to this listener.
+   */
+  default boolean enabled() {
+    return true;
+  }
+
+  /**
+   * Report the latency of a completed operation.
+   *
+   * @param model Fully-qualified name of the model type involved.
+   * @param operation Operation which was timed.
+   * @param nanos Latency of the operation, in nanoseconds.
+   */
+  void timing(@Nonnull String model, @Nonnull Operation operation, long nanos);
+
+  /**
+   * Report one or more occurrences of a countable event.
+   *
+   * @param model Fully-qualified name of the model type involved.
+   * @param counter Event which occurred.
+   * @param delta Number of occurrences.
+   */
+  void count(@Nonnull String model, @Nonnull Counter counter, long delta);
+
+  /**
+   * Report the payload size of an operation.
+   *
+   * @param model Fully-qualified name of the model type involved.
+   * @param operation Operation which produced or consumed the payload.
+   * @param bytes Size of the payload, in bytes.
+   */
+  void size(@Nonnull String model, @Nonnull Operation operation, long bytes);
+
+  /**
+   * Report the latency of {@code future} once it completes, measured from {@code started}. Failed operations are timed
+   * as well. If this listener is disabled, {@code future} is returned untouched.
+   *
+   * @param model Fully-qualified name of the model type involved.
+   * @param operation Operation being timed.
+   * @param started Time the operation started, per {@link System#nanoTime()}.
+   * @param future Future for the operation.
+   * @param <F> Future type.
+   * @return The same {@code future}, for chaining.
+   */
+  default @Nonnull <F extends ListenableFuture<?>> F time(@Nonnull String model,
+                                                         @Nonnull Operation operation,
+                                                         long started,
+                                                         @Nonnull F future) {
+    if (enabled()) {
+      future.addListener(
+        () -> timing(model, operation, System.nanoTime() - started), MoreExecutors.directExecutor());
+    }
+    return future;
+  }
+}
@@ -12,6 +12,8 @@
  */
 package elide.model;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.Message;
 import com.google.protobuf.TypeRegistry;
 import com.google.protobuf.util.JsonFormat;
@@ -23,7 +25,8 @@ import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -38,6 +41,14 @@ import java.util.Optional;
  *   <li><b>ProtoJSON:</b> Protocol Buffers-defined JSON translation protocol.</li>
  * </ul></p>
  *
+ * <p>ProtoJSON is printed as UTF-8 directly into a re-usable per-thread buffer, so writes never build an intermediate
+ * {@link String} of the whole record. Reads decode payloads of up to 64 KiB into a single {@link String}, which is
+ * cheaper than a streaming reader for typical records, and stream larger payloads from the encoded bytes, to bound
+ * peak memory (see {@link EncodedModel}).</p>
+ *
+ * <p>Either format may optionally be compressed above a size threshold, via {@link PayloadCompression}. Compressed
+ * payloads are marked, and are read transparently.</p>
+ *
  * @see ModelCodec Generic model codec interface.
  */
 @Immutable
@@ -55,6 +66,9 @@ public final class ProtoModelCodec<Model extends Message> implements ModelCodec<
   /** Builder from which to spawn models. */
   private final Model instance;
 
+  /** Compression to apply to encoded payloads, if any. */
+  private final @Nullable PayloadCompression compression;
+
   /** JSON printer utility, initialized when operating with `wireMode=JSON`. */
   private final @Nullable JsonFormat.Printer jsonPrinter;
 
@@ -62,7 +76,7 @@ public final class ProtoModelCodec<Model extends Message> implements ModelCodec<
   private final @Nullable JsonFormat.Parser jsonParser;
 
   /** Serializer object. */
-  private final @Nonnull ModelSerializer<Model, EncodedModel> serializer;
+  private final @Nonnull ByteModelSerializer<Model, EncodedModel> serializer;
 
   /** De-serializer object. */
   private final @Nonnull ModelDeserializer<EncodedModel, Model> deserializer;
@@ -74,10 +88,15 @@ public final class ProtoModelCodec<Model extends Message> implements ModelCodec<
    * @param instance Model instance (empty) to use for type information.
    * @param mode Mode to apply to this codec instance.
    * @param registry Optional type registry of other types to use with {@link JsonFormat}.
+   * @param compression Optional compression to apply to encoded payloads.
    */
-  private ProtoModelCodec(@Nonnull Model instance, @Nonnull EncodingMode mode, @Nullable TypeRegistry registry) {
+  private ProtoModelCodec(@Nonnull Model instance,
+                          @Nonnull EncodingMode mode,
+                          @Nullable TypeRegistry registry,
+                          @Nullable PayloadCompression compression) {
     this.wireMode = mode;
     this.instance = instance;
+    this.compression = compression;
     this.serializer = new ProtoMessageSerializer();
     this.deserializer = new ProtoMessageDeserializer();
 
@@ -145,14 +164,162 @@ public final class ProtoModelCodec<Model extends Message> implements ModelCodec<
   public @Nonnull static <M extends Message> ProtoModelCodec<M> forModel(@Nonnull M instance,
                                                                          @Nonnull EncodingMode mode,
                                                                          @Nonnull Optional<TypeRegistry> registry) {
+    return forModel(instance, mode, registry, Optional.empty());
+  }
+
+  /**
+   * Acquire a Protobuf model codec for the provided model instance, which compresses encoded payloads according to
+   * {@code compression}, if specified. Compressed payloads are always read transparently, regardless of settings.
+   *
+   * @param <M> Model instance type.
+   * @param instance Model instance to return a codec for.
+   * @param mode Wire format mode to operate in (one of {@code JSON} or {@code BINARY}).
+   * @param registry Optional type registry of other types to use with {@link JsonFormat}.
+   * @param compression Optional compression to apply to encoded payloads.
+   * @return Model codec which serializes and de-serializes to/from Protobuf wire formats.
+   */
+  @SuppressWarnings("WeakerAccess")
+  public @Nonnull static <M extends Message> ProtoModelCodec<M> forModel(
+    @Nonnull M instance,
+    @Nonnull EncodingMode mode,
+    @Nonnull Optional<TypeRegistry> registry,
+    @Nonnull Optional<PayloadCompression> compression) {
     return new ProtoModelCodec<>(
       instance,
       mode,
-      registry.orElse(null));
+      registry.orElse(null),
+      compression.orElse(null));
+  }
+
+  /**
+   * Appends characters as UTF-8 directly into a re-usable, per-thread byte buffer. Malformed surrogates are replaced
+   * with {@code '?'}, matching {@link String#getBytes(java.nio.charset.Charset)}.
+   */
+  private static final class Utf8Output implements Appendable {
+    /** Initial buffer size, in bytes. */
+    private static final int INITIAL_SIZE = 1024;
+
+    /** Largest buffer to retain between uses, in bytes. */
+    private static final int MAX_RETAINED_SIZE = 1024 * 1024;
+
+    /** Buffer for the current thread. */
+    private static final ThreadLocal<Utf8Output> POOL = ThreadLocal.withInitial(Utf8Output::new);
+
+    /** Encoded bytes. */
+    private byte[] buffer = new byte[INITIAL_SIZE];
+
+    /** Number of encoded bytes. */
+    private int size = 0;
+
+    /** High surrogate awaiting its low surrogate, or {@code 0}. */
+    private char pendingHigh = 0;
+
+    /** @return Empty output buffer for the current thread. */
+    static @Nonnull Utf8Output acquire() {
+      Utf8Output out = POOL.get();
+      out.size = 0;
+      out.pendingHigh = 0;
+      return out;
+    }
+
+    /** Complete encoding, flushing any dangling surrogate. */
+    private void finish() {
+      if (pendingHigh != 0) {
+        pendingHigh = 0;
+        put((byte)'?');
+      }
+    }
+
+    /** Drop the buffer if it has grown too large to retain. */
+    private void trim() {
+      if (buffer.length > MAX_RETAINED_SIZE) buffer = new byte[INITIAL_SIZE];
+    }
+
+    /** @return Encoded bytes, copied out of the buffer, which may then be re-used. */
+    @Nonnull ByteString release() {
+      finish();
+      ByteString result = ByteString.copyFrom(buffer, 0, size);
+      trim();
+      return result;
+    }
+
+    /**
+     * Write the encoded bytes to {@code sink}, after which the buffer may be re-used.
+     *
+     * @param sink Destination for the encoded bytes.
+     * @return Number of bytes written.
+     * @throws IOException If the sink fails.
+     */
+    int releaseTo(@Nonnull OutputStream sink) throws IOException {
+      finish();
+      int written = size;
+      sink.write(buffer, 0, written);
+      trim();
+      return written;
+    }
+
+    /** Append a single encoded byte. */
+    private void put(byte b) {
+      if (size == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      buffer[size++] = b;
+    }
+
+    /** Encode a single character. */
+    private void write(char c) {
+      if (pendingHigh != 0) {
+        char high = pendingHigh;
+        pendingHigh = 0;
+        if (Character.isLowSurrogate(c)) {
+          int codePoint = Character.toCodePoint(high, c);
+          put((byte)(0xF0 | (codePoint >>> 18)));
+          put((byte)(0x80 | ((codePoint >>> 12) & 0x3F)));
+          put((byte)(0x80 | ((codePoint >>> 6) & 0x3F)));
+          put((byte)(0x80 | (codePoint & 0x3F)));
+          return;
+        }
+        put((byte)'?');
+      }
+      if (c < 0x80) {
+        put((byte)c);
+      } else if (c < 0x800) {
+        put((byte)(0xC0 | (c >>> 6)));
+        put((byte)(0x80 | (c & 0x3F)));
+      } else if (Character.isHighSurrogate(c)) {
+        pendingHigh = c;
+      } else if (Character.isLowSurrogate(c)) {
+        put((byte)'?');
+      } else {
+        put((byte)(0xE0 | (c >>> 12)));
+        put((byte)(0x80 | ((c >>> 6) & 0x3F)));
+        put((byte)(0x80 | (c & 0x3F)));
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Appendable append(char c) {
+      write(c);
+      return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Appendable append(@Nullable CharSequence csq) {
+      CharSequence value = csq != null ? csq : "null";
+      return append(value, 0, value.length());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Appendable append(@Nullable CharSequence csq, int start, int end) {
+      CharSequence value = csq != null ? csq : "null";
+      for (int i = start; i < end; i++) write(value.charAt(i));
+      return this;
+    }
   }
 
   /** Serializes model instances into raw bytes, according to Protobuf wire protocol semantics. */
-  private final class ProtoMessageSerializer implements ModelSerializer<Model, EncodedModel> {
+  private final class ProtoMessageSerializer implements ByteModelSerializer<Model, EncodedModel> {
     /**
      * Serialize a model instance from the provided object type to the specified output type, throwing exceptions
      * verbosely if we are unable to correctly, verifiably, and properly export the record.
@@ -169,20 +336,83 @@ public final class ProtoModelCodec<Model extends Message> implements ModelCodec<
           input.getDescriptorForType().getFullName(),
           wireMode.name()));
 
+      final ByteString payload;
       if (wireMode == EncodingMode.BINARY) {
-        return EncodedModel.wrap(
-          input.getDescriptorForType().getFullName(),
-          wireMode,
-          input.toByteArray());
+        payload = input.toByteString();
       } else {
-        return EncodedModel.wrap(
-          input.getDescriptorForType().getFullName(),
-          wireMode,
-          Objects.requireNonNull(jsonPrinter).print(input).getBytes(StandardCharsets.UTF_8));
+        Utf8Output out = Utf8Output.acquire();
+        Objects.requireNonNull(jsonPrinter).appendTo(input, out);
+        payload = out.release();
+      }
+      final EncodedModel encoded = EncodedModel.wrap(
+        input.getDescriptorForType().getFullName(),
+        wireMode,
+        compression != null ? compression.compress(payload) : payload);
+      PersistenceMetrics.recordSize(encoded.getType(), PersistenceMetrics.Operation.SERIALIZE, encoded.size());
+      return encoded;
+    }
+
+    /**
+     * Serialize a model instance directly into {@code sink}. Binary output is sized up-front from the model, and
+     * encoded through a re-usable per-thread buffer; JSON output is encoded through the per-thread UTF-8 buffer.
+     * Payloads which are subject to compression are compressed before being written.
+     *
+     * @param input Input record object to serialize.
+     * @param sink Destination for the serialized bytes.
+     * @return Number of bytes written.
+     * @throws ModelDeflateException If the model fails to export or serialize for any reason.
+     */
+    @Override
+    public int deflateTo(@Nonnull Model input,
+                         @Nonnull OutputStream sink) throws ModelDeflateException, IOException {
+      String type = input.getDescriptorForType().getFullName();
+      final int written;
+      if (wireMode == EncodingMode.BINARY) {
+        int size = input.getSerializedSize();
+        if (compression != null && size >= compression.threshold()) {
+          ByteString payload = compression.compress(input.toByteString());
+          payload.writeTo(sink);
+          written = payload.size();
+        } else if (size <= BinaryOutput.POOLED_SIZE) {
+          byte[] buffer = BinaryOutput.POOL.get();
+          CodedOutputStream out = CodedOutputStream.newInstance(buffer, 0, size);
+          input.writeTo(out);
+          out.checkNoSpaceLeft();
+          sink.write(buffer, 0, size);
+          written = size;
+        } else {
+          CodedOutputStream out = CodedOutputStream.newInstance(sink, BinaryOutput.POOLED_SIZE);
+          input.writeTo(out);
+          out.flush();
+          written = size;
+        }
+      } else {
+        Utf8Output out = Utf8Output.acquire();
+        Objects.requireNonNull(jsonPrinter).appendTo(input, out);
+        if (compression != null && out.size >= compression.threshold()) {
+          ByteString payload = compression.compress(out.release());
+          payload.writeTo(sink);
+          written = payload.size();
+        } else {
+          written = out.releaseTo(sink);
+        }
       }
+      PersistenceMetrics.recordSize(type, PersistenceMetrics.Operation.SERIALIZE, written);
+      return written;
     }
   }
 
+  /** Re-usable, per-thread buffer for binary output to byte sinks. */
+  private static final class BinaryOutput {
+    /** Size of pooled buffers, in bytes. Larger payloads are streamed through a buffer of this size. */
+    static final int POOLED_SIZE = 8 * 1024;
+
+    /** Buffer for the current thread. */
+    static final ThreadLocal<byte[]> POOL = ThreadLocal.withInitial(() -> new byte[POOLED_SIZE]);
+
+    private BinaryOutput() { /* Disallow instantiation. */ }
+  }
+
   /** De-serializes model instances from raw bytes, according to Protobuf wire protocol semantics. */
   private final class ProtoMessageDeserializer implements ModelDeserializer<EncodedModel, Model> {
     /**
@@ -201,14 +431,15 @@ public final class ProtoModelCodec<Model extends Message> implements ModelCodec<
           data.getType(),
           wireMode.name()));
 
+      PersistenceMetrics.recordSize(data.getType(), PersistenceMetrics.Operation.DESERIALIZE, data.size());
+      ByteString payload = (compression != null ? compression : PayloadCompression.defaults())
+        .decompress(data.getRawBytes());
       if (wireMode == EncodingMode.BINARY) {
         //noinspection unchecked
-        return (Model)instance.newBuilderForType().mergeFrom(data.getRawBytes().toByteArray()).build();
+        return (Model)instance.getParserForType().parseFrom(payload);
       } else {
         Message.Builder builder = instance.newBuilderForType();
-        Objects.requireNonNull(jsonParser).merge(
-          data.getRawBytes().toStringUtf8(),
-          builder);
+        EncodedModel.mergeJson(Objects.requireNonNull(jsonParser), payload, builder);
 
         //noinspection unchecked
         return (Model)builder.build();  // need to install proto JSON
@@ -232,10 +463,36 @@ public final class ProtoModelCodec<Model extends Message> implements ModelCodec<
    * @see #deserialize(Object) To call into de-serialization directly.
    */
   @Override
-  public @Nonnull ModelSerializer<Model, EncodedModel> serializer() {
+  public @Nonnull ByteModelSerializer<Model, EncodedModel> serializer() {
     return this.serializer;
   }
 
+  /**
+   * Sugar shortcut to serialize a model directly into a byte sink, through this codec's {@link ByteModelSerializer},
+   * timing the call if {@link PersistenceMetrics} are enabled. The bytes written are identical to those held by the
+   * output of {@link #serialize(Message)}.
+   *
+   * @param instance Input model to serialize.
+   * @param sink Destination for the serialized bytes. It is not flushed or closed.
+   * @return Number of bytes written to {@code sink}.
+   * @throws ModelDeflateException If some error occurs while serializing the model.
+   * @throws IOException If some IO error occurs.
+   */
+  public int serializeTo(@Nonnull Model instance,
+                         @Nonnull OutputStream sink) throws ModelDeflateException, IOException {
+    PersistenceMetrics metrics = PersistenceMetrics.active();
+    if (!metrics.enabled()) return serializer().deflateTo(instance, sink);
+    long started = System.nanoTime();
+    try {
+      return serializer().deflateTo(instance, sink);
+    } finally {
+      metrics.timing(
+        instance().getDescriptorForType().getFullName(),
+        PersistenceMetrics.Operation.SERIALIZE,
+        System.nanoTime() - started);
+    }
+  }
+
   /**
    * Acquire an instance of the {@link ModelDeserializer} attached to this adapter. The instance is not guaranteed to be
    * created fresh for this invocation.
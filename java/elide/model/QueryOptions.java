@@ -12,6 +12,9 @@
  */
 package elide.model;
 
+import javax.annotation.Nonnull;
+import java.util.Optional;
+
 
 /**
  * Specifies options related to generic query capabilities expressed via Elide's built-in model layer; drivers may
@@ -20,4 +23,22 @@ package elide.model;
 public interface QueryOptions extends FetchOptions {
     /** Default set of query options. */
     QueryOptions DEFAULTS = new QueryOptions() {};
+
+    /** Default number of records to fetch per page, for drivers which support paged queries. */
+    int DEFAULT_PAGE_SIZE = 500;
+
+    /** @return Number of records to fetch per page, when streaming query results or fetching a {@link QueryPage}. */
+    default @Nonnull Integer queryPageSize() {
+        return DEFAULT_PAGE_SIZE;
+    }
+
+    /** @return Maximum number of records to return from a single query call. If unspecified, no limit is applied. */
+    default @Nonnull Optional<Integer> limit() {
+        return Optional.empty();
+    }
+
+    /** @return Opaque cursor from a prior {@link QueryPage}, to resume a paged query after that page's last result. */
+    default @Nonnull Optional<String> cursor() {
+        return Optional.empty();
+    }
 }
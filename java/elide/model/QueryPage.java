@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+
+/**
+ * Single page of results from a paged query, along with an opaque continuation token (the "cursor") which resumes the
+ * query after the last result in this page. Cursors are keyset-based where the driver supports it, so that resuming a
+ * query does not require re-reading the results before it.
+ *
+ * <p>To fetch the next page, pass {@link #nextCursor()} back via {@link QueryOptions#cursor()}. If no cursor is
+ * present, this is the last page.</p>
+ *
+ * @param <Model> Decoded model type held in this page.
+ */
+@Immutable
+public final class QueryPage<Model> {
+  /** Results held in this page, in query order. */
+  private final @Nonnull List<Model> results;
+
+  /** Cursor which resumes the query after this page, if any results remain. */
+  private final @Nonnull Optional<String> nextCursor;
+
+  private QueryPage(@Nonnull List<Model> results, @Nonnull Optional<String> nextCursor) {
+    this.results = results;
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * Create a page holding {@code results}, which may be resumed via {@code nextCursor}.
+   *
+   * @param results Results held in the page, in query order.
+   * @param nextCursor Cursor which resumes the query after this page, or {@link Optional#empty()} for the last page.
+   * @param <Model> Decoded model type held in the page.
+   * @return Query page.
+   */
+  public static @Nonnull <Model> QueryPage<Model> of(@Nonnull List<Model> results,
+                                                     @Nonnull Optional<String> nextCursor) {
+    return new QueryPage<>(
+      Collections.unmodifiableList(Objects.requireNonNull(results, "Cannot create query page with `null` results.")),
+      Objects.requireNonNull(nextCursor, "Cannot create query page with `null` cursor."));
+  }
+
+  /** @return Results held in this page, in query order. */
+  public @Nonnull List<Model> results() {
+    return results;
+  }
+
+  /** @return Cursor which resumes the query after this page, or {@link Optional#empty()} if this is the last page. */
+  public @Nonnull Optional<String> nextCursor() {
+    return nextCursor;
+  }
+
+  /** @return Whether further results remain after this page. */
+  public boolean hasMore() {
+    return nextCursor.isPresent();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("QueryPage(size: %s, hasMore: %s)", results.size(), hasMore());
+  }
+}
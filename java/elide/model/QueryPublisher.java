@@ -0,0 +1,295 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import elide.runtime.jvm.Logging;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+
+
+/**
+ * Reactive {@link Publisher} which emits the results of a query page-by-page, according to subscriber demand. Pages of
+ * raw rows are fetched on demand via a {@link PageFetcher}, and each row is decoded only as it is emitted, so at most
+ * one page of raw rows is held in memory per subscription.
+ *
+ * <p>Each subscription runs the query afresh. A page holding fewer rows than were asked for is taken to be the last
+ * page. If a limit is configured, the final page is clamped so that no more than the limit is fetched or emitted.
+ * Failures while fetching or decoding are emitted via {@link Subscriber#onError(Throwable)}, and end the
+ * subscription.</p>
+ *
+ * @param <Row> Raw row type produced by the underlying query engine.
+ * @param <Model> Decoded model type emitted to subscribers.
+ */
+@ThreadSafe
+@SuppressWarnings("UnstableApiUsage")
+public final class QueryPublisher<Row, Model> implements Publisher<Model> {
+  /** Private log pipe. */
+  private static final Logger logging = Logging.logger(QueryPublisher.class);
+
+  /**
+   * Fetches a single page of raw rows for a query.
+   *
+   * @param <Row> Raw row type produced by the underlying query engine.
+   */
+  @FunctionalInterface
+  public interface PageFetcher<Row> {
+    /**
+     * Fetch the page of rows which follows {@code after}, or the first page if {@code after} is {@code null}.
+     *
+     * @param after Last row of the previous page, or {@code null} to fetch the first page.
+     * @param pageSize Maximum number of rows to fetch.
+     * @return Future which resolves to the page of rows, which is empty if no rows remain.
+     */
+    @Nonnull ListenableFuture<List<Row>> fetch(@Nullable Row after, int pageSize);
+  }
+
+  /** Fetches pages of raw rows. */
+  private final @Nonnull PageFetcher<Row> fetcher;
+
+  /** Decodes each raw row as it is emitted. */
+  private final @Nonnull Function<Row, Model> decoder;
+
+  /** Maximum number of rows to fetch per page. */
+  private final int pageSize;
+
+  /** Maximum number of rows to emit per subscription. */
+  private final int limit;
+
+  /** Executor on which to handle fetched pages. */
+  private final @Nonnull Executor executor;
+
+  private QueryPublisher(@Nonnull PageFetcher<Row> fetcher,
+                         @Nonnull Function<Row, Model> decoder,
+                         int pageSize,
+                         int limit,
+                         @Nonnull Executor executor) {
+    if (pageSize < 1) throw new IllegalArgumentException("Query page size must be at least 1.");
+    if (limit < 0) throw new IllegalArgumentException("Query limit cannot be negative.");
+    this.fetcher = fetcher;
+    this.decoder = decoder;
+    this.pageSize = pageSize;
+    this.limit = limit;
+    this.executor = executor;
+  }
+
+  /**
+   * Create a publisher which fetches pages of rows via {@code fetcher}, and decodes them via {@code decoder}.
+   *
+   * @param fetcher Fetches pages of raw rows.
+   * @param decoder Decodes each raw row as it is emitted.
+   * @param pageSize Maximum number of rows to fetch per page.
+   * @param executor Executor on which to handle fetched pages.
+   * @param <Row> Raw row type produced by the underlying query engine.
+   * @param <Model> Decoded model type emitted to subscribers.
+   * @return Paged query publisher.
+   */
+  public static @Nonnull <Row, Model> QueryPublisher<Row, Model> create(@Nonnull PageFetcher<Row> fetcher,
+                                                                       @Nonnull Function<Row, Model> decoder,
+                                                                       int pageSize,
+                                                                       @Nonnull Executor executor) {
+    return create(fetcher, decoder, pageSize, Integer.MAX_VALUE, executor);
+  }
+
+  /**
+   * Create a publisher which fetches pages of rows via {@code fetcher}, and decodes them via {@code decoder}, emitting
+   * at most {@code limit} rows per subscription.
+   *
+   * @param fetcher Fetches pages of raw rows.
+   * @param decoder Decodes each raw row as it is emitted.
+   * @param pageSize Maximum number of rows to fetch per page.
+   * @param limit Maximum number of rows to emit per subscription.
+   * @param executor Executor on which to handle fetched pages.
+   * @param <Row> Raw row type produced by the underlying query engine.
+   * @param <Model> Decoded model type emitted to subscribers.
+   * @return Paged query publisher.
+   */
+  public static @Nonnull <Row, Model> QueryPublisher<Row, Model> create(@Nonnull PageFetcher<Row> fetcher,
+                                                                       @Nonnull Function<Row, Model> decoder,
+                                                                       int pageSize,
+                                                                       int limit,
+                                                                       @Nonnull Executor executor) {
+    return new QueryPublisher<>(
+      Objects.requireNonNull(fetcher, "Cannot publish query without a page fetcher."),
+      Objects.requireNonNull(decoder, "Cannot publish query without a decoder."),
+      pageSize,
+      limit,
+      Objects.requireNonNull(executor, "Cannot publish query without an executor."));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void subscribe(@Nonnull Subscriber<? super Model> subscriber) {
+    Objects.requireNonNull(subscriber, "Cannot subscribe `null` to a query.");
+    subscriber.onSubscribe(new PagedSubscription(subscriber));
+  }
+
+  /**
+   * Subscription which pulls pages as demand requires. Emission is serialized through a work-in-progress counter, so
+   * that signals to the subscriber never overlap, regardless of which thread requests demand or delivers a page.
+   */
+  private final class PagedSubscription implements Subscription {
+    /** Subscriber receiving decoded rows. */
+    private final @Nonnull Subscriber<? super Model> subscriber;
+
+    /** Outstanding demand from the subscriber. */
+    private final @Nonnull AtomicLong requested = new AtomicLong(0);
+
+    /** Work-in-progress counter, which serializes the drain loop. */
+    private final @Nonnull AtomicInteger wip = new AtomicInteger(0);
+
+    /** Rows remaining from the current page. */
+    private volatile @Nonnull Iterator<Row> page = Collections.emptyIterator();
+
+    /** Last row emitted, which anchors the next page fetch. */
+    private volatile @Nullable Row last = null;
+
+    /** Page fetch currently in-flight, if any. */
+    private volatile @Nullable ListenableFuture<List<Row>> fetching = null;
+
+    /** Number of rows fetched so far, which is checked against the limit. */
+    private volatile int fetched = 0;
+
+    /** Whether the last page has been fetched. */
+    private volatile boolean exhausted = limit == 0;
+
+    /** Error to deliver, once the current page drains. */
+    private volatile @Nullable Throwable error = null;
+
+    /** Error to deliver immediately, in response to invalid demand. */
+    private volatile @Nullable Throwable invalid = null;
+
+    /** Whether the subscription has been cancelled or terminated. */
+    private volatile boolean done = false;
+
+    private PagedSubscription(@Nonnull Subscriber<? super Model> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalid = new IllegalArgumentException(format("Demand must be positive, but got %s (see rule 3.9).", n));
+      } else {
+        requested.getAndUpdate((current) -> {
+          long sum = current + n;
+          return sum < 0 ? Long.MAX_VALUE : sum;  // saturate on overflow
+        });
+      }
+      drain();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void cancel() {
+      done = true;
+      ListenableFuture<List<Row>> inflight = fetching;
+      if (inflight != null) inflight.cancel(false);
+    }
+
+    /** Fetch the next page, and resume draining once it arrives. */
+    private void fetchPage() {
+      final int size = Math.min(pageSize, limit - fetched);
+      final ListenableFuture<List<Row>> next;
+      try {
+        next = Objects.requireNonNull(fetcher.fetch(last, size), "Page fetcher cannot return `null`.");
+      } catch (RuntimeException exc) {
+        error = exc;
+        return;
+      }
+      fetching = next;
+      Futures.addCallback(next, new FutureCallback<>() {
+        @Override
+        public void onSuccess(@Nullable List<Row> rows) {
+          if (logging.isTraceEnabled())
+            logging.trace(format("Fetched query page of %s row(s).", rows == null ? 0 : rows.size()));
+          List<Row> clamped = rows == null || rows.size() <= size ? rows : rows.subList(0, size);
+          fetched += clamped == null ? 0 : clamped.size();
+          exhausted = clamped == null || clamped.size() < size || fetched >= limit;
+          page = clamped == null ? Collections.emptyIterator() : clamped.iterator();
+          fetching = null;
+          drain();
+        }
+
+        @Override
+        public void onFailure(@Nonnull Throwable err) {
+          error = err;
+          fetching = null;
+          drain();
+        }
+      }, executor);
+    }
+
+    /** Emit as many rows as demand allows, fetching further pages and terminating as needed. */
+    private void drain() {
+      if (wip.getAndIncrement() != 0) return;
+      int missed = 1;
+      do {
+        if (!done && invalid != null) {
+          done = true;
+          subscriber.onError(invalid);
+          return;
+        }
+        while (!done && requested.get() > 0 && page.hasNext()) {
+          Row row = page.next();
+          last = row;
+          Model decoded;
+          try {
+            decoded = decoder.apply(row);
+          } catch (RuntimeException exc) {
+            done = true;
+            subscriber.onError(exc);
+            return;
+          }
+          requested.decrementAndGet();
+          subscriber.onNext(decoded);
+        }
+
+        if (!done && !page.hasNext() && fetching == null) {
+          if (error != null) {
+            done = true;
+            subscriber.onError(error);
+            return;
+          } else if (exhausted) {
+            done = true;
+            subscriber.onComplete();
+            return;
+          } else if (requested.get() > 0) {
+            fetchPage();
+            continue;  // the fetch may have failed synchronously, or completed already
+          }
+        }
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+  }
+}
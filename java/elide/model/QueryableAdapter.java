@@ -14,6 +14,7 @@ package elide.model;
 
 import com.google.protobuf.Message;
 import elide.runtime.jvm.ReactiveFuture;
+import org.reactivestreams.Publisher;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -55,4 +56,14 @@ public interface QueryableAdapter<Key extends Message, Model extends Message, Re
     default @Nonnull ReactiveFuture<Stream<Model>> queryAsync(@Nonnull Query query, @Nullable QueryOptions options) {
         return this.engine().queryAsync(query, options);
     }
+
+    /** {@inheritDoc} */
+    default @Nonnull ReactiveFuture<QueryPage<Model>> queryPage(@Nonnull Query query, @Nullable QueryOptions options) {
+        return this.engine().queryPage(query, options);
+    }
+
+    /** {@inheritDoc} */
+    default @Nonnull Publisher<Model> queryStream(@Nonnull Query query, @Nullable QueryOptions options) {
+        return this.engine().queryStream(query, options);
+    }
 }
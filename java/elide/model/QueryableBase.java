@@ -13,12 +13,18 @@
 package elide.model;
 
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.Message;
 import elide.runtime.jvm.ReactiveFuture;
+import org.reactivestreams.Publisher;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -60,6 +66,68 @@ interface QueryableBase<Key extends Message, Model extends Message, Query> {
      */
     @Nonnull ReactiveFuture<Stream<Model>> queryAsync(@Nonnull Query query, @Nullable QueryOptions options);
 
+    /**
+     * Execute the provided query asynchronously, producing a future which resolves to a single page of decoded record
+     * results, along with a cursor to fetch the next page, and applying the specified options.
+     *
+     * <p>The page holds at most {@link QueryOptions#queryPageSize()} results, or {@link QueryOptions#limit()}, if that
+     * is smaller. To fetch the next page, pass {@link QueryPage#nextCursor()} back via {@link QueryOptions#cursor()},
+     * with otherwise identical query and options. Cursors are opaque, and are only valid for the query which produced
+     * them.</p>
+     *
+     * <p>Exceptions are returned as failed/rejected futures.</p>
+     *
+     * @param query Query to execute and return a page of results for.
+     * @param options Options to apply to the query execution.
+     * @return Page of results of type {@link Model}.
+     * @throws InvalidModelType If the specified key type is not compatible with model-layer operations.
+     * @throws PersistenceException If an unexpected failure occurs, of any kind, while fetching the requested resource.
+     * @throws MissingAnnotatedField If the specified key record has no resolvable ID field.
+     */
+    @Nonnull ReactiveFuture<QueryPage<Model>> queryPage(@Nonnull Query query, @Nullable QueryOptions options);
+
+    /**
+     * Execute the provided query, producing a reactive {@link Publisher} which emits decoded record results according
+     * to subscriber demand, and applying the specified options. Each subscription executes the query afresh.
+     *
+     * <p>Drivers which support paged reads fetch results one page at a time (see {@link QueryOptions#queryPageSize()}),
+     * and decode each record only as it is emitted, so that large result sets may be scanned with bounded memory. The
+     * default implementation is backed by {@link #queryAsync(Object, QueryOptions)}, and so buffers the full result set
+     * before emitting.</p>
+     *
+     * <p>Exceptions are emitted via {@link org.reactivestreams.Subscriber#onError(Throwable)}.</p>
+     *
+     * @param query Query to execute and publish results for.
+     * @param options Options to apply to the query execution.
+     * @return Publisher of results of type {@link Model}.
+     */
+    @SuppressWarnings("UnstableApiUsage")
+    default @Nonnull Publisher<Model> queryStream(@Nonnull Query query, @Nullable QueryOptions options) {
+        var opts = options != null ? options : QueryOptions.DEFAULTS;
+        Executor exec = opts.executorService().map((service) -> (Executor) service)
+            .orElse(MoreExecutors.directExecutor());
+        return QueryPublisher.create(
+            (Model after, int pageSize) -> after != null ?
+                Futures.<List<Model>>immediateFuture(Collections.emptyList()) :
+                Futures.transform(
+                    this.queryAsync(query, opts), (results) -> results.collect(Collectors.toList()), exec),
+            Function.identity(),
+            opts.queryPageSize(),
+            exec);
+    }
+
+    /**
+     * Execute the provided query, producing a reactive {@link Publisher} which emits decoded record results according
+     * to subscriber demand; this method uses a default set of sensible query options, which can be overridden via other
+     * method variants.
+     *
+     * @param query Query to execute and publish results for.
+     * @return Publisher of results of type {@link Model}.
+     */
+    default @Nonnull Publisher<Model> queryStream(@Nonnull Query query) {
+        return this.queryStream(query, QueryOptions.DEFAULTS);
+    }
+
     /**
      * Execute the provided query, producing a lazy stream of decoded and type-checked decoded record results, and
      * applying the specified options.
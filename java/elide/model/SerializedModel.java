@@ -13,28 +13,109 @@
 package elide.model;
 
 import com.google.firestore.v1.Value;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
 import com.google.protobuf.Message;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 
-/** Describes a model which has been serialized into a backing map of keys and properties. */
-public final class SerializedModel implements Map<String, Value> {
-  /** Raw serialized property data for the backing message. */
-  private final @Nonnull SortedMap<String, Value> data;
+/**
+ * Describes a model which has been serialized into a backing map of keys and properties.
+ *
+ * <p>Properties are held in parallel arrays of names and values. Models built against a {@link Layout} have a slot
+ * precomputed for each field on the model's schema, so writing a field is a single hash lookup, and iteration follows
+ * the schema's declaration order. Any other properties are appended after the schema's fields, in insertion order, and
+ * are indexed by name as they are added, so they are also found with a single hash lookup.
+ * Because the serialized model is itself a {@link Map}, it may be handed to storage engines without a copy.</p>
+ *
+ * <p>Values may not be {@code null}: absent values are expressed by omitting the property, and explicit nulls by
+ * writing a null {@link Value}.</p>
+ */
+public final class SerializedModel extends AbstractMap<String, Value> {
+  /**
+   * Precomputed property slots for a given model type. Layouts are computed once per schema, and shared by every model
+   * serialized against that schema.
+   */
+  @Immutable
+  public static final class Layout {
+    /** Layout with no precomputed slots, for ad-hoc serialized models. */
+    static final Layout EMPTY = new Layout(new String[0]);
+
+    /** Layouts, by model schema. */
+    private static final ConcurrentMap<Descriptor, Layout> LAYOUTS = new ConcurrentHashMap<>();
+
+    /** Property name for each precomputed slot. */
+    private final @Nonnull String[] names;
+
+    /** Slot index for each property name. */
+    private final @Nonnull Map<String, Integer> slots;
+
+    private Layout(@Nonnull String[] names) {
+      this.names = names;
+      var slots = new HashMap<String, Integer>(names.length * 2);
+      for (int i = 0; i < names.length; i++) slots.put(names[i], i);
+      this.slots = Collections.unmodifiableMap(slots);
+    }
+
+    /**
+     * Resolve the layout for the provided model schema, with one slot for each of its fields, in declaration order.
+     *
+     * @param descriptor Schema of the model which will be serialized.
+     * @return Layout for the provided schema.
+     */
+    public static @Nonnull Layout forDescriptor(@Nonnull Descriptor descriptor) {
+      Layout existing = LAYOUTS.get(descriptor);
+      if (existing != null) return existing;
+      List<FieldDescriptor> fields = descriptor.getFields();
+      String[] names = new String[fields.size()];
+      for (int i = 0; i < names.length; i++) names[i] = fields.get(i).getName();
+      Layout computed = new Layout(names);
+      Layout raced = LAYOUTS.putIfAbsent(descriptor, computed);
+      return raced != null ? raced : computed;
+    }
+
+    /** @return Number of precomputed slots in this layout. */
+    public int size() {
+      return names.length;
+    }
+  }
+
+  /** Precomputed slots for this model's properties. */
+  private final @Nonnull Layout layout;
 
-  /** Original model (message) that we serialized into `data`. */
+  /** Property values, by slot. Slots past the layout's own hold extra properties. */
+  private @Nonnull Value[] slotValues;
+
+  /** Names of extra properties, which have no precomputed slot, by slot (offset by the layout's size). */
+  private @Nullable String[] extras = null;
+
+  /** Slot index for each extra property name, allocated alongside {@link #extras}. */
+  private @Nullable Map<String, Integer> extraSlots = null;
+
+  /** Number of extra property slots in use. */
+  private int extraCount = 0;
+
+  /** Number of properties present. */
+  private int size = 0;
+
+  /** Original model (message) that we serialized into this object. */
   private final @Nonnull Optional<Message> message;
 
   /**
    * Create a serialized model object from scratch.
    *
-   * @param data Serialized key-value pairs for the model.
+   * @param layout Precomputed slots for the model's properties.
    * @param message Original model message instance.
    */
-  SerializedModel(@Nonnull SortedMap<String, Value> data,
+  SerializedModel(@Nonnull Layout layout,
                   @Nonnull Optional<Message> message) {
-    this.data = data;
+    this.layout = layout;
+    this.slotValues = new Value[layout.names.length];
     this.message = message;
   }
 
@@ -44,7 +125,18 @@ public final class SerializedModel implements Map<String, Value> {
    * @return Empty serialized model.
    */
   public static @Nonnull SerializedModel factory() {
-    return factory(new TreeMap<>());
+    return new SerializedModel(Layout.EMPTY, Optional.empty());
+  }
+
+  /**
+   * Create an empty serialized model, with slots precomputed according to the provided {@code layout}.
+   *
+   * @param layout Precomputed slots for the model's properties.
+   * @return Empty serialized model.
+   */
+  public static @Nonnull SerializedModel factory(@Nonnull Layout layout) {
+    return new SerializedModel(Objects.requireNonNull(layout, "Cannot serialize model with `null` layout."),
+      Optional.empty());
   }
 
   /**
@@ -53,8 +145,10 @@ public final class SerializedModel implements Map<String, Value> {
    * @param data Data to pre-fill the serialized model with.
    * @return Serialized model, pre-filled with the specified data.
    */
-  public static @Nonnull SerializedModel factory(@Nonnull SortedMap<String, Value> data) {
-    return new SerializedModel(data, Optional.empty());
+  public static @Nonnull SerializedModel factory(@Nonnull Map<String, Value> data) {
+    var model = factory();
+    model.putAll(data);
+    return model;
   }
 
   /**
@@ -64,16 +158,18 @@ public final class SerializedModel implements Map<String, Value> {
    * @param proto Message instance to wrap, for which `data` is provided.
    * @return Serialized model, pre-filled with the specified data.
    */
-  public static @Nonnull SerializedModel wrap(@Nonnull SortedMap<String, Value> data,
+  public static @Nonnull SerializedModel wrap(@Nonnull Map<String, Value> data,
                                               @Nonnull Message proto) {
-    return new SerializedModel(data, Optional.of(proto));
+    var model = new SerializedModel(Layout.forDescriptor(proto.getDescriptorForType()), Optional.of(proto));
+    model.putAll(data);
+    return model;
   }
 
   // -- Getters -- //
 
-  /** @return Underlying data for this serialized model instance. */
-  @Nonnull public SortedMap<String, Value> getData() {
-    return data;
+  /** @return Underlying data for this serialized model instance, which is the model itself (no copy is made). */
+  @Nonnull public Map<String, Value> getData() {
+    return this;
   }
 
   /** @return Message instance which spawned this serialized model. */
@@ -82,65 +178,169 @@ public final class SerializedModel implements Map<String, Value> {
     return message;
   }
 
+  // -- Internals -- //
+
+  /** @return Slot index for the provided property name, or {@code -1} if no slot is allocated for it. */
+  private int slotFor(@Nullable Object key) {
+    Integer slot = layout.slots.get(key);
+    if (slot == null && extraSlots != null) slot = extraSlots.get(key);
+    return slot != null ? slot : -1;
+  }
+
+  /** @return Property name held at the provided slot index. */
+  private @Nonnull String nameAt(int slot) {
+    //noinspection ConstantConditions
+    return slot < layout.names.length ? layout.names[slot] : extras[slot - layout.names.length];
+  }
+
+  /** @return Newly-allocated slot index for an extra property with the provided name. */
+  private int allocate(@Nonnull String key) {
+    if (extras == null) {
+      extras = new String[4];
+      extraSlots = new HashMap<>();
+    } else if (extraCount == extras.length) {
+      extras = Arrays.copyOf(extras, extraCount * 2);
+    }
+    extras[extraCount] = key;
+    int slot = layout.names.length + extraCount++;
+    //noinspection ConstantConditions
+    extraSlots.put(key, slot);
+    if (slot >= slotValues.length) slotValues = Arrays.copyOf(slotValues, layout.names.length + extras.length);
+    return slot;
+  }
+
   // -- Interface: Map -- //
 
   /** @inheritDoc */
   @Override public int size() {
-    return data.size();
+    return size;
   }
 
   /** @inheritDoc */
   @Override public boolean isEmpty() {
-    return data.isEmpty();
+    return size == 0;
   }
 
   /** @inheritDoc */
   @Override public boolean containsKey(Object key) {
-    return data.containsKey(key);
+    int slot = slotFor(key);
+    return slot != -1 && slotValues[slot] != null;
   }
 
   /** @inheritDoc */
   @Override public Value get(Object key) {
-    return data.get(key);
+    int slot = slotFor(key);
+    return slot != -1 ? slotValues[slot] : null;
   }
 
   /** @inheritDoc */
   @Override public Value put(String key, Value value) {
-    return data.put(key, value);
+    Objects.requireNonNull(key, "Cannot serialize property with `null` name.");
+    Objects.requireNonNull(value, "Cannot serialize `null` property value. Use a null `Value` instead.");
+    int slot = slotFor(key);
+    if (slot == -1) slot = allocate(key);
+    Value previous = slotValues[slot];
+    slotValues[slot] = value;
+    if (previous == null) size++;
+    return previous;
   }
 
   /** @inheritDoc */
   @Override public Value remove(Object key) {
-    return data.remove(key);
+    int slot = slotFor(key);
+    if (slot == -1) return null;
+    Value previous = slotValues[slot];
+    slotValues[slot] = null;
+    if (previous != null) size--;
+    return previous;
   }
 
   /** @inheritDoc */
-  @Override public boolean containsValue(Object value) {
-    return data.containsValue(value);
+  @Override public void clear() {
+    Arrays.fill(slotValues, null);
+    size = 0;
   }
 
   /** @inheritDoc */
-  @Override public void putAll(Map<? extends String, ? extends Value> map) {
-    data.putAll(map);
-  }
+  @Override public @Nonnull Set<Entry<String, Value>> entrySet() {
+    return new AbstractSet<>() {
+      @Override public int size() {
+        return size;
+      }
 
-  /** @inheritDoc */
-  @Override public void clear() {
-    data.clear();
-  }
+      @Override public @Nonnull Iterator<Entry<String, Value>> iterator() {
+        return new Iterator<>() {
+          /** Slot of the next present property, or the slot count if none remain. */
+          private int next = advance(0);
 
-  /** @inheritDoc */
-  @Override public Set<String> keySet() {
-    return data.keySet();
-  }
+          /** Slot of the last property returned, if it may be removed. */
+          private int last = -1;
 
-  /** @inheritDoc */
-  @Override public Collection<Value> values() {
-    return data.values();
+          private int advance(int from) {
+            int bound = layout.names.length + extraCount;
+            while (from < bound && slotValues[from] == null) from++;
+            return from;
+          }
+
+          @Override public boolean hasNext() {
+            return next < layout.names.length + extraCount;
+          }
+
+          @Override public Entry<String, Value> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            last = next;
+            next = advance(next + 1);
+            return new Slot(last);
+          }
+
+          @Override public void remove() {
+            if (last == -1 || slotValues[last] == null) throw new IllegalStateException();
+            slotValues[last] = null;
+            size--;
+            last = -1;
+          }
+        };
+      }
+    };
   }
 
-  /** @inheritDoc */
-  @Override public Set<Entry<String, Value>> entrySet() {
-    return data.entrySet();
+  /** Map entry which reads and writes through to a property slot. */
+  private final class Slot implements Entry<String, Value> {
+    /** Slot index for this entry. */
+    private final int slot;
+
+    private Slot(int slot) {
+      this.slot = slot;
+    }
+
+    @Override public String getKey() {
+      return nameAt(slot);
+    }
+
+    @Override public Value getValue() {
+      return slotValues[slot];
+    }
+
+    @Override public Value setValue(Value value) {
+      Objects.requireNonNull(value, "Cannot serialize `null` property value. Use a null `Value` instead.");
+      Value previous = slotValues[slot];
+      slotValues[slot] = value;
+      if (previous == null) size++;
+      return previous;
+    }
+
+    @Override public boolean equals(Object other) {
+      if (!(other instanceof Entry)) return false;
+      Entry<?, ?> entry = (Entry<?, ?>)other;
+      return getKey().equals(entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+    }
+
+    @Override public int hashCode() {
+      return getKey().hashCode() ^ Objects.hashCode(getValue());
+    }
+
+    @Override public String toString() {
+      return getKey() + "=" + getValue();
+    }
   }
 }
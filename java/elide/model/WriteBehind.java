@@ -0,0 +1,258 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.protobuf.Message;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.lang.String.format;
+import static elide.model.ModelMetadata.id;
+import static elide.model.PersistenceDriver.Internals.logging;
+
+
+/**
+ * Tracks records written under {@link WriteOptions.CacheWritePolicy#WRITE_BEHIND} which have not yet been flushed to
+ * storage. Repeated writes to the same record, before its flush runs, replace the pending record rather than queueing
+ * another write; the flush then uses the engine, cache, and options of the latest write.
+ *
+ * <p>Pending writes are tracked separately for each {@link ModelAdapter} instance. Other operations on a record with a
+ * pending write must settle it first: a patch drains it (writing it immediately), while a delete, or a direct write,
+ * cancels it. Either way, any flush which is already running is awaited. If a flush fails, the cached copy of the
+ * record is evicted, so that reads do not keep serving a record which never reached storage.</p>
+ *
+ * @param <Key> Key type for records written through the owning adapter.
+ * @param <Model> Model type for records written through the owning adapter.
+ */
+final class WriteBehind<Key extends Message, Model extends Message> {
+  /** Write-behind tables, weakly keyed by the identity of the adapter which owns them. */
+  private static final Cache<Object, WriteBehind<?, ?>> tables = CacheBuilder.newBuilder().weakKeys().build();
+
+  /** Pending writes, addressed by key type and record ID. */
+  private final ConcurrentMap<String, Pending<Key, Model>> pending = new ConcurrentHashMap<>();
+
+  /** Writes which have left the pending table and are being written to storage, addressed like pending writes. */
+  private final ConcurrentMap<String, Pending<Key, Model>> flushing = new ConcurrentHashMap<>();
+
+  private WriteBehind() { /* Disallow instantiation, except via `forAdapter`. */ }
+
+  /** Latest record written at a given address, along with everything needed to flush it. */
+  private static final class Pending<Key extends Message, Model extends Message> {
+    final @Nonnull Key key;
+    final @Nonnull SettableFuture<Model> written = SettableFuture.create();
+    volatile Model model;
+    volatile PersistenceDriver<Key, Model> engine;
+    volatile CacheDriver<Key, Model> cache;
+    volatile WriteOptions options;
+    volatile ListeningScheduledExecutorService exec;
+    volatile @Nullable Future<?> timer;
+
+    Pending(@Nonnull Key key) {
+      this.key = key;
+    }
+  }
+
+  /**
+   * Resolve the write-behind table for {@code adapter}, creating it if it does not yet exist. The table lives as long
+   * as the adapter does.
+   *
+   * @param adapter Adapter which owns the table.
+   * @param <Key> Key type for records written through the adapter.
+   * @param <Model> Model type for records written through the adapter.
+   * @return Write-behind table for the adapter.
+   */
+  @SuppressWarnings("unchecked")
+  static @Nonnull <Key extends Message, Model extends Message> WriteBehind<Key, Model> forAdapter(
+      @Nonnull Object adapter) {
+    Objects.requireNonNull(adapter, "Cannot resolve write-behind table for `null` adapter.");
+    var memo = tables.asMap();
+    var existing = memo.get(adapter);
+    if (existing != null) return (WriteBehind<Key, Model>) existing;
+    var created = new WriteBehind<Key, Model>();
+    existing = memo.putIfAbsent(adapter, created);
+    return existing != null ? (WriteBehind<Key, Model>) existing : created;
+  }
+
+  /**
+   * Cancel any pending write for the record at {@code key}, through {@code adapter}, because a later operation is about
+   * to supersede it. A flush which is already running cannot be cancelled, and is awaited instead.
+   *
+   * @param adapter Adapter which owns the write-behind table.
+   * @param key Key for the record whose pending write should be cancelled.
+   * @return Future which completes once no write for the record is pending or running.
+   */
+  static @Nonnull ListenableFuture<?> cancel(@Nonnull Object adapter, @Nonnull Message key) {
+    var table = tables.getIfPresent(adapter);
+    return table == null || id(key).isEmpty() ? Futures.immediateFuture(key) : table.settle(key, false);
+  }
+
+  /**
+   * Drain any pending write for the record at {@code key}, through {@code adapter}, by writing it to storage right
+   * away, rather than waiting for its scheduled flush. A flush which is already running is awaited.
+   *
+   * @param adapter Adapter which owns the write-behind table.
+   * @param key Key for the record whose pending write should be drained.
+   * @return Future which completes once no write for the record is pending or running, whether or not it succeeded.
+   */
+  static @Nonnull ListenableFuture<?> drain(@Nonnull Object adapter, @Nonnull Message key) {
+    var table = tables.getIfPresent(adapter);
+    return table == null || id(key).isEmpty() ? Futures.immediateFuture(key) : table.settle(key, true);
+  }
+
+  /**
+   * Generate the address for pending writes to the record at {@code key}.
+   *
+   * @param key Key for the record being written.
+   * @return Address for the record.
+   */
+  private static @Nonnull String address(@Nonnull Message key) {
+    return format("%s/%s",
+      key.getDescriptorForType().getFullName(),
+      id(key).orElseThrow(() -> new IllegalArgumentException("Cannot write model with empty key.")));
+  }
+
+  /**
+   * Enqueue a storage write for {@code model}, at {@code key}, to run after the delay specified by {@code options}.
+   * If a write for the same record is already pending, it is updated to write {@code model} instead, via the engine,
+   * cache, and options provided here.
+   *
+   * @param engine Engine which should perform the storage write.
+   * @param cache Cache which holds the record until it is written, and which is evicted if the write fails.
+   * @param key Key for the record being written.
+   * @param model Record to write.
+   * @param options Options applied to the write.
+   * @param exec Executor on which to schedule the flush.
+   */
+  void enqueue(@Nonnull PersistenceDriver<Key, Model> engine,
+               @Nonnull CacheDriver<Key, Model> cache,
+               @Nonnull Key key,
+               @Nonnull Model model,
+               @Nonnull WriteOptions options,
+               @Nonnull ListeningScheduledExecutorService exec) {
+    pending.compute(address(key), (addr, existing) -> {
+      if (existing != null && logging.isTraceEnabled())
+        logging.trace(format("Coalescing write-behind for '%s'.", addr));
+      final Pending<Key, Model> slot = existing != null ? existing : new Pending<>(key);
+      slot.model = model;
+      slot.engine = engine;
+      slot.cache = cache;
+      slot.options = options;
+      slot.exec = exec;
+      if (existing == null) {
+        slot.timer = exec.schedule(() -> {
+          if (claim(addr, slot)) write(addr, slot);
+        }, options.writeBehindDelay(), options.writeBehindDelayUnit());
+      }
+      return slot;
+    });
+  }
+
+  /**
+   * Settle any pending or running write for the record at {@code key}, either by writing the pending record right
+   * away, or by discarding it.
+   *
+   * @param key Key for the record to settle.
+   * @param flush Whether to write the pending record ({@code true}), or discard it ({@code false}).
+   * @return Future which completes once no write for the record is pending or running.
+   */
+  private @Nonnull ListenableFuture<?> settle(@Nonnull Message key, boolean flush) {
+    final String addr = address(key);
+    final Pending<Key, Model> slot = pending.get(addr);
+    if (slot != null && claim(addr, slot)) {
+      // the scheduled flush is not needed either way, once the slot is claimed here.
+      var timer = slot.timer;
+      if (timer != null) timer.cancel(false);
+      if (flush) {
+        write(addr, slot);
+      } else {
+        if (logging.isDebugEnabled())
+          logging.debug(format("Cancelling superseded write-behind for '%s'.", addr));
+        flushing.remove(addr, slot);
+        slot.written.cancel(false);
+      }
+    }
+    final Pending<Key, Model> running = flushing.get(addr);
+    if (running == null) return Futures.immediateFuture(key);
+    return Futures.whenAllComplete(running.written).call(() -> key, MoreExecutors.directExecutor());
+  }
+
+  /**
+   * Claim {@code slot} for writing (or discarding), if it is still pending at {@code addr}. A claimed slot moves from
+   * the pending table to the flushing table atomically, so that concurrent operations either see it as pending, or
+   * as running.
+   *
+   * @param addr Address of the slot.
+   * @param slot Slot to claim.
+   * @return Whether the slot was claimed by this call.
+   */
+  private boolean claim(@Nonnull String addr, @Nonnull Pending<Key, Model> slot) {
+    final AtomicBoolean claimed = new AtomicBoolean(false);
+    pending.computeIfPresent(addr, (address, current) -> {
+      if (current != slot) return current;
+      flushing.put(address, slot);
+      claimed.set(true);
+      return null;
+    });
+    return claimed.get();
+  }
+
+  /**
+   * Write the record held by a claimed {@code slot} to storage, evicting it from the cache if the write fails.
+   *
+   * @param addr Address of the slot.
+   * @param slot Claimed slot to write.
+   */
+  private void write(@Nonnull String addr, @Nonnull Pending<Key, Model> slot) {
+    final Model latest = slot.model;
+    ListenableFuture<Model> write;
+    try {
+      write = PersistenceMetrics.active().time(
+        latest.getDescriptorForType().getFullName(),
+        PersistenceMetrics.Operation.PERSIST,
+        System.nanoTime(),
+        slot.engine.persist(slot.key, latest, slot.options));
+    } catch (RuntimeException exc) {
+      write = Futures.immediateFailedFuture(exc);
+    }
+    slot.written.setFuture(write);
+    slot.written.addListener(() -> flushing.remove(addr, slot), MoreExecutors.directExecutor());
+    Futures.addCallback(slot.written, new FutureCallback<>() {
+      @Override
+      public void onSuccess(Model result) {
+        if (logging.isDebugEnabled())
+          logging.debug(format("Flushed write-behind for '%s'.", addr));
+      }
+
+      @Override
+      public void onFailure(@Nonnull Throwable err) {
+        // the cache acknowledged a write which never reached storage: stop serving it.
+        logging.error(format("Failed to flush write-behind for '%s'. Evicting cached record.", addr), err);
+        PersistenceDriver.Internals.swallowExceptions(() -> slot.cache.evict(slot.key, slot.exec));
+      }
+    }, slot.exec);
+  }
+}
@@ -14,6 +14,7 @@ package elide.model;
 
 import javax.annotation.Nonnull;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 
 /** Describes options involved with operations to persist model entities. */
@@ -33,6 +34,22 @@ public interface WriteOptions extends OperationOptions {
     MUST_NOT_EXIST
   }
 
+  /** Enumerates ways a {@link ModelAdapter} may update its cache when a record is written. */
+  enum CacheWritePolicy {
+    /** Write to storage, then store the written record in the cache. */
+    WRITE_THROUGH,
+
+    /** Write to storage, then evict any cached copy of the record. */
+    INVALIDATE,
+
+    /**
+     * Store the record in the cache and acknowledge the write, then flush it to storage asynchronously. Repeated writes
+     * to the same record before the flush are coalesced, so only the latest is written. Failed flushes are logged, but
+     * cannot be reported to the caller.
+     */
+    WRITE_BEHIND
+  }
+
   /** @return Specifies the write mode for an operation. Overridden by some methods (for instance, {@code create}). */
   default @Nonnull Optional<WriteDisposition> writeMode() {
     return Optional.empty();
@@ -42,4 +59,19 @@ public interface WriteOptions extends OperationOptions {
   default @Nonnull Optional<String> writePrefix() {
     return Optional.empty();
   }
+
+  /** @return Cache policy to apply when writing through a {@link ModelAdapter}. If unset, the cache is left as-is. */
+  default @Nonnull Optional<CacheWritePolicy> cacheWritePolicy() {
+    return Optional.empty();
+  }
+
+  /** @return Delay before a {@link CacheWritePolicy#WRITE_BEHIND} write is flushed to storage. */
+  default @Nonnull Long writeBehindDelay() {
+    return 100L;
+  }
+
+  /** @return Time unit to correspond with {@link #writeBehindDelay()}. */
+  default @Nonnull TimeUnit writeBehindDelayUnit() {
+    return TimeUnit.MILLISECONDS;
+  }
 }
@@ -14,30 +14,94 @@ package elide.driver.inmemory;
 
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.protobuf.FieldMask;
+import elide.model.DeleteOptions;
+import elide.model.FetchOptions;
 import elide.model.GenericPersistenceAdapterTest;
 import elide.model.ModelAdapter;
+import elide.model.WriteOptions;
+import elide.model.PersonRecord.ContactInfo;
 import elide.model.PersonRecord.Person;
 import elide.model.PersonRecord.PersonKey;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
 
 import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.Executors;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
 
 
 /** Tests the in-memory adapter with an in-memory cache in front of it. */
 public final class InMemoryAdapterWithCacheTest extends GenericPersistenceAdapterTest {
+  private static TrackingExecutor trackingExecutor;
   private static ListeningScheduledExecutorService executorService;
   private static InMemoryAdapter<PersonKey, Person> personAdapter;
   private static InMemoryCache<PersonKey, Person> personCache;
 
+  /** Options which enable negative caching for both reads and writes. */
+  private interface NegativeCachingOptions extends FetchOptions, WriteOptions {}
+
+  /**
+   * Scheduled executor which tracks every task it is given, so that tests can wait for background work (cache fills,
+   * negative entries, write-behind flushes) to settle, rather than sleeping past it.
+   */
+  private static final class TrackingExecutor extends ScheduledThreadPoolExecutor {
+    private final Queue<Future<?>> tasks = new ConcurrentLinkedQueue<>();
+
+    TrackingExecutor(int threads) {
+      super(threads);
+    }
+
+    @Override
+    protected <V> RunnableScheduledFuture<V> decorateTask(Runnable runnable, RunnableScheduledFuture<V> task) {
+      tasks.add(task);
+      return task;
+    }
+
+    @Override
+    protected <V> RunnableScheduledFuture<V> decorateTask(Callable<V> callable, RunnableScheduledFuture<V> task) {
+      tasks.add(task);
+      return task;
+    }
+
+    /**
+     * Wait for every task given to this executor so far to run (or be cancelled), including any tasks they schedule in
+     * turn. Delayed tasks are waited out, so every task must be due within {@code timeout}.
+     */
+    void awaitIdle(long timeout, @Nonnull TimeUnit unit) throws InterruptedException, TimeoutException {
+      Future<?> task;
+      while ((task = tasks.poll()) != null) {
+        try {
+          task.get(timeout, unit);
+        } catch (ExecutionException | CancellationException exc) {
+          // failed and cancelled tasks have settled, too.
+        }
+      }
+    }
+  }
+
   @BeforeAll
   static void initExecutor() {
-    executorService = MoreExecutors.listeningDecorator(Executors.newScheduledThreadPool(3));
+    trackingExecutor = new TrackingExecutor(3);
+    executorService = MoreExecutors.listeningDecorator(trackingExecutor);
     personCache = InMemoryCache.acquire();
     personAdapter = InMemoryAdapter.acquire(
       PersonKey.getDefaultInstance(),
@@ -51,6 +115,7 @@ public final class InMemoryAdapterWithCacheTest extends GenericPersistenceAdapte
     executorService.shutdownNow();
     executorService.awaitTermination(5, TimeUnit.SECONDS);
     executorService = null;
+    trackingExecutor = null;
     personAdapter = null;
   }
 
@@ -70,4 +135,189 @@ public final class InMemoryAdapterWithCacheTest extends GenericPersistenceAdapte
       Optional.of(personCache),
       executorService));
   }
+
+  /** {@inheritDoc} */
+  @Override
+  protected @Nonnull Optional<List<DynamicTest>> subclassTests() {
+    return Optional.of(Arrays.asList(
+      dynamicTest(format("%s: `negativeCacheMisses`", this.getClass().getSimpleName()), this::negativeCacheMisses),
+      dynamicTest(format("%s: `cacheWriteThrough`", this.getClass().getSimpleName()), this::cacheWriteThrough),
+      dynamicTest(format("%s: `cacheWriteBehind`", this.getClass().getSimpleName()), this::cacheWriteBehind),
+      dynamicTest(format("%s: `cacheWriteBehindThenDelete`", this.getClass().getSimpleName()),
+        this::cacheWriteBehindThenDelete),
+      dynamicTest(format("%s: `cacheWriteBehindThenPatch`", this.getClass().getSimpleName()),
+        this::cacheWriteBehindThenPatch),
+      dynamicTest(format("%s: `cacheWriteBehindThenPersistAll`", this.getClass().getSimpleName()),
+        this::cacheWriteBehindThenPersistAll)));
+  }
+
+  /** Fetch a missing record with negative caching enabled, and make sure the miss is remembered until a write. */
+  void negativeCacheMisses() throws Exception {
+    final NegativeCachingOptions negativeCaching = new NegativeCachingOptions() {
+      @Override
+      public @Nonnull Optional<Long> cacheNegativeTTL() {
+        return Optional.of(1L);
+      }
+
+      @Override
+      public @Nonnull TimeUnit cacheNegativeTTLUnit() {
+        return TimeUnit.MINUTES;
+      }
+    };
+
+    PersonKey key = PersonKey.newBuilder().setId("abc123test-negative").build();
+    Person person = Person.newBuilder().setKey(key).setName("Jane Doe").build();
+    touchedKeys.add(key);
+    assertFalse(personAdapter.fetchAsync(key, negativeCaching).get(timeout(), timeoutUnit()).isPresent(),
+      "should not find record which does not exist");
+
+    // write directly to storage, which bypasses the adapter and leaves the negative entry in place. the miss above only
+    // resolves once its negative entry is written, so there is nothing to wait for.
+    personAdapter.engine().persist(key, person, WriteOptions.DEFAULTS).get(timeout(), timeoutUnit());
+    assertFalse(personAdapter.fetchAsync(key, negativeCaching).get(timeout(), timeoutUnit()).isPresent(),
+      "should serve remembered miss from the negative cache");
+
+    // any write through the adapter should clear the negative entry, whatever its options
+    personAdapter.persist(key, person, WriteOptions.DEFAULTS).get(timeout(), timeoutUnit());
+    assertTrue(personAdapter.fetchAsync(key, negativeCaching).get(timeout(), timeoutUnit()).isPresent(),
+      "should find record after it is written through the adapter");
+  }
+
+  /** Write a record through the adapter with a write-through policy, and make sure it lands in the cache. */
+  void cacheWriteThrough() throws Exception {
+    final WriteOptions writeThrough = new WriteOptions() {
+      @Override
+      public @Nonnull Optional<CacheWritePolicy> cacheWritePolicy() {
+        return Optional.of(CacheWritePolicy.WRITE_THROUGH);
+      }
+    };
+
+    PersonKey key = PersonKey.newBuilder().setId("abc123test-write-through").build();
+    Person person = Person.newBuilder().setKey(key).setName("Jane Doe").build();
+    touchedKeys.add(key);
+    personAdapter.persist(key, person, writeThrough).get(timeout(), timeoutUnit());
+    Optional<Person> cached = personCache.fetch(key, FetchOptions.DEFAULTS, executorService)
+      .get(timeout(), timeoutUnit());
+    assertTrue(cached.isPresent(), "written record should be cached under write-through");
+    assertEquals("Jane Doe", cached.get().getName(), "cached record should match written record");
+  }
+
+  /** @return Write options which defer storage writes behind the cache, for {@code delay} milliseconds. */
+  private static @Nonnull WriteOptions writeBehind(long delay) {
+    return new WriteOptions() {
+      @Override
+      public @Nonnull Optional<CacheWritePolicy> cacheWritePolicy() {
+        return Optional.of(CacheWritePolicy.WRITE_BEHIND);
+      }
+
+      @Override
+      public @Nonnull Long writeBehindDelay() {
+        return delay;
+      }
+    };
+  }
+
+  /** Write a record with a write-behind policy, then delete it, and make sure the deferred write never lands. */
+  void cacheWriteBehindThenDelete() throws Exception {
+    PersonKey key = PersonKey.newBuilder().setId("abc123test-write-behind-delete").build();
+    touchedKeys.add(key);
+    personAdapter.persist(key, Person.newBuilder().setKey(key).setName("Jane Doe").build(), writeBehind(250L))
+      .get(timeout(), timeoutUnit());
+    personAdapter.delete(key, DeleteOptions.DEFAULTS).get(timeout(), timeoutUnit());
+
+    trackingExecutor.awaitIdle(timeout(), timeoutUnit());  // wait past the (cancelled) deferred flush
+    assertFalse(personAdapter.engine().fetchAsync(key).get(timeout(), timeoutUnit()).isPresent(),
+      "deleted record should not be re-created by a pending write-behind");
+    assertFalse(personAdapter.fetchAsync(key).get(timeout(), timeoutUnit()).isPresent(),
+      "deleted record should not be served from the cache");
+  }
+
+  /** Write a record with a write-behind policy, then patch it, and make sure the patch applies on top. */
+  void cacheWriteBehindThenPatch() throws Exception {
+    PersonKey key = PersonKey.newBuilder().setId("abc123test-write-behind-patch").build();
+    touchedKeys.add(key);
+    Person person = Person.newBuilder()
+      .setKey(key)
+      .setName("Jane Doe")
+      .setContactInfo(ContactInfo.newBuilder().setEmailAddress("jane@doe.com"))
+      .build();
+    personAdapter.persist(key, person, writeBehind(60_000L)).get(timeout(), timeoutUnit());
+    personAdapter.update(
+      key,
+      Person.newBuilder().setName("Jane J. Doe").build(),
+      FieldMask.newBuilder().addPaths("name").build()).get(timeout(), timeoutUnit());
+
+    Optional<Person> stored = personAdapter.engine().fetchAsync(key).get(timeout(), timeoutUnit());
+    assertTrue(stored.isPresent(), "pending write-behind should be drained before a patch");
+    assertEquals("Jane J. Doe", stored.get().getName(), "patched field should be written");
+    assertEquals("jane@doe.com", stored.get().getContactInfo().getEmailAddress(),
+      "fields outside the mask should keep the value from the drained write-behind");
+  }
+
+  /** Write a record with a write-behind policy, then batch-write it, and make sure the deferred write never lands. */
+  void cacheWriteBehindThenPersistAll() throws Exception {
+    final WriteOptions invalidate = new WriteOptions() {
+      @Override
+      public @Nonnull Optional<CacheWritePolicy> cacheWritePolicy() {
+        return Optional.of(CacheWritePolicy.INVALIDATE);
+      }
+    };
+
+    PersonKey key = PersonKey.newBuilder().setId("abc123test-write-behind-persist-all").build();
+    PersonKey other = PersonKey.newBuilder().setId("abc123test-write-behind-persist-all-2").build();
+    touchedKeys.add(key);
+    touchedKeys.add(other);
+    personAdapter.persist(key, Person.newBuilder().setKey(key).setName("Jane Doe").build(), writeBehind(250L))
+      .get(timeout(), timeoutUnit());
+
+    Map<PersonKey, Person> batch = new LinkedHashMap<>();
+    batch.put(key, Person.newBuilder().setKey(key).setName("John Doe").build());
+    batch.put(other, Person.newBuilder().setKey(other).setName("Jim Doe").build());
+    List<Person> written = personAdapter.persistAll(batch, invalidate).get(timeout(), timeoutUnit());
+    assertEquals(2, written.size(), "batch write should resolve every record");
+    assertFalse(personCache.fetch(key, FetchOptions.DEFAULTS, executorService).get(timeout(), timeoutUnit())
+      .isPresent(), "batch write should apply the cache write policy to each record");
+
+    trackingExecutor.awaitIdle(timeout(), timeoutUnit());  // wait past the (cancelled) deferred flush
+    Optional<Person> stored = personAdapter.engine().fetchAsync(key).get(timeout(), timeoutUnit());
+    assertTrue(stored.isPresent(), "batch-written record should reach storage");
+    assertEquals("John Doe", stored.get().getName(), "pending write-behind should not land after a batch write");
+    assertEquals("John Doe", personAdapter.fetchAsync(key).get(timeout(), timeoutUnit()).orElseThrow().getName(),
+      "adapter should serve the batch-written record");
+  }
+
+  /** Write a record repeatedly with a write-behind policy, and make sure only the latest write reaches storage. */
+  void cacheWriteBehind() throws Exception {
+    final WriteOptions writeBehind = new WriteOptions() {
+      @Override
+      public @Nonnull Optional<CacheWritePolicy> cacheWritePolicy() {
+        return Optional.of(CacheWritePolicy.WRITE_BEHIND);
+      }
+
+      @Override
+      public @Nonnull Long writeBehindDelay() {
+        return 250L;
+      }
+    };
+
+    PersonKey key = PersonKey.newBuilder().setId("abc123test-write-behind").build();
+    touchedKeys.add(key);
+    personAdapter.persist(key, Person.newBuilder().setKey(key).setName("Jane Doe").build(), writeBehind)
+      .get(timeout(), timeoutUnit());
+    personAdapter.persist(key, Person.newBuilder().setKey(key).setName("John Doe").build(), writeBehind)
+      .get(timeout(), timeoutUnit());
+
+    // the cache should serve the latest write before storage has seen either
+    Optional<Person> cached = personCache.fetch(key, FetchOptions.DEFAULTS, executorService)
+      .get(timeout(), timeoutUnit());
+    assertTrue(cached.isPresent(), "written record should be cached immediately under write-behind");
+    assertEquals("John Doe", cached.get().getName(), "cache should hold the latest write");
+    assertFalse(personAdapter.engine().fetchAsync(key).get(timeout(), timeoutUnit()).isPresent(),
+      "storage write should be deferred under write-behind");
+
+    trackingExecutor.awaitIdle(timeout(), timeoutUnit());  // wait for the deferred flush
+    Optional<Person> stored = personAdapter.engine().fetchAsync(key).get(timeout(), timeoutUnit());
+    assertTrue(stored.isPresent(), "write-behind should eventually reach storage");
+    assertEquals("John Doe", stored.get().getName(), "repeated writes should coalesce into the latest");
+  }
 }
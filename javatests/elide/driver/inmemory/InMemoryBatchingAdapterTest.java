@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.driver.inmemory;
+
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.protobuf.FieldMask;
+import elide.model.BatchingModelAdapter;
+import elide.model.GenericPersistenceAdapterTest;
+import elide.model.WriteOptions;
+import elide.model.PersonRecord.ContactInfo;
+import elide.model.PersonRecord.Person;
+import elide.model.PersonRecord.PersonKey;
+import elide.runtime.jvm.ReactiveFuture;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+
+/** Tests the in-memory adapter, wrapped with automatic fetch batching. */
+public final class InMemoryBatchingAdapterTest
+  extends GenericPersistenceAdapterTest<BatchingModelAdapter<PersonKey, Person>> {
+  private static ListeningScheduledExecutorService executorService;
+  private static BatchingModelAdapter<PersonKey, Person> personAdapter;
+
+  @BeforeAll
+  static void initExecutor() {
+    executorService = MoreExecutors.listeningDecorator(Executors.newScheduledThreadPool(3));
+    personAdapter = BatchingModelAdapter.wrap(InMemoryAdapter.acquire(
+      PersonKey.getDefaultInstance(),
+      Person.getDefaultInstance(),
+      executorService), 50, TimeUnit.MILLISECONDS, 5);
+  }
+
+  @AfterAll
+  static void shutdownExecutor() throws InterruptedException {
+    executorService.shutdownNow();
+    executorService.awaitTermination(5, TimeUnit.SECONDS);
+    executorService = null;
+    personAdapter = null;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected @Nonnull BatchingModelAdapter<PersonKey, Person> adapter() {
+    return personAdapter;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected void acquireDriver() {
+    assertNotNull(BatchingModelAdapter.wrap(InMemoryAdapter.acquire(
+      PersonKey.getDefaultInstance(),
+      Person.getDefaultInstance(),
+      executorService)), "should not get `null` for batching adapter wrap");
+    assertThrows(IllegalArgumentException.class, () -> BatchingModelAdapter.wrap(personAdapter,
+      1, TimeUnit.MILLISECONDS, 0));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected @Nonnull Optional<List<DynamicTest>> subclassTests() {
+    return Optional.of(Arrays.asList(
+      dynamicTest(format("%s: `fetchIndividuallyInBatches`", this.getClass().getSimpleName()),
+        this::fetchIndividuallyInBatches),
+      dynamicTest(format("%s: `cacheWriteBehindThenPatch`", this.getClass().getSimpleName()),
+        this::cacheWriteBehindThenPatch)));
+  }
+
+  /** Write a record with a write-behind policy through a wrapped, cached adapter, then patch it through the wrapper. */
+  void cacheWriteBehindThenPatch() throws Exception {
+    final WriteOptions writeBehind = new WriteOptions() {
+      @Override
+      public @Nonnull Optional<CacheWritePolicy> cacheWritePolicy() {
+        return Optional.of(CacheWritePolicy.WRITE_BEHIND);
+      }
+
+      @Override
+      public @Nonnull Long writeBehindDelay() {
+        return 60_000L;
+      }
+    };
+
+    BatchingModelAdapter<PersonKey, Person> cached = BatchingModelAdapter.wrap(InMemoryAdapter.acquire(
+      PersonKey.getDefaultInstance(),
+      Person.getDefaultInstance(),
+      Optional.of(InMemoryCache.acquire()),
+      executorService));
+    PersonKey key = PersonKey.newBuilder().setId("abc123test-batching-write-behind-patch").build();
+    touchedKeys.add(key);
+    cached.persist(key, Person.newBuilder()
+      .setKey(key)
+      .setName("Jane Doe")
+      .setContactInfo(ContactInfo.newBuilder().setEmailAddress("jane@doe.com"))
+      .build(), writeBehind).get(timeout(), timeoutUnit());
+    cached.update(
+      key,
+      Person.newBuilder().setName("Jane J. Doe").build(),
+      FieldMask.newBuilder().addPaths("name").build()).get(timeout(), timeoutUnit());
+
+    Optional<Person> stored = cached.engine().fetchAsync(key).get(timeout(), timeoutUnit());
+    assertTrue(stored.isPresent(), "wrapped adapter's pending write-behind should be drained before a patch");
+    assertEquals("Jane J. Doe", stored.get().getName(), "patched field should be written");
+    assertEquals("jane@doe.com", stored.get().getContactInfo().getEmailAddress(),
+      "fields outside the mask should keep the value from the drained write-behind");
+  }
+
+  /** Issue many individual fetches at once, and make sure they are dispatched in batches. */
+  void fetchIndividuallyInBatches() throws Exception {
+    List<PersonKey> keys = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      PersonKey key = PersonKey.newBuilder().setId(format("abc123test-batching-%s", i)).build();
+      personAdapter.persist(key, Person.newBuilder().setKey(key).setName("Jane Doe").build(), WriteOptions.DEFAULTS)
+        .get(timeout(), timeoutUnit());
+      touchedKeys.add(key);
+      keys.add(key);
+    }
+
+    long batchesBefore = personAdapter.batchCount();
+    long keysBefore = personAdapter.batchedKeyCount();
+    List<ReactiveFuture<Optional<Person>>> futures = new ArrayList<>();
+    for (PersonKey key : keys) {
+      futures.add(personAdapter.fetchAsync(key));
+    }
+    for (int i = 0; i < keys.size(); i++) {
+      Optional<Person> record = futures.get(i).get(timeout(), timeoutUnit());
+      assertTrue(record.isPresent(), "should find record fetched through batching adapter");
+      assertEquals(keys.get(i).getId(), record.get().getKey().getId(), "batched fetch should resolve correct record");
+    }
+
+    assertEquals(keys.size(), personAdapter.batchedKeyCount() - keysBefore, "every fetch should be batched");
+    assertTrue(personAdapter.batchCount() - batchesBefore < keys.size(), "fetches should be grouped into batches");
+    assertTrue(personAdapter.largestBatchSize() <= 5, "batches should respect the configured size cap");
+  }
+}
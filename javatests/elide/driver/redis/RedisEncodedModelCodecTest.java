@@ -0,0 +1,182 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.driver.redis;
+
+import com.google.protobuf.util.JsonFormat;
+import elide.model.EncodedModel;
+import elide.model.EncodingMode;
+import elide.model.PersonRecord.ContactInfo;
+import elide.model.PersonRecord.Person;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the {@link RedisEncodedModelCodec}, which frames encoded models for storage in Redis. */
+public final class RedisEncodedModelCodecTest {
+    private static final Person person = Person.newBuilder()
+        .setName("Jane Doe")
+        .setContactInfo(ContactInfo.newBuilder()
+            .setEmailAddress("jane@doe.com")
+            .setPhoneE164("+12345678901"))
+        .build();
+
+    private static final RedisEncodedModelCodec codec = RedisEncodedModelCodec.acquire();
+
+    /** Binary models should survive a trip through the codec. */
+    @Test void testBinaryRoundTrip() throws IOException {
+        EncodedModel encoded = EncodedModel.from(person);
+        ByteBuffer frame = codec.encodeValue(encoded);
+        assertEquals(RedisEncodedModelCodec.frameMagic, frame.get(0), "frame should begin with the magic byte");
+
+        EncodedModel decoded = codec.decodeValue(frame);
+        assertEquals(encoded, decoded, "decoded model should equal the original");
+        assertEquals(person, decoded.inflate(Person.getDefaultInstance()), "decoded model should inflate");
+    }
+
+    /** JSON models should survive a trip through the codec. */
+    @Test void testJsonRoundTrip() {
+        EncodedModel encoded = EncodedModel.wrap(
+            person.getDescriptorForType().getFullName(),
+            EncodingMode.JSON,
+            assertDoesNotThrow(() -> JsonFormat.printer().print(person)).getBytes(StandardCharsets.UTF_8));
+        EncodedModel decoded = codec.decodeValue(codec.encodeValue(encoded));
+        assertEquals(EncodingMode.JSON, decoded.getDataMode(), "decoded model should retain its encoding mode");
+        assertEquals(encoded, decoded, "decoded model should equal the original");
+    }
+
+    /** Frames should be far smaller than the legacy Java serialization format. */
+    @Test void testFrameSmallerThanLegacy() throws IOException {
+        EncodedModel encoded = EncodedModel.from(person);
+        assertTrue(codec.encodeValue(encoded).remaining() < serializedValue(encoded).remaining(),
+            "framed value should be smaller than the legacy value");
+    }
+
+    /** Values written via Java serialization, by earlier releases, should remain readable. */
+    @Test void testLegacyValue() {
+        EncodedModel decoded = codec.decodeValue(ByteBuffer.wrap(legacyFixture()));
+        assertEquals("elide.model.Person", decoded.getType(), "legacy value should decode its type");
+        assertEquals(EncodingMode.BINARY, decoded.getDataMode(), "legacy value should decode its encoding mode");
+        assertEquals(Person.newBuilder().setName("Jane Doe").build(), assertDoesNotThrow(
+            () -> decoded.inflate(Person.getDefaultInstance())), "legacy value should decode its payload");
+    }
+
+    /** Values written via Java serialization in the current layout should also be readable. */
+    @Test void testSerializedValue() throws IOException {
+        EncodedModel encoded = EncodedModel.from(person);
+        assertEquals(encoded, codec.decodeValue(serializedValue(encoded)), "serialized value should decode");
+    }
+
+    /** Malformed values should raise errors, rather than reading as absent. */
+    @Test void testMalformedValue() {
+        assertThrows(IllegalArgumentException.class,
+            () -> codec.decodeValue(ByteBuffer.wrap(new byte[]{ 0x01, 0x02, 0x03 })),
+            "unrecognized values should fail to decode");
+
+        ByteBuffer truncated = codec.encodeValue(EncodedModel.from(person));
+        truncated.limit(truncated.limit() - 4);
+        assertThrows(IllegalArgumentException.class, () -> codec.decodeValue(truncated),
+            "truncated frames should fail to decode");
+    }
+
+    /** Codecs with a type dictionary should frame registered types by ID, and decode them back to names. */
+    @Test void testTypeDictionary() {
+        RedisTypeDictionary dictionary = RedisTypeDictionary.create();
+        dictionary.bind(Person.getDescriptor().getFullName(), 7);
+        RedisEncodedModelCodec typed = RedisEncodedModelCodec.create(dictionary);
+
+        EncodedModel encoded = EncodedModel.from(person);
+        ByteBuffer frame = typed.encodeValue(encoded);
+        assertTrue(frame.remaining() < codec.encodeValue(encoded).remaining(),
+            "frame with a type ID should be smaller than one with a type name");
+        assertEquals(encoded, typed.decodeValue(frame), "frame with a type ID should decode");
+        assertEquals(encoded, typed.decodeValue(codec.encodeValue(encoded)),
+            "codec with a type dictionary should still decode frames with a type name");
+        assertThrows(IllegalArgumentException.class, () -> codec.decodeValue(typed.encodeValue(encoded)),
+            "frame with an unknown type ID should fail to decode");
+    }
+
+    /** Type IDs missing from a dictionary should resolve through its lookup, for dictionary and name-framing codecs. */
+    @Test void testTypeDictionaryLookup() {
+        RedisTypeDictionary writer = RedisTypeDictionary.create();
+        writer.bind(Person.getDescriptor().getFullName(), 3);
+        ByteBuffer frame = RedisEncodedModelCodec.create(writer).encodeValue(EncodedModel.from(person));
+
+        RedisTypeDictionary reader = RedisTypeDictionary.create();
+        reader.attach((id) -> id == 3 ? Person.getDescriptor().getFullName() : null);
+        assertEquals(EncodedModel.from(person), RedisEncodedModelCodec.create(reader).decodeValue(frame.duplicate()),
+            "frame with an ID registered elsewhere should decode via lookup");
+        assertEquals(Person.getDescriptor().getFullName(), reader.nameFor(3), "looked-up ID should be bound");
+        assertNull(reader.resolve(4), "unassigned ID should not resolve");
+
+        RedisTypeDictionary.shared().attach(reader::nameFor);
+        assertEquals(EncodedModel.from(person), codec.decodeValue(frame.duplicate()),
+            "name-framing codec should decode frames with an ID via the shared dictionary");
+    }
+
+    /** Type dictionaries should refuse conflicting assignments. */
+    @Test void testTypeDictionaryConflicts() {
+        RedisTypeDictionary dictionary = RedisTypeDictionary.create();
+        dictionary.bind("elide.model.Sample", 1);
+        dictionary.bind("elide.model.Sample", 1);
+        assertEquals(1, dictionary.idFor("elide.model.Sample"), "bound type should resolve its ID");
+        assertEquals("elide.model.Sample", dictionary.nameFor(1), "bound ID should resolve its type");
+        assertThrows(IllegalStateException.class, () -> dictionary.bind("elide.model.Sample", 2),
+            "rebinding a type to a different ID should fail");
+        assertThrows(IllegalStateException.class, () -> dictionary.bind("elide.model.Other", 1),
+            "rebinding an ID to a different type should fail");
+        assertNull(dictionary.nameFor(2), "unbound ID should not resolve");
+    }
+
+    /**
+     * Value as written by earlier releases of the codec: a Java-serialized {@link EncodedModel} at serial version 1,
+     * holding a {@code BINARY} person named "Jane Doe", whose payload is written as a single-byte length followed by
+     * the raw bytes. Captured from the earlier release, rather than produced by the current class.
+     *
+     * @return Legacy value bytes.
+     */
+    private static byte[] legacyFixture() {
+        String hex =
+            "aced000573720018656c6964652e6d6f64656c2e456e636f6465644d6f64656c0000000000000001" +  // EncodedModel, v1
+            "0300034c0008646174614d6f646574001a4c656c6964652f6d6f64656c2f456e636f64696e674d6f" +
+            "64653b5b000872617742797465737400025b424c0004747970657400124c6a6176612f6c616e672f" +
+            "537472696e673b7870" +
+            "740012656c6964652e6d6f64656c2e506572736f6e" +  // type: "elide.model.Person"
+            "7e720018656c6964652e6d6f64656c2e456e636f64696e674d6f6465000000000000000012000078" +  // mode: BINARY
+            "72000e6a6176612e6c616e672e456e756d0000000000000000120000787074000642494e415259" +
+            "770b" +  // block data, 11 bytes
+            "0a" +  // single-byte payload length
+            "12084a616e6520446f65" +  // payload: Person{name: "Jane Doe"}
+            "78";  // end of block data
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte)Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
+    /** @return Value as written via Java serialization, in the current layout. */
+    private static ByteBuffer serializedValue(EncodedModel encoded) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream os = new ObjectOutputStream(bytes)) {
+            os.writeObject(encoded);
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+}
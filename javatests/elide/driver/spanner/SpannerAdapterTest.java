@@ -258,6 +258,12 @@ public final class SpannerAdapterTest extends GenericPersistenceAdapterTest<
         ));
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected boolean supportsNestedPatch() {
+        return false;
+    }
+
     // -- Concrete Tests -- //
 
     @SuppressWarnings("ConstantConditions")
@@ -180,6 +180,43 @@ public final class EncodedModelTest {
     }
   }
 
+  /** Payloads larger than a single byte can express should survive Java serialization intact. */
+  @Test void testEncodedModelJavaSerializationLarge() throws IOException, ClassNotFoundException {
+    Person person = Person.newBuilder()
+      .setName("J".repeat(4096))
+      .build();
+
+    EncodedModel one = EncodedModel.from(person);
+    try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+      try (ObjectOutputStream dump = new ObjectOutputStream(out)) {
+        dump.writeObject(one);
+      }
+      try (ObjectInputStream load = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+        EncodedModel fresh = (EncodedModel)load.readObject();
+        assertEquals(one, fresh, "re-inflated large models should equal each other");
+        assertEquals(person, fresh.inflate(Person.getDefaultInstance()),
+          "re-inflated large models should decode to the original record");
+      }
+    }
+  }
+
+  /** Raw data should be handed out without copying, and equality should consider the full payload. */
+  @Test void testRawBytesNotCopied() {
+    Person person = Person.newBuilder()
+      .setName("Jane Doe")
+      .build();
+
+    EncodedModel one = EncodedModel.from(person);
+    assertSame(one.getRawBytes(), one.getRawBytes(), "raw bytes should not be copied on access");
+    assertEquals(person.getSerializedSize(), one.size(), "size should match the encoded payload");
+    assertEquals(one.size(), one.asReadOnlyByteBuffer().remaining(), "buffer view should expose the full payload");
+    assertTrue(one.asReadOnlyByteBuffer().isReadOnly(), "buffer view should be read-only");
+
+    EncodedModel other = EncodedModel.from(person.toBuilder().setName("John Doe").build());
+    assertNotEquals(one, other, "models with different payloads should not be equal");
+    assertEquals(one.hashCode(), one.hashCode(), "hash code should be stable");
+  }
+
   /** Make sure an {@link EncodedModel} can re-inflate into a full model instance. */
   @Test void testReinflateEncodedModel() throws InvalidProtocolBufferException {
     Person person = Person.newBuilder()
@@ -52,7 +52,7 @@ public abstract class GenericPersistenceDriverTest<Driver extends PersistenceDri
   @TestFactory
   protected final Iterable<DynamicTest> driverTests() {
     final String subcase = this.getClass().getSimpleName();
-    List<DynamicTest> tests = this.supportedDriverTests();
+    List<DynamicTest> tests = new ArrayList<>(this.supportedDriverTests());
     Set<String> unsupported = this.unsupportedDriverTests()
             .orElse(Collections.emptyList())
             .stream()
@@ -80,8 +80,11 @@ public abstract class GenericPersistenceDriverTest<Driver extends PersistenceDri
       dynamicTest(format("%s: `fetchNonExistentEntity`", subcase), this::fetchNonExistentEntity),
       dynamicTest(format("%s: `storeAndFetchEntity`", subcase), this::storeAndFetchEntity),
       dynamicTest(format("%s: `storeAndFetchEntityMasked`", subcase), this::storeAndFetchEntityMasked),
+      dynamicTest(format("%s: `storeAndFetchEntities`", subcase), this::storeAndFetchEntities),
+      dynamicTest(format("%s: `storeEntitiesBatch`", subcase), this::storeEntitiesBatch),
       dynamicTest(format("%s: `storeEntityUpdate`", subcase), this::storeEntityUpdate),
       dynamicTest(format("%s: `createEntityThenUpdate`", subcase), this::createEntityThenUpdate),
+      dynamicTest(format("%s: `createEntityThenPatch`", subcase), this::createEntityThenPatch),
       dynamicTest(format("%s: `createUpdateWithInvalidOptions`", subcase), this::createUpdateWithInvalidOptions),
       dynamicTest(format("%s: `createEntityThenDelete`", subcase), this::createEntityThenDelete),
       dynamicTest(format("%s: `createEntityThenDeleteByRecord`", subcase), this::createEntityThenDeleteByRecord),
@@ -97,6 +100,13 @@ public abstract class GenericPersistenceDriverTest<Driver extends PersistenceDri
     return Optional.empty();
   }
 
+  /**
+   * @return Whether the driver under test can apply patches addressed to nested field paths.
+   */
+  protected boolean supportsNestedPatch() {
+    return true;
+  }
+
   /**
    * @return Additional dynamic tests to add from the specific driver test implementation.
    */
@@ -279,6 +289,91 @@ public abstract class GenericPersistenceDriverTest<Driver extends PersistenceDri
     assertTrue(id.isPresent(), "ID should be decoded on fetched models");
   }
 
+  /** Create a few simple entities, store them, and then fetch them all in one batch, along with a missing record. */
+  protected void storeAndFetchEntities() throws TimeoutException, ExecutionException, InterruptedException {
+    // persist the records
+    List<PersonKey> keys = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Person person = Person.newBuilder()
+        .setKey(PersonKey.newBuilder()
+          .setId(format("abc123test-batch-%s", i))
+          .build())
+        .setName(format("John Doe %s", i))
+        .build();
+
+      ReactiveFuture<Person> op = acquire().persist(person.getKey(), person, WriteOptions.DEFAULTS);
+      Person model = op.get(timeout(), timeoutUnit());
+      assertNotNull(model, "should get a model back from a persist operation");
+      Optional<PersonKey> key = ModelMetadata.key(model);
+      assertTrue(key.isPresent(), "key should be present on model after storing");
+      touchedKeys.add(key.get());
+      keys.add(key.get());
+    }
+
+    // add a key which should not exist, in the middle of the batch
+    PersonKey missingKey = (PersonKey)acquire().generateKey(emptyInstance);
+    keys.add(1, missingKey);
+
+    // fetch the records
+    ReactiveFuture<List<Optional<Person>>> batchFuture = acquire().fetchAll(keys);
+    assertNotNull(batchFuture, "should not get `null` future for batch fetch operation");
+    assertFalse(batchFuture.isCancelled(), "future for batch fetch should not start in cancelled state");
+
+    List<Optional<Person>> results = batchFuture.get(timeout(), timeoutUnit());
+    assertTrue(batchFuture.isDone(), "future should present as done after records are fetched");
+    assertNotNull(results, "should not get `null` for batch fetch results");
+    assertEquals(keys.size(), results.size(), "should get exactly one result per requested key");
+    assertFalse(results.get(1).isPresent(), "should not find a result for a non-existent record");
+    for (int i = 0; i < keys.size(); i++) {
+      if (i == 1) continue;
+      assertTrue(results.get(i).isPresent(), "should find record we just stored, in batch");
+      assertEquals(keys.get(i).getId(), results.get(i).get().getKey().getId(),
+        "batch results should be ordered to match requested keys");
+    }
+
+    // an empty batch should resolve to an empty result
+    ReactiveFuture<List<Optional<Person>>> emptyFuture = acquire().fetchAll(Collections.emptyList());
+    List<Optional<Person>> empty = emptyFuture.get(timeout(), timeoutUnit());
+    assertNotNull(empty, "should not get `null` for empty batch fetch");
+    assertTrue(empty.isEmpty(), "empty batch fetch should produce empty results");
+  }
+
+  /** Create a few simple entities, store them all in one batch, and then fetch each of them. */
+  protected void storeEntitiesBatch() throws TimeoutException, ExecutionException, InterruptedException {
+    // build the batch
+    Map<PersonKey, Person> batch = new LinkedHashMap<>();
+    for (int i = 0; i < 3; i++) {
+      PersonKey key = PersonKey.newBuilder()
+        .setId(format("abc123test-persist-batch-%s", i))
+        .build();
+      batch.put(key, Person.newBuilder()
+        .setKey(key)
+        .setName(format("Jane Doe %s", i))
+        .build());
+      touchedKeys.add(key);
+    }
+
+    // persist the batch
+    ReactiveFuture<List<Person>> op = acquire().persistAll(batch, WriteOptions.DEFAULTS);
+    assertNotNull(op, "should not get `null` future for batch persist operation");
+    assertFalse(op.isCancelled(), "future from batch persist should not start in cancelled state");
+
+    List<Person> written = op.get(timeout(), timeoutUnit());
+    assertTrue(op.isDone(), "future should report as done after batch store operation finishes");
+    assertNotNull(written, "should get models back from a batch persist operation");
+    assertEquals(batch.size(), written.size(), "should get exactly one written model per record in the batch");
+
+    // fetch each record
+    for (Map.Entry<PersonKey, Person> entry : batch.entrySet()) {
+      ReactiveFuture<Optional<Person>> personFuture = acquire().retrieve(entry.getKey(), FetchOptions.DEFAULTS);
+      Optional<Person> refetched = personFuture.get(timeout(), timeoutUnit());
+      assertNotNull(refetched, "should not get `null` for optional after record fetch");
+      assertTrue(refetched.isPresent(), "should find record we just stored in a batch");
+      assertEquals(entry.getValue().getName(), refetched.get().getName(),
+        "fetched person record should match record stored in batch");
+    }
+  }
+
   /** Create a simple entity, store it, and then fetch it, but with a field mask. */
   protected void storeAndFetchEntityMasked() throws TimeoutException, ExecutionException, InterruptedException {
     // persist the record
@@ -575,6 +670,86 @@ public abstract class GenericPersistenceDriverTest<Driver extends PersistenceDri
     tester.accept(updatedOp12, changed4);
   }
 
+  /** Create a simple entity, and then use the field-level `update` interfaces to patch it. */
+  protected void createEntityThenPatch() throws TimeoutException, ExecutionException, InterruptedException {
+    // persist the record
+    Person person = Person.newBuilder()
+      .setKey(PersonKey.newBuilder()
+          .setId("abc123createThenPatch")
+          .build())
+      .setName("John Doe")
+      .setContactInfo(ContactInfo.newBuilder()
+        .setEmailAddress("john@doe.com")
+        .setPhoneE164("+12345679001"))
+      .build();
+
+    Person record = (Person)acquire().create(person, WriteOptions.DEFAULTS).get(timeout(), timeoutUnit());
+    Optional<PersonKey> recordKey = ModelMetadata.key(record);
+    assertTrue(recordKey.isPresent(), "record key should be present after create");
+    var key = recordKey.get();
+    touchedKeys.add(key);
+
+    // patch only the name, from a model which carries nothing else
+    ReactiveFuture<Person> op = acquire().update(
+      key,
+      Person.newBuilder().setName("John J. Doe").build(),
+      FieldMask.newBuilder().addPaths("name").build());
+    assertNotNull(op, "should never get `null` from field-level `update`");
+    op.get(timeout(), timeoutUnit());
+
+    Optional<Person> patched = (Optional<Person>)acquire().retrieve(key, FetchOptions.DEFAULTS)
+      .get(timeout(), timeoutUnit());
+    assertTrue(patched.isPresent(), "should find record after patching it");
+    assertEquals("John J. Doe", patched.get().getName(), "masked field should be written by the patch");
+    assertEquals(person.getContactInfo(), patched.get().getContactInfo(),
+      "fields outside the mask should be untouched");
+
+    // patch against a base model, which should write only what changed
+    Person changed = patched.get().toBuilder()
+      .setContactInfo(patched.get().getContactInfo().toBuilder()
+        .setEmailAddress("john2@doe.com"))
+      .build();
+    acquire().update(key, changed, patched.get()).get(timeout(), timeoutUnit());
+
+    Optional<Person> rebased = (Optional<Person>)acquire().retrieve(key, FetchOptions.DEFAULTS)
+      .get(timeout(), timeoutUnit());
+    assertTrue(rebased.isPresent(), "should find record after patching it against a base");
+    assertEquals(changed.toString(), rebased.get().toString(), "patched record should match the changed model");
+
+    // patch a single nested field, from a model which carries nothing else
+    FieldMask nested = FieldMask.newBuilder().addPaths("contact_info.email_address").build();
+    Person sparse = Person.newBuilder()
+      .setContactInfo(ContactInfo.newBuilder().setEmailAddress("john3@doe.com"))
+      .build();
+    if (!supportsNestedPatch()) {
+      assertThrows(IllegalArgumentException.class, () -> acquire().update(key, sparse, nested),
+        "drivers without nested patch support should reject nested paths");
+    } else {
+      acquire().update(key, sparse, nested).get(timeout(), timeoutUnit());
+      Optional<Person> sparsed = (Optional<Person>)acquire().retrieve(key, FetchOptions.DEFAULTS)
+        .get(timeout(), timeoutUnit());
+      assertTrue(sparsed.isPresent(), "should find record after patching a nested field");
+      assertEquals("john3@doe.com", sparsed.get().getContactInfo().getEmailAddress(),
+        "nested masked field should be written by the patch");
+      assertEquals(changed.getContactInfo().getPhoneE164(), sparsed.get().getContactInfo().getPhoneE164(),
+        "sibling fields of a nested path should be untouched");
+      assertEquals(changed.getName(), sparsed.get().getName(), "fields outside the mask should be untouched");
+    }
+
+    // patching a record which does not exist should fail
+    var genkey = acquire().generateKey(emptyInstance);
+    touchedKeys.add(genkey);
+    ReactiveFuture<Person> missing = acquire().update(
+      genkey,
+      Person.newBuilder().setName("Nobody").build(),
+      FieldMask.newBuilder().addPaths("name").build());
+    assertThrows(ExecutionException.class, () -> missing.get(timeout(), timeoutUnit()));
+
+    // invalid masks should be rejected up-front
+    assertThrows(IllegalArgumentException.class, () -> acquire().update(
+      key, changed, FieldMask.newBuilder().addPaths("missing").build()));
+  }
+
   /** Create a simple entity, then delete it, then try to re-fetch to make sure it was deleted. */
   protected void createEntityThenDelete() throws TimeoutException, ExecutionException, InterruptedException {
     // persist the record
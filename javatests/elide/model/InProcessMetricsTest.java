@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import com.google.common.util.concurrent.SettableFuture;
+import elide.model.PersistenceMetrics.Counter;
+import elide.model.PersistenceMetrics.Operation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the {@link PersistenceMetrics} SPI and its {@link InProcessMetrics} implementation. */
+public final class InProcessMetricsTest {
+  private static final String MODEL = "elide.model.Person";
+
+  @AfterEach void resetMetrics() {
+    PersistenceMetrics.install(PersistenceMetrics.NOOP);
+  }
+
+  @Test void testDefaultListenerDisabled() {
+    assertSame(PersistenceMetrics.NOOP, PersistenceMetrics.active(), "metrics should be disabled by default");
+    assertFalse(PersistenceMetrics.active().enabled(), "default listener should report itself as disabled");
+  }
+
+  @Test void testInstall() {
+    InProcessMetrics metrics = new InProcessMetrics();
+    PersistenceMetrics.install(metrics);
+    assertSame(metrics, PersistenceMetrics.active(), "installed listener should become active");
+    assertThrows(NullPointerException.class, () -> PersistenceMetrics.install(null),
+      "should not be able to install `null` listener");
+  }
+
+  @Test void testHistogram() {
+    InProcessMetrics metrics = new InProcessMetrics();
+    for (long i = 1; i <= 100; i++) {
+      metrics.timing(MODEL, Operation.FETCH, i * 1000);
+    }
+    InProcessMetrics.Histogram timings = metrics.timings(MODEL, Operation.FETCH);
+    assertEquals(100, timings.count(), "histogram should count every value");
+    assertEquals(100_000, timings.max(), "histogram should track the largest value");
+    assertEquals(50_500, timings.mean(), 0.01, "histogram should track the mean");
+    long p50 = timings.percentile(0.5);
+    assertTrue(p50 >= 50_000 && p50 <= 100_000, "p50 estimate should be within a factor of two");
+    assertEquals(100_000, timings.percentile(1.0), "p100 should be capped at the largest value");
+    assertEquals(0, metrics.timings(MODEL, Operation.PERSIST).count(), "untouched histograms should be empty");
+  }
+
+  @Test void testCountersAndSizes() {
+    InProcessMetrics metrics = new InProcessMetrics();
+    metrics.count(MODEL, Counter.CACHE_HIT, 3);
+    metrics.count(MODEL, Counter.CACHE_MISS, 1);
+    assertEquals(3, metrics.count(MODEL, Counter.CACHE_HIT), "counter should sum its deltas");
+    assertEquals(0.75, metrics.cacheHitRatio(MODEL), 0.0001, "hit ratio should reflect hits and misses");
+    assertEquals(0, metrics.cacheHitRatio("elide.model.Other"), "hit ratio should be zero with no lookups");
+
+    metrics.size(MODEL, Operation.SERIALIZE, 128);
+    assertEquals(128, metrics.sizes(MODEL, Operation.SERIALIZE).sum(), "sizes should be recorded");
+    metrics.reset();
+    assertEquals(0, metrics.count(MODEL, Counter.CACHE_HIT), "reset should discard counters");
+  }
+
+  @Test void testModelsKeptApart() {
+    InProcessMetrics metrics = new InProcessMetrics();
+    metrics.timing(MODEL, Operation.FETCH, 10);
+    metrics.timing("elide.model.Other", Operation.FETCH, 20);
+    metrics.timing(MODEL, Operation.PERSIST, 30);
+    assertEquals(10, metrics.timings(MODEL, Operation.FETCH).max(), "timings should be kept apart per model");
+    assertEquals(20, metrics.timings("elide.model.Other", Operation.FETCH).max(),
+      "timings should be kept apart per model");
+    assertEquals(30, metrics.timings(MODEL, Operation.PERSIST).max(), "timings should be kept apart per operation");
+    assertEquals(
+      Set.of(MODEL + "#FETCH", MODEL + "#PERSIST", "elide.model.Other#FETCH"),
+      metrics.allTimings().keySet(),
+      "all timings should list each recorded histogram by model and operation");
+  }
+
+  @Test void testRecordSize() {
+    InProcessMetrics metrics = new InProcessMetrics();
+    PersistenceMetrics.recordSize(MODEL, Operation.CACHE_PUT, 64);
+    assertEquals(0, metrics.sizes(MODEL, Operation.CACHE_PUT).count(), "sizes should not reach inactive listeners");
+    PersistenceMetrics.install(metrics);
+    PersistenceMetrics.recordSize(MODEL, Operation.CACHE_PUT, 64);
+    assertEquals(64, metrics.sizes(MODEL, Operation.CACHE_PUT).sum(), "sizes should reach the active listener");
+  }
+
+  @Test void testTimeFuture() {
+    InProcessMetrics metrics = new InProcessMetrics();
+    SettableFuture<String> future = SettableFuture.create();
+    assertSame(future, metrics.time(MODEL, Operation.FETCH, System.nanoTime(), future),
+      "timing a future should return the same future");
+    assertEquals(0, metrics.timings(MODEL, Operation.FETCH).count(), "pending futures should not be timed yet");
+    future.set("hello");
+    assertEquals(1, metrics.timings(MODEL, Operation.FETCH).count(), "completed futures should be timed");
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import com.google.protobuf.FieldMask;
+import com.google.protobuf.Message;
+import elide.model.PersonRecord.ContactInfo;
+import elide.model.PersonRecord.Person;
+import elide.model.PersonRecord.PersonAddress;
+import elide.model.PersonRecord.PersonKey;
+import elide.model.PersonRecord.TypeBuffet;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for {@link MaskProjection}, which compiles and applies field masks to model instances. */
+public final class MaskProjectionTest {
+  private static final Person PERSON = Person.newBuilder()
+    .setKey(PersonKey.newBuilder().setId("abc123"))
+    .setName("John Doe")
+    .setContactInfo(ContactInfo.newBuilder()
+      .setEmailAddress("john@doe.com")
+      .setPhoneE164("+12345678900")
+      .setAddress(PersonAddress.newBuilder().setFirstLine("123 Main St")))
+    .build();
+
+  private static final FieldMask MASK = FieldMask.newBuilder()
+    .addPaths("name")
+    .addPaths("contact_info.email_address")
+    .build();
+
+  /** Compiled projections should be cached by type, mask, and mode. */
+  @Test void testProjectionCached() {
+    var first = MaskProjection.forMask(Person.getDescriptor(), MASK, FetchOptions.MaskMode.INCLUDE);
+    var second = MaskProjection.forMask(
+      Person.getDescriptor(), MASK.toBuilder().build(), FetchOptions.MaskMode.INCLUDE);
+    assertSame(first, second, "equal masks should resolve the same compiled projection");
+    assertNotSame(first, MaskProjection.forMask(Person.getDescriptor(), MASK, FetchOptions.MaskMode.EXCLUDE),
+      "different mask modes should resolve different projections");
+  }
+
+  /** {@code INCLUDE} masks should keep only marked leaves, and keep (projected) sub-messages. */
+  @Test void testIncludeMask() {
+    var projected = (Person)MaskProjection.forMask(Person.getDescriptor(), MASK, FetchOptions.MaskMode.INCLUDE)
+      .apply(PERSON);
+    assertEquals("John Doe", projected.getName(), "included field should be retained");
+    assertEquals("john@doe.com", projected.getContactInfo().getEmailAddress(),
+      "included nested field should be retained");
+    assertEquals("", projected.getContactInfo().getPhoneE164(), "unmarked nested field should be dropped");
+    assertTrue(projected.getContactInfo().hasAddress(), "sub-messages should always be retained");
+    assertEquals("", projected.getContactInfo().getAddress().getFirstLine(),
+      "unmarked fields in sub-messages should be dropped");
+    assertEquals("", projected.getKey().getId(), "unmarked key ID should be dropped");
+  }
+
+  /** {@code EXCLUDE} masks should drop only marked leaves. */
+  @Test void testExcludeMask() {
+    var projected = (Person)MaskProjection.forMask(Person.getDescriptor(), MASK, FetchOptions.MaskMode.EXCLUDE)
+      .apply(PERSON);
+    assertEquals("", projected.getName(), "excluded field should be dropped");
+    assertEquals("", projected.getContactInfo().getEmailAddress(), "excluded nested field should be dropped");
+    assertEquals("+12345678900", projected.getContactInfo().getPhoneE164(), "unmarked field should be retained");
+    assertEquals("123 Main St", projected.getContactInfo().getAddress().getFirstLine(),
+      "untouched sub-messages should be retained");
+    assertEquals("abc123", projected.getKey().getId(), "unmarked key should be retained");
+  }
+
+  /** {@code PROJECTION} masks leave projection to the storage engine, and so should not alter the model. */
+  @Test void testProjectionMaskIsIdentity() {
+    var projection = MaskProjection.forMask(Person.getDescriptor(), MASK, FetchOptions.MaskMode.PROJECTION);
+    assertTrue(projection.isIdentity(), "projection-mode masks should compile to an identity projection");
+    assertSame(PERSON, projection.apply(PERSON), "identity projection should return the source model");
+  }
+
+  /** Keys should be spliced in during the same pass, regardless of the mask. */
+  @Test void testKeySplice() {
+    var key = PersonKey.newBuilder().setId("def456").build();
+    var keyField = Person.getDescriptor().findFieldByName("key");
+    for (FetchOptions.MaskMode mode : FetchOptions.MaskMode.values()) {
+      Message projected = MaskProjection.forMask(Person.getDescriptor(), MASK, mode).apply(PERSON, keyField, key);
+      assertEquals(key, ((Person)projected).getKey(), "key should be spliced in under mode " + mode.name());
+    }
+  }
+
+  /** Repeated fields should be treated as leaves. */
+  @Test void testRepeatedFields() {
+    var buffet = TypeBuffet.newBuilder()
+      .setStringField("hello")
+      .addLabels("one")
+      .addLabels("two")
+      .build();
+    var include = (TypeBuffet)MaskProjection.forMask(TypeBuffet.getDescriptor(),
+      FieldMask.newBuilder().addPaths("labels").build(),
+      FetchOptions.MaskMode.INCLUDE).apply(buffet);
+    assertEquals(2, include.getLabelsCount(), "included repeated field should be retained");
+    assertEquals("", include.getStringField(), "unmarked field should be dropped");
+
+    var exclude = (TypeBuffet)MaskProjection.forMask(TypeBuffet.getDescriptor(),
+      FieldMask.newBuilder().addPaths("labels").build(),
+      FetchOptions.MaskMode.EXCLUDE).apply(buffet);
+    assertEquals(0, exclude.getLabelsCount(), "excluded repeated field should be dropped");
+    assertEquals("hello", exclude.getStringField(), "unmarked field should be retained");
+  }
+
+  /** Projections should refuse models of the wrong type. */
+  @Test void testTypeMismatch() {
+    var projection = MaskProjection.forMask(Person.getDescriptor(), MASK, FetchOptions.MaskMode.INCLUDE);
+    assertThrows(IllegalArgumentException.class, () -> projection.apply(TypeBuffet.getDefaultInstance()),
+      "applying a projection to the wrong model type should fail");
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import elide.model.PersonRecord.PersonKey;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for the {@link ModelAdapter} interface definition. */
+public final class ModelAdapterTest {
+  private static ListeningScheduledExecutorService executorService;
+
+  @BeforeAll
+  static void initExecutor() {
+    executorService = MoreExecutors.listeningDecorator(Executors.newScheduledThreadPool(2));
+  }
+
+  @AfterAll
+  static void shutdownExecutor() throws InterruptedException {
+    executorService.shutdownNow();
+    executorService.awaitTermination(5, TimeUnit.SECONDS);
+    executorService = null;
+  }
+
+  @Test void testFlightKey() {
+    var key = PersonKey.newBuilder().setId("abc123").build();
+    var other = PersonKey.newBuilder().setId("abc124").build();
+    var instance = PersonRecord.Person.getDefaultInstance();
+    assertEquals(
+      InFlight.flightKey(instance, key, FetchOptions.DEFAULTS),
+      InFlight.flightKey(instance, key, FetchOptions.DEFAULTS),
+      "flight keys should be stable for the same record");
+    assertNotEquals(
+      InFlight.flightKey(instance, key, FetchOptions.DEFAULTS),
+      InFlight.flightKey(instance, other, FetchOptions.DEFAULTS),
+      "flight keys should differ for different records");
+  }
+
+  @Test void testCoalesceConcurrentFetches() throws ExecutionException, InterruptedException {
+    final AtomicInteger calls = new AtomicInteger(0);
+    final SettableFuture<String> inflight = SettableFuture.create();
+    final InFlight flights = InFlight.forAdapter(new Object());
+    final FetchOptions options = FetchOptions.DEFAULTS;
+
+    ListenableFuture<String> first = flights.coalesce("test/coalesce", options, () -> {
+      calls.incrementAndGet();
+      return inflight;
+    });
+    ListenableFuture<String> second = flights.coalesce("test/coalesce", options, () -> {
+      calls.incrementAndGet();
+      return Futures.immediateFuture("should not be called");
+    });
+    assertEquals(1, calls.get(), "concurrent fetches for the same flight key should share one operation");
+
+    inflight.set("hello");
+    assertEquals("hello", first.get(), "leading fetch should receive the shared result");
+    assertEquals("hello", second.get(), "joining fetch should receive the shared result");
+
+    ListenableFuture<String> third = flights.coalesce("test/coalesce", options, () -> {
+      calls.incrementAndGet();
+      return Futures.immediateFuture("again");
+    });
+    assertEquals("again", third.get(), "fetches after completion should start a new operation");
+    assertEquals(2, calls.get(), "completed flights should not be re-used");
+  }
+
+  @Test void testCoalesceScopedToAdapterAndOptions() {
+    final AtomicInteger calls = new AtomicInteger(0);
+    final SettableFuture<String> inflight = SettableFuture.create();
+    final Object adapter = new Object();
+    final FetchOptions otherOptions = new FetchOptions() {};
+
+    InFlight.forAdapter(adapter).coalesce("test/scoped", FetchOptions.DEFAULTS, () -> {
+      calls.incrementAndGet();
+      return inflight;
+    });
+    assertSame(InFlight.forAdapter(adapter), InFlight.forAdapter(adapter),
+      "the same adapter should always resolve the same flight table");
+    InFlight.forAdapter(new Object()).coalesce("test/scoped", FetchOptions.DEFAULTS, () -> {
+      calls.incrementAndGet();
+      return inflight;
+    });
+    assertEquals(2, calls.get(), "fetches through different adapters should not share a flight");
+    InFlight.forAdapter(adapter).coalesce("test/scoped", otherOptions, () -> {
+      calls.incrementAndGet();
+      return inflight;
+    });
+    assertEquals(3, calls.get(), "fetches with different options should not share a flight");
+    inflight.set("done");
+  }
+
+  @Test void testCoalesceCancellationIsolated() throws ExecutionException, InterruptedException {
+    final SettableFuture<String> inflight = SettableFuture.create();
+    final InFlight flights = InFlight.forAdapter(new Object());
+    ListenableFuture<String> first = flights.coalesce("test/cancel", FetchOptions.DEFAULTS, () -> inflight);
+    ListenableFuture<String> second = flights.coalesce("test/cancel", FetchOptions.DEFAULTS, () -> inflight);
+
+    first.cancel(true);
+    assertFalse(inflight.isCancelled(), "cancelling one caller should not cancel the shared fetch");
+    inflight.set("hello");
+    assertEquals("hello", second.get(), "other callers should still receive the shared result");
+  }
+
+  @Test void testHedgeCacheHitWins() throws Exception {
+    final AtomicInteger calls = new AtomicInteger(0);
+    final SettableFuture<Optional<String>> storage = SettableFuture.create();
+    ListenableFuture<Optional<String>> result = Hedge.race(
+      Futures.immediateFuture(Optional.of("cached")), () -> {
+        calls.incrementAndGet();
+        return storage;
+      }, 1, TimeUnit.SECONDS, executorService);
+
+    assertEquals("cached", result.get(5, TimeUnit.SECONDS).orElseThrow(), "cache hit should win the race");
+    assertEquals(0, calls.get(), "storage should not be read if the cache answers in time");
+  }
+
+  @Test void testHedgeSlowCache() throws Exception {
+    final SettableFuture<Optional<String>> cache = SettableFuture.create();
+    ListenableFuture<Optional<String>> result = Hedge.race(
+      cache, () -> Futures.immediateFuture(Optional.of("stored")), 10, TimeUnit.MILLISECONDS, executorService);
+
+    assertEquals("stored", result.get(5, TimeUnit.SECONDS).orElseThrow(), "storage should win over a slow cache");
+    assertTrue(cache.isCancelled(), "losing cache read should be cancelled");
+  }
+
+  @Test void testHedgeCacheMissDefersToStorage() throws Exception {
+    final AtomicInteger calls = new AtomicInteger(0);
+    ListenableFuture<Optional<String>> result = Hedge.race(
+      Futures.immediateFuture(Optional.empty()), () -> {
+        calls.incrementAndGet();
+        return Futures.immediateFuture(Optional.of("stored"));
+      }, 1, TimeUnit.SECONDS, executorService);
+
+    assertEquals("stored", result.get(5, TimeUnit.SECONDS).orElseThrow(), "cache miss should defer to storage");
+    assertEquals(1, calls.get(), "storage should be read exactly once");
+  }
+
+  @Test void testHedgeLearnedDelay() throws TimeoutException, ExecutionException, InterruptedException {
+    final CacheOptions options = new CacheOptions() {
+      @Override
+      public @Nonnull Optional<Double> cacheHedgePercentile() {
+        return Optional.of(0.99);
+      }
+    };
+    final Object hedgeOwner = new Object();
+    final Hedge hedge = Hedge.forAdapter(hedgeOwner);
+    assertFalse(hedge.delay(options).isPresent(),
+      "no hedge delay should be used before enough latencies are observed");
+    for (int i = 0; i < 32; i++) {
+      hedge.observe(Futures.immediateFuture("hello"), System.nanoTime())
+        .get(5, TimeUnit.SECONDS);
+    }
+    Optional<Long> learned = hedge.delay(options);
+    assertTrue(learned.isPresent(), "hedge delay should be learned once enough latencies are observed");
+    assertTrue(learned.get() > 0, "sub-millisecond learned delays should not truncate to zero");
+    assertFalse(Hedge.forAdapter(new Object()).delay(options).isPresent(),
+      "latencies observed through one adapter should not be shared with another");
+    assertSame(hedge, Hedge.forAdapter(hedgeOwner), "hedge state should be kept for the life of its adapter");
+  }
+
+  @Test void testHedgeConfiguredDelayInNanos() {
+    final CacheOptions options = new CacheOptions() {
+      @Override
+      public @Nonnull Optional<Long> cacheHedgeDelay() {
+        return Optional.of(5L);
+      }
+    };
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(5), Hedge.forAdapter(new Object()).delay(options).orElseThrow(),
+      "configured hedge delay should be converted to nanoseconds");
+  }
+
+  @Test void testHedgeLearnedPercentileSlidesWithWindow() throws Exception {
+    final CacheOptions options = new CacheOptions() {
+      @Override
+      public @Nonnull Optional<Double> cacheHedgePercentile() {
+        return Optional.of(1.0);
+      }
+    };
+    // fill the window with slow reads, then replace every one of them with fast reads.
+    final Hedge hedge = Hedge.forAdapter(new Object());
+    for (int i = 0; i < 128; i++) {
+      hedge.observe(Futures.immediateFuture("slow"), System.nanoTime() - 10_000_000L)
+        .get(5, TimeUnit.SECONDS);
+    }
+    assertTrue(hedge.delay(options).orElseThrow() >= 10_000_000L,
+      "learned delay should follow slow reads");
+    for (int i = 0; i < 128; i++) {
+      hedge.observe(Futures.immediateFuture("fast"), System.nanoTime())
+        .get(5, TimeUnit.SECONDS);
+    }
+    assertTrue(hedge.delay(options).orElseThrow() < 10_000_000L,
+      "learned delay should forget reads which have left the window");
+  }
+}
@@ -12,6 +12,7 @@
  */
 package elide.model;
 
+import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.FieldMask;
 import elide.model.PersonRecord.Person;
 import elide.model.PersonRecord.PersonKey;
@@ -23,6 +24,7 @@ import tools.elide.core.Datamodel;
 import tools.elide.core.DatapointType;
 import tools.elide.core.FieldType;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -714,4 +716,130 @@ public final class ModelMetadataTest {
         Optional.of(PersonKey.newBuilder().setId("hi").build()));
     });
   }
+
+  @Test void testCompiledSchema() {
+    var schema = ModelMetadata.ModelSchema.forDescriptor(Person.getDescriptor());
+    assertSame(schema, ModelMetadata.ModelSchema.forDescriptor(Person.getDescriptor()),
+      "compiled schema should be cached per descriptor");
+    assertSame(Person.getDescriptor(), schema.getDescriptor(), "schema should hold its descriptor");
+    assertEquals(DatapointType.OBJECT, schema.role(), "schema role should be expected value");
+    assertEquals("key", schema.keyField().orElseThrow().getPath(), "schema key field should be expected value");
+    assertEquals("key.id", schema.idField().orElseThrow().getPath(),
+      "schema ID field should resolve through the key");
+    assertTrue(schema.parentField().isEmpty(), "schema should have no parent field");
+    assertEquals(schema.keyField(), ModelMetadata.keyField(Person.getDescriptor()),
+      "`keyField` should match the compiled schema");
+    assertEquals(schema.idField(), ModelMetadata.idField(Person.getDescriptor()),
+      "`idField` should match the compiled schema");
+  }
+
+  @Test void testCompiledKeySchema() {
+    var schema = ModelMetadata.ModelSchema.forDescriptor(PersonKey.getDescriptor());
+    assertEquals(DatapointType.OBJECT_KEY, schema.role(), "key schema role should be expected value");
+    assertEquals("id", schema.idField().orElseThrow().getPath(), "key schema ID field should be top-level");
+    assertTrue(schema.keyField().isEmpty(), "key schema should have no key field");
+    assertEquals("people", schema.collectionPath(), "key schema should use the declared collection path");
+    assertEquals("enrollevents", ModelMetadata.ModelSchema.forDescriptor(EnrollEvent.getDescriptor()).collectionPath(),
+      "schema should compute a collection path if none is declared");
+  }
+
+  @Test void testGeneratedAccessors() {
+    var accessors = ModelMetadata.ModelAccessors.forType(Person.class);
+    assertTrue(accessors.readsKey() && accessors.writesKey(), "should bind generated key accessors");
+    assertTrue(accessors.readsId() && accessors.writesId(), "should bind generated ID accessors through the key");
+    assertEquals("ContactInfo", ModelMetadata.ModelAccessors.javaName(
+      Person.getDescriptor().findFieldByName("contact_info")), "generated accessor name should match protoc");
+
+    Person model = Person.newBuilder().setKey(PersonKey.newBuilder().setId("abc123")).build();
+    Person spliced = ModelMetadata.spliceId(model, Optional.of("def456"));
+    assertEquals("def456", spliced.getKey().getId(), "ID splice via generated accessors should be applied");
+    Person cleared = ModelMetadata.spliceId(model, Optional.empty());
+    assertTrue(cleared.hasKey(), "clearing the ID should leave the key in place");
+    assertEquals("", cleared.getKey().getId(), "ID splice via generated accessors should clear the ID");
+  }
+
+  @Test void testDynamicAccessorFallback() {
+    var keyField = Person.getDescriptor().findFieldByName("key");
+    DynamicMessage model = DynamicMessage.newBuilder(Person.getDescriptor())
+      .setField(keyField, PersonKey.newBuilder().setId("abc123").build())
+      .build();
+    assertFalse(ModelMetadata.ModelAccessors.forType(DynamicMessage.class).readsId(),
+      "dynamic messages should not bind generated accessors");
+    assertEquals(Optional.of("abc123"), ModelMetadata.id(model), "dynamic messages should fall back for IDs");
+    assertTrue(ModelMetadata.key(model).isPresent(), "dynamic messages should fall back for keys");
+  }
+
+  @Test void testFieldTraversal() {
+    var all = ModelMetadata.allFields(Person.getDescriptor(), Optional.empty(), true);
+    assertSame(all, ModelMetadata.allFields(Person.getDescriptor(), Optional.empty(), true),
+      "unfiltered field lists should be compiled once per model");
+    var paths = new ArrayList<String>();
+    all.forEach((field) -> paths.add(field.getPath()));
+    assertTrue(paths.contains(".key.id"), "recursive traversal should include key fields");
+    assertTrue(paths.contains(".contact_info.email_address"), "recursive traversal should include nested fields");
+    assertTrue(paths.indexOf(".key") < paths.indexOf(".key.id"), "traversal should be in pre-order");
+
+    var topLevel = ModelMetadata.forEachField(Person.getDescriptor(), Optional.empty())
+      .map(ModelMetadata.FieldPointer::getPath)
+      .collect(Collectors.toList());
+    assertEquals(Person.getDescriptor().getFields().stream()
+      .map((field) -> "." + field.getName())
+      .collect(Collectors.toList()), topLevel, "non-recursive traversal should visit only top-level fields");
+
+    var skipped = ModelMetadata.streamFields(
+      Person.getDescriptor(),
+      Optional.empty(),
+      (field) -> !"key".equals(field.getName())
+    ).map(ModelMetadata.FieldPointer::getPath).collect(Collectors.toList());
+    assertTrue(skipped.contains(".key"), "declined branches should still be visited");
+    assertFalse(skipped.contains(".key.id"), "declined branches should not be recursed into");
+    assertTrue(skipped.contains(".contact_info.email_address"), "other branches should be recursed into");
+
+    var first = ModelMetadata.forEachField(Person.getDescriptor(), Optional.empty()).findFirst().orElseThrow();
+    var second = ModelMetadata.forEachField(Person.getDescriptor(), Optional.empty()).findFirst().orElseThrow();
+    assertSame(first, second, "field pointers should be built once per model");
+  }
+
+  @Test void testFieldPatches() {
+    Person base = Person.newBuilder()
+      .setKey(PersonKey.newBuilder().setId("abc123"))
+      .setName("John Doe")
+      .setContactInfo(ContactInfo.newBuilder().setEmailAddress("john@doe.com"))
+      .build();
+    Person changed = base.toBuilder()
+      .setKey(PersonKey.newBuilder().setId("other"))
+      .setName("Jane Doe")
+      .build();
+
+    assertEquals(FieldMask.newBuilder().addPaths("name").build(), ModelMetadata.diffMask(base, changed),
+      "diff should list changed fields, but never the key");
+    assertEquals(0, ModelMetadata.diffMask(base, base).getPathsCount(), "identical models should have no diff");
+    assertThrows(IllegalArgumentException.class, () -> ModelMetadata.diffMask(base, PersonKey.getDefaultInstance()),
+      "diff across types should fail");
+
+    var fields = ModelMetadata.patchedFields(Person.getDescriptor(), FieldMask.newBuilder()
+      .addPaths("name")
+      .addPaths("contact_info.email_address")
+      .build());
+    assertEquals(java.util.List.of("contact_info.email_address", "name"), new ArrayList<>(fields),
+      "nested paths should be kept as-is");
+    assertEquals(java.util.List.of("contact_info"), new ArrayList<>(ModelMetadata.patchedFields(
+      Person.getDescriptor(), FieldMask.newBuilder()
+        .addPaths("contact_info.email_address")
+        .addPaths("contact_info")
+        .build())),
+      "paths covered by a parent path should be dropped");
+    assertThrows(IllegalArgumentException.class, () -> ModelMetadata.patchedFields(
+      Person.getDescriptor(), FieldMask.newBuilder().addPaths("missing").build()),
+      "invalid mask paths should be rejected");
+
+    Person patch = Person.newBuilder().setName("Jane Doe").build();
+    Person merged = ModelMetadata.mergePatch(base, patch, FieldMask.newBuilder()
+      .addPaths("name")
+      .addPaths("contact_info")
+      .build());
+    assertEquals("Jane Doe", merged.getName(), "masked fields should be copied from the patch");
+    assertFalse(merged.hasContactInfo(), "masked fields which are unset on the patch should be cleared");
+    assertEquals(base.getKey(), merged.getKey(), "fields outside the mask should be kept");
+  }
 }
@@ -16,6 +16,7 @@ import com.google.protobuf.FieldMask;
 import elide.model.CacheOptions.EvictionMode;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -98,4 +99,19 @@ public final class ModelOptionsTest {
       assertTrue(mode.toString().contains(mode.name()), "mask mode representation should mention name");
     }
   }
+
+  /** Test default paging settings on {@link QueryOptions}, and basic {@link QueryPage} behavior. */
+  @Test void testDefaultQueryPaging() {
+    QueryOptions options = new QueryOptions() {};
+    assertFalse(options.limit().isPresent(), "there should be no default query limit");
+    assertFalse(options.cursor().isPresent(), "there should be no default query cursor");
+    assertTrue(options.queryPageSize() > 0, "default query page size should be positive");
+
+    QueryPage<String> last = QueryPage.of(List.of("a", "b"), Optional.empty());
+    assertFalse(last.hasMore(), "page without a cursor should be the last page");
+    assertEquals(2, last.results().size(), "page should hold its results");
+    QueryPage<String> next = QueryPage.of(List.of("a"), Optional.of("cursor"));
+    assertTrue(next.hasMore(), "page with a cursor should have more results");
+    assertEquals("cursor", next.nextCursor().orElseThrow(), "page should expose its cursor");
+  }
 }
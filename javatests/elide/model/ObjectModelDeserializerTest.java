@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import com.google.cloud.NoCredentials;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreOptions;
+import com.google.firestore.v1.Value;
+import com.google.protobuf.Timestamp;
+import elide.model.PersonRecord.ContactInfo;
+import elide.model.PersonRecord.Person;
+import elide.model.PersonRecord.PersonKey;
+import elide.model.PersonRecord.PersonMembership;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Tests for {@link ObjectModelDeserializer}, which inflates models from the native values Firestore hands back for
+ * documents written by {@link ObjectModelSerializer}.
+ */
+public final class ObjectModelDeserializerTest {
+  private static final String prefix = "projects/sample/databases/(default)/documents/";
+
+  private static final Person person = Person.newBuilder()
+    .setKey(PersonKey.newBuilder().setId("abc123"))
+    .setName("Jane Doe")
+    .setContactInfo(ContactInfo.newBuilder()
+      .setEmailAddress("jane@example.com")
+      .setPhoneE164("+15555550100"))
+    .build();
+
+  private static final PersonMembership membership = PersonMembership.newBuilder()
+    .setId("m1")
+    .setHolder(person.getKey())
+    .setSponsor("xyz789")
+    .setContact(ContactInfo.newBuilder().setEmailAddress("club@example.com"))
+    .setJoined(Timestamp.newBuilder().setSeconds(1650000000L).setNanos(5000))
+    .build();
+
+  /** Offline Firestore client, used only to construct document references. */
+  private static Firestore firestore;
+
+  @BeforeAll static void initFirestore() {
+    firestore = FirestoreOptions.newBuilder()
+      .setProjectId("sample")
+      .setCredentials(NoCredentials.getInstance())
+      .build()
+      .getService();
+  }
+
+  @AfterAll static void closeFirestore() throws Exception {
+    firestore.close();
+    firestore = null;
+  }
+
+  /** Convert a serialized value to the native type Firestore hands back when reading it. */
+  private static Object decode(Value value) {
+    switch (value.getValueTypeCase()) {
+      case BOOLEAN_VALUE: return value.getBooleanValue();
+      case INTEGER_VALUE: return value.getIntegerValue();
+      case DOUBLE_VALUE: return value.getDoubleValue();
+      case STRING_VALUE: return value.getStringValue();
+      case TIMESTAMP_VALUE: return com.google.cloud.Timestamp.fromProto(value.getTimestampValue());
+      case REFERENCE_VALUE:
+        assertTrue(value.getReferenceValue().startsWith(prefix), "references should carry the database prefix");
+        return firestore.document(value.getReferenceValue().substring(prefix.length()));
+      case MAP_VALUE: return decode(value.getMapValue().getFieldsMap());
+      case ARRAY_VALUE:
+        List<Object> list = new ArrayList<>();
+        for (Value item : value.getArrayValue().getValuesList()) list.add(decode(item));
+        return list;
+      default: return null;
+    }
+  }
+
+  /** Convert serialized properties to the native map Firestore hands back when reading them. */
+  private static Map<String, Object> decode(Map<String, Value> data) {
+    Map<String, Object> decoded = new LinkedHashMap<>();
+    data.forEach((name, value) -> decoded.put(name, decode(value)));
+    return decoded;
+  }
+
+  /** Serialize the provided model, then inflate it from the native values Firestore would hand back for it. */
+  private static <M extends com.google.protobuf.Message> M roundTrip(M model) throws Exception {
+    SerializedModel serialized = ObjectModelSerializer.Companion.<M>defaultInstance(prefix)
+      .serialize(model, null, false, false, null, null);
+    //noinspection unchecked
+    return ObjectModelDeserializer.defaultInstance((M)model.getDefaultInstanceForType(), "")
+      .inflate(decode(serialized));
+  }
+
+  @Test void testRoundTripNested() throws Exception {
+    assertEquals(person, roundTrip(person), "nested records should survive a round trip");
+    Person sparse = Person.newBuilder().setName("Jane Doe").build();
+    assertEquals(sparse, roundTrip(sparse), "omitted defaults should inflate as defaults");
+  }
+
+  @Test void testRoundTripReferencesAndConcrete() throws Exception {
+    PersonMembership inflated = roundTrip(membership);
+    assertEquals(membership.getHolder(), inflated.getHolder(), "key references should inflate to the key");
+    assertEquals(membership.getJoined(), inflated.getJoined(), "timestamps should inflate with full precision");
+    assertEquals(membership.getContact(), inflated.getContact(), "concrete fields should inflate from the record");
+    assertEquals("people/xyz789", inflated.getSponsor(), "string references should inflate to the document path");
+    assertEquals(membership.toBuilder().setSponsor("people/xyz789").build(), inflated,
+      "record should otherwise survive a round trip");
+  }
+
+  @Test void testInflateProtoTimestamp() throws Exception {
+    Map<String, Object> data = new LinkedHashMap<>();
+    data.put("id", "m1");
+    data.put("joined", membership.getJoined());
+    assertEquals(membership.getJoined(),
+      ObjectModelDeserializer.defaultInstance(PersonMembership.getDefaultInstance(), "").inflate(data).getJoined(),
+      "protobuf timestamps should inflate as-is");
+  }
+}
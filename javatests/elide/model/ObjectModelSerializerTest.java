@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import com.google.firestore.v1.MapValue;
+import com.google.firestore.v1.Value;
+import com.google.protobuf.Timestamp;
+import elide.model.PersonRecord.ContactInfo;
+import elide.model.PersonRecord.Person;
+import elide.model.PersonRecord.PersonKey;
+import elide.model.PersonRecord.PersonMembership;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for {@link ObjectModelSerializer}, which serializes models into maps of Firestore values. */
+public final class ObjectModelSerializerTest {
+  private static final String prefix = "projects/sample/databases/(default)/documents/";
+
+  private final ObjectModelSerializer<Person> serializer = ObjectModelSerializer.Companion.defaultInstance(prefix);
+
+  private static final Person person = Person.newBuilder()
+    .setKey(PersonKey.newBuilder().setId("abc123"))
+    .setName("Jane Doe")
+    .setContactInfo(ContactInfo.newBuilder()
+      .setEmailAddress("jane@example.com")
+      .setPhoneE164("+15555550100"))
+    .build();
+
+  private static final PersonMembership membership = PersonMembership.newBuilder()
+    .setId("m1")
+    .setHolder(person.getKey())
+    .setSponsor("xyz789")
+    .setContact(ContactInfo.newBuilder().setEmailAddress("club@example.com"))
+    .setJoined(Timestamp.newBuilder().setSeconds(1650000000L))
+    .build();
+
+  private static Value string(String value) {
+    return Value.newBuilder().setStringValue(value).build();
+  }
+
+  private static Value reference(String value) {
+    return Value.newBuilder().setReferenceValue(value).build();
+  }
+
+  private static Value map(Map<String, Value> fields) {
+    return Value.newBuilder().setMapValue(MapValue.newBuilder().putAllFields(fields)).build();
+  }
+
+  /** Expected serialized form of {@link #person}, in declaration order. */
+  private static Map<String, Value> expectedPerson() {
+    Map<String, Value> expected = new LinkedHashMap<>();
+    expected.put("key", map(Map.of("id", string("abc123"))));
+    expected.put("name", string("Jane Doe"));
+    expected.put("contact_info", map(Map.of(
+      "email_address", string("jane@example.com"),
+      "phone_e164", string("+15555550100"))));
+    return expected;
+  }
+
+  /** Expected serialized form of {@link #membership}: references, then concrete fields lifted onto the record. */
+  private static Map<String, Value> expectedMembership() {
+    Map<String, Value> expected = new LinkedHashMap<>();
+    expected.put("id", string("m1"));
+    expected.put("holder", reference(prefix + "people/abc123"));
+    expected.put("sponsor", reference(prefix + "people/xyz789"));
+    expected.put("joined", Value.newBuilder().setTimestampValue(membership.getJoined()).build());
+    expected.put("email_address", string("club@example.com"));
+    expected.put(ObjectModelSerializer.concreteTypeProperty, string("contact"));
+    return expected;
+  }
+
+  /** Capture each write performed by the provided collapsed message, by path. */
+  private static Map<String, SerializedModel> persist(CollapsedMessage collapsed) {
+    Map<String, SerializedModel> writes = new LinkedHashMap<>();
+    collapsed.persist(null, new WriteProxy<String>() {
+      @Override public String ref(String path, @Nullable String prefix) {
+        return path;
+      }
+
+      @Override public void put(String reference, SerializedModel message) {
+        writes.put(reference, message);
+      }
+
+      @Override public void create(String reference, SerializedModel message) {
+        fail("blind collapse should not create");
+      }
+
+      @Override public void update(String reference, SerializedModel message) {
+        fail("blind collapse should not update");
+      }
+    });
+    return writes;
+  }
+
+  @Test void testSerializeNested() {
+    SerializedModel serialized = serializer.serialize(person, null, false, false, null, null);
+    assertEquals(expectedPerson(), serialized, "nested records should serialize to map values");
+    assertEquals(new ArrayList<>(expectedPerson().keySet()), new ArrayList<>(serialized.keySet()),
+      "properties should follow declaration order");
+  }
+
+  @Test void testSerializeOmitsDefaults() {
+    SerializedModel serialized = serializer.serialize(
+      Person.newBuilder().setName("Jane Doe").build(), null, false, false, null, null);
+    assertEquals(Map.of("name", string("Jane Doe")), serialized, "default values should be omitted");
+  }
+
+  @Test void testSerializeReferencesAndConcrete() {
+    SerializedModel serialized = ObjectModelSerializer.Companion.<PersonMembership>defaultInstance(prefix)
+      .serialize(membership, null, false, false, null, null);
+    assertEquals(expectedMembership(), serialized,
+      "references should serialize as paths, and concrete fields should lift onto the record");
+    assertEquals(new ArrayList<>(expectedMembership().keySet()), new ArrayList<>(serialized.keySet()),
+      "lifted properties should follow the record's own properties");
+  }
+
+  @Test void testCollapse() {
+    Map<String, SerializedModel> writes = persist(
+      serializer.collapse(person, null, null, ModelSerializer.WriteDisposition.BLIND));
+    assertEquals(List.of("people/abc123"), new ArrayList<>(writes.keySet()),
+      "collapsed record should write to its collection path");
+    assertEquals(expectedPerson(), writes.get("people/abc123"), "collapsed record should carry its serialized data");
+
+    writes = persist(ObjectModelSerializer.Companion.<PersonMembership>defaultInstance(prefix)
+      .collapse(membership, null, null, ModelSerializer.WriteDisposition.BLIND));
+    assertEquals(List.of("memberships/m1"), new ArrayList<>(writes.keySet()),
+      "collapsed record should write to its declared collection path");
+    assertEquals(expectedMembership(), writes.get("memberships/m1"),
+      "collapsed record should carry references and lifted properties");
+  }
+}
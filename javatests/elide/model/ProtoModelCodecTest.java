@@ -12,10 +12,17 @@
  */
 package elide.model;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.util.JsonFormat;
+import elide.model.PersonRecord.ContactInfo;
 import elide.model.PersonRecord.Person;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -97,4 +104,104 @@ public final class ProtoModelCodecTest {
     assertEquals(person.toString(), reloaded2.toString(), "re-loaded record 2 should be identical");
     assertEquals(person.toString(), reloaded3.toString(), "re-loaded record 3 should be identical");
   }
+
+  /** JSON output should match {@link JsonFormat} byte-for-byte, including multibyte and supplementary characters. */
+  @Test void testCodecJSONMatchesJsonFormat() throws IOException {
+    ModelCodec<Person, EncodedModel, EncodedModel> personCodec = ProtoModelCodec.forModel(
+      Person.getDefaultInstance(), EncodingMode.JSON);
+    Person person = Person.newBuilder()
+      .setName("J\u00f6rg \u6771\u4eac \ud83d\ude00 \"quoted\"")
+      .setContactInfo(ContactInfo.newBuilder().setEmailAddress("jorg@example.com"))
+      .build();
+
+    String expected = JsonFormat.printer()
+      .sortingMapKeys()
+      .omittingInsignificantWhitespace()
+      .print(person);
+    EncodedModel encoded = personCodec.serialize(person);
+    assertEquals(expected, encoded.getRawBytes().toStringUtf8(), "streamed JSON should match `JsonFormat` output");
+    assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), encoded.getRawBytes().toByteArray(),
+      "streamed JSON should be encoded as UTF-8");
+    assertEquals(person, personCodec.deserialize(encoded), "streamed JSON should round-trip");
+  }
+
+  /** Large payloads should be compressed and read back transparently, while small payloads are left alone. */
+  @Test void testCodecCompression() throws IOException {
+    ModelCodec<Person, EncodedModel, EncodedModel> personCodec = ProtoModelCodec.forModel(
+      Person.getDefaultInstance(), EncodingMode.BINARY, Optional.empty(), Optional.of(PayloadCompression.deflate(64)));
+    Person small = Person.newBuilder().setName("Jane Doe").build();
+    Person large = Person.newBuilder().setName("Jane Doe ".repeat(200)).build();
+
+    EncodedModel encodedSmall = personCodec.serialize(small);
+    assertFalse(PayloadCompression.isCompressed(encodedSmall.getRawBytes()), "small payloads should not compress");
+    assertEquals(small, personCodec.deserialize(encodedSmall), "small payload should round-trip");
+
+    EncodedModel encodedLarge = personCodec.serialize(large);
+    assertTrue(PayloadCompression.isCompressed(encodedLarge.getRawBytes()), "large payloads should compress");
+    assertTrue(encodedLarge.size() < large.getSerializedSize(), "compressed payload should be smaller");
+    assertEquals(large, personCodec.deserialize(encodedLarge), "compressed payload should round-trip");
+    assertEquals(large, encodedLarge.inflate(Person.getDefaultInstance()),
+      "compressed payload should inflate directly");
+    assertEquals(large, ProtoModelCodec.forModel(Person.getDefaultInstance()).deserialize(encodedLarge),
+      "codecs without compression should still read compressed payloads");
+  }
+
+  /** Payloads no larger than the compression header should be left alone, even under a tiny threshold. */
+  @Test void testCodecCompressionTinyPayload() throws IOException {
+    PayloadCompression compression = PayloadCompression.deflate(1);
+    for (int size = 1; size <= 4; size++) {
+      ByteString payload = ByteString.copyFrom(new byte[size]);
+      assertSame(payload, compression.compress(payload), "payloads no larger than the header should not compress");
+    }
+
+    ModelCodec<Person, EncodedModel, EncodedModel> personCodec = ProtoModelCodec.forModel(
+      Person.getDefaultInstance(), EncodingMode.BINARY, Optional.empty(), Optional.of(compression));
+    Person tiny = Person.newBuilder().setName("J").build();
+    EncodedModel encoded = personCodec.serialize(tiny);
+    assertFalse(PayloadCompression.isCompressed(encoded.getRawBytes()), "tiny payloads should not compress");
+    assertEquals(tiny, personCodec.deserialize(encoded), "tiny payload should round-trip");
+  }
+
+  /** Payloads compressed with a trained dictionary should require that dictionary to read. */
+  @Test void testCodecCompressionDictionary() throws IOException {
+    Person sample = Person.newBuilder()
+      .setName("Jane Doe")
+      .setContactInfo(ContactInfo.newBuilder().setEmailAddress("jane@doe.com"))
+      .build();
+    byte[] dictionary = PayloadCompression.trainDictionary(List.of(sample, sample), 1024);
+    PayloadCompression compression = PayloadCompression.deflate(16).withDictionary(dictionary);
+    ModelCodec<Person, EncodedModel, EncodedModel> personCodec = ProtoModelCodec.forModel(
+      Person.getDefaultInstance(), EncodingMode.BINARY, Optional.empty(), Optional.of(compression));
+
+    Person person = sample.toBuilder().setName("Jane Doe ".repeat(8)).build();
+    EncodedModel encoded = personCodec.serialize(person);
+    assertTrue(PayloadCompression.isCompressed(encoded.getRawBytes()), "payload should compress");
+    assertEquals(person, personCodec.deserialize(encoded), "payload should round-trip with its dictionary");
+    assertThrows(IOException.class, () -> ProtoModelCodec.forModel(Person.getDefaultInstance()).deserialize(encoded),
+      "payload should not read without its dictionary");
+  }
+
+  /** Serializing into a byte sink should write exactly the bytes {@code serialize} would produce. */
+  @Test void testCodecSerializeToSink() throws IOException {
+    Person small = Person.newBuilder().setName("Jane Doe").build();
+    Person large = Person.newBuilder().setName("Jane Doe ".repeat(2000)).build();
+    List<ProtoModelCodec<Person>> codecs = List.of(
+      ProtoModelCodec.forModel(Person.getDefaultInstance(), EncodingMode.BINARY),
+      ProtoModelCodec.forModel(Person.getDefaultInstance(), EncodingMode.JSON),
+      ProtoModelCodec.forModel(Person.getDefaultInstance(), EncodingMode.BINARY, Optional.empty(),
+        Optional.of(PayloadCompression.deflate(64))),
+      ProtoModelCodec.forModel(Person.getDefaultInstance(), EncodingMode.JSON, Optional.empty(),
+        Optional.of(PayloadCompression.deflate(64))));
+
+    for (ProtoModelCodec<Person> codec : codecs) {
+      for (Person person : List.of(small, large)) {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        int written = codec.serializeTo(person, sink);
+        EncodedModel expected = codec.serialize(person);
+        assertEquals(expected.size(), written, "should report the number of bytes written");
+        assertArrayEquals(expected.getRawBytes().toByteArray(), sink.toByteArray(),
+          "sink output should match serialized output");
+      }
+    }
+  }
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for {@link QueryPublisher}, which emits paged query results according to subscriber demand. */
+public final class QueryPublisherTest {
+  /** Subscriber which records everything it receives, and requests nothing on its own. */
+  private static final class RecordingSubscriber implements Subscriber<String> {
+    final List<String> received = new ArrayList<>();
+    Subscription subscription;
+    Throwable error;
+    boolean completed = false;
+
+    @Override public void onSubscribe(Subscription subscription) { this.subscription = subscription; }
+    @Override public void onNext(String value) { received.add(value); }
+    @Override public void onError(Throwable error) { this.error = error; }
+    @Override public void onComplete() { this.completed = true; }
+  }
+
+  /** Build a publisher over {@code total} integer rows, counting page fetches in {@code pages}. */
+  private static QueryPublisher<Integer, String> publisher(int total, int pageSize, AtomicInteger pages) {
+    return publisher(total, pageSize, Integer.MAX_VALUE, pages);
+  }
+
+  /** Build a publisher over {@code total} integer rows, emitting at most {@code limit} of them. */
+  private static QueryPublisher<Integer, String> publisher(int total, int pageSize, int limit, AtomicInteger pages) {
+    return QueryPublisher.create((after, size) -> {
+      pages.incrementAndGet();
+      int start = after == null ? 0 : after + 1;
+      return Futures.immediateFuture(IntStream.range(start, Math.min(start + size, total))
+        .boxed()
+        .collect(Collectors.toList()));
+    }, (row) -> "row-" + row, pageSize, limit, MoreExecutors.directExecutor());
+  }
+
+  @Test void testRespectsDemand() {
+    final AtomicInteger pages = new AtomicInteger(0);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    publisher(10, 4, pages).subscribe(subscriber);
+    assertEquals(0, pages.get(), "no page should be fetched before demand is signalled");
+
+    subscriber.subscription.request(3);
+    assertEquals(List.of("row-0", "row-1", "row-2"), subscriber.received, "should emit only as much as requested");
+    assertEquals(1, pages.get(), "should fetch only the first page to satisfy initial demand");
+
+    subscriber.subscription.request(2);
+    assertEquals(5, subscriber.received.size(), "should emit across page boundaries as demand grows");
+    assertEquals(2, pages.get(), "should fetch the next page only once the first is drained");
+    assertFalse(subscriber.completed, "should not complete while rows remain");
+  }
+
+  @Test void testCompletesAfterShortPage() {
+    final AtomicInteger pages = new AtomicInteger(0);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    publisher(10, 4, pages).subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertEquals(10, subscriber.received.size(), "should emit every row under unbounded demand");
+    assertEquals("row-9", subscriber.received.get(9), "should emit rows in order");
+    assertEquals(3, pages.get(), "should stop fetching after a short page");
+    assertTrue(subscriber.completed, "should complete once the last page drains");
+  }
+
+  @Test void testLimit() {
+    final AtomicInteger pages = new AtomicInteger(0);
+    final List<Integer> sizes = new ArrayList<>();
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    QueryPublisher.<Integer, String>create((after, size) -> {
+      pages.incrementAndGet();
+      sizes.add(size);
+      int start = after == null ? 0 : after + 1;
+      return Futures.immediateFuture(IntStream.range(start, start + size).boxed().collect(Collectors.toList()));
+    }, (row) -> "row-" + row, 4, 6, MoreExecutors.directExecutor()).subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertEquals(6, subscriber.received.size(), "should emit no more than the limit");
+    assertEquals("row-5", subscriber.received.get(5), "should emit the first rows up to the limit");
+    assertEquals(List.of(4, 2), sizes, "should clamp the final page fetch to the rows remaining under the limit");
+    assertEquals(2, pages.get(), "should stop fetching once the limit is reached");
+    assertTrue(subscriber.completed, "should complete once the limit is reached");
+  }
+
+  @Test void testLimitOnPageBoundary() {
+    final AtomicInteger pages = new AtomicInteger(0);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    publisher(10, 4, 8, pages).subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertEquals(8, subscriber.received.size(), "should emit exactly the limit when it falls on a page boundary");
+    assertEquals(2, pages.get(), "should not fetch a page past the limit");
+    assertTrue(subscriber.completed, "should complete once the limit is reached");
+  }
+
+  @Test void testZeroLimit() {
+    final AtomicInteger pages = new AtomicInteger(0);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    publisher(10, 4, 0, pages).subscribe(subscriber);
+    subscriber.subscription.request(1);
+    assertTrue(subscriber.received.isEmpty(), "should emit nothing under a zero limit");
+    assertEquals(0, pages.get(), "should fetch nothing under a zero limit");
+    assertTrue(subscriber.completed, "should complete immediately under a zero limit");
+  }
+
+  @Test void testCancel() {
+    final AtomicInteger pages = new AtomicInteger(0);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    publisher(10, 4, pages).subscribe(subscriber);
+    subscriber.subscription.request(2);
+    subscriber.subscription.cancel();
+    subscriber.subscription.request(5);
+    assertEquals(2, subscriber.received.size(), "should emit nothing after cancellation");
+    assertFalse(subscriber.completed, "cancelled subscription should not complete");
+  }
+
+  @Test void testFetchFailure() {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    QueryPublisher.<Integer, String>create(
+      (after, size) -> Futures.immediateFailedFuture(new IllegalStateException("boom")),
+      String::valueOf,
+      4,
+      MoreExecutors.directExecutor()).subscribe(subscriber);
+    subscriber.subscription.request(1);
+    assertNotNull(subscriber.error, "fetch failures should be emitted as errors");
+    assertTrue(subscriber.received.isEmpty(), "should emit no rows after a failed fetch");
+  }
+
+  @Test void testInvalidDemand() {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    publisher(10, 4, new AtomicInteger(0)).subscribe(subscriber);
+    subscriber.subscription.request(0);
+    assertTrue(subscriber.error instanceof IllegalArgumentException, "non-positive demand should be an error");
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model;
+
+import com.google.firestore.v1.Value;
+import elide.model.PersonRecord.Person;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** Tests for {@link SerializedModel}, which holds serialized model properties in precomputed slots. */
+public final class SerializedModelTest {
+  private static Value string(String value) {
+    return Value.newBuilder().setStringValue(value).build();
+  }
+
+  @Test void testLayoutOrder() {
+    SerializedModel model = SerializedModel.factory(SerializedModel.Layout.forDescriptor(Person.getDescriptor()));
+    model.put("extra", string("x"));
+    model.put("name", string("John Doe"));
+    model.put("key", string("abc123"));
+    assertEquals(List.of("key", "name", "extra"), new ArrayList<>(model.keySet()),
+      "schema fields should follow declaration order, with extra properties after them");
+    assertSame(SerializedModel.Layout.forDescriptor(Person.getDescriptor()),
+      SerializedModel.Layout.forDescriptor(Person.getDescriptor()), "layouts should be computed once per model");
+  }
+
+  @Test void testMapContract() {
+    SerializedModel model = SerializedModel.factory(SerializedModel.Layout.forDescriptor(Person.getDescriptor()));
+    assertTrue(model.isEmpty(), "fresh serialized model should be empty");
+    assertNull(model.put("name", string("John Doe")), "first put should have no previous value");
+    assertEquals(string("John Doe"), model.put("name", string("Jane Doe")), "put should return the previous value");
+    for (int i = 0; i < 10; i++) model.put("extra" + i, string(String.valueOf(i)));
+    assertEquals(11, model.size(), "size should count each distinct property once");
+    assertEquals(string("Jane Doe"), model.get("name"), "should read back schema properties");
+    assertEquals(string("7"), model.get("extra7"), "should read back extra properties");
+    assertEquals(string("9"), model.get("extra9"), "should read back extra properties past the first allocation");
+    assertFalse(model.containsKey("key"), "unset schema properties should be absent");
+    assertNull(model.get("missing"), "unknown properties should be absent");
+
+    assertEquals(string("3"), model.remove("extra3"), "remove should return the removed value");
+    assertFalse(model.containsKey("extra3"), "removed properties should be absent");
+    model.put("extra3", string("again"));
+    assertEquals(string("again"), model.get("extra3"), "removed properties should be writable again");
+
+    Map<String, Value> expected = new TreeMap<>(model);
+    assertEquals(expected, model, "serialized model should equal any map holding the same properties");
+    assertEquals(expected.hashCode(), model.hashCode(), "hash code should follow the map contract");
+    assertSame(model, model.getData(), "data should be handed over without a copy");
+
+    Iterator<Map.Entry<String, Value>> entries = model.entrySet().iterator();
+    entries.next();
+    entries.remove();
+    assertEquals(10, model.size(), "iterator removal should write through");
+    Map.Entry<String, Value> removed = model.entrySet().iterator().next();
+    model.remove(removed.getKey());
+    assertEquals(9, model.size(), "removal should shrink the model");
+    removed.setValue(string("revived"));
+    assertEquals(10, model.size(), "writing through a removed entry should restore it to the count");
+    assertEquals(string("revived"), model.get(removed.getKey()), "writing through an entry should be visible");
+    assertThrows(NullPointerException.class, () -> model.put("name", null), "`null` values should be rejected");
+
+    model.clear();
+    assertTrue(model.isEmpty(), "cleared serialized model should be empty");
+    assertFalse(model.entrySet().iterator().hasNext(), "cleared serialized model should have no entries");
+  }
+
+  @Test void testAdHoc() {
+    SerializedModel model = SerializedModel.factory(Map.of("b", string("2"), "a", string("1")));
+    assertEquals(2, model.size(), "ad-hoc models should hold their initial data");
+    assertEquals(string("1"), model.get("a"), "ad-hoc models should read back initial data");
+    assertFalse(model.getMessage().isPresent(), "ad-hoc models should carry no message");
+  }
+}
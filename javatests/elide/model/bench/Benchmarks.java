@@ -0,0 +1,38 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Entrypoint for the model-layer benchmark suite. Runs every benchmark in this package (or those matching a regex given
+ * on the command line), with the GC profiler attached so that allocation rate ({@code gc.alloc.rate.norm}, in bytes per
+ * operation) is reported next to each throughput score. Any other standard JMH flags, such as {@code -rf json}, apply.
+ */
+public final class Benchmarks {
+  private Benchmarks() { /* disallow construction */ }
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    var cli = new CommandLineOptions(args);
+    var options = new OptionsBuilder().parent(cli).addProfiler(GCProfiler.class);
+    if (cli.getIncludes().isEmpty())
+      options.include(Benchmarks.class.getPackageName() + ".*Benchmark");
+    new Runner(options.build()).run();
+  }
+}
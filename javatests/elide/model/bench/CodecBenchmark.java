@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model.bench;
+
+import elide.model.EncodedModel;
+import elide.model.EncodingMode;
+import elide.model.ModelDeflateException;
+import elide.model.ModelInflateException;
+import elide.model.PersonRecord.Person;
+import elide.model.ProtoModelCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+
+/** Benchmarks {@link ProtoModelCodec} deflate and inflate, in both binary and JSON wire formats. */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class CodecBenchmark {
+  private ProtoModelCodec<Person> binary;
+  private ProtoModelCodec<Person> json;
+  private Person person;
+  private EncodedModel binaryEncoded;
+  private EncodedModel jsonEncoded;
+  private ByteArrayOutputStream sink;
+
+  @Setup(Level.Trial)
+  public void setup() throws ModelDeflateException, IOException {
+    person = Fixtures.person();
+    binary = ProtoModelCodec.forModel(Person.getDefaultInstance(), EncodingMode.BINARY);
+    json = ProtoModelCodec.forModel(Person.getDefaultInstance(), EncodingMode.JSON);
+    binaryEncoded = binary.serialize(person);
+    jsonEncoded = json.serialize(person);
+    sink = new ByteArrayOutputStream(4096);
+  }
+
+  @Benchmark
+  public EncodedModel deflateBinary() throws ModelDeflateException, IOException {
+    return binary.serialize(person);
+  }
+
+  @Benchmark
+  public int deflateBinaryToSink() throws ModelDeflateException, IOException {
+    sink.reset();
+    return binary.serializeTo(person, sink);
+  }
+
+  @Benchmark
+  public Person inflateBinary() throws ModelInflateException, IOException {
+    return binary.deserialize(binaryEncoded);
+  }
+
+  @Benchmark
+  public EncodedModel deflateJson() throws ModelDeflateException, IOException {
+    return json.serialize(person);
+  }
+
+  @Benchmark
+  public int deflateJsonToSink() throws ModelDeflateException, IOException {
+    sink.reset();
+    return json.serializeTo(person, sink);
+  }
+
+  @Benchmark
+  public Person inflateJson() throws ModelInflateException, IOException {
+    return json.deserialize(jsonEncoded);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model.bench;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import elide.model.EncodedModel;
+import elide.model.EncodingMode;
+import elide.model.PersonRecord.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+/** Benchmarks wrapping models in {@link EncodedModel}, and inflating them back out again. */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class EncodedModelBenchmark {
+  private Person person;
+  private String typeName;
+  private byte[] data;
+  private EncodedModel encoded;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    person = Fixtures.person();
+    typeName = person.getDescriptorForType().getFullName();
+    data = person.toByteArray();
+    encoded = EncodedModel.from(person);
+  }
+
+  @Benchmark
+  public EncodedModel from() {
+    return EncodedModel.from(person);
+  }
+
+  @Benchmark
+  public EncodedModel wrap() {
+    return EncodedModel.wrap(typeName, EncodingMode.BINARY, data);
+  }
+
+  @Benchmark
+  public Person inflate() throws InvalidProtocolBufferException {
+    return encoded.inflate(Person.getDefaultInstance());
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model.bench;
+
+import elide.model.PersonRecord.ContactInfo;
+import elide.model.PersonRecord.Person;
+import elide.model.PersonRecord.PersonKey;
+
+import javax.annotation.Nonnull;
+
+
+/** Shared model fixtures for the model-layer benchmarks, built from the {@code PersonRecord} test models. */
+final class Fixtures {
+  private Fixtures() { /* disallow construction */ }
+
+  /** @return Key for the benchmark person record. */
+  static @Nonnull PersonKey key() {
+    return PersonKey.newBuilder()
+      .setId("abc123")
+      .build();
+  }
+
+  /** @return Fully-populated person record, with its key attached. */
+  static @Nonnull Person person() {
+    return Person.newBuilder()
+      .setKey(key())
+      .setName("Jane Doe")
+      .setContactInfo(ContactInfo.newBuilder()
+        .setEmailAddress("jane@doe.com")
+        .setPhoneE164("+12345678901"))
+      .build();
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2022, The Elide Framework Authors. All rights reserved.
+ *
+ * The Gust/Elide framework and tools, and all associated source or object computer code, except where otherwise noted,
+ * are licensed under the Zero Prosperity license, which is enclosed in this repository, in the file LICENSE.txt. Use of
+ * this code in object or source form requires and implies consent and agreement to that license in principle and
+ * practice. Source or object code not listing this header, or unless specified otherwise, remain the property of
+ * Elide LLC and its suppliers, if any. The intellectual and technical concepts contained herein are proprietary to
+ * Elide LLC and its suppliers and may be covered by U.S. and Foreign Patents, or patents in process, and are protected
+ * by trade secret and copyright law. Dissemination of this information, or reproduction of this material, in any form,
+ * is strictly forbidden except in adherence with assigned license requirements.
+ */
+package elide.model.bench;
+
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.protobuf.FieldMask;
+import elide.driver.inmemory.InMemoryAdapter;
+import elide.model.FetchOptions;
+import elide.model.ModelMetadata;
+import elide.model.PersonRecord.Person;
+import elide.model.PersonRecord.PersonKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.Nonnull;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+
+/** Benchmarks reflective model metadata access via {@link ModelMetadata}, and field mask projection. */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class MetadataBenchmark {
+  private ListeningScheduledExecutorService executor;
+  private Person person;
+  private PersonKey key;
+  private Optional<PersonKey> splice;
+  private InMemoryAdapter<PersonKey, Person> adapter;
+  private FetchOptions masked;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    person = Fixtures.person();
+    key = person.getKey();
+    splice = Optional.of(PersonKey.newBuilder().setId("def456").build());
+    executor = MoreExecutors.listeningDecorator(Executors.newSingleThreadScheduledExecutor());
+    adapter = InMemoryAdapter.acquire(
+      PersonKey.getDefaultInstance(),
+      Person.getDefaultInstance(),
+      executor);
+    masked = new FetchOptions() {
+      @Override
+      public @Nonnull Optional<FieldMask> fieldMask() {
+        return Optional.of(FieldMask.newBuilder()
+          .addPaths("name")
+          .addPaths("contact_info.email_address")
+          .build());
+      }
+    };
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws InterruptedException {
+    executor.shutdownNow();
+    executor.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  public Optional<Object> id() {
+    return ModelMetadata.id(key);
+  }
+
+  @Benchmark
+  public Optional<PersonKey> key() {
+    return ModelMetadata.key(person);
+  }
+
+  @Benchmark
+  public Person spliceKey() {
+    return ModelMetadata.spliceKey(person, splice);
+  }
+
+  @Benchmark
+  public Person applyMask() {
+    return adapter.applyMask(person, masked);
+  }
+}